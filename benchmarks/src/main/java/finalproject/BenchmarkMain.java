@@ -0,0 +1,28 @@
+package finalproject;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// runs the benchmarks with allocation profiling (-prof gc) and writes the results as JSON
+// so releases can be compared. takes the usual JMH command line, e.g.
+//   java -jar benchmarks/target/benchmarks.jar Season -rff season.json
+// without -rf/-rff results go to jmh-results.json in the working directory.
+public final class BenchmarkMain {
+
+    static final String DEFAULT_RESULT_FILE = "jmh-results.json";
+
+    private BenchmarkMain() {}
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(cli);
+        options.addProfiler(GCProfiler.class);
+        if (!cli.getResultFormat().hasValue()) options.resultFormat(ResultFormatType.JSON);
+        if (!cli.getResult().hasValue()) options.result(DEFAULT_RESULT_FILE);
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,51 @@
+package finalproject;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// day-number conversions (the old dateToDays looped once per year, so year is the size)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateBenchmark {
+
+    @Param({"1", "2025", "9000"})
+    int year;
+
+    int date;
+    long day;
+
+    @Setup
+    public void setup() {
+        date = PackedDate.pack(year, 12, 20);
+        day = PackedDate.toDays(date);
+    }
+
+    @Benchmark
+    public long toDays() {
+        return PackedDate.toDays(date);
+    }
+
+    @Benchmark
+    public int fromDays() {
+        return PackedDate.fromDays(day);
+    }
+
+    @Benchmark
+    public int plusThirtyDays() {
+        return PackedDate.plusDays(date, 30);
+    }
+}
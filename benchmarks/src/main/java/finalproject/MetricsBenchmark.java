@@ -0,0 +1,43 @@
+package finalproject;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// what timing a stage costs: one histogram record, a clock read plus a record, and a record
+// from four threads at once into the same histogram
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    final Metrics.Histogram histogram = new Metrics.Histogram();
+    long value = 1234;
+
+    @Benchmark
+    public void record() {
+        histogram.record(value);
+    }
+
+    @Benchmark
+    public long timeStage() {
+        return Metrics.record(Metrics.Stage.SEASON, Metrics.start());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordContended() {
+        histogram.record(value);
+    }
+}
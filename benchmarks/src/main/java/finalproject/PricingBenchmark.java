@@ -0,0 +1,84 @@
+package finalproject;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// RoomType.priceFor against the per-night pricing engine, single stays and a month of check-ins,
+// and every room type's stay price with a set of pricing rules applied night by night
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    @Param({"1", "7", "30"})
+    int nights;
+
+    @Param({"31"})
+    int checkIns;
+
+    PricingEngine pricing;
+    PricingEngine ruled;
+    int[] occupancy;
+    long[] typeOut;
+    MainCode.RoomType roomType;
+    MainCode.Season season;
+    long inDay;
+    long outDay;
+    long[] monthOut;
+
+    @Setup
+    public void setup() {
+        pricing = PricingEngine.shared();
+        roomType = MainCode.ROOM_TYPES[3];
+        int in = PackedDate.pack(2026, 12, 1);
+        season = MainCode.determineSeasonForStay(in, PackedDate.plusDays(in, nights));
+        inDay = PackedDate.toDays(in);
+        outDay = inDay + nights;
+        monthOut = new long[checkIns * pricing.typeCount()];
+        ruled = new PricingEngine(MainCode.ROOM_TYPES, SeasonCalendar.shared());
+        ruled.setRules(PricingRules.parse(String.join("\n",
+                "occupancy>=90 => +15%",
+                "occupancy>=75 occupancy<90 => +8%",
+                "season=LEAN occupancy<30 lead<=7 => -20%",
+                "nights>=7 => -5%",
+                "intl season=PEAK,SUPER_PEAK => +5%"), "benchmark"));
+        occupancy = new int[nights];
+        for (int n = 0; n < nights; n++) occupancy[n] = (n * 37) % 101;
+        typeOut = new long[pricing.typeCount()];
+    }
+
+    @Benchmark
+    public long priceFor() {
+        return roomType.priceFor(season, true) * nights;
+    }
+
+    @Benchmark
+    public long stayPrice() {
+        return pricing.stayPrice(3, inDay, outDay, true);
+    }
+
+    @Benchmark
+    public long[] stayPricesWithRules() {
+        ruled.stayPrices(inDay, outDay, true, inDay - 10, occupancy, typeOut);
+        return typeOut;
+    }
+
+    @Benchmark
+    public long[] quoteCheckInRange() {
+        pricing.quoteCheckInRange(inDay, checkIns, nights, true, monthOut);
+        return monthOut;
+    }
+}
@@ -0,0 +1,58 @@
+package finalproject;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// engine quotes answered from the quote cache against quotes priced from scratch
+// (a fresh request shape every call, so the cache always misses)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuoteCacheBenchmark {
+
+    @Param({"1", "10"})
+    int rooms;
+
+    BookingEngine engine;
+    BookingRequest repeated;
+    BookingRequest[] fresh;
+    int next;
+
+    @Setup
+    public void setup() {
+        RoomInventory inventory = new RoomInventory(new int[]{50, 40, 50, 30, 20}, PackedDate.toDays(2026, 1, 1), 800);
+        engine = new BookingEngine(inventory, PricingEngine.shared());
+        repeated = request(20261218, 3);
+        fresh = new BookingRequest[4096];
+        for (int i = 0; i < fresh.length; i++) fresh[i] = request(PackedDate.plusDays(20260201, i % 300), 1 + i / 300);
+    }
+
+    private BookingRequest request(int in, int nights) {
+        return new BookingRequest("Guest", "guest@example.com", "09170000000", 30, 20260101, "Boracay",
+                in, PackedDate.plusDays(in, nights), 3 * rooms, null, rooms, null, null, 0, null);
+    }
+
+    @Benchmark
+    public BookingQuote cachedQuote() {
+        return engine.quote(repeated);
+    }
+
+    @Benchmark
+    public BookingQuote uncachedQuote() {
+        engine.quoteCache().clear();
+        return engine.quote(fresh[next++ & (fresh.length - 1)]);
+    }
+}
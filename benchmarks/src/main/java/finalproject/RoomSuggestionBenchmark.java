@@ -0,0 +1,78 @@
+package finalproject;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// room-mix solving and guest allocation for growing parties (about three guests per room).
+// the solver's memo is bypassed by using a fresh solver per invocation in solveCold.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoomSuggestionBenchmark {
+
+    @Param({"4", "60", "300", "600"})
+    int guests;
+
+    int rooms;
+    int adults;
+    int children;
+    long inDay;
+    int[] available;
+    RoomMixSolver solver;
+    MainCode.RoomType[] party;
+    int[] childAges;
+    GuestAllocator allocator;
+
+    @Setup
+    public void setup() {
+        rooms = (guests + 2) / 3;
+        adults = guests - guests / 3;
+        children = guests / 3;
+        inDay = PackedDate.toDays(PackedDate.pack(2026, 12, 18));
+        available = new int[MainCode.ROOM_TYPES.length];
+        Arrays.fill(available, guests);
+        solver = new RoomMixSolver(PricingEngine.shared(), RoomMixSolver.DEFAULT_CACHE_ENTRIES);
+        party = new MainCode.RoomType[rooms];
+        Arrays.fill(party, MainCode.ROOM_TYPES[MainCode.ROOM_TYPES.length - 1]);
+        childAges = new int[children];
+        for (int i = 0; i < children; i++) childAges[i] = i % 18;  // infants, children and teens
+        allocator = new GuestAllocator(rooms);
+    }
+
+    @Benchmark
+    public RoomMixSolver.RoomMix[] solveCold() {
+        return new RoomMixSolver(PricingEngine.shared(), 1)
+                .solve(guests, 0, inDay, inDay + 4, false, available, RoomMixSolver.DEFAULT_ALTERNATIVES);
+    }
+
+    @Benchmark
+    public RoomMixSolver.RoomMix[] solveFixedRoomsCold() {
+        return new RoomMixSolver(PricingEngine.shared(), 1)
+                .solve(guests, rooms, inDay, inDay + 4, false, available, RoomMixSolver.DEFAULT_ALTERNATIVES);
+    }
+
+    @Benchmark
+    public RoomMixSolver.RoomMix[] solveMemoized() {
+        return solver.solve(guests, rooms, inDay, inDay + 4, false, available, RoomMixSolver.DEFAULT_ALTERNATIVES);
+    }
+
+    @Benchmark
+    public int allocate() {
+        allocator.allocate(party, rooms, 0, adults, childAges);
+        return allocator.adults(rooms - 1);
+    }
+}
@@ -0,0 +1,45 @@
+package finalproject;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// determineSeasonForStay over short and long stays, inside the season calendar
+// window (prefix counts) and outside it (night-by-night fallback)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeasonBenchmark {
+
+    @Param({"1", "7", "30", "365"})
+    int nights;
+
+    @Param({"true", "false"})
+    boolean inWindow;
+
+    int in;
+    int out;
+
+    @Setup
+    public void setup() {
+        in = PackedDate.pack(inWindow ? 2026 : 1900, 11, 15);
+        out = PackedDate.plusDays(in, nights);
+    }
+
+    @Benchmark
+    public MainCode.Season determineSeasonForStay() {
+        return MainCode.determineSeasonForStay(in, out);
+    }
+}
@@ -0,0 +1,93 @@
+package finalproject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// rendering the booking summary, and the receipt in each format, for bookings with more and more rooms
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SummaryBenchmark {
+
+    @Param({"1", "10", "100"})
+    int rooms;
+
+    RoomInventory inventory;
+    BookingConfirmation confirmation;
+    ReceiptRenderer renderer;
+    Writer sink;
+
+    @Setup
+    public void setup() {
+        int today = PackedDate.today();
+        int in = PackedDate.plusDays(today, 30);
+        int[] perType = new int[MainCode.ROOM_TYPES.length];
+        Arrays.fill(perType, rooms);
+        inventory = new RoomInventory(perType, PackedDate.toDays(today), 365);
+        BookingEngine engine = new BookingEngine(inventory, PricingEngine.shared());
+
+        AmenityCatalog catalog = AmenityCatalog.shared();
+        AmenityLedger amenities = new AmenityLedger(catalog);
+        int[] types = new int[rooms];
+        for (int r = 0; r < rooms; r++) {
+            types[r] = 2;
+            for (int a = 0; a < catalog.size(); a++) amenities.add(r, a, 2, a & 1, 3);
+        }
+        BookingRequest request = new BookingRequest("Juan Dela Cruz", "juan@example.com", "09171234567", 35,
+                today, "Boracay", in, PackedDate.plusDays(in, 4), rooms * 2, new int[rooms], rooms, types, null,
+                0, amenities);
+        BookingQuote held = engine.hold(request);
+        if (!held.ok()) throw new IllegalStateException(held.denialMessage);
+        confirmation = engine.confirm(held.holdId, Payment.card("4111111111111111", "123"));
+        renderer = new ReceiptRenderer(inventory);
+        sink = new Writer() {
+            @Override
+            public void write(char[] cbuf, int off, int len) {
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Benchmark
+    public String bookingSummary() {
+        return MainCode.bookingSummary(confirmation, inventory);
+    }
+
+    @Benchmark
+    public void receiptText() throws IOException {
+        renderer.render(confirmation, ReceiptRenderer.Format.TEXT, sink);
+    }
+
+    @Benchmark
+    public void receiptJson() throws IOException {
+        renderer.render(confirmation, ReceiptRenderer.Format.JSON, sink);
+    }
+
+    @Benchmark
+    public void receiptCsv() throws IOException {
+        renderer.render(confirmation, ReceiptRenderer.Format.CSV, sink);
+    }
+}
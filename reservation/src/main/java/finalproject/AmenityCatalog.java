@@ -0,0 +1,80 @@
+package finalproject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// the add-ons a guest can order per room, each priced per person per day in centavos.
+// PWD/Senior guests get PWD_DISCOUNT_PERCENT off. an amenity is referred to by its index here.
+final class AmenityCatalog {
+
+    static final int PWD_DISCOUNT_PERCENT = 20;
+
+    private final String[] names;
+    private final long[] prices;
+
+    AmenityCatalog(String[] names, long[] prices) {
+        if (names.length != prices.length) throw new IllegalArgumentException("Every amenity needs a price");
+        for (int i = 0; i < names.length; i++) {
+            if (names[i] == null || names[i].isEmpty()) throw new IllegalArgumentException("Amenity " + i + " has no name");
+            if (prices[i] < 0) throw new IllegalArgumentException("Amenity " + names[i] + " has a negative price");
+            for (int j = 0; j < i; j++) {
+                if (names[j].equalsIgnoreCase(names[i])) throw new IllegalArgumentException("Amenity " + names[i] + " is listed twice");
+            }
+        }
+        this.names = names.clone();
+        this.prices = prices.clone();
+    }
+
+    // the hotel's own list, from the catalog
+    static AmenityCatalog standard() {
+        HotelCatalog c = HotelCatalog.shared();
+        return new AmenityCatalog(c.amenityNames, c.amenityPrices);
+    }
+
+    // "name=price,name=price,...", prices in pesos with up to two decimals
+    static AmenityCatalog parse(String spec) {
+        List<String> names = new ArrayList<>();
+        List<Long> prices = new ArrayList<>();
+        for (String item : spec.split(",")) {
+            int eq = item.lastIndexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected name=price, got '" + item.trim() + "'");
+            names.add(item.substring(0, eq).trim());
+            try {
+                prices.add(Money.parse(item.substring(eq + 1)));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad price in '" + item.trim() + "'");
+            }
+        }
+        long[] p = new long[prices.size()];
+        for (int i = 0; i < p.length; i++) p[i] = prices.get(i);
+        return new AmenityCatalog(names.toArray(new String[0]), p);
+    }
+
+    // process-wide catalog; override with -Dhotel.amenities=name=price,...
+    private static final class Holder {
+        static final AmenityCatalog INSTANCE = System.getProperty("hotel.amenities") == null
+                ? standard() : parse(System.getProperty("hotel.amenities"));
+    }
+
+    static AmenityCatalog shared() {
+        return Holder.INSTANCE;
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    String name(int amenity) {
+        return names[amenity];
+    }
+
+    long price(int amenity) {
+        return prices[amenity];
+    }
+
+    // index of the amenity with this name (any case), or -1
+    int indexOf(String name) {
+        for (int i = 0; i < names.length; i++) if (names[i].equalsIgnoreCase(name)) return i;
+        return -1;
+    }
+}
@@ -0,0 +1,252 @@
+package finalproject;
+
+import java.util.Arrays;
+
+// the amenities ordered for a booking, one line per (room, amenity) actually used, kept
+// column by column. totals and per-amenity aggregates are updated as lines are added, so
+// a booking costs memory in proportion to what was ordered, not rooms x catalog size.
+// amounts are centavos (see Money); a line's discount is rounded to the centavo and the
+// aggregates and totals are sums of the lines, so they always add up.
+//
+// requests keep a frozen copy (see frozenCopy): lines sorted by room then amenity,
+// arrays trimmed, no more adds. a frozen ledger can be shared between threads.
+final class AmenityLedger {
+
+    private static final int[] NO_INTS = new int[0];
+    private static final long[] NO_LONGS = new long[0];
+
+    static final long MIXED_PRICES = -1;  // unitPriceOf: the amenity's lines were priced differently
+
+    final AmenityCatalog catalog;
+
+    private int lines;
+    private int[] room = NO_INTS, amenity = NO_INTS, persons = NO_INTS, pwd = NO_INTS, days = NO_INTS;
+    private long[] price = NO_LONGS;  // unit price when the line was added
+
+    // per amenity used, ordered by amenity index
+    private int used;
+    private int[] aggAmenity = NO_INTS, aggPersons = NO_INTS, aggPwd = NO_INTS, aggMaxDays = NO_INTS;
+    private long[] aggUnit = NO_LONGS, aggSubtotal = NO_LONGS, aggDiscount = NO_LONGS;
+
+    private long subtotal, discount;
+    private boolean frozen;
+
+    AmenityLedger(AmenityCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    // at the catalog's current price; lines for nobody are skipped
+    AmenityLedger add(int room, int amenity, int persons, int pwd, int days) {
+        if (amenity < 0 || amenity >= catalog.size()) throw new IllegalArgumentException("Unknown amenity " + amenity);
+        return add(room, amenity, persons, pwd, days, catalog.price(amenity));
+    }
+
+    // at a price fixed earlier, e.g. a recovered booking's
+    AmenityLedger add(int room, int amenity, int persons, int pwd, int days, long unitPrice) {
+        if (frozen) throw new IllegalStateException("Ledger is frozen");
+        if (amenity < 0 || amenity >= catalog.size()) throw new IllegalArgumentException("Unknown amenity " + amenity);
+        if (persons == 0) return this;
+        if (lines == this.room.length) grow();
+        this.room[lines] = room;
+        this.amenity[lines] = amenity;
+        this.persons[lines] = persons;
+        this.pwd[lines] = pwd;
+        this.days[lines] = days;
+        this.price[lines] = unitPrice;
+        long lineSubtotal = lineSubtotal(lines), lineDiscount = lineDiscount(lines);
+        lines++;
+
+        subtotal = Money.plus(subtotal, lineSubtotal);
+        discount = Money.plus(discount, lineDiscount);
+        int k = aggregateSlot(amenity, unitPrice);
+        if (aggUnit[k] != unitPrice) aggUnit[k] = MIXED_PRICES;
+        aggPersons[k] += persons;
+        aggPwd[k] += pwd;
+        aggMaxDays[k] = Math.max(aggMaxDays[k], days);
+        aggSubtotal[k] = Money.plus(aggSubtotal[k], lineSubtotal);
+        aggDiscount[k] = Money.plus(aggDiscount[k], lineDiscount);
+        return this;
+    }
+
+    // sorted by room then amenity, trimmed and frozen; a frozen ledger is returned as is
+    AmenityLedger frozenCopy() {
+        if (frozen) return this;
+        if (lines >= 1 << 24) throw new IllegalStateException("Too many amenity lines");
+        long[] order = new long[lines];  // sort key above the line index
+        for (int i = 0; i < lines; i++) order[i] = ((long) room[i] * catalog.size() + amenity[i]) << 24 | i;
+        Arrays.sort(order);
+        AmenityLedger copy = new AmenityLedger(catalog);
+        copy.ensure(lines);
+        for (long o : order) {
+            int i = (int) (o & ((1 << 24) - 1));
+            copy.add(room[i], amenity[i], persons[i], pwd[i], days[i], price[i]);
+        }
+        copy.frozen = true;
+        return copy;
+    }
+
+    // ------- lines -------
+
+    int lines() {
+        return lines;
+    }
+
+    int room(int line) {
+        return room[line];
+    }
+
+    int amenity(int line) {
+        return amenity[line];
+    }
+
+    int persons(int line) {
+        return persons[line];
+    }
+
+    int pwd(int line) {
+        return pwd[line];
+    }
+
+    int days(int line) {
+        return days[line];
+    }
+
+    long unitPrice(int line) {
+        return price[line];
+    }
+
+    long lineSubtotal(int line) {
+        return Money.times(Money.times(price[line], persons[line]), days[line]);
+    }
+
+    long lineDiscount(int line) {
+        return Money.percentOf(Money.times(Money.times(price[line], pwd[line]), days[line]), AmenityCatalog.PWD_DISCOUNT_PERCENT);
+    }
+
+    // ------- per amenity used -------
+
+    int amenitiesUsed() {
+        return used;
+    }
+
+    int usedAmenity(int k) {
+        return aggAmenity[k];
+    }
+
+    int totalPersons(int k) {
+        return aggPersons[k];
+    }
+
+    int totalPwd(int k) {
+        return aggPwd[k];
+    }
+
+    // longest any room has it
+    int maxDays(int k) {
+        return aggMaxDays[k];
+    }
+
+    // the lines' unit price, or MIXED_PRICES when they differ (the catalog changed in between)
+    long unitPriceOf(int k) {
+        return aggUnit[k];
+    }
+
+    long subtotalOf(int k) {
+        return aggSubtotal[k];
+    }
+
+    long discountOf(int k) {
+        return aggDiscount[k];
+    }
+
+    // ------- totals -------
+
+    long subtotal() {
+        return subtotal;
+    }
+
+    long discount() {
+        return discount;
+    }
+
+    long total() {
+        return subtotal - discount;
+    }
+
+    boolean isEmpty() {
+        return lines == 0;
+    }
+
+    // same lines (in the same order) over the same catalog
+    boolean sameLines(AmenityLedger o) {
+        if (o == this) return true;
+        if (o.catalog != catalog || o.lines != lines) return false;
+        for (int i = 0; i < lines; i++) {
+            if (room[i] != o.room[i] || amenity[i] != o.amenity[i] || persons[i] != o.persons[i] || pwd[i] != o.pwd[i]
+                    || days[i] != o.days[i] || price[i] != o.price[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int linesHash() {
+        int h = lines;
+        for (int i = 0; i < lines; i++) {
+            h = h * 31 + room[i];
+            h = h * 31 + amenity[i];
+            h = h * 31 + persons[i];
+            h = h * 31 + pwd[i];
+            h = h * 31 + days[i];
+            h = h * 31 + Long.hashCode(price[i]);
+        }
+        return h;
+    }
+
+    // ------- storage -------
+
+    private void grow() {
+        ensure(Math.max(4, lines * 2));
+    }
+
+    private void ensure(int capacity) {
+        if (capacity <= room.length) return;
+        room = Arrays.copyOf(room, capacity);
+        amenity = Arrays.copyOf(amenity, capacity);
+        persons = Arrays.copyOf(persons, capacity);
+        pwd = Arrays.copyOf(pwd, capacity);
+        days = Arrays.copyOf(days, capacity);
+        price = Arrays.copyOf(price, capacity);
+    }
+
+    // slot of the amenity's aggregates, added in index order (at unitPrice) if new
+    private int aggregateSlot(int a, long unitPrice) {
+        int k = 0;
+        while (k < used && aggAmenity[k] < a) k++;
+        if (k < used && aggAmenity[k] == a) return k;
+        if (used == aggAmenity.length) {
+            int n = Math.min(catalog.size(), Math.max(2, used * 2));
+            aggAmenity = Arrays.copyOf(aggAmenity, n);
+            aggPersons = Arrays.copyOf(aggPersons, n);
+            aggPwd = Arrays.copyOf(aggPwd, n);
+            aggMaxDays = Arrays.copyOf(aggMaxDays, n);
+            aggUnit = Arrays.copyOf(aggUnit, n);
+            aggSubtotal = Arrays.copyOf(aggSubtotal, n);
+            aggDiscount = Arrays.copyOf(aggDiscount, n);
+        }
+        int move = used - k;
+        System.arraycopy(aggAmenity, k, aggAmenity, k + 1, move);
+        System.arraycopy(aggPersons, k, aggPersons, k + 1, move);
+        System.arraycopy(aggPwd, k, aggPwd, k + 1, move);
+        System.arraycopy(aggMaxDays, k, aggMaxDays, k + 1, move);
+        System.arraycopy(aggUnit, k, aggUnit, k + 1, move);
+        System.arraycopy(aggSubtotal, k, aggSubtotal, k + 1, move);
+        System.arraycopy(aggDiscount, k, aggDiscount, k + 1, move);
+        aggAmenity[k] = a;
+        aggPersons[k] = aggPwd[k] = aggMaxDays[k] = 0;
+        aggUnit[k] = unitPrice;
+        aggSubtotal[k] = aggDiscount[k] = 0;
+        used++;
+        return k;
+    }
+}
@@ -0,0 +1,165 @@
+package finalproject;
+
+import finalproject.MainCode.RoomType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// flexible-date search: "any 3 nights in December for 6 people". for every check-in day of a
+// window it answers whether the party fits for the stay, with the cheapest room mix and its
+// price, instead of the caller trying one date at a time.
+//
+// a search builds a min segment tree per room type over the window's nightly free counts,
+// read from the inventory's taken counts (RoomInventory.takenRooms) in one pass, so bookings
+// pay nothing for it. a room has to be free for the whole stay, so the lowest nightly count
+// over the stay is only an upper bound on the rooms a stay can get; it throws out full dates
+// in O(log nights) per type, and only dates that pass are counted exactly from the room
+// bitmaps (stopping at what the party could use) and handed to the room mix solver, at the
+// engine's prices (pricing rules included) for a booking made today.
+// an option's total is the rooms' part of what /quote would charge for the same stay.
+final class AvailabilitySearch {
+
+    static final int MAX_WINDOW_DAYS = 366;
+
+    private static final int TYPES = MainCode.ROOM_TYPES.length;
+
+    // one feasible check-in day
+    static final class Option {
+        final int checkIn;               // yyyymmdd
+        final int checkOut;
+        final RoomMixSolver.RoomMix mix;  // cheapest mix
+        final long total;                // centavos: the mix's rooms as a quote prices them, group rate included
+
+        Option(int checkIn, int checkOut, RoomMixSolver.RoomMix mix, long total) {
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+            this.mix = mix;
+            this.total = total;
+        }
+    }
+
+    private final BookingEngine engine;
+    private final RoomInventory inventory;
+    private final RoomRegistry registry;
+    private final RoomMixSolver solver;
+
+    AvailabilitySearch(BookingEngine engine) {
+        this.engine = engine;
+        this.inventory = engine.inventory();
+        this.registry = inventory.registry;
+        // its own small memo: a window solves a stay per day, and few of them are asked again
+        this.solver = new RoomMixSolver(engine.pricing(), RoomMixSolver.SEARCH_CACHE_ENTRIES);
+    }
+
+    private static final class Holder {
+        static final AvailabilitySearch INSTANCE = new AvailabilitySearch(BookingEngine.shared());
+    }
+
+    static AvailabilitySearch shared() {
+        return Holder.INSTANCE;
+    }
+
+    // every check-in day in [from, to] (yyyymmdd, both inclusive) on which the party fits
+    // for `nights` nights at the destination, in date order. numRooms <= 0 lets each day
+    // take whatever room count is cheapest. prices are those of a booking made on today.
+    // days outside the booking window are skipped
+    List<Option> search(String destination, int adults, int[] childAges, int numRooms, int nights, int from, int to,
+                        int today) {
+        int property = registry.property(destination);
+        if (property < 0) throw new IllegalArgumentException(DenialReason.UNKNOWN_DESTINATION.message(destination));
+        DenialReason d = BookingEngine.checkGuests(adults, childAges.length);
+        if (d != null) throw new IllegalArgumentException(d.message());
+        for (int age : childAges) {
+            if (age < 0 || age > 17) throw new IllegalArgumentException(DenialReason.INVALID_CHILD_AGE.message());
+        }
+        if (nights < 1) throw new IllegalArgumentException("A stay is at least one night");
+        if (!PackedDate.isValid(from) || !PackedDate.isValid(to) || !PackedDate.isValid(today)) throw new IllegalArgumentException(DenialReason.INVALID_DATE.message());
+        long firstDay = PackedDate.toDays(from), lastDay = PackedDate.toDays(to);
+        if (lastDay < firstDay) throw new IllegalArgumentException("The window ends before it starts");
+        if (lastDay - firstDay >= MAX_WINDOW_DAYS) throw new IllegalArgumentException("The window is over " + MAX_WINDOW_DAYS + " days");
+
+        List<Option> out = new ArrayList<>();
+        int guests = BookingEngine.totalGuests(adults, childAges);
+        if (numRooms > 0 && !BookingEngine.canFit(guests, numRooms)) return out;
+
+        // rooms of a type the party could ever use, as the solver clips them
+        int[] useful = new int[TYPES];
+        for (int t = 0; t < TYPES; t++) {
+            int cap = MainCode.ROOM_TYPES[t].capacity;
+            useful[t] = Math.min(registry.roomCount(property, t), numRooms > 0 ? numRooms : (guests + cap - 1) / cap);
+        }
+        int[] bound = new int[TYPES], available = new int[TYPES];
+        long bookedDay = PackedDate.toDays(today);
+        firstDay = Math.max(firstDay, Math.max(inventory.originDay, bookedDay));  // a stay can't start in the past
+        lastDay = Math.min(lastDay, inventory.originDay + inventory.horizon - nights);
+        if (firstDay > lastDay) return out;
+
+        // free rooms per night of every stay the window can start, per type the party could use
+        int first = (int) (firstDay - inventory.originDay), span = (int) (lastDay - firstDay) + nights;
+        MinTree[] free = new MinTree[TYPES];
+        int[] counts = new int[span];
+        for (int t = 0; t < TYPES; t++) {
+            if (useful[t] == 0) continue;
+            int rooms = registry.roomCount(property, t);
+            for (int n = 0; n < span; n++) counts[n] = rooms - inventory.takenRooms(property, t, first + n);
+            free[t] = new MinTree(counts, span);
+        }
+
+        for (long day = firstDay; day <= lastDay; day++) {
+            int night = (int) (day - firstDay);
+            long beds = 0, rooms = 0;
+            for (int t = 0; t < TYPES; t++) {
+                bound[t] = useful[t] == 0 ? 0 : Math.min(useful[t], free[t].min(night, night + nights));
+                RoomType rt = MainCode.ROOM_TYPES[t];
+                beds += (long) bound[t] * (rt.capacity + rt.extraBedsAllowed);
+                rooms += bound[t];
+            }
+            if (beds < guests || rooms < numRooms) continue;
+            for (int t = 0; t < TYPES; t++) {
+                available[t] = bound[t] == 0 ? 0 : inventory.countFree(property, t, day, day + nights, bound[t]);
+            }
+            long[] prices = engine.stayPrices(property, day, day + nights, bookedDay);
+            RoomMixSolver.RoomMix mix = solver.cheapest(guests, numRooms, prices, RoomMixSolver.BED_COST, available);
+            if (mix != null) out.add(new Option(PackedDate.fromDays(day), PackedDate.fromDays(day + nights), mix, total(mix, prices)));
+        }
+        return out;
+    }
+
+    // the rooms of mix at these stay prices, as BookingEngine.price charges them
+    private static long total(RoomMixSolver.RoomMix mix, long[] prices) {
+        int groupOff = MainCode.groupPercent(mix.rooms());
+        long total = 0;
+        for (int t = 0; t < TYPES; t++) {
+            if (mix.counts[t] > 0) total = Money.plus(total, Money.times(BookingEngine.roomStayTotal(prices[t], groupOff), mix.counts[t]));
+        }
+        return total;
+    }
+
+    // lowest value over a range of nights, iterative (bottom-up) over a power-of-two leaf row.
+    // built once from the values and only read, by the search that built it
+    private static final class MinTree {
+        private final int leaves;
+        private final int[] min;  // node i covers children 2i and 2i + 1; leaf n is at leaves + n
+
+        // over values[0, nights), in O(nights)
+        MinTree(int[] values, int nights) {
+            int size = 1;
+            while (size < nights) size <<= 1;
+            this.leaves = size;
+            this.min = new int[2 * size];
+            System.arraycopy(values, 0, min, size, nights);
+            Arrays.fill(min, size + nights, 2 * size, Integer.MAX_VALUE);  // nights past the end never limit a stay
+            for (int i = size - 1; i > 0; i--) min[i] = Math.min(min[2 * i], min[2 * i + 1]);
+        }
+
+        // over nights [from, to)
+        int min(int from, int to) {
+            int m = Integer.MAX_VALUE;
+            for (int lo = from + leaves, hi = to + leaves; lo < hi; lo >>>= 1, hi >>>= 1) {
+                if ((lo & 1) != 0) m = Math.min(m, min[lo++]);
+                if ((hi & 1) != 0) m = Math.min(m, min[--hi]);
+            }
+            return m;
+        }
+    }
+}
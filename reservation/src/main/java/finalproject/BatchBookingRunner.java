@@ -0,0 +1,476 @@
+package finalproject;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+// loads bookings in bulk: partner channel exports, or a past day replayed against new prices.
+// the input is CSV with a header row (columns below) or JSON lines, each line a /hold request
+// of BookingHttpServer plus an optional "payment" and "today" (yyyy-mm-dd, the day it was booked).
+//
+// records are read in chunks. a chunk is parsed and priced on a fork-join pool while the
+// chunk before it is committed; commits (hold, then confirm when the record pays) run on one
+// thread in input order. a quote priced ahead is only used when none of its nights changed
+// since (see BookingEngine.hold), so every record ends the same way as if the file had been
+// booked one record at a time, however many threads priced it.
+//
+// each record gets a row in the outcome file: line,status,id,grandTotal,reason,message with
+// status BOOKED, HELD (no payment given), DENIED (reason and message as the console prints
+// them) or INVALID (the record could not be read). rows are written once the chunk's
+// bookings are on disk. report() sums it up with throughput and per-record latency.
+final class BatchBookingRunner {
+
+    static final int DEFAULT_CHUNK = 1024;
+
+    // CSV columns, by header name; list cells are split on ';' and an amenity is
+    // room:amenity:persons:pwd:days with the room 1-based and the amenity by name or index
+    static final String[] CSV_COLUMNS = {"bookerName", "bookerEmail", "bookerContact", "bookerAge", "destination",
+            "checkIn", "checkOut", "adults", "childAges", "rooms", "roomTypes", "roomIds", "extraBeds", "amenities",
+            "today", "paymentMethod", "amount", "cardNumber", "cvv"};
+    static final String OUTCOME_HEADER = "line,status,id,grandTotal,reason,message";
+
+    enum Format { CSV, JSON_LINES }
+
+    enum Status { BOOKED, HELD, DENIED, INVALID }
+
+    private static final int PRICE_SPLIT = 16;  // records per pricing task
+
+    private final BookingEngine engine;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final int defaultToday;
+
+    private int[] columnAt;  // CSV: CSV_COLUMNS index -> cell index, -1 when missing; null for JSON lines
+    private int columns;     // CSV: cells in the header
+
+    private final long[] byStatus = new long[Status.values().length];
+    private final long[] byDenial = new long[DenialReason.values().length];
+    private long repriced;
+    private long[] latencies = new long[1024];  // nanos per record, parse + price + commit
+    private int latencyCount;
+    private long elapsedNanos;
+
+    BatchBookingRunner(BookingEngine engine, ForkJoinPool pool, int chunkSize, int defaultToday) {
+        if (chunkSize < 1) throw new IllegalArgumentException("Chunk size must be at least 1");
+        this.engine = engine;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.defaultToday = defaultToday;
+    }
+
+    // one input record on its way through
+    private static final class Item {
+        final long line;
+        final String text;
+        BookingRequest request;
+        Payment payment;
+        String error;           // why the record could not be read
+        BookingQuote quote;     // priced ahead
+        long stamp, priceVersion;
+        long nanos;             // spent on it so far
+
+        Status status;
+        long id;
+        boolean priced;         // grandTotal is known
+        long grandTotal;
+        DenialReason denial;
+        String message;
+
+        Item(long line, String text) {
+            this.line = line;
+            this.text = text;
+        }
+    }
+
+    // reads every record from in and writes its outcome to outcomes
+    void run(BufferedReader in, Format format, Writer outcomes) throws IOException {
+        long start = System.nanoTime();
+        Chunks reader = new Chunks(in);
+        columnAt = format == Format.CSV ? reader.header() : null;
+        columns = reader.headerCells;
+        outcomes.write(OUTCOME_HEADER);
+        outcomes.write('\n');
+        Item[] current = reader.next();
+        ForkJoinTask<Void> pricing = price(current);
+        while (current.length > 0) {
+            pricing.join();
+            Item[] next = reader.next();
+            ForkJoinTask<Void> nextPricing = price(next);
+            for (Item it : current) commit(it);
+            engine.awaitDurable();
+            for (Item it : current) writeOutcome(outcomes, it);
+            current = next;
+            pricing = nextPricing;
+        }
+        outcomes.flush();
+        elapsedNanos = System.nanoTime() - start;
+    }
+
+    private ForkJoinTask<Void> price(Item[] items) {
+        return pool.submit(new Price(items, 0, items.length));
+    }
+
+    private final class Price extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final Item[] items;
+        final int from, to;
+
+        Price(Item[] items, int from, int to) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PRICE_SPLIT) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Price(items, from, mid), new Price(items, mid, to));
+                return;
+            }
+            for (int i = from; i < to; i++) priceOne(items[i]);
+        }
+    }
+
+    private void priceOne(Item it) {
+        long t0 = System.nanoTime();
+        try {
+            parse(it);
+            it.stamp = engine.quoteCache().stamp();
+            it.priceVersion = engine.pricing().version();
+            it.quote = engine.quote(it.request);
+        } catch (IllegalArgumentException e) {
+            it.error = e.getMessage();
+        } catch (RuntimeException e) {  // a bad record fails on its own, not the whole batch
+            it.error = "Could not price: " + e;
+        }
+        it.nanos = System.nanoTime() - t0;
+    }
+
+    private void commit(Item it) {
+        long t0 = System.nanoTime();
+        if (it.error != null) {
+            it.status = Status.INVALID;
+            it.message = it.error;
+        } else {
+            BookingRequest req = it.request;
+            if (PackedDate.isValid(req.checkIn) && PackedDate.isValid(req.checkOut)
+                    && (engine.pricing().version() != it.priceVersion || engine.quoteCache().changedSince(it.stamp,
+                    engine.inventory().registry.property(req.destination), PackedDate.toDays(req.checkIn), PackedDate.toDays(req.checkOut)))) {
+                repriced++;
+            }
+            BookingQuote q = engine.hold(req, it.quote, it.stamp, it.priceVersion);
+            if (!q.ok()) {
+                deny(it, q.denial, q.denialMessage);
+            } else {
+                it.priced = true;
+                it.grandTotal = q.grandTotal;
+                if (it.payment == null) {
+                    it.status = Status.HELD;
+                    it.id = q.holdId;
+                } else {
+                    BookingConfirmation c = engine.confirm(q.holdId, it.payment, false);
+                    if (c.ok()) {
+                        it.status = Status.BOOKED;
+                        it.id = c.bookingId;
+                    } else {
+                        // as on the console, a refused payment ends the reservation
+                        engine.cancelHold(q.holdId);
+                        deny(it, c.denial, c.denialMessage);
+                    }
+                }
+            }
+        }
+        byStatus[it.status.ordinal()]++;
+        if (it.denial != null) byDenial[it.denial.ordinal()]++;
+        if (latencyCount == latencies.length) latencies = Arrays.copyOf(latencies, latencyCount * 2);
+        latencies[latencyCount++] = it.nanos + System.nanoTime() - t0;
+    }
+
+    private static void deny(Item it, DenialReason reason, String message) {
+        it.status = Status.DENIED;
+        it.denial = reason;
+        it.message = message;
+    }
+
+    private static void writeOutcome(Writer out, Item it) throws IOException {
+        StringBuilder sb = new StringBuilder(96);
+        sb.append(it.line).append(',').append(it.status).append(',');
+        if (it.status == Status.BOOKED || it.status == Status.HELD) sb.append(it.id);
+        sb.append(',');
+        if (it.priced) Money.appendTo(sb, it.grandTotal);
+        sb.append(',');
+        if (it.denial != null) sb.append(it.denial.name());
+        sb.append(',');
+        if (it.message != null) csvQuoted(sb, it.message);
+        out.write(sb.append('\n').toString());
+    }
+
+    private static void csvQuoted(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c == '\n' || c == '\r' ? ' ' : c);
+        }
+        sb.append('"');
+    }
+
+    // ------- report -------
+
+    long count(Status status) {
+        return byStatus[status.ordinal()];
+    }
+
+    long records() {
+        long n = 0;
+        for (long c : byStatus) n += c;
+        return n;
+    }
+
+    // quotes priced ahead that had to be worked out again at commit
+    long repriced() {
+        return repriced;
+    }
+
+    void report(PrintStream out) {
+        long n = records();
+        double seconds = elapsedNanos / 1e9;
+        out.printf("%d records in %.3f s (%.0f records/s) on %d pricing threads%n",
+                n, seconds, seconds > 0 ? n / seconds : 0.0, pool.getParallelism());
+        out.printf("  booked %d, held %d, denied %d, invalid %d; %d re-priced at commit%n",
+                count(Status.BOOKED), count(Status.HELD), count(Status.DENIED), count(Status.INVALID), repriced);
+        if (latencyCount > 0) {
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            out.printf("  latency per record: p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                    percentile(sorted, 50) / 1e6, percentile(sorted, 90) / 1e6, percentile(sorted, 99) / 1e6,
+                    sorted[sorted.length - 1] / 1e6);
+        }
+        for (DenialReason d : DenialReason.values()) {
+            if (byDenial[d.ordinal()] > 0) out.printf("  %-28s %d%n", d.name(), byDenial[d.ordinal()]);
+        }
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        return sorted[Math.min(sorted.length - 1, (int) ((long) sorted.length * p / 100))];
+    }
+
+    // ------- input -------
+
+    // hands out the input a chunk at a time; lines stay unparsed until a pricing task gets them
+    private final class Chunks {
+        final BufferedReader in;
+        long lineNo;
+        int headerCells;
+        boolean eof;
+
+        Chunks(BufferedReader in) {
+            this.in = in;
+        }
+
+        Item[] next() throws IOException {
+            List<Item> items = new ArrayList<>(chunkSize);
+            while (!eof && items.size() < chunkSize) {
+                String line = in.readLine();
+                if (line == null) {
+                    eof = true;
+                    break;
+                }
+                lineNo++;
+                if (!line.isBlank()) items.add(new Item(lineNo, line));
+            }
+            return items.toArray(new Item[0]);
+        }
+
+        // the first line that is not blank, as column positions
+        int[] header() throws IOException {
+            int[] at = new int[CSV_COLUMNS.length];
+            Arrays.fill(at, -1);
+            String line;
+            do {
+                line = in.readLine();
+                if (line == null) {
+                    eof = true;
+                    return at;
+                }
+                lineNo++;
+            } while (line.isBlank());
+            List<String> names = splitCsv(line);
+            headerCells = names.size();
+            for (int i = 0; i < names.size(); i++) {
+                int c = Arrays.asList(CSV_COLUMNS).indexOf(names.get(i).trim());
+                if (c < 0) throw new IllegalArgumentException("Unknown CSV column " + names.get(i));
+                at[c] = i;
+            }
+            return at;
+        }
+    }
+
+    private void parse(Item it) {
+        int today = defaultToday;
+        Map<String, Object> fields;
+        if (columnAt == null) {
+            fields = Json.asObject(Json.parse(it.text), "Record");
+            it.payment = BookingHttpServer.parsePayment(fields.get("payment"));
+        } else {
+            fields = csvFields(splitCsv(it.text));
+            String method = (String) fields.get("paymentMethod");
+            if (method == null) {
+                it.payment = null;
+            } else if (method.equalsIgnoreCase("cash")) {
+                String amount = (String) fields.get("amount");
+                if (amount == null) throw new IllegalArgumentException("amount is required for cash");
+                it.payment = Payment.cash(Money.parse(amount));
+            } else if (method.equalsIgnoreCase("card")) {
+                it.payment = Payment.card((String) fields.get("cardNumber"), (String) fields.get("cvv"));
+            } else {
+                throw new IllegalArgumentException("paymentMethod must be cash or card");
+            }
+        }
+        String day = Json.string(fields, "today", null);
+        if (day != null) {
+            today = PackedDate.parseIso(day);
+            if (!PackedDate.isValid(today)) throw new IllegalArgumentException("today must be yyyy-mm-dd");
+        }
+        it.request = BookingHttpServer.parseRequest(fields, today);
+    }
+
+    // the cells of a CSV row as the JSON request fields they stand for
+    private Map<String, Object> csvFields(List<String> cells) {
+        int[] at = columnAt;
+        if (cells.size() > columns) throw new IllegalArgumentException("Expected at most " + columns + " cells, got " + cells.size());
+        Map<String, Object> m = new HashMap<>();
+        for (int c = 0; c < CSV_COLUMNS.length; c++) {
+            if (at[c] < 0 || at[c] >= cells.size()) continue;
+            String v = cells.get(at[c]).trim();
+            if (v.isEmpty()) continue;
+            String name = CSV_COLUMNS[c];
+            switch (name) {
+                case "bookerAge": case "adults": case "rooms": case "extraBeds":
+                    m.put(name, wholeNumber(name, v));
+                    break;
+                case "childAges": case "roomIds": case "roomTypes": {
+                    List<Object> list = new ArrayList<>();
+                    for (String s : v.split(";")) {
+                        s = s.trim();
+                        list.add(name.equals("roomTypes") && !isWholeNumber(s) ? s : wholeNumber(name, s));
+                    }
+                    m.put(name, list);
+                    break;
+                }
+                case "amenities": {
+                    List<Object> list = new ArrayList<>();
+                    for (String s : v.split(";")) {
+                        String[] p = s.split(":", -1);
+                        if (p.length != 5) throw new IllegalArgumentException("amenities must be room:amenity:persons:pwd:days");
+                        Map<String, Object> a = new HashMap<>();
+                        a.put("room", wholeNumber("amenity room", p[0].trim()));
+                        a.put("amenity", isWholeNumber(p[1].trim()) ? wholeNumber("amenity", p[1].trim()) : p[1].trim());
+                        a.put("persons", wholeNumber("amenity persons", p[2].trim()));
+                        a.put("pwd", wholeNumber("amenity pwd", p[3].trim()));
+                        a.put("days", wholeNumber("amenity days", p[4].trim()));
+                        list.add(a);
+                    }
+                    m.put(name, list);
+                    break;
+                }
+                default:
+                    m.put(name, v);
+            }
+        }
+        return m;
+    }
+
+    private static boolean isWholeNumber(String s) {
+        if (s.isEmpty()) return false;
+        for (int i = s.charAt(0) == '-' ? 1 : 0; i < s.length(); i++) if (!Character.isDigit(s.charAt(i))) return false;
+        return s.length() > (s.charAt(0) == '-' ? 1 : 0);
+    }
+
+    private static Long wholeNumber(String field, String s) {
+        try {
+            return Long.parseLong(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " must be a whole number");
+        }
+    }
+
+    // one CSV row; a quoted cell may hold commas and "" for a quote
+    static List<String> splitCsv(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    cell.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("Unterminated quote");
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    // java -cp reservation.jar finalproject.BatchBookingRunner <requests.csv | requests.jsonl> [outcomes.csv]
+    // CSV when the file name ends in .csv, JSON lines otherwise. the outcomes default to
+    // <input>.outcomes.csv. -Dhotel.batch.threads sets the pricing threads (default: cores),
+    // -Dhotel.batch.chunk the records per chunk, -Dhotel.batch.today=yyyy-mm-dd the booking day
+    // of records without one (default: today)
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: BatchBookingRunner <requests.csv | requests.jsonl> [outcomes.csv]");
+            System.exit(2);
+        }
+        Metrics.publish();
+        Path input = Paths.get(args[0]);
+        Path output = args.length > 1 ? Paths.get(args[1]) : Paths.get(args[0] + ".outcomes.csv");
+        Format format = input.getFileName().toString().toLowerCase().endsWith(".csv") ? Format.CSV : Format.JSON_LINES;
+        int today = PackedDate.today();
+        String day = System.getProperty("hotel.batch.today");
+        if (day != null) {
+            today = PackedDate.parseIso(day);
+            if (!PackedDate.isValid(today)) throw new IllegalArgumentException("hotel.batch.today must be yyyy-mm-dd");
+        }
+        ForkJoinPool pool = new ForkJoinPool(Integer.getInteger("hotel.batch.threads", Runtime.getRuntime().availableProcessors()));
+        BatchBookingRunner runner = new BatchBookingRunner(BookingEngine.shared(), pool,
+                Integer.getInteger("hotel.batch.chunk", DEFAULT_CHUNK), today);
+        try (BufferedReader in = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             BufferedWriter out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            runner.run(in, format, out);
+        } finally {
+            pool.shutdown();
+        }
+        runner.report(System.out);
+        System.out.println("  outcomes: " + output);
+    }
+}
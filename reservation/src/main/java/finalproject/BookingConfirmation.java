@@ -0,0 +1,41 @@
+package finalproject;
+
+// outcome of paying for a held quote: a booking id and the change due, or a denial
+final class BookingConfirmation {
+
+    final long bookingId;        // 0 when denied
+    final BookingQuote quote;
+    final Payment.Method method;
+    final long amountPaid;  // centavos
+    final long change;
+    final DenialReason denial;
+    final String denialMessage;
+
+    BookingConfirmation(long bookingId, BookingQuote quote, Payment.Method method, long amountPaid, long change) {
+        this.bookingId = bookingId;
+        this.quote = quote;
+        this.method = method;
+        this.amountPaid = amountPaid;
+        this.change = change;
+        this.denial = null;
+        this.denialMessage = null;
+    }
+
+    private BookingConfirmation(BookingQuote quote, DenialReason denial, String denialMessage) {
+        this.bookingId = 0;
+        this.quote = quote;
+        this.method = null;
+        this.amountPaid = 0;
+        this.change = 0;
+        this.denial = denial;
+        this.denialMessage = denialMessage;
+    }
+
+    static BookingConfirmation denied(BookingQuote quote, DenialReason reason, Object... args) {
+        return new BookingConfirmation(quote, reason, reason.message(args));
+    }
+
+    boolean ok() {
+        return denial == null;
+    }
+}
@@ -0,0 +1,751 @@
+package finalproject;
+
+import finalproject.MainCode.RoomType;
+import finalproject.MainCode.Season;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// the booking rules without any prompts: validation, room suggestion, pricing,
+// holds and payment. an engine keeps no per-request state, so one instance can be
+// shared by any number of threads; the inventory and the hold/booking tables are
+// the only shared structures and both are safe for concurrent use.
+final class BookingEngine {
+
+    private static final int HOLD_ATTEMPTS = 3;
+    static final long DEFAULT_HOLD_TTL_SECONDS = 15 * 60;
+
+    private final RoomInventory inventory;
+    private final PricingEngine pricing;
+    private final RoomMixSolver solver;
+    private final QuoteCache quotes;
+    private volatile OccupancyIndex occupancy;  // built when a pricing rule first needs it
+    private final BookingJournal journal;  // null = nothing is persisted
+    // open while snapshot entries are still being decoded into holds/bookings
+    private final CountDownLatch restoring = new CountDownLatch(1);
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final ConcurrentHashMap<Long, BookingQuote> holds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, BookingConfirmation> bookings = new ConcurrentHashMap<>();
+    private final HoldTimerWheel expiry;  // null = holds wait for confirm or cancelHold forever
+    private final LongAdder expired = new LongAdder();
+    // held group blocks (see BookingRequest.block): no ttl, they wait for their release date
+    private final Set<Long> blocks = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean releasing = new AtomicBoolean();  // the block-release thread is running
+    private final LongAdder released = new LongAdder();
+
+    BookingEngine(RoomInventory inventory, PricingEngine pricing) {
+        this(inventory, pricing, QuoteCache.DEFAULT_MAX_ENTRIES, QuoteCache.DEFAULT_TTL_SECONDS * 1_000_000_000L);
+    }
+
+    BookingEngine(RoomInventory inventory, PricingEngine pricing, int quoteCacheEntries, long quoteTtlNanos) {
+        this(inventory, pricing, quoteCacheEntries, quoteTtlNanos, null);
+    }
+
+    BookingEngine(RoomInventory inventory, PricingEngine pricing, int quoteCacheEntries, long quoteTtlNanos,
+                  BookingJournal journal) {
+        this(inventory, pricing, quoteCacheEntries, quoteTtlNanos, journal, 0);
+    }
+
+    // with a journal, the holds and bookings it recovered are put back (rooms included) first.
+    // with holdTtlNanos > 0 a hold neither confirmed nor cancelled by then gives its rooms back;
+    // recovered holds get the whole ttl again
+    BookingEngine(RoomInventory inventory, PricingEngine pricing, int quoteCacheEntries, long quoteTtlNanos,
+                  BookingJournal journal, long holdTtlNanos) {
+        this.inventory = inventory;
+        this.pricing = pricing;
+        this.solver = new RoomMixSolver(pricing, RoomMixSolver.DEFAULT_CACHE_ENTRIES);
+        this.journal = journal;
+        this.expiry = holdTtlNanos > 0 ? new HoldTimerWheel(holdTtlNanos, this::expireHold) : null;
+        // recovered rooms go back before the quote cache starts listening to the inventory
+        if (journal != null) restore(journal.takeRecovery());
+        else restoring.countDown();
+        this.quotes = new QuoteCache(inventory, pricing, quoteCacheEntries, quoteTtlNanos);
+    }
+
+    // snapshots may start once the tables are complete
+    private void attachJournal() {
+        journal.attach(new BookingJournal.Source() {
+            @Override
+            public RoomInventory inventory() {
+                return inventory;
+            }
+
+            @Override
+            public void forEachHold(Consumer<BookingQuote> action) {
+                holds.values().forEach(action);
+            }
+
+            @Override
+            public void forEachBooking(Consumer<BookingConfirmation> action) {
+                bookings.values().forEach(action);
+            }
+
+            @Override
+            public long lastId() {
+                return nextId.get() - 1;
+            }
+        });
+    }
+
+    // override the quote cache with -Dhotel.quoteCache.entries / -Dhotel.quoteCache.ttlSeconds;
+    // -Dhotel.journal.dir keeps bookings and inventory across restarts; -Dhotel.holds.ttlSeconds
+    // is how long a hold keeps its rooms (0 = until confirmed or cancelled)
+    private static final class Holder {
+        static final BookingEngine INSTANCE = new BookingEngine(RoomInventory.shared(), PricingEngine.shared(),
+                Integer.getInteger("hotel.quoteCache.entries", QuoteCache.DEFAULT_MAX_ENTRIES),
+                Long.getLong("hotel.quoteCache.ttlSeconds", QuoteCache.DEFAULT_TTL_SECONDS) * 1_000_000_000L,
+                openJournal(System.getProperty("hotel.journal.dir")),
+                Long.getLong("hotel.holds.ttlSeconds", DEFAULT_HOLD_TTL_SECONDS) * 1_000_000_000L);
+
+        private static BookingJournal openJournal(String dir) {
+            if (dir == null) return null;
+            try {
+                return new BookingJournal(Paths.get(dir), PricingEngine.shared(),
+                        BookingJournal.DEFAULT_SEGMENT_BYTES, !Boolean.getBoolean("hotel.journal.noSync"),
+                        BookingJournal.DEFAULT_SNAPSHOT_EVERY);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    static BookingEngine shared() {
+        return Holder.INSTANCE;
+    }
+
+    RoomInventory inventory() {
+        return inventory;
+    }
+
+    BookingJournal journal() {
+        return journal;
+    }
+
+    QuoteCache quoteCache() {
+        return quotes;
+    }
+
+    PricingEngine pricing() {
+        return pricing;
+    }
+
+    // the rules may start using occupancy on any reload, so the index is made on first use
+    OccupancyIndex occupancy() {
+        OccupancyIndex o = occupancy;
+        if (o == null) {
+            synchronized (this) {
+                o = occupancy;
+                if (o == null) occupancy = o = new OccupancyIndex(inventory);
+            }
+        }
+        return o;
+    }
+
+    // 0 when holds never expire
+    long holdTtlNanos() {
+        return expiry == null ? 0 : expiry.ttlNanos();
+    }
+
+    // holds given up because they outlived the ttl
+    long expiredHolds() {
+        return expired.sum();
+    }
+
+    // blocks given back because their rooming list did not come by the release date
+    long releasedBlocks() {
+        return released.sum();
+    }
+
+    // ------- step checks, shared with the console flow -------
+
+    static DenialReason checkBooker(int age) {
+        return age < 18 ? DenialReason.UNDERAGE : null;
+    }
+
+    DenialReason checkStay(int today, int in, int out) {
+        if (!PackedDate.isValid(today) || !PackedDate.isValid(in) || !PackedDate.isValid(out)) return DenialReason.INVALID_DATE;
+        long inDays = PackedDate.toDays(in);
+        long outDays = PackedDate.toDays(out);
+        if (inDays < PackedDate.toDays(today)) return DenialReason.CHECK_IN_IN_PAST;
+        if (outDays <= inDays) return DenialReason.CHECK_OUT_NOT_AFTER_CHECK_IN;
+        if (!inventory.coversStay(inDays, outDays)) return DenialReason.OUTSIDE_BOOKING_WINDOW;
+        return null;
+    }
+
+    // a block's rooming list is due on or after the day it is booked and no later than check-in
+    static DenialReason checkRelease(int today, int releaseDate, int checkIn) {
+        if (!PackedDate.isValid(releaseDate) || releaseDate < today || releaseDate > checkIn) {
+            return DenialReason.INVALID_RELEASE_DATE;
+        }
+        return null;
+    }
+
+    static DenialReason checkGuests(int adults, int children) {
+        return adults < 0 || children < 0 || (adults == 0 && children == 0) ? DenialReason.NO_GUESTS : null;
+    }
+
+    // 0 = local, 1 = international, -1 = unknown
+    static int destinationKind(String destination) {
+        for (String d : MainCode.LOCAL_DESTINATIONS) if (d.equals(destination)) return 0;
+        for (String d : MainCode.INTERNATIONAL_DESTINATIONS) if (d.equals(destination)) return 1;
+        return -1;
+    }
+
+    // children 12 and older are also counted as adults for room allocation
+    static int totalGuests(int adults, int[] childAges) {
+        int actualAdultCount = adults;
+        for (int age : childAges) if (age >= 12) actualAdultCount++;
+        return actualAdultCount + childAges.length;
+    }
+
+    // true when at least one room type could hold the party in numRooms rooms (extra beds included)
+    static boolean canFit(int totalGuests, int numRooms) {
+        for (RoomType rt : MainCode.ROOM_TYPES) {
+            if (totalGuests <= numRooms * (rt.capacity + rt.extraBedsAllowed)) return true;
+        }
+        return false;
+    }
+
+    // cheapest mix of numRooms rooms (any number when <= 0) free for the stay in the
+    // property (see RoomRegistry.property), at the prices of a booking made on bookedDay, or null
+    RoomMixSolver.RoomMix suggestRooms(int totalGuests, int numRooms, long inDay, long outDay, int property, long bookedDay) {
+        RoomMixSolver.RoomMix[] mixes = suggestAlternatives(totalGuests, numRooms, inDay, outDay, property, bookedDay, 1);
+        return mixes.length == 0 ? null : mixes[0];
+    }
+
+    // the cheapest mixes, best first
+    RoomMixSolver.RoomMix[] suggestAlternatives(int totalGuests, int numRooms, long inDay, long outDay,
+                                                int property, long bookedDay, int alternatives) {
+        if (outDay <= inDay) return new RoomMixSolver.RoomMix[0];
+        long t0 = Metrics.start();
+        RoomMixSolver.RoomMix[] mixes = solver.solve(totalGuests, numRooms, stayPrices(property, inDay, outDay, bookedDay),
+                RoomMixSolver.BED_COST, availableByType(property, inDay, outDay), alternatives);
+        Metrics.record(Metrics.Stage.SUGGEST, t0);
+        return mixes;
+    }
+
+    // price of a room of each type for the stay, with the pricing rules applied as of bookedDay
+    long[] stayPrices(int property, long inDay, long outDay, long bookedDay) {
+        int[] occ = null;
+        if (pricing.rules().usesOccupancy()) {
+            occ = new int[(int) (outDay - inDay)];
+            occupancy().percents(property, inDay, outDay, occ);
+        }
+        long[] prices = new long[MainCode.ROOM_TYPES.length];
+        pricing.stayPrices(inDay, outDay, inventory.registry.international(property), bookedDay, occ, prices);
+        return prices;
+    }
+
+    private int[] availableByType(int property, long inDay, long outDay) {
+        int[] available = new int[MainCode.ROOM_TYPES.length];
+        for (int t = 0; t < available.length; t++) available[t] = inventory.countFree(property, t, inDay, outDay);
+        return available;
+    }
+
+    // both in centavos, so paying exactly the total due is exactly enough
+    static DenialReason checkCash(long paidAmt, long due) {
+        if (paidAmt < 0) return DenialReason.INVALID_AMOUNT;
+        if (paidAmt < due) return DenialReason.INSUFFICIENT_CASH;
+        return null;
+    }
+
+    static DenialReason checkCard(String card) {
+        if (card == null || card.length() != 16) return DenialReason.CARD_LENGTH;
+        for (int i = 0; i < 16; i++) if (!Character.isDigit(card.charAt(i))) return DenialReason.CARD_DIGITS;
+        return null;
+    }
+
+    static DenialReason checkCvv(String cvv) {
+        if (cvv == null || cvv.length() != 3) return DenialReason.CVV_LENGTH;
+        for (int i = 0; i < 3; i++) if (!Character.isDigit(cvv.charAt(i))) return DenialReason.CVV_DIGITS;
+        return null;
+    }
+
+    static DenialReason checkPayment(Payment payment, long due) {
+        if (payment == null) return DenialReason.PAYMENT_NOT_COMPLETED;
+        if (payment.method == Payment.Method.CASH) return checkCash(payment.cashAmount, due);
+        DenialReason d = checkCard(payment.cardNumber);
+        return d != null ? d : checkCvv(payment.cvv);
+    }
+
+    // ------- full flow -------
+
+    // validates and prices the request against current availability, reserves nothing
+    BookingQuote quote(BookingRequest req) {
+        BookingQuote q = evaluate(req);
+        Metrics.denied(q.denial);
+        return q;
+    }
+
+    // like quote, then takes the rooms in the inventory until confirm or cancelHold, or until
+    // the hold ttl runs out
+    BookingQuote hold(BookingRequest req) {
+        BookingQuote q = evaluate(req);
+        if (q.ok()) q = reserve(req, q);
+        Metrics.denied(q.denial);
+        return q;
+    }
+
+    // hold for an answer quote(req) gave earlier, possibly on another thread, after reading
+    // quoteCache().stamp() and pricing().version(). while none of the stay's nights changed
+    // and the prices are the same, that answer is exactly what hold would work out now, so
+    // only the rooms are taken; otherwise the request is evaluated again
+    BookingQuote hold(BookingRequest req, BookingQuote quoted, long stamp, long priceVersion) {
+        if (!PackedDate.isValid(req.checkIn) || !PackedDate.isValid(req.checkOut)) return quoted;  // no nights to watch
+        if (pricing.version() != priceVersion || quotes.changedSince(stamp, inventory.registry.property(req.destination),
+                PackedDate.toDays(req.checkIn), PackedDate.toDays(req.checkOut))) {
+            return hold(req);
+        }
+        if (!quoted.ok()) return quoted;  // counted when it was quoted
+        BookingQuote q = reserve(req, quoted);
+        Metrics.denied(q.denial);
+        return q;
+    }
+
+    private BookingQuote reserve(BookingRequest req, BookingQuote q) {
+        long t0 = Metrics.start();
+        BookingQuote held = take(req, q);
+        Metrics.record(Metrics.Stage.INVENTORY, t0);
+        return held;
+    }
+
+    // picks free rooms of the quoted types and reserves them, retrying when another hold wins a room.
+    // the free rooms of each type are looked up in one scan, however many rooms of it are wanted
+    private BookingQuote take(BookingRequest req, BookingQuote q) {
+        int property = inventory.registry.property(req.destination);
+        int[] ids = new int[req.roomCount];
+        int[] wanted = new int[MainCode.ROOM_TYPES.length];  // rooms of each type the request leaves to us
+        int named = 0;
+        for (int r = 0; r < req.roomCount; r++) {
+            if (req.roomId(r) == BookingRequest.ANY_ROOM) wanted[MainCode.typeIndex(q.rooms[r])]++;
+            else named++;
+        }
+        for (int attempt = 0; attempt < HOLD_ATTEMPTS; attempt++) {
+            for (int r = 0; r < req.roomCount; r++) ids[r] = req.roomId(r);
+            for (int t = 0; t < wanted.length; t++) {
+                if (wanted[t] == 0) continue;
+                // room enough to skip the rooms the request names
+                int[] free = new int[wanted[t] + named];
+                int n = inventory.freeRooms(property, t, q.inDay, q.outDay, free), k = 0;
+                for (int r = 0; r < req.roomCount; r++) {
+                    if (ids[r] != BookingRequest.ANY_ROOM || MainCode.typeIndex(q.rooms[r]) != t) continue;
+                    while (k < n && named > 0 && isNamed(req, free[k])) k++;
+                    if (k == n) return BookingQuote.denied(req, DenialReason.NO_ROOMS_AVAILABLE, q.rooms[r].name);
+                    ids[r] = free[k++];
+                }
+            }
+            if (inventory.reserveAll(ids, ids.length, q.inDay, q.outDay)) {
+                long holdId = nextId.getAndIncrement();
+                BookingQuote held = q.held(holdId, ids);
+                holds.put(holdId, held);
+                if (journal != null) journal.appendHold(held);
+                if (req.isBlock()) trackBlock(holdId);
+                else if (expiry != null) expiry.schedule(holdId);
+                return held;
+            }
+        }
+        for (int id : ids) {
+            if (!inventory.isFree(id, q.inDay, q.outDay)) return BookingQuote.denied(req, DenialReason.ROOM_TAKEN, inventory.label(id));
+        }
+        return BookingQuote.denied(req, DenialReason.ROOM_TAKEN, inventory.label(ids[0]));
+    }
+
+    // the held booking with these amenities ordered instead, at the prices its rooms were held
+    // at: the hold keeps its id, rooms and expiry, and confirm charges the new total. lets a
+    // client hold the rooms first and ask for amenities while nobody else can take them. like
+    // confirm it must not race the hold's own confirm or cancel (run it on the hold's shard)
+    BookingQuote changeAmenities(long holdId, AmenityLedger amenities) {
+        BookingQuote q = heldQuote(holdId);
+        BookingQuote changed;
+        if (q == null) {
+            changed = BookingQuote.denied(null, DenialReason.HOLD_NOT_FOUND, holdId);
+        } else {
+            BookingRequest req = q.request.withAmenities(amenities);
+            int bad = badAmenityRoom(req.amenities, q.rooms, q.nights);
+            if (bad >= 0) {
+                changed = BookingQuote.denied(req, DenialReason.INVALID_AMENITY, bad + 1);
+            } else {
+                changed = q.withRequest(req);
+                if (!holds.replace(holdId, q, changed)) {
+                    changed = BookingQuote.denied(req, DenialReason.HOLD_NOT_FOUND, holdId);
+                } else if (journal != null) {
+                    journal.appendHold(changed);  // replayed over the first record, same rooms
+                }
+            }
+        }
+        Metrics.denied(changed.denial);
+        return changed;
+    }
+
+    // pays for a held quote; an invalid payment leaves the hold in place so it can be retried
+    BookingConfirmation confirm(long holdId, Payment payment) {
+        return confirm(holdId, payment, true);
+    }
+
+    // with awaitDurable false the booking may not be on disk yet when this returns; call
+    // awaitDurable() before telling anyone about it
+    BookingConfirmation confirm(long holdId, Payment payment, boolean awaitDurable) {
+        long t0 = Metrics.start();
+        BookingConfirmation c = pay(holdId, payment, awaitDurable);
+        Metrics.record(Metrics.Stage.PAYMENT, t0);
+        Metrics.denied(c.denial);
+        return c;
+    }
+
+    private BookingConfirmation pay(long holdId, Payment payment, boolean awaitDurable) {
+        BookingQuote q = heldQuote(holdId);
+        if (q == null) return BookingConfirmation.denied(null, DenialReason.HOLD_NOT_FOUND, holdId);
+        return book(q, q, null, payment, awaitDurable);
+    }
+
+    // pays for the rooms of a held block its rooming list keeps, keep[t] of each type (ROOM_TYPES
+    // order), at the block's prices; the rest of the block goes back to the inventory. keeping
+    // every room is the same as confirm
+    BookingConfirmation confirmBlock(long holdId, int[] keep, Payment payment) {
+        return confirmBlock(holdId, keep, payment, true);
+    }
+
+    BookingConfirmation confirmBlock(long holdId, int[] keep, Payment payment, boolean awaitDurable) {
+        long t0 = Metrics.start();
+        BookingConfirmation c = payBlock(holdId, keep, payment, awaitDurable);
+        Metrics.record(Metrics.Stage.PAYMENT, t0);
+        Metrics.denied(c.denial);
+        return c;
+    }
+
+    private BookingConfirmation payBlock(long holdId, int[] keep, Payment payment, boolean awaitDurable) {
+        BookingQuote q = heldQuote(holdId);
+        if (q == null) return BookingConfirmation.denied(null, DenialReason.HOLD_NOT_FOUND, holdId);
+        if (!q.request.isBlock()) return BookingConfirmation.denied(q, DenialReason.NOT_A_BLOCK, holdId);
+        if (keep.length != MainCode.ROOM_TYPES.length) {
+            throw new IllegalArgumentException("A rooming list needs a room count for each of the " + MainCode.ROOM_TYPES.length + " room types");
+        }
+        int[] held = new int[keep.length];
+        for (RoomType rt : q.rooms) held[MainCode.typeIndex(rt)]++;
+        int kept = 0;
+        for (int t = 0; t < keep.length; t++) {
+            if (keep[t] < 0 || keep[t] > held[t]) {
+                return BookingConfirmation.denied(q, DenialReason.ROOMING_LIST, keep[t], MainCode.ROOM_TYPES[t].name, held[t]);
+            }
+            kept += keep[t];
+        }
+        if (kept == 0) return BookingConfirmation.denied(q, DenialReason.NO_ROOMS_REQUESTED);
+        if (kept == q.rooms.length) return book(q, q, null, payment, awaitDurable);
+        BookingQuote[] parts = q.splitBlock(keep);
+        return book(q, parts[0], parts[1], payment, awaitDurable);
+    }
+
+    // books `kept`, all of the hold q or the part of it a rooming list keeps, and gives the
+    // rooms of `released` (the rest, or null) back
+    private BookingConfirmation book(BookingQuote q, BookingQuote kept, BookingQuote released, Payment payment,
+                                     boolean awaitDurable) {
+        DenialReason d = checkPayment(payment, kept.grandTotal);
+        if (d != null) return BookingConfirmation.denied(q, d);
+        if (!holds.remove(q.holdId, q)) return BookingConfirmation.denied(q, DenialReason.HOLD_NOT_FOUND, q.holdId);
+        long paid = payment.method == Payment.Method.CASH ? payment.cashAmount : kept.grandTotal;
+        BookingConfirmation c = new BookingConfirmation(nextId.getAndIncrement(), kept, payment.method, paid, paid - kept.grandTotal);
+        bookings.put(c.bookingId, c);
+        long seq = journal != null ? journal.appendBooked(c) : 0;
+        if (released != null) {
+            // journaled before the rooms are free, as in cancelHold
+            if (journal != null) seq = journal.appendHoldCancelled(released);
+            long t0 = Metrics.start();
+            inventory.releaseAll(released.roomIds, released.roomIds.length, released.inDay, released.outDay);
+            Metrics.record(Metrics.Stage.INVENTORY, t0);
+        }
+        // the guest is only told once the booking is on disk
+        if (journal != null && awaitDurable) journal.awaitDurable(seq);
+        return c;
+    }
+
+    // returns once everything journaled so far is on disk
+    void awaitDurable() {
+        if (journal != null) journal.awaitDurable(journal.lastSeq());
+    }
+
+    // the journal hears about a cancellation before the rooms are free again, see BookingJournal
+    boolean cancelHold(long holdId) {
+        BookingQuote q = holds.remove(holdId);
+        if (q == null && awaitRestore()) q = holds.remove(holdId);
+        if (q == null) return false;
+        if (journal != null) journal.appendHoldCancelled(q);
+        long t0 = Metrics.start();
+        inventory.releaseAll(q.roomIds, q.roomIds.length, q.inDay, q.outDay);
+        Metrics.record(Metrics.Stage.INVENTORY, t0);
+        return true;
+    }
+
+    // the expiry wheel's callback: a hold confirmed or cancelled first is no longer there
+    private void expireHold(long holdId) {
+        if (cancelHold(holdId)) expired.increment();
+    }
+
+    // gives back every held block whose release date is before today; returns how many
+    int releaseBlocks(int today) {
+        int n = 0;
+        for (Long holdId : blocks) {
+            BookingQuote q = heldQuote(holdId);
+            if (q != null && q.request.releaseDate >= today) continue;
+            blocks.remove(holdId);  // confirmed, cancelled, or due now
+            if (q != null && cancelHold(holdId)) {
+                released.increment();
+                n++;
+            }
+        }
+        return n;
+    }
+
+    // the first block starts a thread that releases blocks past their date every
+    // -Dhotel.blocks.checkMinutes (default 60)
+    private void trackBlock(long holdId) {
+        blocks.add(holdId);
+        if (!releasing.compareAndSet(false, true)) return;
+        long period = Long.getLong("hotel.blocks.checkMinutes", 60) * 60_000L;
+        Thread t = new Thread(() -> {
+            while (true) {
+                try {
+                    Thread.sleep(period);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                releaseBlocks(PackedDate.today());
+            }
+        }, "block-release");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    boolean cancelBooking(long bookingId) {
+        BookingConfirmation c = bookings.remove(bookingId);
+        if (c == null && awaitRestore()) c = bookings.remove(bookingId);
+        if (c == null) return false;
+        BookingQuote q = c.quote;
+        long seq = journal != null ? journal.appendBookingCancelled(c) : 0;
+        long t0 = Metrics.start();
+        inventory.releaseAll(q.roomIds, q.roomIds.length, q.inDay, q.outDay);
+        Metrics.record(Metrics.Stage.INVENTORY, t0);
+        if (journal != null) journal.awaitDurable(seq);
+        return true;
+    }
+
+    // puts the recovered state back. the rooms are all back before this returns; the snapshot's
+    // holds and bookings reach the tables from a background thread, and lookups of ids not
+    // there yet wait for it. stays no longer inside the inventory window (long past) are kept
+    // in the tables but take no rooms.
+    private void restore(BookingJournal.Recovery r) {
+        if (r.roomNights != null) {
+            // room ids in the journal only mean something with the same rooms
+            if (r.roomCount != inventory.roomCount()) {
+                throw new IllegalStateException("Journal was written for " + r.roomCount + " rooms, the inventory has "
+                        + inventory.roomCount());
+            }
+            inventory.load(r.roomNightsOrigin, r.roomNightsWords, r.roomNights);
+        }
+        for (BookingJournal.StayChange s : r.changes) {
+            for (int room : s.roomIds) inventory.overwrite(room, s.inDay, s.outDay, s.taken);
+        }
+        for (BookingQuote q : r.holds) {
+            holds.put(q.holdId, q);
+            if (q.request.isBlock()) trackBlock(q.holdId);
+            else if (expiry != null) expiry.schedule(q.holdId);
+        }
+        for (BookingConfirmation c : r.bookings) bookings.put(c.bookingId, c);
+        nextId.set(Math.max(nextId.get(), r.lastId + 1));
+        if (!r.hasSnapshotEntries()) {
+            restoring.countDown();
+            attachJournal();
+            return;
+        }
+        Thread t = new Thread(() -> {
+            try {
+                // the log's version of an entry is newer than the snapshot's
+                journal.decodeSnapshot(r, q -> {
+                    if (holds.putIfAbsent(q.holdId, q) != null) return;
+                    if (q.request.isBlock()) trackBlock(q.holdId);
+                    else if (expiry != null) expiry.schedule(q.holdId);
+                }, c -> bookings.putIfAbsent(c.bookingId, c));
+                attachJournal();
+            } finally {
+                restoring.countDown();
+            }
+        }, "journal-restore");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    // true when it had to wait for restored entries, so a failed lookup is worth repeating
+    private boolean awaitRestore() {
+        if (restoring.getCount() == 0) return false;
+        boolean interrupted = false;
+        while (true) {
+            try {
+                restoring.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        return true;
+    }
+
+    BookingQuote heldQuote(long holdId) {
+        BookingQuote q = holds.get(holdId);
+        return q == null && awaitRestore() ? holds.get(holdId) : q;
+    }
+
+    BookingConfirmation booking(long bookingId) {
+        BookingConfirmation c = bookings.get(bookingId);
+        return c == null && awaitRestore() ? bookings.get(bookingId) : c;
+    }
+
+    // the booker and today are checked on every call; the rest of the answer only depends on
+    // the request's shape, availability and prices, so it goes through the quote cache
+    private BookingQuote evaluate(BookingRequest req) {
+        DenialReason d = checkBooker(req.bookerAge);
+        if (d != null) return BookingQuote.denied(req, d);
+        d = checkStay(req.today, req.checkIn, req.checkOut);
+        if (d != null) return BookingQuote.denied(req, d);
+        if (req.isBlock()) {
+            d = checkRelease(req.today, req.releaseDate, req.checkIn);
+            if (d != null) return BookingQuote.denied(req, d);
+        }
+        BookingQuote cached = quotes.get(req);
+        if (cached != null) return cached;
+        long stamp = quotes.stamp();
+        long priceVersion = pricing.version();
+        BookingQuote q = price(req);
+        quotes.put(req, q, stamp, priceVersion);
+        return q;
+    }
+
+    private BookingQuote price(BookingRequest req) {
+        DenialReason d;
+        int property = inventory.registry.property(req.destination);
+        if (property < 0) return BookingQuote.denied(req, DenialReason.UNKNOWN_DESTINATION, req.destination);
+        boolean international = inventory.registry.international(property);
+        if (req.roomCount < 1) return BookingQuote.denied(req, DenialReason.NO_ROOMS_REQUESTED);
+
+        int children = req.childCount();
+        d = checkGuests(req.adults, children);
+        if (d != null) return BookingQuote.denied(req, d);
+        int[] childAges = new int[children];
+        for (int i = 0; i < children; i++) {
+            childAges[i] = req.childAge(i);
+            if (childAges[i] < 0 || childAges[i] > 17) return BookingQuote.denied(req, DenialReason.INVALID_CHILD_AGE);
+        }
+        int totalGuests = totalGuests(req.adults, childAges);
+        if (!canFit(totalGuests, req.roomCount)) {
+            return BookingQuote.denied(req, DenialReason.NO_ROOM_COMBINATION, totalGuests, req.roomCount);
+        }
+
+        long inDay = PackedDate.toDays(req.checkIn);
+        long outDay = PackedDate.toDays(req.checkOut);
+        long[] typePrice = stayPrices(property, inDay, outDay, PackedDate.toDays(req.today));
+        RoomType[] rooms;
+        int extraBeds = req.extraBeds;
+        if (req.hasRoomTypes()) {
+            rooms = new RoomType[req.roomCount];
+            for (int r = 0; r < req.roomCount; r++) {
+                int t = req.roomType(r);
+                if (t < 0 || t >= MainCode.ROOM_TYPES.length) throw new IllegalArgumentException("Unknown room type " + t);
+                rooms[r] = MainCode.ROOM_TYPES[t];
+            }
+        } else {
+            long t0 = Metrics.start();
+            RoomMixSolver.RoomMix mix = solver.cheapest(totalGuests, req.roomCount, typePrice,
+                    RoomMixSolver.BED_COST, availableByType(property, inDay, outDay));
+            Metrics.record(Metrics.Stage.SUGGEST, t0);
+            // canFit passed, so some mix holds the party: none fitting means the rooms are taken
+            if (mix == null) return BookingQuote.denied(req, DenialReason.NO_ROOMS_AVAILABLE, req.destination);
+            rooms = mix.expand();
+            extraBeds = Math.max(extraBeds, mix.extraBeds);
+        }
+
+        int totalCapacity = 0, maxExtraAllowed = 0;
+        for (RoomType rt : rooms) {
+            totalCapacity += rt.capacity;
+            maxExtraAllowed += rt.extraBedsAllowed;
+        }
+        if (totalCapacity + maxExtraAllowed < totalGuests) {
+            return BookingQuote.denied(req, DenialReason.OVER_SELECTED_CAPACITY, totalGuests, totalCapacity + maxExtraAllowed);
+        }
+        if (extraBeds < 0 || extraBeds > maxExtraAllowed) {
+            return BookingQuote.denied(req, DenialReason.TOO_MANY_EXTRA_BEDS, extraBeds, maxExtraAllowed);
+        }
+        if (totalGuests > totalCapacity + extraBeds) {
+            return BookingQuote.denied(req, DenialReason.OVER_CAPACITY, totalGuests, totalCapacity + extraBeds);
+        }
+
+        // availability for the requested nights
+        int[] roomIds = new int[req.roomCount];
+        int[] neededPerType = new int[MainCode.ROOM_TYPES.length];
+        for (int r = 0; r < req.roomCount; r++) {
+            int type = MainCode.typeIndex(rooms[r]);
+            int id = req.roomId(r);
+            roomIds[r] = id;
+            neededPerType[type]++;
+            if (id == BookingRequest.ANY_ROOM) continue;
+            if (id < 0 || id >= inventory.roomCount() || inventory.propertyOf(id) != property || inventory.typeOf(id) != type) {
+                return BookingQuote.denied(req, DenialReason.INVALID_ROOM, id, rooms[r].name);
+            }
+            for (int k = 0; k < r; k++) {
+                if (roomIds[k] == id) return BookingQuote.denied(req, DenialReason.ROOM_TAKEN, inventory.label(id));
+            }
+            if (!inventory.isFree(id, inDay, outDay)) return BookingQuote.denied(req, DenialReason.ROOM_TAKEN, inventory.label(id));
+        }
+        for (int t = 0; t < neededPerType.length; t++) {
+            if (neededPerType[t] > 0 && inventory.countFree(property, t, inDay, outDay) < neededPerType[t]) {
+                return BookingQuote.denied(req, DenialReason.NO_ROOMS_AVAILABLE, MainCode.ROOM_TYPES[t].name);
+            }
+        }
+
+        // per-room stay price (each night at its own season, then the pricing rules) & subtotal
+        int nights = (int) (outDay - inDay);
+        long t0 = Metrics.start();
+        Season season = MainCode.determineSeasonForStay(req.checkIn, req.checkOut);
+        int[] seasonNights = new int[Season.values().length];
+        pricing.nightsBySeason(inDay, outDay, seasonNights);
+        t0 = Metrics.record(Metrics.Stage.SEASON, t0);
+        // many rooms booked together get the group rate off every room's stay
+        int groupOff = MainCode.groupPercent(req.roomCount);
+        long[] roomStayTotal = new long[req.roomCount];
+        for (int r = 0; r < req.roomCount; r++) roomStayTotal[r] = roomStayTotal(typePrice[MainCode.typeIndex(rooms[r])], groupOff);
+        long roomSubtotal = Money.sum(roomStayTotal);
+
+        // amenities per room; the ledger already has the totals
+        int bad = badAmenityRoom(req.amenities, rooms, nights);
+        if (bad >= 0) return BookingQuote.denied(req, DenialReason.INVALID_AMENITY, bad + 1);
+        BookingQuote q = new BookingQuote(req, 0, international, inDay, outDay, season, seasonNights, totalGuests, rooms,
+                roomIds, roomStayTotal, roomSubtotal, req.amenities);
+        Metrics.record(Metrics.Stage.AMENITIES, t0);
+        return q;
+    }
+
+    // the first room with an amenity line its room or stay can't take, or -1
+    private static int badAmenityRoom(AmenityLedger amenities, RoomType[] rooms, int nights) {
+        for (int i = 0; i < amenities.lines(); i++) {
+            int r = amenities.room(i), persons = amenities.persons(i), pwd = amenities.pwd(i), days = amenities.days(i);
+            if (persons < 0 || persons > rooms[r].capacity || pwd < 0 || pwd > persons || days < 1 || days > nights) return r;
+        }
+        return -1;
+    }
+
+    // what a quote charges for one room's stay: its stay price less groupOff percent
+    static long roomStayTotal(long stayPrice, int groupOff) {
+        return groupOff == 0 ? stayPrice : Money.percentOf(stayPrice, 100 - groupOff);
+    }
+
+    // true when the request asks for this room by id
+    private static boolean isNamed(BookingRequest req, int room) {
+        for (int r = 0; r < req.roomCount; r++) if (req.roomId(r) == room) return true;
+        return false;
+    }
+}
@@ -0,0 +1,508 @@
+package finalproject;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// HTTP/JSON front end over a BookingEngine, on the JDK's built-in server. every call is a
+// POST with a JSON body and gets a JSON answer:
+//   /quote    booking request -> priced quote, nothing reserved
+//   /hold     booking request -> quote whose rooms stay reserved until /confirm or /cancel
+//   /confirm  {holdId, payment: {method: cash, amount} | {method: card, cardNumber, cvv},
+//             idempotencyKey (or an Idempotency-Key header; default: the hold)}
+//   /cancel   {holdId} or {bookingId}
+//   /search   {destination, adults, childAges, rooms (0 = any), nights, from, to} -> every check-in
+//             day in [from, to] the party fits, with the cheapest mix and its price
+//   /block    group block {booker.., destination, checkIn, checkOut, guests, roomsPerType: {type: n},
+//             releaseDate} -> held quote, kept without a ttl until the release date
+//   /roominglist {holdId, rooms: {type: n}, payment} -> books the block's rooms the list keeps
+//             and gives the others back
+// the engine applies the same rules as the console (booker age, guests, capacity, extra
+// beds, card/CVV format) and refusals carry the console's DenialReason text.
+//
+// the server's selector thread owns the connections; exchanges run on a virtual thread each
+// when the JVM has them (21+) and on a small platform pool otherwise, so no thread is tied to
+// an idle connection. holds and searches do not wait on anything, but with a journal confirm
+// only returns once its record is on disk (an fsync), and the thread that called it waits
+// too: on the platform pool that is one of its threads. with a ShardedBookingExecutor the
+// writes (hold, confirm, cancel) are handed to the destination's shard and the exchange
+// waits for its answer; a full shard answers 503. with a PaymentProcessor a card /confirm is
+// answered when the gateway is done, from the processor's threads: the exchange's thread
+// goes back to work at once, however slow the payment.
+final class BookingHttpServer {
+
+    static final int DEFAULT_PORT = 8080;
+    static final int DEFAULT_BACKLOG = 4096;
+    static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final BookingEngine engine;
+    private final ShardedBookingExecutor shards;  // null = writes run on the exchange's thread
+    private final PaymentProcessor payments;      // null = cards are confirmed by the engine straight away
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private AvailabilitySearch search;  // built on the first /search
+
+    BookingHttpServer(BookingEngine engine, InetSocketAddress address, int backlog) throws IOException {
+        this(engine, null, null, address, backlog);
+    }
+
+    BookingHttpServer(BookingEngine engine, ShardedBookingExecutor shards, PaymentProcessor payments,
+                      InetSocketAddress address, int backlog) throws IOException {
+        this.engine = engine;
+        this.shards = shards;
+        this.payments = payments;
+        this.server = HttpServer.create(address, backlog);
+        this.executor = requestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/quote", ex -> serve(ex, Route.QUOTE));
+        server.createContext("/hold", ex -> serve(ex, Route.HOLD));
+        server.createContext("/confirm", ex -> serve(ex, Route.CONFIRM));
+        server.createContext("/cancel", ex -> serve(ex, Route.CANCEL));
+        server.createContext("/search", ex -> serve(ex, Route.SEARCH));
+        server.createContext("/block", ex -> serve(ex, Route.BLOCK));
+        server.createContext("/roominglist", ex -> serve(ex, Route.ROOMING_LIST));
+        server.createContext("/", ex -> serve(ex, null));
+    }
+
+    void start() {
+        server.start();
+    }
+
+    // stops accepting, waits up to delaySeconds for exchanges in flight
+    void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    // a virtual thread per task on 21+, looked up reflectively because the build targets 17
+    static ExecutorService requestExecutor() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            int threads = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+            return Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "booking-http");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private enum Route { QUOTE, HOLD, CONFIRM, CANCEL, SEARCH, BLOCK, ROOMING_LIST }
+
+    private void serve(HttpExchange ex, Route route) throws IOException {
+        int status;
+        StringBuilder body = new StringBuilder(512);
+        Json.Out out = new Json.Out(body);
+        try {
+            if (route == null) {
+                status = 404;
+                error(out, "No such endpoint: " + ex.getRequestURI().getPath());
+            } else if (!"POST".equals(ex.getRequestMethod())) {
+                ex.getResponseHeaders().set("Allow", "POST");
+                status = 405;
+                error(out, "Use POST");
+            } else {
+                String text = readBody(ex);
+                if (text == null) {
+                    status = 413;
+                    error(out, "Request body over " + MAX_BODY_BYTES + " bytes");
+                } else {
+                    Map<String, Object> in = Json.asObject(Json.parse(text), "Request body");
+                    if (route == Route.CONFIRM && payments != null) {
+                        confirmLater(ex, in);
+                        return;
+                    }
+                    status = dispatch(route, in, out);
+                }
+            }
+        } catch (RejectedExecutionException e) {
+            body.setLength(0);
+            out = new Json.Out(body);
+            status = 503;
+            error(out, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            body.setLength(0);
+            out = new Json.Out(body);
+            status = 400;
+            error(out, e.getMessage());
+        } catch (RuntimeException e) {
+            body.setLength(0);
+            out = new Json.Out(body);
+            status = 500;
+            error(out, "Internal error");
+        }
+        send(ex, status, body);
+    }
+
+    private static void send(HttpExchange ex, int status, StringBuilder body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    // pays through the processor and answers from whichever thread finishes the payment
+    private void confirmLater(HttpExchange ex, Map<String, Object> in) {
+        long holdId = Json.requiredNumber(in, "holdId");
+        Payment payment = parsePayment(in.get("payment"));
+        String key = Json.string(in, "idempotencyKey", ex.getRequestHeaders().getFirst("Idempotency-Key"));
+        payments.pay(holdId, payment, key).whenComplete((c, e) -> {
+            StringBuilder body = new StringBuilder(512);
+            Json.Out out = new Json.Out(body);
+            int status;
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause == null) {
+                writeConfirmation(out, c);
+                status = statusOf(c.denial);
+            } else if (cause instanceof RejectedExecutionException) {
+                status = 503;
+                error(out, cause.getMessage());
+            } else {
+                status = 500;
+                error(out, "Internal error");
+            }
+            try {
+                send(ex, status, body);
+            } catch (IOException io) {
+                ex.close();  // the client went away
+            }
+        });
+    }
+
+    private int dispatch(Route route, Map<String, Object> in, Json.Out out) {
+        switch (route) {
+            case QUOTE: {
+                BookingQuote q = engine.quote(parseRequest(in));
+                writeQuote(out, q, engine.inventory());
+                return statusOf(q.denial);
+            }
+            case HOLD: {
+                BookingRequest req = parseRequest(in);
+                BookingQuote q = shards == null ? engine.hold(req) : await(shards.hold(req));
+                writeQuote(out, q, engine.inventory());
+                return statusOf(q.denial);
+            }
+            case CONFIRM: {
+                long holdId = Json.requiredNumber(in, "holdId");
+                Payment payment = parsePayment(in.get("payment"));
+                BookingConfirmation c = shards == null ? engine.confirm(holdId, payment) : await(shards.confirm(holdId, payment));
+                writeConfirmation(out, c);
+                return statusOf(c.denial);
+            }
+            case BLOCK: {
+                BookingRequest req = parseBlock(in, PackedDate.today());
+                BookingQuote q = shards == null ? engine.hold(req) : await(shards.hold(req));
+                writeQuote(out, q, engine.inventory());
+                return statusOf(q.denial);
+            }
+            case ROOMING_LIST: {
+                // settled here rather than through the payment processor, like batch mode
+                long holdId = Json.requiredNumber(in, "holdId");
+                int[] keep = roomsPerType(in, "rooms");
+                Payment payment = parsePayment(in.get("payment"));
+                BookingConfirmation c = shards == null ? engine.confirmBlock(holdId, keep, payment)
+                        : await(shards.confirmBlock(holdId, keep, payment));
+                writeConfirmation(out, c);
+                return statusOf(c.denial);
+            }
+            case CANCEL: {
+                boolean cancelled;
+                if (in.get("holdId") != null) {
+                    long holdId = Json.requiredNumber(in, "holdId");
+                    cancelled = shards == null ? engine.cancelHold(holdId) : await(shards.cancelHold(holdId));
+                } else if (in.get("bookingId") != null) {
+                    long bookingId = Json.requiredNumber(in, "bookingId");
+                    cancelled = shards == null ? engine.cancelBooking(bookingId) : await(shards.cancelBooking(bookingId));
+                } else {
+                    throw new IllegalArgumentException("holdId or bookingId is required");
+                }
+                out.beginObject().field("ok", cancelled).field("cancelled", cancelled).endObject();
+                return cancelled ? 200 : 404;
+            }
+            case SEARCH: {
+                int[] childAges = intArray(in, "childAges");
+                List<AvailabilitySearch.Option> options = search().search(Json.requiredString(in, "destination"),
+                        Json.requiredInt(in, "adults"), childAges == null ? new int[0] : childAges, Json.intOr(in, "rooms", 0),
+                        Json.requiredInt(in, "nights"), PackedDate.parseIso(Json.requiredString(in, "from")),
+                        PackedDate.parseIso(Json.requiredString(in, "to")), PackedDate.today());
+                writeOptions(out, options);
+                return 200;
+            }
+            default:
+                throw new IllegalStateException(route.name());
+        }
+    }
+
+    // the shard's answer, with its failure rethrown as is
+    private static <T> T await(CompletableFuture<T> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    private synchronized AvailabilitySearch search() {
+        if (search == null) search = new AvailabilitySearch(engine);
+        return search;
+    }
+
+    private static int statusOf(DenialReason d) {
+        if (d == null) return 200;
+        if (d == DenialReason.SHARD_BUSY) return 503;
+        if (d == DenialReason.HOLD_NOT_FOUND) return 404;
+        if (d == DenialReason.ROOM_TAKEN || d == DenialReason.NO_ROOMS_AVAILABLE || d == DenialReason.PAYMENT_PENDING
+                || d == DenialReason.IDEMPOTENCY_KEY_REUSED) {
+            return 409;
+        }
+        if (d == DenialReason.PAYMENT_DECLINED) return 402;
+        if (d == DenialReason.PAYMENT_FAILED) return 502;
+        return 422;
+    }
+
+    // the body, or null when it is longer than MAX_BODY_BYTES
+    private static String readBody(HttpExchange ex) throws IOException {
+        try (InputStream is = ex.getRequestBody()) {
+            byte[] buf = is.readNBytes(MAX_BODY_BYTES + 1);
+            if (buf.length > MAX_BODY_BYTES) return null;
+            return new String(buf, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void error(Json.Out out, String message) {
+        out.beginObject().field("ok", false).field("error", message).endObject();
+    }
+
+    // ------- JSON -> engine types -------
+
+    // {bookerName, bookerEmail, bookerContact, bookerAge, destination, checkIn, checkOut (yyyy-mm-dd),
+    //  adults, childAges: [..], rooms, roomTypes: [name | index], roomIds: [..], extraBeds,
+    //  amenities: [{room (1-based), amenity (name | index), persons, pwd, days}]}
+    static BookingRequest parseRequest(Map<String, Object> in) {
+        return parseRequest(in, PackedDate.today());
+    }
+
+    // as booked on `today` (replays of past days)
+    static BookingRequest parseRequest(Map<String, Object> in, int today) {
+        int roomCount = Json.requiredInt(in, "rooms");
+        if (roomCount < 0 || roomCount > 10_000) throw new IllegalArgumentException("rooms is out of range");
+
+        int[] childAges = intArray(in, "childAges");
+        int[] roomTypes = null;
+        List<Object> types = Json.array(in, "roomTypes");
+        if (types != null) {
+            if (types.size() != roomCount) throw new IllegalArgumentException("roomTypes needs one entry per room");
+            roomTypes = new int[roomCount];
+            for (int r = 0; r < roomCount; r++) roomTypes[r] = roomTypeIndex(types.get(r));
+        }
+        int[] roomIds = intArray(in, "roomIds");
+
+        AmenityLedger ledger = null;
+        List<Object> amenities = Json.array(in, "amenities");
+        if (amenities != null && !amenities.isEmpty()) {
+            AmenityCatalog catalog = AmenityCatalog.shared();
+            ledger = new AmenityLedger(catalog);
+            Set<Long> seen = new HashSet<>();
+            for (Object o : amenities) {
+                Map<String, Object> a = Json.asObject(o, "Amenity");
+                int room = Json.requiredInt(a, "room");
+                if (room < 1 || room > roomCount) throw new IllegalArgumentException("Amenity room must be 1.." + roomCount);
+                int amenity = amenityIndex(catalog, a.get("amenity"));
+                if (!seen.add((long) room * catalog.size() + amenity)) {
+                    throw new IllegalArgumentException(catalog.name(amenity) + " is listed twice for room " + room);
+                }
+                ledger.add(room - 1, amenity, Json.requiredInt(a, "persons"), Json.intOr(a, "pwd", 0), Json.requiredInt(a, "days"));
+            }
+        }
+
+        return new BookingRequest(
+                Json.string(in, "bookerName", ""), Json.string(in, "bookerEmail", ""), Json.string(in, "bookerContact", ""),
+                Json.requiredInt(in, "bookerAge"), today, Json.requiredString(in, "destination"),
+                PackedDate.parseIso(Json.requiredString(in, "checkIn")), PackedDate.parseIso(Json.requiredString(in, "checkOut")),
+                Json.requiredInt(in, "adults"), childAges, roomCount, roomTypes, roomIds,
+                Json.intOr(in, "extraBeds", 0), ledger);
+    }
+
+    // {bookerName, bookerEmail, bookerContact, bookerAge, destination, checkIn, checkOut, guests,
+    //  roomsPerType: {"Standard": 100, "Deluxe": 80, ..}, releaseDate (yyyy-mm-dd)}
+    static BookingRequest parseBlock(Map<String, Object> in, int today) {
+        return BookingRequest.block(
+                Json.string(in, "bookerName", ""), Json.string(in, "bookerEmail", ""), Json.string(in, "bookerContact", ""),
+                Json.requiredInt(in, "bookerAge"), today, Json.requiredString(in, "destination"),
+                PackedDate.parseIso(Json.requiredString(in, "checkIn")), PackedDate.parseIso(Json.requiredString(in, "checkOut")),
+                Json.requiredInt(in, "guests"), roomsPerType(in, "roomsPerType"),
+                PackedDate.parseIso(Json.requiredString(in, "releaseDate")));
+    }
+
+    // {type name or index: rooms, ..} -> rooms per type in ROOM_TYPES order, 0 for types left out
+    private static int[] roomsPerType(Map<String, Object> in, String field) {
+        if (in.get(field) == null) throw new IllegalArgumentException(field + " is required");
+        Map<String, Object> rooms = Json.asObject(in.get(field), field);
+        int[] n = new int[MainCode.ROOM_TYPES.length];
+        for (String type : rooms.keySet()) {
+            int t = roomTypeIndex(type);
+            int count = Json.requiredInt(rooms, type);
+            if (count < 0 || count > 10_000) throw new IllegalArgumentException(field + " " + type + " is out of range");
+            n[t] = count;
+        }
+        return n;
+    }
+
+    static Payment parsePayment(Object o) {
+        if (o == null) return null;
+        Map<String, Object> p = Json.asObject(o, "payment");
+        String method = Json.requiredString(p, "method");
+        if (method.equalsIgnoreCase("cash")) return Payment.cash(Json.money(p, "amount"));
+        if (method.equalsIgnoreCase("card")) return Payment.card(Json.string(p, "cardNumber", null), Json.string(p, "cvv", null));
+        throw new IllegalArgumentException("payment method must be cash or card");
+    }
+
+    private static int[] intArray(Map<String, Object> in, String field) {
+        List<Object> l = Json.array(in, field);
+        if (l == null) return null;
+        int[] a = new int[l.size()];
+        for (int i = 0; i < a.length; i++) {
+            Object v = l.get(i);
+            if (!(v instanceof Long) || (Long) v != (int) (long) (Long) v) {
+                throw new IllegalArgumentException(field + " must hold whole numbers");
+            }
+            a[i] = (int) (long) (Long) v;
+        }
+        return a;
+    }
+
+    private static int roomTypeIndex(Object v) {
+        if (v instanceof Long) {
+            long t = (Long) v;
+            if (t >= 0 && t < MainCode.ROOM_TYPES.length) return (int) t;
+        } else if (v instanceof String) {
+            for (int t = 0; t < MainCode.ROOM_TYPES.length; t++) {
+                if (MainCode.ROOM_TYPES[t].name.equalsIgnoreCase((String) v)) return t;
+            }
+        }
+        throw new IllegalArgumentException("Unknown room type " + v);
+    }
+
+    private static int amenityIndex(AmenityCatalog catalog, Object v) {
+        if (v instanceof Long) {
+            long a = (Long) v;
+            if (a >= 0 && a < catalog.size()) return (int) a;
+        } else if (v instanceof String) {
+            int a = catalog.indexOf((String) v);
+            if (a >= 0) return a;
+        }
+        throw new IllegalArgumentException("Unknown amenity " + v);
+    }
+
+    // ------- engine types -> JSON -------
+
+    static void writeOptions(Json.Out out, List<AvailabilitySearch.Option> options) {
+        out.beginObject().field("ok", true).name("options").beginArray();
+        for (AvailabilitySearch.Option o : options) {
+            out.beginObject()
+                    .field("checkIn", PackedDate.toIso(o.checkIn))
+                    .field("checkOut", PackedDate.toIso(o.checkOut));
+            out.name("rooms").beginArray();
+            for (MainCode.RoomType rt : o.mix.expand()) out.value(rt.name);
+            out.endArray();
+            out.field("extraBeds", o.mix.extraBeds).money("total", o.total).endObject();
+        }
+        out.endArray().endObject();
+    }
+
+    static void writeQuote(Json.Out out, BookingQuote q, RoomInventory inventory) {
+        out.beginObject().field("ok", q.ok());
+        if (!q.ok()) {
+            out.field("denial", q.denial.name()).field("message", q.denialMessage).endObject();
+            return;
+        }
+        if (q.isHeld()) out.field("holdId", q.holdId);
+        out.field("destination", q.request.destination)
+                .field("international", q.international)
+                .field("checkIn", PackedDate.toIso(q.request.checkIn))
+                .field("checkOut", PackedDate.toIso(q.request.checkOut))
+                .field("nights", q.nights)
+                .field("season", q.season.name())
+                .field("totalGuests", q.totalGuests);
+        out.name("rooms").beginArray();
+        for (int r = 0; r < q.rooms.length; r++) {
+            out.beginObject().field("type", q.rooms[r].name).field("capacity", q.rooms[r].capacity);
+            int id = q.roomIds[r];
+            if (id != BookingRequest.ANY_ROOM) out.field("roomId", id).field("label", inventory.label(id));
+            out.money("stayTotal", q.roomStayTotal[r]).money("pricePerNight", q.roomPricePerNight[r]).endObject();
+        }
+        out.endArray();
+        out.money("roomSubtotal", q.roomSubtotal)
+                .money("amenitySubtotal", q.amenSubtotal)
+                .money("amenityDiscount", q.amenDiscount)
+                .money("amenityTotal", q.amenTotal)
+                .money("grandTotal", q.grandTotal)
+                .endObject();
+    }
+
+    static void writeConfirmation(Json.Out out, BookingConfirmation c) {
+        out.beginObject().field("ok", c.ok());
+        if (!c.ok()) {
+            out.field("denial", c.denial.name()).field("message", c.denialMessage).endObject();
+            return;
+        }
+        out.field("bookingId", c.bookingId)
+                .field("holdId", c.quote.holdId)
+                .field("method", c.method.name())
+                .money("grandTotal", c.quote.grandTotal)
+                .money("amountPaid", c.amountPaid)
+                .money("change", c.change)
+                .endObject();
+    }
+
+    // java -cp reservation.jar finalproject.BookingHttpServer [port]   (loopback only)
+    // bind elsewhere with -Dhotel.http.host
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("hotel.http.port", DEFAULT_PORT);
+        String host = System.getProperty("hotel.http.host", "127.0.0.1");
+        Metrics.publish();
+        // -Dhotel.shards=true runs the writes on one thread per destination
+        ShardedBookingExecutor shards = Boolean.getBoolean("hotel.shards")
+                ? ShardedBookingExecutor.forEngine(BookingEngine.shared()) : null;
+        // card payments go through the stub gateway, see PaymentProcessor.forEngine
+        PaymentProcessor payments = PaymentProcessor.forEngine(BookingEngine.shared(), shards);
+        BookingHttpServer s = new BookingHttpServer(BookingEngine.shared(), shards, payments,
+                new InetSocketAddress(host, port), Integer.getInteger("hotel.http.backlog", DEFAULT_BACKLOG));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            s.stop(2);
+            payments.close();
+            if (shards != null) shards.close();
+        }));
+        s.start();
+        System.out.println("Booking API listening on http://" + host + ":" + s.port());
+    }
+}
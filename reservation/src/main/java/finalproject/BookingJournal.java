@@ -0,0 +1,794 @@
+package finalproject;
+
+import finalproject.MainCode.RoomType;
+import finalproject.MainCode.Season;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+// append-only journal of holds, bookings (with their payment) and cancellations.
+//
+// records go into memory-mapped segment files wal-<first seq>.log, each record
+//   [int length][int crc32c][byte type][long seq][payload]
+// where length and crc cover type, seq and payload. a zero length ends a segment, and
+// recovery stops at the first record with a bad crc or out-of-order seq (a torn write).
+// awaitDurable is a group commit: one waiter forces everything appended so far while the
+// others wait for it, so many confirmations share one flush.
+//
+// every snapshotEvery records a background snapshot (snapshot-<seq>.snap) stores the room
+// bitmap of the live holds and bookings followed by their full records, and the log
+// position it was taken at; older segments and snapshots are then deleted. restart loads
+// the bitmap in one go, replays the log from that position, and leaves decoding the
+// snapshot's records to the engine's background thread, so it costs the same however many
+// bookings are live.
+//
+// a snapshot is taken while bookings keep coming in. that is safe because the engine
+// updates its tables before appending a record that takes rooms and appends before it
+// frees them, and every record that leaves rooms taken takes them again on replay: a
+// confirmation moves a hold from one table to the other, so a snapshot reading between the
+// two has neither, but the BOOKED record comes after its position. replay then meets every
+// room-night's takes and frees in the order they happened, and the last one it meets wins
+// over whatever the snapshot's bitmap said.
+final class BookingJournal implements AutoCloseable {
+
+    static final int DEFAULT_SEGMENT_BYTES = 64 << 20;
+    static final int DEFAULT_SNAPSHOT_EVERY = 100_000;
+
+    static final byte HOLD = 1, BOOKED = 2, HOLD_CANCELLED = 3, BOOKING_CANCELLED = 4;
+
+    private static final int HEADER = 8;            // length + crc
+    private static final int RECORD_OVERHEAD = 9;  // type + seq
+    private static final int SNAPSHOT_MAGIC = 0x4c53534e;
+    private static final int SNAPSHOT_VERSION = 5;
+
+    // what the journal needs from the engine to write a snapshot
+    interface Source {
+        RoomInventory inventory();
+
+        void forEachHold(Consumer<BookingQuote> action);
+
+        void forEachBooking(Consumer<BookingConfirmation> action);
+
+        long lastId();
+    }
+
+    // rooms a replayed record took or gave back
+    static final class StayChange {
+        final boolean taken;
+        final int[] roomIds;
+        final long inDay, outDay;
+
+        StayChange(boolean taken, int[] roomIds, long inDay, long outDay) {
+            this.taken = taken;
+            this.roomIds = roomIds;
+            this.inDay = inDay;
+            this.outDay = outDay;
+        }
+    }
+
+    // state found at open. the inventory is the snapshot's bitmap (roomNights, laid out as
+    // RoomInventory.mark writes it; null without a snapshot) with changes applied in order.
+    // the live holds and bookings are the ones below plus the snapshot's, which
+    // decodeSnapshot hands over later
+    static final class Recovery {
+        final long[] roomNights;
+        final long roomNightsOrigin;
+        final int roomNightsWords;
+        final int roomCount;
+        final List<StayChange> changes;
+        final List<BookingQuote> holds;
+        final List<BookingConfirmation> bookings;
+        final long lastId;
+        final long snapshotSeq;
+        final int replayed;
+
+        private final ByteBuffer snapshotEntries;  // null when there is nothing to decode
+        // ids any replayed record names: the log's version of these is newer than the snapshot's
+        private final Set<Long> loggedHolds, loggedBookings;
+
+        Recovery(long[] roomNights, long roomNightsOrigin, int roomNightsWords, int roomCount, List<StayChange> changes,
+                 List<BookingQuote> holds, List<BookingConfirmation> bookings, long lastId, long snapshotSeq,
+                 int replayed, ByteBuffer snapshotEntries, Set<Long> loggedHolds, Set<Long> loggedBookings) {
+            this.roomNights = roomNights;
+            this.roomNightsOrigin = roomNightsOrigin;
+            this.roomNightsWords = roomNightsWords;
+            this.roomCount = roomCount;
+            this.changes = changes;
+            this.holds = holds;
+            this.bookings = bookings;
+            this.lastId = lastId;
+            this.snapshotSeq = snapshotSeq;
+            this.replayed = replayed;
+            this.snapshotEntries = snapshotEntries;
+            this.loggedHolds = loggedHolds;
+            this.loggedBookings = loggedBookings;
+        }
+
+        boolean hasSnapshotEntries() {
+            return snapshotEntries != null;
+        }
+    }
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final boolean fsync;
+    private final int snapshotEvery;
+    private final PricingEngine pricing;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private final CRC32C crc = new CRC32C();  // guarded by lock
+    private FileChannel channel;              // current segment
+    private MappedByteBuffer buf;
+    private long segmentFirstSeq;
+    private int flushedPos;
+    private long lastSeq;
+    private long durableSeq;
+    private boolean flushing;
+    private volatile boolean closed;
+
+    private final ExecutorService snapshotter;
+    private volatile Source source;
+    private volatile long snapshotSeq;
+    private volatile boolean snapshotRunning;
+
+    private Recovery recovery;
+
+    // opens (or creates) the journal in dir and recovers its state; pricing is only used to
+    // rebuild the season figures of recovered quotes. fsync=false leaves flushing to the OS,
+    // which survives a process crash but not a power cut.
+    BookingJournal(Path dir, PricingEngine pricing, int segmentBytes, boolean fsync, int snapshotEvery) throws IOException {
+        if (segmentBytes < 4096) throw new IllegalArgumentException("Journal segments must be at least 4096 bytes");
+        this.dir = dir;
+        this.pricing = pricing;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        this.snapshotEvery = snapshotEvery;
+        Files.createDirectories(dir);
+        this.recovery = recover();
+        this.snapshotter = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "journal-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // state found at open; handed out once
+    Recovery takeRecovery() {
+        Recovery r = recovery;
+        recovery = null;
+        return r;
+    }
+
+    void attach(Source source) {
+        this.source = source;
+    }
+
+    long lastSeq() {
+        lock.lock();
+        try {
+            return lastSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ------- writing -------
+
+    // after the rooms are taken and the hold is in the engine's table
+    long appendHold(BookingQuote held) {
+        return append(HOLD, out -> writeQuote(out, held));
+    }
+
+    long appendBooked(BookingConfirmation c) {
+        return append(BOOKED, out -> writeBooking(out, c));
+    }
+
+    // before the rooms are given back
+    long appendHoldCancelled(BookingQuote q) {
+        return append(HOLD_CANCELLED, out -> writeStay(out, q.holdId, q));
+    }
+
+    long appendBookingCancelled(BookingConfirmation c) {
+        return append(BOOKING_CANCELLED, out -> writeStay(out, c.bookingId, c.quote));
+    }
+
+    private static void writeStay(DataOutput out, long id, BookingQuote q) throws IOException {
+        out.writeLong(id);
+        out.writeLong(q.inDay);
+        out.writeLong(q.outDay);
+        out.writeInt(q.roomIds.length);
+        for (int r : q.roomIds) out.writeInt(r);
+    }
+
+    private interface Writer {
+        void write(DataOutput out) throws IOException;
+    }
+
+    private long append(byte type, Writer payload) {
+        byte[] body;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            payload.write(new DataOutputStream(bytes));
+            body = bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int length = RECORD_OVERHEAD + body.length;
+        if (HEADER + length + 4 > segmentBytes) throw new IllegalArgumentException("Journal record too large: " + length + " bytes");
+        long seq;
+        lock.lock();
+        try {
+            if (closed) throw new IllegalStateException("Journal is closed");
+            if (buf.remaining() < HEADER + length + 4) roll();
+            seq = ++lastSeq;
+            int start = buf.position();
+            buf.position(start + HEADER);
+            buf.put(type).putLong(seq).put(body);
+            crc.reset();
+            crc.update(buf.duplicate().position(start + HEADER).limit(start + HEADER + length));
+            buf.putInt(start, length).putInt(start + 4, (int) crc.getValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+        if (snapshotEvery > 0 && seq - snapshotSeq >= snapshotEvery) snapshotAsync();
+        return seq;
+    }
+
+    // returns once every record up to seq is on disk (or handed to the OS when fsync is off)
+    void awaitDurable(long seq) {
+        lock.lock();
+        try {
+            while (durableSeq < seq) {
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                // this thread flushes for everyone waiting
+                flushing = true;
+                long target = lastSeq;
+                MappedByteBuffer b = buf;
+                int from = flushedPos, to = b.position();
+                lock.unlock();
+                try {
+                    if (fsync && to > from) b.force(from, to - from);
+                } finally {
+                    lock.lock();
+                    if (buf == b) flushedPos = Math.max(flushedPos, to);
+                    durableSeq = Math.max(durableSeq, target);
+                    flushing = false;
+                    flushed.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // called with the lock held: the current segment is full, start the next one
+    private void roll() throws IOException {
+        if (fsync) buf.force();
+        durableSeq = Math.max(durableSeq, lastSeq);  // forced above
+        channel.close();
+        openSegment(lastSeq + 1, 0);
+    }
+
+    private void openSegment(long firstSeq, int position) throws IOException {
+        Path p = dir.resolve(segmentName(firstSeq));
+        channel = FileChannel.open(p, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        buf.position(position);
+        flushedPos = position;
+        segmentFirstSeq = firstSeq;
+    }
+
+    // ------- snapshots -------
+
+    private void snapshotAsync() {
+        if (source == null || snapshotRunning || closed) return;
+        synchronized (this) {
+            if (snapshotRunning) return;
+            snapshotRunning = true;
+        }
+        snapshotter.execute(() -> {
+            try {
+                snapshot();
+            } catch (IOException | RuntimeException e) {
+                // the journal still holds everything; the next trigger tries again
+            } finally {
+                snapshotRunning = false;
+            }
+        });
+    }
+
+    // writes a snapshot of the attached engine's holds and bookings and drops the log before it.
+    // layout: magic, version, seq, last id, the log position right after seq (segment, offset),
+    // the bitmap (origin day, room count, words per room, the words), then the hold count and
+    // holds, the booking count and bookings, each record as [int length][record], and a crc32c
+    // of everything before it
+    void snapshot() throws IOException {
+        Source src = source;
+        if (src == null) throw new IllegalStateException("No source attached");
+        long seq, logSegment;
+        int logPos;
+        lock.lock();
+        try {
+            // read before the tables, see the class comment
+            seq = lastSeq;
+            logSegment = segmentFirstSeq;
+            logPos = buf.position();
+        } finally {
+            lock.unlock();
+        }
+        List<BookingQuote> holds = new ArrayList<>();
+        List<BookingConfirmation> bookings = new ArrayList<>();
+        src.forEachHold(holds::add);
+        src.forEachBooking(bookings::add);
+        long lastId = src.lastId();
+
+        // the bitmap comes from the same entries, not the live inventory, so the two agree
+        RoomInventory inv = src.inventory();
+        long[] roomNights = new long[inv.roomCount() * inv.wordsPerRoom()];
+        for (BookingQuote q : holds) inv.mark(roomNights, q.roomIds, q.inDay, q.outDay);
+        for (BookingConfirmation c : bookings) inv.mark(roomNights, c.quote.roomIds, c.quote.inDay, c.quote.outDay);
+
+        Path tmp = dir.resolve("snapshot.tmp");
+        CRC32C sum = new CRC32C();
+        ByteArrayOutputStream record = new ByteArrayOutputStream(512);
+        DataOutputStream recordOut = new DataOutputStream(record);
+        try (OutputStream os = Files.newOutputStream(tmp)) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(os, 1 << 16), sum);
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(seq);
+            out.writeLong(lastId);
+            out.writeLong(logSegment);
+            out.writeInt(logPos);
+            out.writeLong(inv.originDay);
+            out.writeInt(inv.roomCount());
+            out.writeInt(inv.wordsPerRoom());
+            for (long w : roomNights) out.writeLong(w);
+            out.writeInt(holds.size());
+            for (BookingQuote q : holds) {
+                record.reset();
+                writeQuote(recordOut, q);
+                out.writeInt(record.size());
+                record.writeTo(out);
+            }
+            out.writeInt(bookings.size());
+            for (BookingConfirmation c : bookings) {
+                record.reset();
+                writeBooking(recordOut, c);
+                out.writeInt(record.size());
+                record.writeTo(out);
+            }
+            out.flush();
+            new DataOutputStream(os).writeInt((int) sum.getValue());
+        }
+        if (fsync) {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ch.force(true);
+            }
+        }
+        Files.move(tmp, dir.resolve(snapshotName(seq)), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        snapshotSeq = seq;
+        prune(seq);
+    }
+
+    // deletes snapshots older than seq and segments whose records all precede it
+    private void prune(long seq) throws IOException {
+        TreeMap<Long, Path> segments = list("wal-", ".log");
+        TreeMap<Long, Path> snapshots = list("snapshot-", ".snap");
+        for (Map.Entry<Long, Path> e : snapshots.entrySet()) {
+            if (e.getKey() < seq) Files.deleteIfExists(e.getValue());
+        }
+        Long[] firsts = segments.keySet().toArray(new Long[0]);
+        for (int i = 0; i + 1 < firsts.length; i++) {
+            if (firsts[i + 1] <= seq + 1) Files.deleteIfExists(segments.get(firsts[i]));
+        }
+    }
+
+    // ------- recovery -------
+
+    // what a snapshot file holds before its entries
+    private static final class SnapshotHead {
+        long lastId, logSegment;
+        int logPos;
+        long origin;
+        int roomCount, words;
+        long[] roomNights;
+        ByteBuffer entries;
+    }
+
+    private Recovery recover() throws IOException {
+        SnapshotHead snap = null;
+        long fromSeq = 0;
+        TreeMap<Long, Path> snapshots = list("snapshot-", ".snap");
+        for (Long s : snapshots.descendingKeySet()) {
+            snap = readSnapshot(snapshots.get(s));
+            if (snap != null) {
+                fromSeq = s;
+                break;
+            }
+        }
+        snapshotSeq = fromSeq;
+
+        Map<Long, BookingQuote> holds = new LinkedHashMap<>();
+        Map<Long, BookingConfirmation> bookings = new LinkedHashMap<>();
+        List<StayChange> changes = new ArrayList<>();
+        Set<Long> loggedHolds = new HashSet<>(), loggedBookings = new HashSet<>();
+        long[] lastId = {snap == null ? 0 : snap.lastId};
+
+        // replay the tail; the last good record decides where appending resumes
+        TreeMap<Long, Path> segments = list("wal-", ".log");
+        boolean jump = snap != null && segments.containsKey(snap.logSegment);
+        long seq = fromSeq;
+        int replayed = 0;
+        Long resumeSegment = null;
+        int resumePos = 0;
+        for (Map.Entry<Long, Path> e : segments.entrySet()) {
+            if (jump && e.getKey() < snap.logSegment) continue;
+            Long next = segments.higherKey(e.getKey());
+            if (next != null && next <= fromSeq + 1) continue;  // wholly covered by the snapshot
+            try (FileChannel ch = FileChannel.open(e.getValue(), StandardOpenOption.READ)) {
+                MappedByteBuffer b = ch.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(ch.size(), segmentBytes));
+                CRC32C sum = new CRC32C();
+                int pos = jump && e.getKey() == snap.logSegment ? snap.logPos : 0;
+                while (pos + HEADER <= b.limit()) {
+                    int length = b.getInt(pos);
+                    if (length < RECORD_OVERHEAD || pos + HEADER + length > b.limit()) break;
+                    sum.reset();
+                    sum.update(b.duplicate().position(pos + HEADER).limit(pos + HEADER + length));
+                    if ((int) sum.getValue() != b.getInt(pos + 4)) break;
+                    long recSeq = b.getLong(pos + HEADER + 1);
+                    if (seq != 0 && recSeq != seq + 1 && recSeq > fromSeq) break;
+                    if (recSeq > fromSeq) {
+                        ByteBuffer payload = b.duplicate().position(pos + HEADER + RECORD_OVERHEAD).limit(pos + HEADER + length);
+                        apply(b.get(pos + HEADER), payload, holds, bookings, changes, loggedHolds, loggedBookings, lastId);
+                        replayed++;
+                    }
+                    seq = Math.max(seq, recSeq);
+                    pos += HEADER + length;
+                }
+                resumeSegment = e.getKey();
+                resumePos = pos;
+            }
+        }
+
+        lastSeq = seq;
+        durableSeq = seq;
+        if (resumeSegment == null || segmentBytes - resumePos < HEADER + RECORD_OVERHEAD + 4) {
+            openSegment(seq + 1, 0);
+        } else {
+            openSegment(resumeSegment, resumePos);
+            // clear a torn tail so it can never be read back after newer records
+            if (buf.getInt(resumePos) != 0) {
+                byte[] zeros = new byte[1 << 16];
+                for (int i = resumePos; i < segmentBytes; i += zeros.length) {
+                    buf.put(i, zeros, 0, Math.min(zeros.length, segmentBytes - i));
+                }
+                if (fsync) buf.force();
+            }
+        }
+        if (snap == null) {
+            return new Recovery(null, 0, 0, 0, changes, new ArrayList<>(holds.values()), new ArrayList<>(bookings.values()),
+                    lastId[0], fromSeq, replayed, null, loggedHolds, loggedBookings);
+        }
+        return new Recovery(snap.roomNights, snap.origin, snap.words, snap.roomCount, changes,
+                new ArrayList<>(holds.values()), new ArrayList<>(bookings.values()), lastId[0], fromSeq, replayed,
+                snap.entries, loggedHolds, loggedBookings);
+    }
+
+    // records are keyed by hold/booking id, so one that is already in the snapshot replays harmlessly
+    private void apply(byte type, ByteBuffer in, Map<Long, BookingQuote> holds, Map<Long, BookingConfirmation> bookings,
+                       List<StayChange> changes, Set<Long> loggedHolds, Set<Long> loggedBookings,
+                       long[] lastId) throws IOException {
+        switch (type) {
+            case HOLD: {
+                BookingQuote q = readQuote(in);
+                holds.put(q.holdId, q);
+                loggedHolds.add(q.holdId);
+                changes.add(new StayChange(true, q.roomIds, q.inDay, q.outDay));
+                lastId[0] = Math.max(lastId[0], q.holdId);
+                break;
+            }
+            case BOOKED: {
+                BookingConfirmation c = readBooking(in);
+                holds.remove(c.quote.holdId);
+                loggedHolds.add(c.quote.holdId);
+                bookings.put(c.bookingId, c);
+                loggedBookings.add(c.bookingId);
+                // a snapshot taken mid-confirmation may have missed both the hold and the booking
+                changes.add(new StayChange(true, c.quote.roomIds, c.quote.inDay, c.quote.outDay));
+                lastId[0] = Math.max(lastId[0], c.bookingId);
+                break;
+            }
+            case HOLD_CANCELLED:
+            case BOOKING_CANCELLED: {
+                long id = in.getLong(), inDay = in.getLong(), outDay = in.getLong();
+                int[] roomIds = new int[in.getInt()];
+                for (int i = 0; i < roomIds.length; i++) roomIds[i] = in.getInt();
+                if (type == HOLD_CANCELLED) {
+                    holds.remove(id);
+                    loggedHolds.add(id);
+                } else {
+                    bookings.remove(id);
+                    loggedBookings.add(id);
+                }
+                changes.add(new StayChange(false, roomIds, inDay, outDay));
+                break;
+            }
+            default:
+                throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    // the whole file is read and checked at once; the entries are only located here.
+    // null when the file is damaged or of another version
+    private static SnapshotHead readSnapshot(Path p) {
+        try {
+            byte[] bytes = Files.readAllBytes(p);
+            if (bytes.length < 4) return null;
+            CRC32C sum = new CRC32C();
+            sum.update(bytes, 0, bytes.length - 4);
+            ByteBuffer in = ByteBuffer.wrap(bytes);
+            if (in.getInt(bytes.length - 4) != (int) sum.getValue()) return null;
+            in.limit(bytes.length - 4);
+            if (in.getInt() != SNAPSHOT_MAGIC || in.getInt() != SNAPSHOT_VERSION) return null;
+            SnapshotHead h = new SnapshotHead();
+            in.getLong();  // seq, also in the file name
+            h.lastId = in.getLong();
+            h.logSegment = in.getLong();
+            h.logPos = in.getInt();
+            h.origin = in.getLong();
+            h.roomCount = in.getInt();
+            h.words = in.getInt();
+            h.roomNights = new long[Math.multiplyExact(h.roomCount, h.words)];
+            in.asLongBuffer().get(h.roomNights);
+            in.position(in.position() + 8 * h.roomNights.length);
+            h.entries = in.slice();
+            return h;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    // hands over the snapshot's holds and bookings, minus every one the log also has a record
+    // of. a snapshot reads its position before the tables, so a hold or booking written in
+    // between is in both; the log's copy is already in the engine's tables and may have been
+    // cancelled since, so handing the snapshot's over would bring it back with no rooms behind
+    // it. meant for a background thread after restart
+    void decodeSnapshot(Recovery r, Consumer<BookingQuote> holds, Consumer<BookingConfirmation> bookings) {
+        if (r.snapshotEntries == null) return;
+        ByteBuffer in = r.snapshotEntries.duplicate();
+        for (int i = in.getInt(); i > 0; i--) {
+            int end = in.getInt();
+            end += in.position();
+            BookingQuote q = readQuote(in);
+            in.position(end);
+            if (!r.loggedHolds.contains(q.holdId)) holds.accept(q);
+        }
+        for (int i = in.getInt(); i > 0; i--) {
+            int end = in.getInt();
+            end += in.position();
+            BookingConfirmation c = readBooking(in);
+            in.position(end);
+            if (!r.loggedBookings.contains(c.bookingId)) bookings.accept(c);
+        }
+    }
+
+    // ------- record payloads -------
+
+    // amounts are written as long centavos, exactly as the quote holds them
+
+    private static void writeQuote(DataOutput out, BookingQuote q) throws IOException {
+        BookingRequest r = q.request;
+        writeString(out, r.bookerName);
+        writeString(out, r.bookerEmail);
+        writeString(out, r.bookerContact);
+        out.writeInt(r.bookerAge);
+        out.writeInt(r.today);
+        writeString(out, r.destination);
+        out.writeInt(r.checkIn);
+        out.writeInt(r.checkOut);
+        out.writeInt(r.adults);
+        out.writeInt(r.childCount());
+        for (int i = 0; i < r.childCount(); i++) out.writeByte(r.childAge(i));
+        out.writeInt(r.roomCount);
+        out.writeInt(r.extraBeds);
+        out.writeInt(r.releaseDate);
+        out.writeBoolean(r.hasRoomTypes());
+        if (r.hasRoomTypes()) {
+            for (int i = 0; i < r.roomCount; i++) {
+                out.writeByte(r.roomType(i));
+                out.writeInt(r.roomId(i));
+            }
+        }
+        // amenities by name, so a reordered catalog still reads back; with the price charged
+        AmenityLedger amen = r.amenities;
+        out.writeInt(amen.lines());
+        for (int i = 0; i < amen.lines(); i++) {
+            out.writeInt(amen.room(i));
+            writeString(out, amen.catalog.name(amen.amenity(i)));
+            out.writeInt(amen.persons(i));
+            out.writeInt(amen.pwd(i));
+            out.writeInt(amen.days(i));
+            out.writeLong(amen.unitPrice(i));
+        }
+
+        out.writeLong(q.holdId);
+        out.writeBoolean(q.international);
+        out.writeLong(q.inDay);
+        out.writeLong(q.outDay);
+        out.writeInt(q.totalGuests);
+        for (int i = 0; i < q.rooms.length; i++) {
+            out.writeByte(MainCode.typeIndex(q.rooms[i]));
+            out.writeInt(q.roomIds[i]);
+            out.writeLong(q.roomStayTotal[i]);
+        }
+        out.writeLong(q.roomSubtotal);
+    }
+
+    private BookingQuote readQuote(ByteBuffer in) {
+        String name = readString(in), email = readString(in), contact = readString(in);
+        int age = in.getInt(), today = in.getInt();
+        String destination = readString(in);
+        int checkIn = in.getInt(), checkOut = in.getInt(), adults = in.getInt();
+        int[] childAges = new int[in.getInt()];
+        for (int i = 0; i < childAges.length; i++) childAges[i] = in.get();
+        int roomCount = in.getInt(), extraBeds = in.getInt(), releaseDate = in.getInt();
+        int[] roomTypes = null, roomIds = null;
+        if ((in.get() != 0)) {
+            roomTypes = new int[roomCount];
+            roomIds = new int[roomCount];
+            for (int i = 0; i < roomCount; i++) {
+                roomTypes[i] = in.get();
+                roomIds[i] = in.getInt();
+            }
+        }
+        AmenityCatalog catalog = AmenityCatalog.shared();
+        AmenityLedger amenities = new AmenityLedger(catalog);
+        for (int i = in.getInt(); i > 0; i--) {
+            int room = in.getInt();
+            String amenity = readString(in);
+            int a = catalog.indexOf(amenity);
+            if (a < 0) throw new IllegalStateException("Journal names amenity " + amenity + ", which is no longer in the catalog");
+            amenities.add(room, a, in.getInt(), in.getInt(), in.getInt(), in.getLong());
+        }
+        BookingRequest req = new BookingRequest(name, email, contact, age, today, destination, checkIn, checkOut,
+                adults, childAges, roomCount, roomTypes, roomIds, extraBeds, amenities, releaseDate);
+
+        long holdId = in.getLong();
+        boolean international = (in.get() != 0);
+        long inDay = in.getLong(), outDay = in.getLong();
+        int totalGuests = in.getInt();
+        RoomType[] rooms = new RoomType[roomCount];
+        int[] ids = new int[roomCount];
+        long[] stayTotal = new long[roomCount];
+        for (int i = 0; i < roomCount; i++) {
+            rooms[i] = MainCode.ROOM_TYPES[in.get()];
+            ids[i] = in.getInt();
+            stayTotal[i] = in.getLong();
+        }
+        long roomSubtotal = in.getLong();
+
+        // season figures come from the calendar, which is fixed for a given date
+        Season season = MainCode.determineSeasonForStay(checkIn, checkOut);
+        int[] seasonNights = new int[Season.values().length];
+        pricing.nightsBySeason(inDay, outDay, seasonNights);
+        return new BookingQuote(req, holdId, international, inDay, outDay, season, seasonNights, totalGuests, rooms, ids,
+                stayTotal, roomSubtotal, req.amenities);
+    }
+
+    private static void writeBooking(DataOutput out, BookingConfirmation c) throws IOException {
+        writeQuote(out, c.quote);
+        out.writeLong(c.bookingId);
+        out.writeByte(c.method.ordinal());
+        out.writeLong(c.amountPaid);
+        out.writeLong(c.change);
+    }
+
+    private BookingConfirmation readBooking(ByteBuffer in) {
+        BookingQuote q = readQuote(in);
+        long bookingId = in.getLong();
+        Payment.Method method = Payment.Method.values()[in.get()];
+        long paid = in.getLong(), change = in.getLong();
+        return new BookingConfirmation(bookingId, q, method, paid, change);
+    }
+
+    // int byte length (-1 = null), then UTF-8
+    private static void writeString(DataOutput out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int n = in.getInt();
+        if (n < 0) return null;
+        byte[] b = new byte[n];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    // ------- files -------
+
+    private static String segmentName(long firstSeq) {
+        return "wal-" + hex16(firstSeq) + ".log";
+    }
+
+    private static String snapshotName(long seq) {
+        return "snapshot-" + hex16(seq) + ".snap";
+    }
+
+    private static String hex16(long v) {
+        String h = Long.toHexString(v);
+        return "0".repeat(16 - h.length()) + h;
+    }
+
+    private TreeMap<Long, Path> list(String prefix, String suffix) throws IOException {
+        TreeMap<Long, Path> out = new TreeMap<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+            for (Path p : ds) {
+                String n = p.getFileName().toString();
+                if (!n.startsWith(prefix) || !n.endsWith(suffix)) continue;
+                try {
+                    out.put(Long.parseUnsignedLong(n.substring(prefix.length(), n.length() - suffix.length()), 16), p);
+                } catch (NumberFormatException e) {
+                    // not ours
+                }
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            if (fsync) buf.force();
+            durableSeq = lastSeq;
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+        snapshotter.shutdown();
+    }
+}
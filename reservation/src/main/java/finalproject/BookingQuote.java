@@ -0,0 +1,163 @@
+package finalproject;
+
+import finalproject.MainCode.RoomType;
+import finalproject.MainCode.Season;
+
+// priced result of a BookingRequest. either denied (denial != null) or carries the
+// room selection and every figure the booking summary shows. a quote returned by
+// BookingEngine.hold also owns its rooms in the inventory until confirmed or cancelled.
+// every amount is in centavos (see Money).
+final class BookingQuote {
+
+    final BookingRequest request;
+    final DenialReason denial;   // null when the request can be booked
+    final String denialMessage;
+
+    final long holdId;           // 0 unless the rooms are held
+    final boolean international;
+    final long inDay;            // day numbers of check-in / check-out
+    final long outDay;
+    final int nights;
+    final Season season;         // highest season touched by the stay
+    final int[] seasonNights;    // nights per season (Season ordinal)
+    final int totalGuests;
+    final RoomType[] rooms;
+    final int[] roomIds;         // inventory ids once held, otherwise as requested
+    final long[] roomStayTotal;      // each night priced at its own season
+    final long[] roomPricePerNight;  // roomStayTotal / nights, to the nearest centavo
+    final long roomSubtotal;
+
+    final AmenityLedger amenities;  // the request's, with per-amenity aggregates
+    final long amenSubtotal;
+    final long amenDiscount;
+    final long amenTotal;
+    final long grandTotal;
+
+    BookingQuote(BookingRequest request, long holdId, boolean international, long inDay, long outDay,
+                 Season season, int[] seasonNights, int totalGuests, RoomType[] rooms, int[] roomIds,
+                 long[] roomStayTotal, long roomSubtotal, AmenityLedger amenities) {
+        this.request = request;
+        this.denial = null;
+        this.denialMessage = null;
+        this.holdId = holdId;
+        this.international = international;
+        this.inDay = inDay;
+        this.outDay = outDay;
+        this.nights = (int) (outDay - inDay);
+        this.season = season;
+        this.seasonNights = seasonNights;
+        this.totalGuests = totalGuests;
+        this.rooms = rooms;
+        this.roomIds = roomIds;
+        this.roomStayTotal = roomStayTotal;
+        this.roomPricePerNight = new long[roomStayTotal.length];
+        for (int r = 0; r < roomStayTotal.length; r++) roomPricePerNight[r] = Money.divide(roomStayTotal[r], nights);
+        this.roomSubtotal = roomSubtotal;
+        this.amenities = amenities;
+        this.amenSubtotal = amenities.subtotal();
+        this.amenDiscount = amenities.discount();
+        this.amenTotal = Money.minus(amenSubtotal, amenDiscount);
+        this.grandTotal = Money.plus(roomSubtotal, amenTotal);
+    }
+
+    private BookingQuote(BookingRequest request, DenialReason denial, String denialMessage) {
+        this.request = request;
+        this.denial = denial;
+        this.denialMessage = denialMessage;
+        this.holdId = 0;
+        this.international = false;
+        this.inDay = 0;
+        this.outDay = 0;
+        this.nights = 0;
+        this.season = null;
+        this.seasonNights = null;
+        this.totalGuests = 0;
+        this.rooms = null;
+        this.roomIds = null;
+        this.roomStayTotal = null;
+        this.roomPricePerNight = null;
+        this.roomSubtotal = 0;
+        this.amenities = null;
+        this.amenSubtotal = 0;
+        this.amenDiscount = 0;
+        this.amenTotal = 0;
+        this.grandTotal = 0;
+    }
+
+    static BookingQuote denied(BookingRequest request, DenialReason reason, Object... args) {
+        return new BookingQuote(request, reason, reason.message(args));
+    }
+
+    // same figures with the rooms that were actually reserved
+    BookingQuote held(long holdId, int[] heldRoomIds) {
+        return new BookingQuote(request, holdId, international, inDay, outDay, season, seasonNights, totalGuests, rooms,
+                heldRoomIds, roomStayTotal, roomSubtotal, amenities);
+    }
+
+    // same rooms at the same prices for req, which orders other amenities
+    BookingQuote withRequest(BookingRequest req) {
+        return new BookingQuote(req, holdId, international, inDay, outDay, season, seasonNights, totalGuests, rooms,
+                roomIds, roomStayTotal, roomSubtotal, req.amenities);
+    }
+
+    // a held block split by its rooming list: the first keep[t] rooms of each type, and the
+    // others. both are quotes of this hold at the block's prices; the kept party is capped to
+    // what its rooms sleep. blocks have no children, extra beds or amenities to share out
+    BookingQuote[] splitBlock(int[] keep) {
+        int[] left = keep.clone();
+        int kept = 0;
+        for (int k : keep) kept += k;
+        int[] keptTypes = new int[kept], keptIds = new int[kept], goneTypes = new int[rooms.length - kept];
+        int[] goneIds = new int[goneTypes.length];
+        long[] keptTotal = new long[kept], goneTotal = new long[goneTypes.length];
+        int k = 0, g = 0, capacity = 0;
+        for (int r = 0; r < rooms.length; r++) {
+            int t = MainCode.typeIndex(rooms[r]);
+            if (left[t] > 0) {
+                left[t]--;
+                capacity += rooms[r].capacity;
+                keptTypes[k] = t;
+                keptIds[k] = roomIds[r];
+                keptTotal[k++] = roomStayTotal[r];
+            } else {
+                goneTypes[g] = t;
+                goneIds[g] = roomIds[r];
+                goneTotal[g++] = roomStayTotal[r];
+            }
+        }
+        int guests = Math.min(totalGuests, capacity);
+        return new BookingQuote[]{
+                part(request.blockOf(keptTypes, guests), guests, keptTypes, keptIds, keptTotal),
+                part(request.blockOf(goneTypes, totalGuests - guests), totalGuests - guests, goneTypes, goneIds, goneTotal)};
+    }
+
+    private BookingQuote part(BookingRequest req, int guests, int[] types, int[] ids, long[] stayTotal) {
+        RoomType[] partRooms = new RoomType[types.length];
+        for (int r = 0; r < types.length; r++) partRooms[r] = MainCode.ROOM_TYPES[types[r]];
+        return new BookingQuote(req, holdId, international, inDay, outDay, season, seasonNights, guests, partRooms, ids,
+                stayTotal, Money.sum(stayTotal), req.amenities);
+    }
+
+    // the same result answering another request of the same shape (see BookingRequest.sameShape)
+    BookingQuote forRequest(BookingRequest other) {
+        if (other == request) return this;
+        if (denial != null) return new BookingQuote(other, denial, denialMessage);
+        return new BookingQuote(other, holdId, international, inDay, outDay, season, seasonNights, totalGuests, rooms,
+                roomIds, roomStayTotal, roomSubtotal, other.amenities);
+    }
+
+    boolean ok() {
+        return denial == null;
+    }
+
+    // true when the nights fall in more than one season, so rates differ per night
+    boolean mixedSeasons() {
+        int seen = 0;
+        for (int n : seasonNights) if (n > 0) seen++;
+        return seen > 1;
+    }
+
+    boolean isHeld() {
+        return holdId != 0;
+    }
+}
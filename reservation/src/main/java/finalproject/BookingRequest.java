@@ -0,0 +1,154 @@
+package finalproject;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+// everything a booking needs, captured up front so the engine can run without prompts.
+// arrays are copied in and never handed out, so a request can be shared between threads.
+final class BookingRequest {
+
+    static final int ANY_ROOM = -1;
+
+    final String bookerName;
+    final String bookerEmail;
+    final String bookerContact;
+    final int bookerAge;
+    final int today;      // packed yyyymmdd, used to reject past check-ins
+    final String destination;
+    final int checkIn;    // packed yyyymmdd
+    final int checkOut;   // packed yyyymmdd
+    final int adults;
+    final int roomCount;
+    final int extraBeds;
+    final int releaseDate;  // packed yyyymmdd a group block is kept until without its rooming list, 0 = not a block
+
+    private final int[] childAges;
+    private final int[] roomTypes;    // type index per room, null = take the suggestion
+    private final int[] roomIds;      // inventory room id per room, null or ANY_ROOM = any free room
+    final AmenityLedger amenities;    // frozen, empty when none were ordered
+
+    BookingRequest(String bookerName, String bookerEmail, String bookerContact, int bookerAge,
+                   int today, String destination, int checkIn, int checkOut,
+                   int adults, int[] childAges, int roomCount, int[] roomTypes, int[] roomIds,
+                   int extraBeds, AmenityLedger amenities) {
+        this(bookerName, bookerEmail, bookerContact, bookerAge, today, destination, checkIn, checkOut, adults, childAges,
+                roomCount, roomTypes, roomIds, extraBeds, amenities, 0);
+    }
+
+    BookingRequest(String bookerName, String bookerEmail, String bookerContact, int bookerAge,
+                   int today, String destination, int checkIn, int checkOut,
+                   int adults, int[] childAges, int roomCount, int[] roomTypes, int[] roomIds,
+                   int extraBeds, AmenityLedger amenities, int releaseDate) {
+        if (roomTypes != null && roomTypes.length != roomCount) {
+            throw new IllegalArgumentException("roomTypes must have one entry per room");
+        }
+        if (roomIds != null && (roomTypes == null || roomIds.length != roomCount)) {
+            throw new IllegalArgumentException("roomIds need roomTypes and one entry per room");
+        }
+        if (amenities != null) {
+            for (int i = 0; i < amenities.lines(); i++) {
+                if (amenities.room(i) < 0 || amenities.room(i) >= roomCount) {
+                    throw new IllegalArgumentException("amenity lines must name one of the " + roomCount + " rooms");
+                }
+            }
+        }
+        this.bookerName = bookerName;
+        this.bookerEmail = bookerEmail;
+        this.bookerContact = bookerContact;
+        this.bookerAge = bookerAge;
+        this.today = today;
+        this.destination = destination;
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+        this.adults = adults;
+        this.childAges = childAges == null ? new int[0] : childAges.clone();
+        this.roomCount = roomCount;
+        this.roomTypes = roomTypes == null ? null : roomTypes.clone();
+        this.roomIds = roomIds == null ? null : roomIds.clone();
+        this.extraBeds = extraBeds;
+        this.amenities = amenities == null ? NoAmenities.INSTANCE : amenities.frozenCopy();
+        this.releaseDate = releaseDate;
+    }
+
+    // a group block: roomsPerType[t] rooms of type t (ROOM_TYPES order) for `guests` adults,
+    // held until the rooming list comes in (BookingEngine.confirmBlock) or releaseDate passes
+    static BookingRequest block(String bookerName, String bookerEmail, String bookerContact, int bookerAge, int today,
+                                String destination, int checkIn, int checkOut, int guests, int[] roomsPerType,
+                                int releaseDate) {
+        if (roomsPerType.length != MainCode.ROOM_TYPES.length) {
+            throw new IllegalArgumentException("A block needs a room count for each of the " + MainCode.ROOM_TYPES.length + " room types");
+        }
+        int roomCount = 0;
+        for (int n : roomsPerType) {
+            if (n < 0) throw new IllegalArgumentException("Negative room count in a block");
+            roomCount += n;
+        }
+        int[] roomTypes = new int[roomCount];
+        for (int t = 0, r = 0; t < roomsPerType.length; t++) {
+            for (int i = 0; i < roomsPerType[t]; i++) roomTypes[r++] = t;
+        }
+        return new BookingRequest(bookerName, bookerEmail, bookerContact, bookerAge, today, destination, checkIn, checkOut,
+                guests, null, roomCount, roomTypes, null, 0, null, releaseDate);
+    }
+
+    // this block for fewer rooms of the given types and fewer guests: what its rooming list keeps
+    BookingRequest blockOf(int[] roomTypes, int guests) {
+        return new BookingRequest(bookerName, bookerEmail, bookerContact, bookerAge, today, destination, checkIn, checkOut,
+                guests, null, roomTypes.length, roomTypes, null, 0, null, releaseDate);
+    }
+
+    // the same request with these amenities ordered instead
+    BookingRequest withAmenities(AmenityLedger amenities) {
+        return new BookingRequest(bookerName, bookerEmail, bookerContact, bookerAge, today, destination, checkIn, checkOut,
+                adults, childAges, roomCount, roomTypes, roomIds, extraBeds, amenities, releaseDate);
+    }
+
+    boolean isBlock() {
+        return releaseDate != 0;
+    }
+
+    private static final class NoAmenities {
+        static final AmenityLedger INSTANCE = new AmenityLedger(AmenityCatalog.shared()).frozenCopy();
+    }
+
+    // same stay and party as o, ignoring the booker and today: such requests get the same quote
+    boolean sameShape(BookingRequest o) {
+        return checkIn == o.checkIn && checkOut == o.checkOut && adults == o.adults && roomCount == o.roomCount
+                && extraBeds == o.extraBeds && Objects.equals(destination, o.destination)
+                && Arrays.equals(childAges, o.childAges) && Arrays.equals(roomTypes, o.roomTypes)
+                && Arrays.equals(roomIds, o.roomIds) && amenities.sameLines(o.amenities);
+    }
+
+    int shapeHash() {
+        int h = Objects.hashCode(destination);
+        h = h * 31 + checkIn;
+        h = h * 31 + checkOut;
+        h = h * 31 + adults;
+        h = h * 31 + roomCount;
+        h = h * 31 + extraBeds;
+        h = h * 31 + Arrays.hashCode(childAges);
+        h = h * 31 + Arrays.hashCode(roomTypes);
+        h = h * 31 + Arrays.hashCode(roomIds);
+        return h * 31 + amenities.linesHash();
+    }
+
+    int childCount() {
+        return childAges.length;
+    }
+
+    int childAge(int i) {
+        return childAges[i];
+    }
+
+    boolean hasRoomTypes() {
+        return roomTypes != null;
+    }
+
+    int roomType(int room) {
+        return roomTypes[room];
+    }
+
+    int roomId(int room) {
+        return roomIds == null ? ANY_ROOM : roomIds[room];
+    }
+}
@@ -0,0 +1,48 @@
+package finalproject;
+
+// every way a reservation can be refused, with the exact text the console prints
+enum DenialReason {
+    UNDERAGE("ERROR: Booker must be at least 18 years old. Reservation denied."),
+    INVALID_DATE("ERROR: Invalid date. Reservation denied."),
+    CHECK_IN_IN_PAST("ERROR: Check-in date is in the past. Reservation denied."),
+    CHECK_OUT_NOT_AFTER_CHECK_IN("ERROR: Check-out must be after check-in. Reservation denied."),
+    OUTSIDE_BOOKING_WINDOW("ERROR: Stay is outside the booking window. Reservation denied."),
+    UNKNOWN_DESTINATION("ERROR: Unknown destination %s. Reservation denied."),
+    NO_ROOMS_REQUESTED("ERROR: At least one room is required. Reservation denied."),
+    NO_GUESTS("ERROR: At least one guest is required. Reservation denied."),
+    INVALID_CHILD_AGE("ERROR: Child ages must be between 0 and 17. Reservation denied."),
+    NO_ROOM_COMBINATION("ERROR: No room combination can accommodate %d guests in %d room(s). Reservation denied."),
+    NO_ROOMS_AVAILABLE("ERROR: No rooms available for %s. Reservation denied."),
+    INVALID_ROOM("ERROR: Room %d is not a %s room. Reservation denied."),
+    ROOM_TAKEN("ERROR: %s was just booked by someone else. Reservation denied."),
+    OVER_SELECTED_CAPACITY("ERROR: Total guests (%d) exceed total capacity of selected rooms (%d). Reservation denied."),
+    TOO_MANY_EXTRA_BEDS("ERROR: %d extra beds requested but the selected rooms allow at most %d. Reservation denied."),
+    OVER_CAPACITY("ERROR: Total guests (%d) exceed room capacity (%d). Reservation denied."),
+    INVALID_AMENITY("ERROR: Invalid amenity request for Room #%d. Reservation denied."),
+    INVALID_RELEASE_DATE("ERROR: The rooming list must be due between today and check-in. Reservation denied."),
+    NOT_A_BLOCK("ERROR: Hold %d is not a group block. Reservation denied."),
+    ROOMING_LIST("ERROR: The rooming list keeps %d %s room(s) but the block holds %d. Reservation denied."),
+    INVALID_AMOUNT("Invalid amount."),
+    INSUFFICIENT_CASH("ERROR: Insufficient amount. Please pay at least the total due."),
+    CARD_LENGTH("ERROR: Card number must be 16 digits."),
+    CARD_DIGITS("ERROR: Card number must contain only digits."),
+    CVV_LENGTH("ERROR: CVV must be 3 digits."),
+    CVV_DIGITS("ERROR: CVV must contain only digits."),
+    HOLD_NOT_FOUND("ERROR: Hold %d not found, expired or already completed. Reservation denied."),
+    SHARD_BUSY("ERROR: Too many bookings for %s right now. Please try again."),
+    PAYMENT_DECLINED("ERROR: The card was declined. Reservation cancelled."),
+    PAYMENT_FAILED("ERROR: The payment could not be completed. Reservation cancelled."),
+    PAYMENT_PENDING("ERROR: A payment for hold %d is already in progress."),
+    IDEMPOTENCY_KEY_REUSED("ERROR: Idempotency key %s was already used for another hold."),
+    PAYMENT_NOT_COMPLETED("Payment not completed. Reservation cancelled.");
+
+    final String template;
+
+    DenialReason(String template) {
+        this.template = template;
+    }
+
+    String message(Object... args) {
+        return args.length == 0 ? template : String.format(template, args);
+    }
+}
@@ -0,0 +1,131 @@
+package finalproject;
+
+import finalproject.MainCode.RoomType;
+
+// who sleeps where: spreads a party over the rooms of a booking. each room has capacity
+// beds plus the extra beds given to it (at most extraBedsAllowed; the booking's extra beds
+// go to the rooms in order). children 12 and older are placed as adults, younger children
+// need a bed, infants (under INFANT_AGE) sleep in a cot and need none. this is not how
+// BookingEngine.totalGuests counts: it counts a child of 12 or older twice (once as an adult,
+// once as a child) and infants as guests, so a party that passed its capacity check never
+// needs more beds here than the rooms have.
+//
+// every room that can get an adult gets one before anyone else is placed, then children
+// go to rooms with an adult, then the remaining adults fill the beds left. infants are
+// spread evenly over the rooms with an adult. the result is a guest count per room kept in
+// int arrays owned by the allocator and reused by the next allocate, so a tour group of
+// hundreds is placed in time linear in rooms plus children without allocating; labels are
+// only built when a room is displayed. one allocator per thread.
+final class GuestAllocator {
+
+    static final int INFANT_AGE = 2;
+
+    private int rooms;
+    private int[] beds, adults, children, infants;
+
+    GuestAllocator(int maxRooms) {
+        int n = Math.max(1, maxRooms);
+        beds = new int[n];
+        adults = new int[n];
+        children = new int[n];
+        infants = new int[n];
+    }
+
+    // places the party in the first roomCount rooms of types; false (and nothing placed)
+    // when the adults and children outnumber the beds
+    boolean allocate(RoomType[] types, int roomCount, int extraBeds, int numAdults, int[] childAges) {
+        if (roomCount > beds.length) grow(roomCount);
+        rooms = 0;
+        int grown = numAdults, kids = 0, babies = 0;  // each guest once, unlike totalGuests
+        for (int age : childAges) {
+            if (age >= 12) grown++;
+            else if (age >= INFANT_AGE) kids++;
+            else babies++;
+        }
+        long total = 0;
+        for (int r = 0; r < roomCount; r++) {
+            int extra = Math.min(extraBeds, types[r].extraBedsAllowed);
+            extraBeds -= extra;
+            beds[r] = types[r].capacity + extra;
+            total += beds[r];
+            adults[r] = children[r] = infants[r] = 0;
+        }
+        if (grown + kids > total) return false;
+        rooms = roomCount;
+
+        // one adult per room while they last (every room type has a bed)
+        int supervised = Math.min(grown, roomCount);
+        for (int r = 0; r < supervised; r++) adults[r] = 1;
+        grown -= supervised;
+
+        // children with an adult first; without one only when there are no adults left
+        for (int r = 0; r < roomCount && kids > 0; r++) {
+            if (adults[r] == 0) continue;
+            int n = Math.min(kids, beds[r] - adults[r]);
+            children[r] = n;
+            kids -= n;
+        }
+        for (int r = 0; r < roomCount && kids > 0; r++) {
+            if (adults[r] != 0) continue;
+            int n = Math.min(kids, beds[r]);
+            children[r] = n;
+            kids -= n;
+        }
+        for (int r = 0; r < roomCount && grown > 0; r++) {
+            int n = Math.min(grown, beds[r] - adults[r] - children[r]);
+            adults[r] += n;
+            grown -= n;
+        }
+
+        // infants share the rooms with an adult, or every room when the party has none
+        int hosts = supervised > 0 ? supervised : roomCount;
+        if (hosts > 0 && babies > 0) {
+            int each = babies / hosts, rest = babies % hosts;
+            for (int r = 0; r < roomCount; r++) {
+                if (supervised > 0 && adults[r] == 0) continue;
+                infants[r] = each + (rest-- > 0 ? 1 : 0);
+            }
+        }
+        return true;
+    }
+
+    private void grow(int n) {
+        beds = new int[n];
+        adults = new int[n];
+        children = new int[n];
+        infants = new int[n];
+    }
+
+    // ------- the last allocation -------
+
+    int rooms() {
+        return rooms;
+    }
+
+    int beds(int room) {
+        return beds[room];
+    }
+
+    int adults(int room) {
+        return adults[room];
+    }
+
+    int children(int room) {
+        return children[room];
+    }
+
+    int infants(int room) {
+        return infants[room];
+    }
+
+    // "Adults: 2, Children (need bed): 1, Infants: 1"
+    StringBuilder appendLabel(StringBuilder sb, int room) {
+        sb.append("Adults: ").append(adults[room]).append(", Children (need bed): ").append(children[room]);
+        if (infants[room] > 0) sb.append(", Infants: ").append(infants[room]);
+        return sb;
+    }
+
+    String label(int room) {
+        return appendLabel(new StringBuilder(48), room).toString();
+    }
+}
@@ -0,0 +1,149 @@
+package finalproject;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+// hashed timer wheel that expires holds: schedule(id) and, about ttl later, the wheel's
+// thread hands the id to onExpiry. time is cut into ticks and the wheel has a slot per tick,
+// at least as many as the ttl spans, so an id is filed under the slot of its deadline tick
+// and is looked at exactly once, when that tick comes round. scheduling and expiring are
+// O(1) whatever the number of ids waiting; the thread only visits the slots that are due.
+//
+// nothing is ever unscheduled: an id whose hold was confirmed or cancelled meanwhile still
+// reaches onExpiry, which has to find that there is nothing left to expire (see
+// BookingEngine.expireHold). entries are kept in parallel primitive arrays linked per slot,
+// with a free list, so millions of waiting ids are a few arrays rather than millions of
+// objects; the arrays only grow. expiry is up to one tick late.
+final class HoldTimerWheel implements AutoCloseable {
+
+    private static final int TICKS_PER_TTL = 256;
+
+    private final long ttlNanos, tickNanos;
+    private final int mask;
+    private final LongConsumer onExpiry;
+    private final long startNanos;
+    private final Thread thread;
+    private volatile boolean closed;
+
+    // guarded by this
+    private final int[] heads;        // per slot, first entry or -1
+    private long[] ids = new long[1024];
+    private long[] deadlines = new long[1024];  // tick
+    private int[] next = new int[1024];
+    private int free = -1, used;      // free list head; entries ever handed out
+    private int waiting;
+    private long tick;                // every tick before this one has been expired
+    private long[] due = new long[64];  // the expiring ids of one advance, handed over outside the lock
+
+    HoldTimerWheel(long ttlNanos, LongConsumer onExpiry) {
+        this(ttlNanos, onExpiry, true);
+    }
+
+    // without a thread the owner calls advance itself
+    HoldTimerWheel(long ttlNanos, LongConsumer onExpiry, boolean startThread) {
+        if (ttlNanos <= 0) throw new IllegalArgumentException("Hold TTL must be positive");
+        this.ttlNanos = ttlNanos;
+        this.tickNanos = Math.max(1_000_000L, ttlNanos / TICKS_PER_TTL);
+        int slots = Integer.highestOneBit((int) (ttlNanos / tickNanos + 1)) << 1;
+        this.mask = slots - 1;
+        this.heads = new int[slots];
+        Arrays.fill(heads, -1);
+        this.onExpiry = onExpiry;
+        this.startNanos = System.nanoTime();
+        this.thread = new Thread(this::run, "hold-expiry");
+        thread.setDaemon(true);
+        if (startThread) thread.start();
+    }
+
+    long ttlNanos() {
+        return ttlNanos;
+    }
+
+    // id expires ttl after now
+    void schedule(long id) {
+        schedule(id, System.nanoTime());
+    }
+
+    synchronized void schedule(long id, long nowNanos) {
+        // rounded up to a whole tick, and never into a tick already expired
+        long at = Math.max(tick, (nowNanos - startNanos + ttlNanos + tickNanos - 1) / tickNanos);
+        int e = free;
+        if (e >= 0) {
+            free = next[e];
+        } else {
+            if (used == ids.length) grow();
+            e = used++;
+        }
+        ids[e] = id;
+        deadlines[e] = at;
+        int slot = (int) at & mask;
+        next[e] = heads[slot];
+        heads[slot] = e;
+        waiting++;
+    }
+
+    private void grow() {
+        int n = ids.length * 2;
+        ids = Arrays.copyOf(ids, n);
+        deadlines = Arrays.copyOf(deadlines, n);
+        next = Arrays.copyOf(next, n);
+    }
+
+    // expires every id due by nowNanos; returns how many. one caller at a time: the wheel's
+    // thread, or the owner when there is none
+    int advance(long nowNanos) {
+        long until = (nowNanos - startNanos) / tickNanos;  // ticks up to and including this one are due
+        int n = 0;
+        long[] out;
+        synchronized (this) {
+            for (; tick <= until; tick++) {
+                int slot = (int) tick & mask;
+                int prev = -1;
+                for (int e = heads[slot]; e >= 0; ) {
+                    int following = next[e];
+                    if (deadlines[e] <= tick) {
+                        if (n == due.length) due = Arrays.copyOf(due, n * 2);
+                        due[n++] = ids[e];
+                        if (prev < 0) heads[slot] = following;
+                        else next[prev] = following;
+                        next[e] = free;
+                        free = e;
+                        waiting--;
+                    } else {
+                        prev = e;  // a lap or more away: scheduled while advance was running behind
+                    }
+                    e = following;
+                }
+            }
+            out = due;
+        }
+        for (int i = 0; i < n; i++) {
+            try {
+                onExpiry.accept(out[i]);
+            } catch (RuntimeException e) {
+                System.err.println("Hold " + out[i] + " not expired: " + e);
+            }
+        }
+        return n;
+    }
+
+    synchronized int waiting() {
+        return waiting;
+    }
+
+    private void run() {
+        while (!closed) {
+            long now = System.nanoTime();
+            advance(now);
+            long wake = startNanos + ((now - startNanos) / tickNanos + 1) * tickNanos;
+            LockSupport.parkNanos(this, wake - System.nanoTime());
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(thread);
+    }
+}
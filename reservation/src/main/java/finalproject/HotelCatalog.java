@@ -0,0 +1,528 @@
+package finalproject;
+
+import finalproject.MainCode.RoomType;
+import finalproject.MainCode.Season;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// what the hotel sells: room types and their season prices, the extra bed and amenity
+// prices, group rates, the season dates, the destinations and the rooms at each. it is read from a text
+// file people edit (the built-in one is finalproject/catalog.txt, which documents the
+// format) and the rest of the system takes its tables from here: MainCode.ROOM_TYPES, the
+// destination lists, PRICE_BED, seasonForMonthDay, the amenity catalog, the room registry
+// and the season calendar.
+//
+// the text is compiled into a binary snapshot holding the finished tables: the flat rate
+// table in PricingEngine's layout, a season per month and day, the season calendar for
+// the default window with its prefix counts, and the room counts. with -Dhotel.catalog=<file>
+// the snapshot is kept next to the file (<file>.snapshot, or -Dhotel.catalog.snapshot) and
+// memory-mapped at startup, so a start copies the tables instead of building them. the
+// snapshot records the length and CRC32 of the text it came from; when the text has changed
+// it is compiled again and the snapshot rewritten.
+//
+//   java -cp reservation.jar finalproject.HotelCatalog print                  the built-in text
+//   java -cp reservation.jar finalproject.HotelCatalog compile <file> [snap]  writes the snapshot
+//   java -cp reservation.jar finalproject.HotelCatalog warmup                 see README (AppCDS)
+final class HotelCatalog {
+
+    private static final int MAGIC = 0x48434154;  // "HCAT"
+    private static final int FORMAT = 2;
+    private static final Season[] SEASON_VALUES = Season.values();
+    private static final int SEASONS = SEASON_VALUES.length;
+    private static final String BUILT_IN = "catalog.txt";
+
+    final RoomType[] roomTypes;
+    final long extraBedPrice;
+    final String[] amenityNames;
+    final long[] amenityPrices;
+    final String[] destinations;
+    final boolean[] international;
+    final int[][] roomsPerType;   // per destination, per room type
+    final int[] defaultRooms;     // per room type, for destinations without their own counts
+    final int roomsPerFloor;
+    private final int[] groupRooms;    // ascending: a booking of at least groupRooms[i] rooms
+    private final int[] groupPercents; // gets groupPercents[i] percent off
+    private final byte[] seasonByDay;  // season ordinal at (month - 1) * 31 + day - 1
+    private final SeasonCalendar calendar;
+    private final long[] rates;        // see PricingEngine
+
+    private HotelCatalog(RoomType[] roomTypes, long[] rates, long extraBedPrice, String[] amenityNames,
+                         long[] amenityPrices, String[] destinations, boolean[] international, int[][] roomsPerType,
+                         int[] defaultRooms, int roomsPerFloor, int[] groupRooms, int[] groupPercents, byte[] seasonByDay,
+                         SeasonCalendar calendar) {
+        this.roomTypes = roomTypes;
+        this.rates = rates;
+        this.extraBedPrice = extraBedPrice;
+        this.amenityNames = amenityNames;
+        this.amenityPrices = amenityPrices;
+        this.destinations = destinations;
+        this.international = international;
+        this.roomsPerType = roomsPerType;
+        this.defaultRooms = defaultRooms;
+        this.roomsPerFloor = roomsPerFloor;
+        this.groupRooms = groupRooms;
+        this.groupPercents = groupPercents;
+        this.seasonByDay = seasonByDay;
+        this.calendar = calendar;
+    }
+
+    // -Dhotel.catalog=<file> replaces the built-in catalog
+    private static final class Holder {
+        static final HotelCatalog INSTANCE = create();
+
+        private static HotelCatalog create() {
+            String file = System.getProperty("hotel.catalog");
+            try {
+                if (file == null) return builtIn();
+                Path text = Paths.get(file);
+                String snap = System.getProperty("hotel.catalog.snapshot");
+                return load(text, snap != null ? Paths.get(snap) : Paths.get(file + ".snapshot"));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    static HotelCatalog shared() {
+        return Holder.INSTANCE;
+    }
+
+    static HotelCatalog builtIn() throws IOException {
+        return parse(builtInText(), BUILT_IN);
+    }
+
+    static String builtInText() throws IOException {
+        try (InputStream in = HotelCatalog.class.getResourceAsStream(BUILT_IN)) {
+            if (in == null) throw new IOException("Built-in " + BUILT_IN + " is missing from the classpath");
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    // the snapshot of text when it is current, else the text compiled (and the snapshot
+    // rewritten; a snapshot that cannot be written is reported and skipped)
+    static HotelCatalog load(Path text, Path snapshot) throws IOException {
+        byte[] source = Files.readAllBytes(text);
+        long crc = crc(source);
+        if (Files.isRegularFile(snapshot)) {
+            try (FileChannel ch = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+                ByteBuffer in = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                if (in.remaining() >= 24 && in.getInt() == MAGIC && in.getInt() == FORMAT
+                        && in.getLong() == source.length && in.getLong() == crc) {
+                    return read(in, snapshot.toString());
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Catalog snapshot " + snapshot + " unreadable, compiling " + text + ": " + e);
+            }
+        }
+        HotelCatalog c = parse(new String(source, StandardCharsets.UTF_8), text.toString());
+        try {
+            c.writeSnapshot(snapshot, source.length, crc);
+        } catch (IOException e) {
+            System.err.println("Catalog snapshot " + snapshot + " not written: " + e);
+        }
+        return c;
+    }
+
+    private static long crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    // ------- lookups -------
+
+    Season season(int month, int day) {
+        return SEASON_VALUES[seasonByDay[(month - 1) * 31 + day - 1]];
+    }
+
+    // percent off for a booking of this many rooms: the largest group tier it reaches, or 0
+    int groupPercent(int rooms) {
+        int p = 0;
+        for (int i = 0; i < groupRooms.length && rooms >= groupRooms[i]; i++) p = groupPercents[i];
+        return p;
+    }
+
+    // the destinations of one kind, in catalog order
+    String[] destinations(boolean intl) {
+        List<String> out = new ArrayList<>();
+        for (int p = 0; p < destinations.length; p++) if (international[p] == intl) out.add(destinations[p]);
+        return out.toArray(new String[0]);
+    }
+
+    // the prebuilt calendar when it covers exactly these years, else a new one
+    SeasonCalendar calendar(int firstYear, int lastYear) {
+        if (calendar != null && calendar.firstYear == firstYear && calendar.lastYear == lastYear) return calendar;
+        return new SeasonCalendar(firstYear, lastYear, seasonByDay);
+    }
+
+    RoomRegistry registry() {
+        return new RoomRegistry(destinations, international, roomsPerType, roomsPerFloor);
+    }
+
+    // ------- text -------
+
+    // the catalog in text; source names it in error messages
+    static HotelCatalog parse(String text, String source) {
+        List<RoomType> types = new ArrayList<>();
+        List<String> amenityNames = new ArrayList<>(), destinations = new ArrayList<>();
+        List<Long> amenityPrices = new ArrayList<>();
+        List<Boolean> intl = new ArrayList<>();
+        List<int[]> ownRooms = new ArrayList<>();
+        List<int[]> seasons = new ArrayList<>();  // {season, from, to} as (month - 1) * 31 + day - 1
+        List<int[]> groups = new ArrayList<>();   // {rooms, percent}
+        long extraBed = -1;
+        int[] defaultRooms = null;
+        int perFloor = RoomRegistry.DEFAULT_ROOMS_PER_FLOOR;
+
+        String[] lines = text.split("\r?\n");
+        for (int ln = 0; ln < lines.length; ln++) {
+            String line = lines[ln];
+            int hash = line.indexOf('#');
+            if (hash >= 0) line = line.substring(0, hash);
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            try {
+                int space = line.indexOf(' ');
+                if (space < 0) throw new IllegalArgumentException("Expected a keyword and its value, got '" + line + "'");
+                String key = line.substring(0, space), rest = line.substring(space + 1).trim();
+                String[] f = rest.split("\\|");
+                for (int i = 0; i < f.length; i++) f[i] = f[i].trim();
+                switch (key) {
+                    case "room": {
+                        fields(f, 7, "room name | capacity | extra beds | local prices | intl prices | description | included");
+                        String[] included = f[6].split(",");
+                        for (int i = 0; i < included.length; i++) included[i] = included[i].trim();
+                        int capacity = number(f[1], "capacity"), beds = number(f[2], "extra beds");
+                        if (capacity < 1) throw new IllegalArgumentException("A room holds at least one guest");
+                        types.add(new RoomType(f[0], capacity, beds, prices(f[3]), prices(f[4]), f[5], included));
+                        break;
+                    }
+                    case "extraBed":
+                        fields(f, 1, "extraBed price");
+                        extraBed = price(f[0]);
+                        break;
+                    case "amenity":
+                        fields(f, 2, "amenity name | price");
+                        amenityNames.add(f[0]);
+                        amenityPrices.add(price(f[1]));
+                        break;
+                    case "group": {
+                        fields(f, 2, "group rooms | percent");
+                        int rooms = number(f[0], "group rooms"), percent = number(f[1], "group percent");
+                        if (rooms < 2) throw new IllegalArgumentException("A group is at least 2 rooms");
+                        if (percent > 100) throw new IllegalArgumentException("Group percent over 100");
+                        if (!groups.isEmpty() && groups.get(groups.size() - 1)[0] >= rooms) {
+                            throw new IllegalArgumentException("Group lines must go from fewer rooms to more");
+                        }
+                        groups.add(new int[]{rooms, percent});
+                        break;
+                    }
+                    case "season": {
+                        fields(f, 2, "season name | mm-dd..mm-dd");
+                        int dots = f[1].indexOf("..");
+                        if (dots < 0) throw new IllegalArgumentException("Expected mm-dd..mm-dd, got '" + f[1] + "'");
+                        seasons.add(new int[]{seasonNamed(f[0]), monthDay(f[1].substring(0, dots)), monthDay(f[1].substring(dots + 2))});
+                        break;
+                    }
+                    case "rooms":
+                        fields(f, 1, "rooms counts");
+                        defaultRooms = counts(f[0]);
+                        break;
+                    case "roomsPerFloor":
+                        fields(f, 1, "roomsPerFloor n");
+                        perFloor = number(f[0], "rooms per floor");
+                        break;
+                    case "destination":
+                        if (f.length != 2 && f.length != 3) throw new IllegalArgumentException("Expected destination name | local or intl [| counts]");
+                        if (!f[1].equals("local") && !f[1].equals("intl")) throw new IllegalArgumentException("Unknown kind " + f[1] + " for " + f[0]);
+                        destinations.add(f[0]);
+                        intl.add(f[1].equals("intl"));
+                        ownRooms.add(f.length == 3 ? counts(f[2]) : null);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown keyword " + key);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(source + " line " + (ln + 1) + ": " + e.getMessage());
+            }
+        }
+
+        if (types.isEmpty()) throw new IllegalArgumentException(source + ": no room types");
+        if (destinations.isEmpty()) throw new IllegalArgumentException(source + ": no destinations");
+        if (extraBed < 0) throw new IllegalArgumentException(source + ": no extraBed price");
+        RoomType[] roomTypes = types.toArray(new RoomType[0]);
+        int n = roomTypes.length;
+        if (defaultRooms != null && defaultRooms.length != n) {
+            throw new IllegalArgumentException(source + ": rooms needs a count for each of the " + n + " room types");
+        }
+        int[][] rooms = new int[destinations.size()][];
+        boolean[] kinds = new boolean[rooms.length];
+        for (int p = 0; p < rooms.length; p++) {
+            rooms[p] = ownRooms.get(p) != null ? ownRooms.get(p) : defaultRooms;
+            if (rooms[p] == null) throw new IllegalArgumentException(source + ": " + destinations.get(p) + " has no room counts and there is no rooms line");
+            if (rooms[p].length != n) throw new IllegalArgumentException(source + ": " + destinations.get(p) + " needs a count for each of the " + n + " room types");
+            kinds[p] = intl.get(p);
+        }
+        long[] amenityPrice = new long[amenityPrices.size()];
+        for (int i = 0; i < amenityPrice.length; i++) amenityPrice[i] = amenityPrices.get(i);
+        int[] groupRooms = new int[groups.size()], groupPercents = new int[groups.size()];
+        for (int i = 0; i < groupRooms.length; i++) {
+            groupRooms[i] = groups.get(i)[0];
+            groupPercents[i] = groups.get(i)[1];
+        }
+
+        // latest lines first, so the first line covering a day is the one left standing
+        byte[] byDay = new byte[12 * 31];
+        for (int i = seasons.size() - 1; i >= 0; i--) {
+            int[] s = seasons.get(i);
+            for (int d = s[1]; ; d = (d + 1) % byDay.length) {
+                byDay[d] = (byte) s[0];
+                if (d == s[2]) break;
+            }
+        }
+        long[] rates = new long[n * 2 * SEASONS];
+        for (int t = 0; t < n; t++) {
+            System.arraycopy(roomTypes[t].localPrices, 0, rates, t * 2 * SEASONS, SEASONS);
+            System.arraycopy(roomTypes[t].intlPrices, 0, rates, (t * 2 + 1) * SEASONS, SEASONS);
+        }
+        SeasonCalendar calendar = new SeasonCalendar(
+                Integer.getInteger("hotel.seasons.firstYear", SeasonCalendar.DEFAULT_FIRST_YEAR),
+                Integer.getInteger("hotel.seasons.lastYear", SeasonCalendar.DEFAULT_LAST_YEAR), byDay);
+        return new HotelCatalog(roomTypes, rates, extraBed, amenityNames.toArray(new String[0]), amenityPrice,
+                destinations.toArray(new String[0]), kinds, rooms, defaultRooms != null ? defaultRooms : rooms[0],
+                perFloor, groupRooms, groupPercents, byDay, calendar);
+    }
+
+    private static void fields(String[] f, int n, String expected) {
+        if (f.length != n) throw new IllegalArgumentException("Expected " + expected);
+        for (String s : f) if (s.isEmpty()) throw new IllegalArgumentException("Expected " + expected + ", a field is empty");
+    }
+
+    private static int number(String s, String what) {
+        try {
+            int v = Integer.parseInt(s);
+            if (v < 0) throw new IllegalArgumentException("Negative " + what);
+            return v;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad " + what + " '" + s + "'");
+        }
+    }
+
+    private static long price(String s) {
+        try {
+            long v = Money.parse(s);
+            if (v < 0) throw new IllegalArgumentException("Negative price " + s);
+            return v;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad price '" + s + "'");
+        }
+    }
+
+    // one per season, in Season order
+    private static long[] prices(String s) {
+        String[] p = s.split(",");
+        if (p.length != SEASONS) throw new IllegalArgumentException("Expected " + SEASONS + " prices, got '" + s + "'");
+        long[] out = new long[SEASONS];
+        for (int i = 0; i < SEASONS; i++) out[i] = price(p[i].trim());
+        return out;
+    }
+
+    private static int[] counts(String s) {
+        String[] p = s.split(",");
+        int[] out = new int[p.length];
+        for (int i = 0; i < p.length; i++) out[i] = number(p[i].trim(), "room count");
+        return out;
+    }
+
+    private static int seasonNamed(String name) {
+        for (Season s : SEASON_VALUES) if (s.name().equals(name)) return s.ordinal();
+        throw new IllegalArgumentException("Unknown season " + name);
+    }
+
+    // "mm-dd" -> (month - 1) * 31 + day - 1
+    private static int monthDay(String s) {
+        s = s.trim();
+        int dash = s.indexOf('-');
+        int m = dash < 0 ? -1 : number(s.substring(0, dash), "month");
+        int d = dash < 0 ? -1 : number(s.substring(dash + 1), "day");
+        if (m < 1 || m > 12 || d < 1 || d > PackedDate.daysInMonth(2000, m)) {
+            throw new IllegalArgumentException("Expected a date mm-dd, got '" + s + "'");
+        }
+        return (m - 1) * 31 + d - 1;
+    }
+
+    // ------- snapshot -------
+
+    void writeSnapshot(Path path, long sourceLength, long sourceCrc) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 20);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT);
+        out.writeLong(sourceLength);
+        out.writeLong(sourceCrc);
+
+        out.writeInt(roomTypes.length);
+        for (RoomType rt : roomTypes) {
+            writeString(out, rt.name);
+            out.writeInt(rt.capacity);
+            out.writeInt(rt.extraBedsAllowed);
+            writeString(out, rt.description);
+            out.writeInt(rt.includedAmenities.length);
+            for (String a : rt.includedAmenities) writeString(out, a);
+        }
+        for (long r : rates) out.writeLong(r);
+        out.writeLong(extraBedPrice);
+        out.writeInt(amenityNames.length);
+        for (int i = 0; i < amenityNames.length; i++) {
+            writeString(out, amenityNames[i]);
+            out.writeLong(amenityPrices[i]);
+        }
+        out.writeInt(destinations.length);
+        for (int p = 0; p < destinations.length; p++) {
+            writeString(out, destinations[p]);
+            out.writeBoolean(international[p]);
+            for (int c : roomsPerType[p]) out.writeInt(c);
+        }
+        for (int c : defaultRooms) out.writeInt(c);
+        out.writeInt(roomsPerFloor);
+        out.writeInt(groupRooms.length);
+        for (int i = 0; i < groupRooms.length; i++) {
+            out.writeInt(groupRooms[i]);
+            out.writeInt(groupPercents[i]);
+        }
+        out.write(seasonByDay);
+        calendar.writeTo(out);
+        out.flush();
+
+        // written beside it and moved over, so a reader never maps half a snapshot
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(tmp, bytes.toByteArray());
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    // the snapshot after its header
+    private static HotelCatalog read(ByteBuffer in, String source) {
+        int n = in.getInt();
+        String[] names = new String[n], descriptions = new String[n];
+        String[][] included = new String[n][];
+        int[] capacity = new int[n], beds = new int[n];
+        for (int t = 0; t < n; t++) {
+            names[t] = readString(in);
+            capacity[t] = in.getInt();
+            beds[t] = in.getInt();
+            descriptions[t] = readString(in);
+            included[t] = new String[in.getInt()];
+            for (int i = 0; i < included[t].length; i++) included[t][i] = readString(in);
+        }
+        long[] rates = new long[n * 2 * SEASONS];
+        in.asLongBuffer().get(rates);
+        in.position(in.position() + rates.length * 8);
+        RoomType[] types = new RoomType[n];
+        for (int t = 0; t < n; t++) {
+            types[t] = new RoomType(names[t], capacity[t], beds[t],
+                    Arrays.copyOfRange(rates, t * 2 * SEASONS, (t * 2 + 1) * SEASONS),
+                    Arrays.copyOfRange(rates, (t * 2 + 1) * SEASONS, (t * 2 + 2) * SEASONS),
+                    descriptions[t], included[t]);
+        }
+        long extraBed = in.getLong();
+        String[] amenityNames = new String[in.getInt()];
+        long[] amenityPrices = new long[amenityNames.length];
+        for (int i = 0; i < amenityNames.length; i++) {
+            amenityNames[i] = readString(in);
+            amenityPrices[i] = in.getLong();
+        }
+        String[] destinations = new String[in.getInt()];
+        boolean[] intl = new boolean[destinations.length];
+        int[][] rooms = new int[destinations.length][n];
+        for (int p = 0; p < destinations.length; p++) {
+            destinations[p] = readString(in);
+            intl[p] = in.get() != 0;
+            for (int t = 0; t < n; t++) rooms[p][t] = in.getInt();
+        }
+        int[] defaultRooms = new int[n];
+        for (int t = 0; t < n; t++) defaultRooms[t] = in.getInt();
+        int perFloor = in.getInt();
+        int[] groupRooms = new int[in.getInt()], groupPercents = new int[groupRooms.length];
+        for (int i = 0; i < groupRooms.length; i++) {
+            groupRooms[i] = in.getInt();
+            groupPercents[i] = in.getInt();
+        }
+        byte[] byDay = new byte[12 * 31];
+        in.get(byDay);
+        SeasonCalendar calendar = SeasonCalendar.readFrom(in);
+        if (in.hasRemaining()) throw new IllegalStateException(source + " has " + in.remaining() + " bytes too many");
+        return new HotelCatalog(types, rates, extraBed, amenityNames, amenityPrices, destinations, intl, rooms,
+                defaultRooms, perFloor, groupRooms, groupPercents, byDay, calendar);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] b = new byte[in.getInt()];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    // ------- command line -------
+
+    public static void main(String[] args) throws IOException {
+        String cmd = args.length > 0 ? args[0] : "";
+        if (cmd.equals("print") && args.length == 1) {
+            System.out.print(builtInText());
+        } else if (cmd.equals("compile") && (args.length == 2 || args.length == 3)) {
+            Path text = Paths.get(args[1]);
+            Path snapshot = Paths.get(args.length == 3 ? args[2] : args[1] + ".snapshot");
+            byte[] source = Files.readAllBytes(text);
+            HotelCatalog c = parse(new String(source, StandardCharsets.UTF_8), text.toString());
+            c.writeSnapshot(snapshot, source.length, crc(source));
+            System.out.println("Wrote " + snapshot + ": " + c.roomTypes.length + " room types, "
+                    + c.destinations.length + " destinations, " + Files.size(snapshot) + " bytes");
+        } else if (cmd.equals("warmup") && args.length == 1) {
+            warmup();
+        } else {
+            System.err.println("Usage: HotelCatalog print | compile <catalog.txt> [snapshot] | warmup");
+            System.exit(2);
+        }
+    }
+
+    // the work of a first quote at every destination, on a throwaway engine, so a JVM
+    // started with -XX:ArchiveClassesAtExit=<archive> puts every class it needs in the archive
+    private static void warmup() {
+        RoomInventory inventory = RoomInventory.shared();
+        BookingEngine engine = new BookingEngine(inventory, PricingEngine.shared());
+        int today = PackedDate.today();
+        int in = PackedDate.fromDays(PackedDate.toDays(today) + 30), out = PackedDate.fromDays(PackedDate.toDays(today) + 33);
+        int quoted = 0;
+        for (int p = 0; p < inventory.registry.propertyCount(); p++) {
+            BookingRequest req = new BookingRequest("Warm Up", "warmup@example.com", "09170000000", 30, today,
+                    inventory.registry.destination(p), in, out, 2, new int[]{5}, 1, null, null, 0, null);
+            BookingQuote q = engine.hold(req);
+            BookingHttpServer.writeQuote(new Json.Out(new StringBuilder()), q, inventory);
+            if (!q.ok()) continue;
+            quoted++;
+            BookingConfirmation c = engine.confirm(q.holdId, Payment.cash(q.grandTotal));
+            ReceiptRenderer.text(c, inventory);
+            engine.cancelBooking(c.bookingId);
+        }
+        System.out.println("Warmed up: " + quoted + " of " + inventory.registry.propertyCount() + " destinations quoted");
+    }
+}
@@ -0,0 +1,394 @@
+package finalproject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// just enough JSON for the HTTP front end. parse() gives Map (objects, key order kept),
+// List, String, Long (integral numbers), Double, Boolean or null; malformed input throws
+// IllegalArgumentException. Out writes one document into a StringBuilder.
+final class Json {
+
+    private Json() {
+    }
+
+    static Object parse(String text) {
+        Parser p = new Parser(text);
+        p.skipSpace();
+        Object v = p.value();
+        p.skipSpace();
+        if (p.pos != text.length()) throw p.error("Unexpected trailing data");
+        return v;
+    }
+
+    private static final class Parser {
+        private static final int MAX_DEPTH = 32;
+
+        final String s;
+        int pos;
+        int depth;
+
+        Parser(String s) {
+            this.s = s;
+        }
+
+        Object value() {
+            if (pos >= s.length()) throw error("Unexpected end of input");
+            char c = s.charAt(pos);
+            switch (c) {
+                case '{': return object();
+                case '[': return array();
+                case '"': return string();
+                case 't': return literal("true", Boolean.TRUE);
+                case 'f': return literal("false", Boolean.FALSE);
+                case 'n': return literal("null", null);
+                default:
+                    if (c == '-' || (c >= '0' && c <= '9')) return number();
+                    throw error("Unexpected character '" + c + "'");
+            }
+        }
+
+        private Map<String, Object> object() {
+            if (++depth > MAX_DEPTH) throw error("Nested too deeply");
+            Map<String, Object> m = new LinkedHashMap<>();
+            pos++;
+            skipSpace();
+            if (peek() == '}') {
+                pos++;
+                depth--;
+                return m;
+            }
+            while (true) {
+                skipSpace();
+                if (peek() != '"') throw error("Expected a field name");
+                String key = string();
+                skipSpace();
+                expect(':');
+                skipSpace();
+                m.put(key, value());
+                skipSpace();
+                char c = next();
+                if (c == '}') break;
+                if (c != ',') throw error("Expected ',' or '}'");
+            }
+            depth--;
+            return m;
+        }
+
+        private List<Object> array() {
+            if (++depth > MAX_DEPTH) throw error("Nested too deeply");
+            List<Object> l = new ArrayList<>();
+            pos++;
+            skipSpace();
+            if (peek() == ']') {
+                pos++;
+                depth--;
+                return l;
+            }
+            while (true) {
+                skipSpace();
+                l.add(value());
+                skipSpace();
+                char c = next();
+                if (c == ']') break;
+                if (c != ',') throw error("Expected ',' or ']'");
+            }
+            depth--;
+            return l;
+        }
+
+        private String string() {
+            pos++;
+            StringBuilder sb = null;
+            int start = pos;
+            while (true) {
+                if (pos >= s.length()) throw error("Unterminated string");
+                char c = s.charAt(pos);
+                if (c == '"') {
+                    String out = sb == null ? s.substring(start, pos) : sb.append(s, start, pos).toString();
+                    pos++;
+                    return out;
+                }
+                if (c < 0x20) throw error("Control character in string");
+                if (c != '\\') {
+                    pos++;
+                    continue;
+                }
+                if (sb == null) sb = new StringBuilder();
+                sb.append(s, start, pos);
+                pos++;
+                char e = next();
+                switch (e) {
+                    case '"': sb.append('"'); break;
+                    case '\\': sb.append('\\'); break;
+                    case '/': sb.append('/'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'u':
+                        if (pos + 4 > s.length()) throw error("Bad \\u escape");
+                        try {
+                            sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw error("Bad \\u escape");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        throw error("Bad escape \\" + e);
+                }
+                start = pos;
+            }
+        }
+
+        private Object number() {
+            int start = pos;
+            boolean integral = true;
+            if (peek() == '-') pos++;
+            while (pos < s.length()) {
+                char c = s.charAt(pos);
+                if (c >= '0' && c <= '9') {
+                    pos++;
+                } else if (c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                    integral = false;
+                    pos++;
+                } else {
+                    break;
+                }
+            }
+            String n = s.substring(start, pos);
+            try {
+                return integral ? (Object) Long.parseLong(n) : (Object) Double.parseDouble(n);
+            } catch (NumberFormatException ex) {
+                throw error("Bad number " + n);
+            }
+        }
+
+        private Object literal(String word, Object v) {
+            if (!s.startsWith(word, pos)) throw error("Unexpected token");
+            pos += word.length();
+            return v;
+        }
+
+        void skipSpace() {
+            while (pos < s.length()) {
+                char c = s.charAt(pos);
+                if (c != ' ' && c != '\t' && c != '\n' && c != '\r') break;
+                pos++;
+            }
+        }
+
+        private char peek() {
+            return pos < s.length() ? s.charAt(pos) : '\0';
+        }
+
+        private char next() {
+            if (pos >= s.length()) throw error("Unexpected end of input");
+            return s.charAt(pos++);
+        }
+
+        private void expect(char c) {
+            if (next() != c) throw error("Expected '" + c + "'");
+        }
+
+        IllegalArgumentException error(String msg) {
+            return new IllegalArgumentException(msg + " at offset " + pos);
+        }
+    }
+
+    // ------- typed field access on parsed objects -------
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> asObject(Object v, String what) {
+        if (!(v instanceof Map)) throw new IllegalArgumentException(what + " must be a JSON object");
+        return (Map<String, Object>) v;
+    }
+
+    static String string(Map<String, Object> m, String field, String dflt) {
+        Object v = m.get(field);
+        if (v == null) return dflt;
+        if (!(v instanceof String)) throw new IllegalArgumentException(field + " must be a string");
+        return (String) v;
+    }
+
+    static String requiredString(Map<String, Object> m, String field) {
+        String s = string(m, field, null);
+        if (s == null) throw new IllegalArgumentException(field + " is required");
+        return s;
+    }
+
+    static long number(Map<String, Object> m, String field, long dflt) {
+        Object v = m.get(field);
+        if (v == null) return dflt;
+        if (!(v instanceof Long)) throw new IllegalArgumentException(field + " must be a whole number");
+        return (Long) v;
+    }
+
+    static long requiredNumber(Map<String, Object> m, String field) {
+        if (m.get(field) == null) throw new IllegalArgumentException(field + " is required");
+        return number(m, field, 0);
+    }
+
+    static int requiredInt(Map<String, Object> m, String field) {
+        long v = requiredNumber(m, field);
+        if (v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) throw new IllegalArgumentException(field + " is out of range");
+        return (int) v;
+    }
+
+    static int intOr(Map<String, Object> m, String field, int dflt) {
+        return m.get(field) == null ? dflt : requiredInt(m, field);
+    }
+
+    // an amount in pesos with at most two decimals, as centavos
+    static long money(Map<String, Object> m, String field) {
+        Object v = m.get(field);
+        if (!(v instanceof Number)) throw new IllegalArgumentException(field + " must be a number");
+        try {
+            return v instanceof Long ? Money.pesos((Long) v) : Money.fromDecimal((Double) v);
+        } catch (ArithmeticException | IllegalArgumentException e) {
+            throw new IllegalArgumentException(field + " must be an amount with at most two decimals");
+        }
+    }
+
+    // null when absent
+    @SuppressWarnings("unchecked")
+    static List<Object> array(Map<String, Object> m, String field) {
+        Object v = m.get(field);
+        if (v == null) return null;
+        if (!(v instanceof List)) throw new IllegalArgumentException(field + " must be an array");
+        return (List<Object>) v;
+    }
+
+    // ------- output -------
+
+    static void appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append("\\u00");
+                        sb.append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xf, 16));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    // writes objects and arrays; commas are tracked per nesting level
+    static final class Out {
+        final StringBuilder sb;
+        private long first = 1;  // bit d set = nothing written yet at depth d
+        private int depth;
+
+        Out(StringBuilder sb) {
+            this.sb = sb;
+        }
+
+        Out beginObject() {
+            comma();
+            sb.append('{');
+            push();
+            return this;
+        }
+
+        Out endObject() {
+            depth--;
+            sb.append('}');
+            return this;
+        }
+
+        Out beginArray() {
+            comma();
+            sb.append('[');
+            push();
+            return this;
+        }
+
+        Out endArray() {
+            depth--;
+            sb.append(']');
+            return this;
+        }
+
+        Out name(String name) {
+            comma();
+            appendString(sb, name);
+            sb.append(':');
+            first |= 1L << depth;  // the value that follows needs no comma
+            return this;
+        }
+
+        Out value(String v) {
+            comma();
+            if (v == null) sb.append("null");
+            else appendString(sb, v);
+            return this;
+        }
+
+        Out value(long v) {
+            comma();
+            sb.append(v);
+            return this;
+        }
+
+        Out value(double v) {
+            comma();
+            if (Double.isFinite(v)) sb.append(v);
+            else sb.append("null");
+            return this;
+        }
+
+        Out value(boolean v) {
+            comma();
+            sb.append(v);
+            return this;
+        }
+
+        Out field(String name, String v) {
+            return name(name).value(v);
+        }
+
+        Out field(String name, long v) {
+            return name(name).value(v);
+        }
+
+        Out field(String name, double v) {
+            return name(name).value(v);
+        }
+
+        Out field(String name, boolean v) {
+            return name(name).value(v);
+        }
+
+        // centavos as a number with two decimals
+        Out money(String name, long centavos) {
+            name(name);
+            comma();
+            Money.appendTo(sb, centavos);
+            return this;
+        }
+
+        private void push() {
+            depth++;
+            first |= 1L << depth;
+        }
+
+        private void comma() {
+            long bit = 1L << depth;
+            if ((first & bit) != 0) first &= ~bit;
+            else sb.append(',');
+        }
+    }
+}
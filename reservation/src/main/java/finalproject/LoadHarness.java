@@ -0,0 +1,426 @@
+package finalproject;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// load test of the booking flow. a seeded generator makes a synthetic workload shaped like
+// real traffic: destinations Zipf-skewed, a share of stays piled onto the December peak,
+// parties from solo travellers to tour groups, some asking for a room type, some ordering
+// amenities, paying cash or card or walking away from the hold. the workload depends only on
+// the seed and today, so a run can be repeated; it is made before the clock starts. threads
+// then play it against a fresh engine and inventory the way the console does (hold, then pay
+// or cancel), through the shards and the payment gateway when asked to.
+//
+// the report has throughput, latency percentiles for holding, paying and the whole booking,
+// denials by reason, and an oversell check done without trusting the inventory: every room
+// night claimed by a booking or a hold still open is counted from the bookings themselves, no
+// night may be claimed twice, and the inventory must show exactly the claimed nights taken.
+// with -Dhotel.load.journal=<empty dir> the engine journals into that directory, snapshotting
+// every .snapshotEvery records (default 500) while the bookings run; after the run the journal
+// is opened again on a new inventory, as a restart would, and the check is repeated on what
+// it recovered.
+//
+//   java -cp reservation.jar finalproject.LoadHarness     (or the jar with --load)
+//
+// tuned with -Dhotel.load.bookings (default 100000), .threads (default twice the cores, at
+// least 4), .seed (1), .today (yyyy-mm-dd, default today), .zipf (destination skew, 1.1),
+// .decemberPercent (25), .cardPercent (60), .abandonPercent (10), .roomTypePercent (30),
+// .amenityPercent (40), .shards=true (writes on ShardedBookingExecutor) and .gateway=true (cards
+// through PaymentProcessor and the stub gateway, see -Dhotel.payments.stub).
+final class LoadHarness {
+
+    static final int HORIZON_NIGHTS = 420;  // a year ahead and the December after
+
+    private static final String CARD = "4111111111111111";
+
+    // how the traffic is shaped
+    static final class Workload {
+        final long seed;
+        final int today;
+        final double zipf;
+        final int decemberPercent, cardPercent, abandonPercent, roomTypePercent, amenityPercent;
+
+        Workload(long seed, int today, double zipf, int decemberPercent, int cardPercent, int abandonPercent,
+                 int roomTypePercent, int amenityPercent) {
+            if (!PackedDate.isValid(today)) throw new IllegalArgumentException("Invalid today");
+            if (zipf < 0) throw new IllegalArgumentException("Zipf exponent must not be negative");
+            for (int p : new int[]{decemberPercent, cardPercent, abandonPercent, roomTypePercent, amenityPercent}) {
+                if (p < 0 || p > 100) throw new IllegalArgumentException("Percents must be 0..100");
+            }
+            this.seed = seed;
+            this.today = today;
+            this.zipf = zipf;
+            this.decemberPercent = decemberPercent;
+            this.cardPercent = cardPercent;
+            this.abandonPercent = abandonPercent;
+            this.roomTypePercent = roomTypePercent;
+            this.amenityPercent = amenityPercent;
+        }
+
+        static Workload fromProperties() {
+            String day = System.getProperty("hotel.load.today");
+            int today = day == null ? PackedDate.today() : PackedDate.parseIso(day);
+            return new Workload(Long.getLong("hotel.load.seed", 1), today,
+                    Double.parseDouble(System.getProperty("hotel.load.zipf", "1.1")),
+                    Integer.getInteger("hotel.load.decemberPercent", 25), Integer.getInteger("hotel.load.cardPercent", 60),
+                    Integer.getInteger("hotel.load.abandonPercent", 10), Integer.getInteger("hotel.load.roomTypePercent", 30),
+                    Integer.getInteger("hotel.load.amenityPercent", 40));
+        }
+
+        // count bookings for the destinations of registry, made in parallel; booking i is the
+        // same for the same seed whichever thread makes it
+        Booking[] generate(int count, RoomRegistry registry) {
+            double[] cdf = new double[registry.propertyCount()];
+            double sum = 0;
+            for (int p = 0; p < cdf.length; p++) cdf[p] = sum += 1 / Math.pow(p + 1, zipf);
+            for (int p = 0; p < cdf.length; p++) cdf[p] /= sum;
+            AmenityCatalog amenities = AmenityCatalog.shared();
+            Booking[] out = new Booking[count];
+            IntStream.range(0, count).parallel().forEach(i -> out[i] = booking(i, registry, cdf, amenities));
+            return out;
+        }
+
+        private Booking booking(int i, RoomRegistry registry, double[] cdf, AmenityCatalog amenities) {
+            SplittableRandom rnd = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + i);
+
+            // where: Zipf over the destinations, in registry order
+            double u = rnd.nextDouble();
+            int property = 0;
+            while (property < cdf.length - 1 && cdf[property] < u) property++;
+
+            // who: solo, couple, family or group
+            int adults, kids, kind = rnd.nextInt(100);
+            if (kind < 15) {
+                adults = 1;
+                kids = 0;
+            } else if (kind < 60) {
+                adults = 2;
+                kids = 0;
+            } else if (kind < 85) {
+                adults = 1 + rnd.nextInt(2);
+                kids = 1 + rnd.nextInt(3);
+            } else {
+                int size = 6 + rnd.nextInt(35);
+                kids = rnd.nextInt(size / 3 + 1);
+                adults = size - kids;
+            }
+            int[] childAges = new int[kids];
+            for (int k = 0; k < kids; k++) childAges[k] = rnd.nextInt(18);
+            int guests = BookingEngine.totalGuests(adults, childAges);
+            int rooms = Math.max(1, (guests + 3) / 4);
+
+            // when: the December peak, or a lead time that is mostly short
+            long todayDay = PackedDate.toDays(today);
+            int year = PackedDate.year(today);
+            long inDay;
+            if (rnd.nextInt(100) < decemberPercent) {
+                long dec10 = PackedDate.toDays(year, 12, 10);
+                if (dec10 < todayDay) dec10 = PackedDate.toDays(year + 1, 12, 10);
+                inDay = dec10 + rnd.nextInt(22);
+            } else {
+                inDay = todayDay + 1 + (rnd.nextBoolean() ? rnd.nextInt(30) : rnd.nextInt(180));
+            }
+            int nights = Math.min(14, 1 + (int) (-Math.log(1 - rnd.nextDouble()) * 2));
+
+            // which rooms: the suggestion, or every room of one type that fits the party
+            int[] roomTypes = null;
+            int extraBeds = 0;
+            if (rnd.nextInt(100) < roomTypePercent) {
+                int perRoom = (guests + rooms - 1) / rooms, fitting = 0;
+                for (MainCode.RoomType rt : MainCode.ROOM_TYPES) if (rt.capacity + rt.extraBedsAllowed >= perRoom) fitting++;
+                if (fitting > 0) {
+                    int pick = rnd.nextInt(fitting), type = -1;
+                    for (int t = 0; pick >= 0; t++) {
+                        MainCode.RoomType rt = MainCode.ROOM_TYPES[t];
+                        if (rt.capacity + rt.extraBedsAllowed >= perRoom) {
+                            pick--;
+                            type = t;
+                        }
+                    }
+                    roomTypes = new int[rooms];
+                    Arrays.fill(roomTypes, type);
+                    extraBeds = Math.max(0, guests - rooms * MainCode.ROOM_TYPES[type].capacity);
+                }
+            }
+
+            AmenityLedger ledger = null;
+            if (rnd.nextInt(100) < amenityPercent && amenities.size() > 0) {
+                // at most as many persons as the smallest room sleeps, whichever room it lands on
+                int smallest = Integer.MAX_VALUE;
+                for (MainCode.RoomType rt : MainCode.ROOM_TYPES) smallest = Math.min(smallest, rt.capacity);
+                ledger = new AmenityLedger(amenities);
+                for (int line = 1 + rnd.nextInt(2); line > 0; line--) {
+                    int persons = 1 + rnd.nextInt(Math.min(guests, smallest));
+                    ledger.add(rnd.nextInt(rooms), rnd.nextInt(amenities.size()), persons,
+                            rnd.nextInt(5) == 0 ? rnd.nextInt(persons + 1) : 0, 1 + rnd.nextInt(nights));
+                }
+            }
+
+            int pay = rnd.nextInt(100);
+            Booking.Pay how = pay < abandonPercent ? Booking.Pay.ABANDON
+                    : rnd.nextInt(100) < cardPercent ? Booking.Pay.CARD : Booking.Pay.CASH;
+            BookingRequest req = new BookingRequest("Guest " + i, "guest" + i + "@example.com",
+                    "0917" + (1000000 + i % 9000000), 18 + rnd.nextInt(62), today, registry.destination(property),
+                    PackedDate.fromDays(inDay), PackedDate.fromDays(inDay + nights), adults, childAges, rooms,
+                    roomTypes, null, extraBeds, ledger);
+            return new Booking(req, how);
+        }
+    }
+
+    // one booking of the workload: what is asked for, and how the guest goes on after the hold
+    static final class Booking {
+        enum Pay { CASH, CARD, ABANDON }
+
+        final BookingRequest request;
+        final Pay pay;
+
+        Booking(BookingRequest request, Pay pay) {
+            this.request = request;
+            this.pay = pay;
+        }
+    }
+
+    private final BookingEngine engine;
+    private final ShardedBookingExecutor shards;  // null = writes on the calling thread
+    private final PaymentProcessor payments;      // null = cards confirmed by the engine
+    private final int threads;
+
+    private final Metrics.Histogram holdLatency = new Metrics.Histogram();
+    private final Metrics.Histogram payLatency = new Metrics.Histogram();
+    private final Metrics.Histogram bookingLatency = new Metrics.Histogram();
+
+    // per booking of the last run, written by the thread that played it
+    private long[] bookingIds, holdIds;          // 0 = none
+    private DenialReason[] denials;
+    private Throwable[] failures;                // what a booking threw instead of answering
+    private long elapsedNanos;
+
+    LoadHarness(BookingEngine engine, ShardedBookingExecutor shards, PaymentProcessor payments, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("At least one thread");
+        this.engine = engine;
+        this.shards = shards;
+        this.payments = payments;
+        this.threads = threads;
+    }
+
+    void run(Booking[] workload) throws InterruptedException {
+        bookingIds = new long[workload.length];
+        holdIds = new long[workload.length];
+        denials = new DenialReason[workload.length];
+        failures = new Throwable[workload.length];
+        AtomicInteger next = new AtomicInteger();
+        Thread[] workers = new Thread[threads];
+        for (int w = 0; w < threads; w++) {
+            workers[w] = new Thread(() -> {
+                for (int i = next.getAndIncrement(); i < workload.length; i = next.getAndIncrement()) play(i, workload[i]);
+            }, "load-" + w);
+        }
+        long start = System.nanoTime();
+        for (Thread t : workers) t.start();
+        for (Thread t : workers) t.join();
+        elapsedNanos = System.nanoTime() - start;
+    }
+
+    // a booking that throws (a shard's future failing, say) is recorded and the worker goes on
+    private void play(int i, Booking b) {
+        try {
+            book(i, b);
+        } catch (RuntimeException e) {
+            failures[i] = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
+    private void book(int i, Booking b) {
+        long t0 = System.nanoTime();
+        BookingQuote held = shards != null ? shards.hold(b.request).join() : engine.hold(b.request);
+        long t1 = System.nanoTime();
+        holdLatency.record(t1 - t0);
+        if (!held.ok()) {
+            denials[i] = held.denial;
+            return;
+        }
+        holdIds[i] = held.holdId;
+        if (b.pay == Booking.Pay.ABANDON) {
+            if (shards != null) shards.cancelHold(held.holdId).join();
+            else engine.cancelHold(held.holdId);
+            holdIds[i] = 0;
+            return;
+        }
+        // cash rounded up to the next hundred pesos, the rest comes back as change
+        long hundred = Money.pesos(100);
+        Payment payment = b.pay == Booking.Pay.CARD ? Payment.card(CARD, "123")
+                : Payment.cash((held.grandTotal + hundred - 1) / hundred * hundred);
+        BookingConfirmation c;
+        if (payments != null && b.pay == Booking.Pay.CARD) c = payments.pay(held.holdId, payment, null).join();
+        else if (shards != null) c = shards.confirm(held.holdId, payment).join();
+        else c = engine.confirm(held.holdId, payment);
+        long t2 = System.nanoTime();
+        payLatency.record(t2 - t1);
+        bookingLatency.record(t2 - t0);
+        if (c.ok()) {
+            bookingIds[i] = c.bookingId;
+            holdIds[i] = 0;
+        } else {
+            denials[i] = c.denial;
+            if (engine.heldQuote(held.holdId) == null) holdIds[i] = 0;  // refused and given back
+        }
+    }
+
+    // ------- oversell check -------
+
+    // room nights claimed twice, nights where the inventory disagrees with the claims (taken
+    // but unclaimed: leaked; claimed but free: lost), and bookings engine doesn't have (lost
+    // outright). claims come from the bookings and open holds of the last run, as engine (the
+    // one that ran it, or one restarted from its journal) has them
+    long[] checkNights(BookingEngine engine) {
+        RoomInventory inventory = engine.inventory();
+        int horizon = inventory.horizon;
+        byte[] claims = new byte[Math.multiplyExact(inventory.roomCount(), horizon)];
+        long oversold = 0, claimed = 0, lost = 0;
+        for (int i = 0; i < bookingIds.length; i++) {
+            BookingQuote q;
+            if (bookingIds[i] != 0) {
+                BookingConfirmation c = engine.booking(bookingIds[i]);
+                if (c == null) {
+                    lost++;
+                    continue;
+                }
+                q = c.quote;
+            } else {
+                q = holdIds[i] != 0 ? engine.heldQuote(holdIds[i]) : null;
+            }
+            if (q == null) continue;
+            for (int room : q.roomIds) {
+                for (long day = Math.max(q.inDay, inventory.originDay); day < Math.min(q.outDay, inventory.originDay + horizon); day++) {
+                    int k = room * horizon + (int) (day - inventory.originDay);
+                    if (claims[k] != 0) oversold++;
+                    else claimed++;
+                    claims[k] = 1;
+                }
+            }
+        }
+        long disagree = 0;
+        for (int room = 0; room < inventory.roomCount(); room++) {
+            for (int n = 0; n < horizon; n++) {
+                long day = inventory.originDay + n;
+                boolean taken = !inventory.isFree(room, day, day + 1);
+                if (taken != (claims[room * horizon + n] != 0)) disagree++;
+            }
+        }
+        return new long[]{claimed, oversold, disagree, lost};
+    }
+
+    // ------- report -------
+
+    // false when a booking threw, a night was oversold or the inventory disagrees
+    boolean report(PrintStream out, Booking[] workload) {
+        int n = workload.length;
+        long booked = 0, abandoned = 0, denied = 0, open = 0, failed = 0;
+        Throwable firstFailure = null;
+        long[] byReason = new long[DenialReason.values().length];
+        int properties = engine.inventory().registry.propertyCount();
+        long[] byProperty = new long[properties];
+        for (int i = 0; i < n; i++) {
+            if (failures[i] != null && failed++ == 0) firstFailure = failures[i];
+            if (bookingIds[i] != 0) booked++;
+            else if (denials[i] != null) {
+                denied++;
+                byReason[denials[i].ordinal()]++;
+            } else if (holdIds[i] != 0) open++;
+            else abandoned++;
+            byProperty[engine.inventory().registry.property(workload[i].request.destination)]++;
+        }
+        double seconds = elapsedNanos / 1e9;
+        out.printf("%d bookings in %.3f s on %d threads: %.0f bookings/s%n", n, seconds, threads, n / seconds);
+        out.printf("  booked %d (%.1f%%), walked away %d, denied %d (%.1f%%), holds left open %d%n",
+                booked, 100.0 * booked / n, abandoned, denied, 100.0 * denied / n, open);
+        if (failed > 0) out.printf("  failed %d, the first with %s%n", failed, firstFailure);
+        out.printf("  latency (us)   %10s %9s %9s %9s %9s%n", "count", "p50", "p99", "p99.9", "max");
+        latencyRow(out, "hold", holdLatency);
+        latencyRow(out, "payment", payLatency);
+        latencyRow(out, "whole booking", bookingLatency);
+        out.println("  denials:");
+        for (DenialReason r : DenialReason.values()) {
+            if (byReason[r.ordinal()] > 0) out.printf("    %-24s %8d  %5.1f%%%n", r.name(), byReason[r.ordinal()], 100.0 * byReason[r.ordinal()] / n);
+        }
+        out.print("  destinations:");
+        for (int p = 0; p < properties; p++) {
+            out.printf(" %s %.1f%%", engine.inventory().registry.destination(p), 100.0 * byProperty[p] / n);
+        }
+        out.println();
+        return reportNights(out, "room nights", checkNights(engine)) && failed == 0;
+    }
+
+    private static boolean reportNights(PrintStream out, String label, long[] nights) {
+        boolean ok = nights[1] == 0 && nights[2] == 0 && nights[3] == 0;
+        out.printf("  %s: %d claimed, %d oversold, %d where the inventory disagrees, %d bookings lost: %s%n",
+                label, nights[0], nights[1], nights[2], nights[3], ok ? "OK" : "FAILED");
+        return ok;
+    }
+
+    private static void latencyRow(PrintStream out, String label, Metrics.Histogram h) {
+        Metrics.Histogram.Snapshot s = h.snapshot();
+        out.printf("    %-13s %10d %9.1f %9.1f %9.1f %9.1f%n", label, s.count, s.percentile(50) / 1e3,
+                s.percentile(99) / 1e3, s.percentile(99.9) / 1e3, s.max / 1e3);
+    }
+
+    // a journal in dir, which has to be empty: the run starts from nothing
+    private static BookingJournal openJournal(Path dir, boolean fresh) throws IOException {
+        if (fresh && Files.isDirectory(dir)) {
+            try (Stream<Path> files = Files.list(dir)) {
+                if (files.findAny().isPresent()) throw new IllegalArgumentException("Journal directory " + dir + " is not empty");
+            }
+        }
+        return new BookingJournal(dir, PricingEngine.shared(), BookingJournal.DEFAULT_SEGMENT_BYTES, false,
+                Integer.getInteger("hotel.load.snapshotEvery", 500));
+    }
+
+    private static BookingEngine newEngine(int today, BookingJournal journal) {
+        RoomInventory inventory = new RoomInventory(RoomRegistry.shared(), PackedDate.toDays(today), HORIZON_NIGHTS);
+        return new BookingEngine(inventory, PricingEngine.shared(), QuoteCache.DEFAULT_MAX_ENTRIES,
+                QuoteCache.DEFAULT_TTL_SECONDS * 1_000_000_000L, journal);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Workload w = Workload.fromProperties();
+        int count = Integer.getInteger("hotel.load.bookings", 100_000);
+        int threads = Integer.getInteger("hotel.load.threads", Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+        String journalDir = System.getProperty("hotel.load.journal");
+        BookingJournal journal = journalDir == null ? null : openJournal(Paths.get(journalDir), true);
+        BookingEngine engine = newEngine(w.today, journal);
+        RoomInventory inventory = engine.inventory();
+        System.out.printf("workload: seed %d, today %s, zipf %.2f, december %d%%, card %d%%, walk away %d%%, room type %d%%, amenities %d%%%n",
+                w.seed, PackedDate.toIso(w.today), w.zipf, w.decemberPercent, w.cardPercent, w.abandonPercent,
+                w.roomTypePercent, w.amenityPercent);
+        Booking[] workload = w.generate(count, inventory.registry);
+
+        ShardedBookingExecutor shards = Boolean.getBoolean("hotel.load.shards") ? ShardedBookingExecutor.forEngine(engine) : null;
+        PaymentProcessor payments = Boolean.getBoolean("hotel.load.gateway") ? PaymentProcessor.forEngine(engine, shards) : null;
+        LoadHarness harness = new LoadHarness(engine, shards, payments, threads);
+        try {
+            harness.run(workload);
+        } finally {
+            // captures and voids still on their way finish before the nights are checked
+            if (payments != null) payments.close();
+            if (shards != null) shards.close();
+        }
+        boolean ok = harness.report(System.out, workload);
+        if (payments != null) System.out.println("  " + payments.stats());
+        if (journal != null) {
+            journal.close();
+            try (BookingJournal reopened = openJournal(Paths.get(journalDir), false)) {
+                ok &= reportNights(System.out, "after restart", harness.checkNights(newEngine(w.today, reopened)));
+            }
+        }
+        if (!ok) System.exit(1);
+    }
+}
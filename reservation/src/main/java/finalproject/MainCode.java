@@ -0,0 +1,517 @@
+package finalproject;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Scanner;
+import javax.swing.JOptionPane;
+
+public class MainCode {
+
+    enum Season { LEAN, HIGH, PEAK, SUPER_PEAK }
+
+    static class RoomType {
+        final String name;
+        final int capacity;
+        final int extraBedsAllowed;
+        final long[] localPrices; // centavos (see Money); index 0: LEAN, 1: HIGH, 2: PEAK, 3: SUPER_PEAK
+        final long[] intlPrices;  // same indexes for international
+        final String description;
+        final String[] includedAmenities;
+
+        RoomType(String name, int capacity, int extraBedsAllowed,
+                 long[] localPrices, long[] intlPrices,
+                 String description, String[] includedAmenities) {
+            this.name = name;
+            this.capacity = capacity;
+            this.extraBedsAllowed = extraBedsAllowed;
+            this.localPrices = localPrices;
+            this.intlPrices = intlPrices;
+            this.description = description;
+            this.includedAmenities = includedAmenities;
+        }
+
+        long priceFor(Season season, boolean international) {
+            int idx = 0;
+            if (season == Season.HIGH) idx = 1;
+            else if (season == Season.PEAK) idx = 2;
+            else if (season == Season.SUPER_PEAK) idx = 3;
+            return international ? intlPrices[idx] : localPrices[idx];
+        }
+    }
+
+    // the room types, prices, seasons and destinations come from the catalog (see HotelCatalog)
+    static final RoomType[] ROOM_TYPES = HotelCatalog.shared().roomTypes;
+
+    // physical rooms per type (same order as ROOM_TYPES) at a destination without its own counts
+    static final int[] ROOMS_PER_TYPE = HotelCatalog.shared().defaultRooms;
+
+    static final String[] LOCAL_DESTINATIONS = HotelCatalog.shared().destinations(false);
+    static final String[] INTERNATIONAL_DESTINATIONS = HotelCatalog.shared().destinations(true);
+
+    // extra bed per person per night; the other add-ons are in AmenityCatalog
+    static final long PRICE_BED = HotelCatalog.shared().extraBedPrice;
+
+    // season of a day of the year, from the catalog's season lines
+    static Season seasonForMonthDay(int month, int day) {
+        return HotelCatalog.shared().season(month, day);
+    }
+
+    // percent off every room of a booking of this many rooms, from the catalog's group lines
+    static int groupPercent(int rooms) {
+        return HotelCatalog.shared().groupPercent(rooms);
+    }
+
+    // dates are packed yyyymmdd ints (see PackedDate)
+    static Season determineSeasonForStay(int in, int out) {
+        long inDays = PackedDate.toDays(in);
+        long outDays = PackedDate.toDays(out);
+        if (outDays <= inDays) return Season.LEAN; // invalid stay length; caller should check
+        // precomputed calendar answers in O(1) for stays inside its window
+        SeasonCalendar cal = SeasonCalendar.shared();
+        if (cal.coversStay(inDays, outDays)) return cal.seasonForStay(inDays, outDays);
+        // outside the window: iterate day by day from check-in (inclusive) to check-out (exclusive)
+        boolean hasSuper = false, hasPeak = false, hasHigh = false;
+        int date = in;
+        for (long s = inDays; s < outDays; s++) {
+            Season se = seasonForMonthDay(PackedDate.month(date), PackedDate.day(date));
+            if (se == Season.SUPER_PEAK) hasSuper = true;
+            else if (se == Season.PEAK) hasPeak = true;
+            else if (se == Season.HIGH) hasHigh = true;
+            date = PackedDate.next(date);
+        }
+        if (hasSuper) return Season.SUPER_PEAK;
+        if (hasPeak) return Season.PEAK;
+        if (hasHigh) return Season.HIGH;
+        return Season.LEAN;
+    }
+
+    // ------- input helpers -------
+    private static int askInt(Scanner sc, String prompt, int min, int maxAllowed) {
+        System.out.print(prompt);
+        while (true) {
+            String s = sc.nextLine().trim();
+            try {
+                int v = Integer.parseInt(s);
+                if (v >= min && (maxAllowed < 0 || v <= maxAllowed)) return v;
+            } catch (Exception ignored) {}
+            if (maxAllowed < 0) System.out.print("Enter an integer >= " + min + ": ");
+            else System.out.print("Enter an integer between " + min + " and " + maxAllowed + ": ");
+        }
+    }
+
+    // returns the date packed as yyyymmdd
+    private static int askDateParts(Scanner sc, String label) {
+        int y, m, d;
+        while (true) {
+            System.out.println(label + ":");
+            y = askInt(sc, " Year (e.g. 2025): ", 1, -1);
+            m = askInt(sc, " Month (1-12): ", 1, 12);
+            int dim = PackedDate.daysInMonth(y, m);
+            d = askInt(sc, " Day (1-" + dim + "): ", 1, dim);
+            if (!PackedDate.isValidDate(y,m,d)) {
+                System.out.println("Invalid date. Try again.");
+                continue;
+            }
+            break;
+        }
+        return PackedDate.pack(y,m,d);
+    }
+
+    // ------- main flow -------
+    // console client: prompts for every answer and leaves the rules to BookingEngine
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // --batch <file> [outcomes]: load bookings from a file instead of asking (see BatchBookingRunner)
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchBookingRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // --load: play a synthetic workload against a fresh engine (see LoadHarness)
+        if (args.length > 0 && args[0].equals("--load")) {
+            LoadHarness.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        Metrics.publish();
+        Scanner sc = new Scanner(System.in);
+        BookingEngine engine = BookingEngine.shared();
+        RoomInventory inventory = engine.inventory();
+        // card payments go through the stub gateway (see PaymentProcessor.forEngine), one
+        // processor for the whole run; closing it on exit captures the charge
+        PaymentProcessor payments = PaymentProcessor.forEngine(engine, null);
+        Runtime.getRuntime().addShutdownHook(new Thread(payments::close));
+
+        System.out.println("*** Lanlya Star Hotel - Reservation System ***");
+
+        // booker details
+        System.out.print("Enter your full name: ");
+        String bookerName = sc.nextLine().trim();
+        System.out.print("Enter your email: ");
+        String bookerEmail = sc.nextLine().trim();
+        System.out.print("Enter your contact number: ");
+        String bookerContact = sc.nextLine().trim();
+        int bookerAge = askInt(sc, "Enter your age (must be 18 or older): ", 0, 200);
+        DenialReason denial = BookingEngine.checkBooker(bookerAge);
+        if (denial != null) {
+            System.out.println(denied(denial));
+            sc.close();
+            return;
+        }
+
+        // ask today's date so we can validate past dates
+        System.out.println("\nProvide today's date for validation.");
+        int today = askDateParts(sc, "Today's date");
+
+        // destination
+        System.out.println("\nChoose destination type:");
+        System.out.println(" [1] Local");
+        System.out.println(" [2] International");
+        String destType = "";
+        while (true) {
+            System.out.print("Enter 1 or 2: ");
+            destType = sc.nextLine().trim();
+            if ("1".equals(destType) || "2".equals(destType)) break;
+            System.out.println("Invalid input.");
+        }
+        String destination = "";
+        if ("1".equals(destType)) {
+            for (int i = 0; i < LOCAL_DESTINATIONS.length; i++) System.out.println(" [" + (i+1) + "] " + LOCAL_DESTINATIONS[i]);
+            int pick = askInt(sc, "Pick local destination number: ", 1, LOCAL_DESTINATIONS.length);
+            destination = LOCAL_DESTINATIONS[pick-1];
+        } else {
+            for (int i = 0; i < INTERNATIONAL_DESTINATIONS.length; i++) System.out.println(" [" + (i+1) + "] " + INTERNATIONAL_DESTINATIONS[i]);
+            int pick = askInt(sc, "Pick international destination number: ", 1, INTERNATIONAL_DESTINATIONS.length);
+            destination = INTERNATIONAL_DESTINATIONS[pick-1];
+        }
+        int property = inventory.registry.property(destination);
+        if (property < 0) {
+            // -Dhotel.properties may leave a destination without a hotel
+            System.out.println(denied(DenialReason.UNKNOWN_DESTINATION, destination));
+            sc.close();
+            return;
+        }
+
+        // check-in and check-out
+        System.out.println("\nEnter check-in date:");
+        int in = askDateParts(sc, "Check-in date");
+        System.out.println("\nEnter check-out date:");
+        int out = askDateParts(sc, "Check-out date");
+
+        denial = engine.checkStay(today, in, out);
+        if (denial != null) {
+            System.out.println(denied(denial));
+            sc.close();
+            return;
+        }
+
+        long inDays = PackedDate.toDays(in);
+        long outDays = PackedDate.toDays(out);
+        int nights = (int)(outDays - inDays);
+
+        long t0 = Metrics.start();
+        Season detectedSeason = determineSeasonForStay(in, out);
+        Metrics.record(Metrics.Stage.SEASON, t0);
+        System.out.println("Detected season for stay: " + detectedSeason);
+
+        // number of rooms to reserve
+        int numRooms = askInt(sc, "\nEnter number of rooms to reserve: ", 1, -1);
+
+        // guest details - count adults and children
+        System.out.println("\nEnter guest details:");
+        int numAdults = askInt(sc, "Number of adults (18 and above): ", 0, -1);
+        int numChildren = askInt(sc, "Number of children (0-17): ", 0, -1);
+
+        denial = BookingEngine.checkGuests(numAdults, numChildren);
+        if (denial != null) {
+            System.out.println(denied(denial));
+            sc.close();
+            return;
+        }
+
+        // if there are children, ask for their ages
+        int[] childAges = new int[numChildren];
+        for (int i = 0; i < numChildren; i++) {
+            childAges[i] = askInt(sc, " Age of child " + (i+1) + ": ", 0, 17);
+        }
+
+        int totalGuests = BookingEngine.totalGuests(numAdults, childAges);
+        if (!BookingEngine.canFit(totalGuests, numRooms)) {
+            System.out.println(denied(DenialReason.NO_ROOM_COMBINATION, totalGuests, numRooms));
+            sc.close();
+            return;
+        }
+
+        // cheapest room mix for the party that is still free on these nights
+        RoomMixSolver.RoomMix mix = engine.suggestRooms(totalGuests, numRooms, inDays, outDays, property,
+                PackedDate.toDays(today));
+        if (mix == null) {
+            // the party fits in some mix (canFit), so the rooms for one are taken
+            System.out.println(denied(DenialReason.NO_ROOMS_AVAILABLE, destination));
+            sc.close();
+            return;
+        }
+        RoomType[] suggestedRooms = mix.expand();
+        
+        System.out.println("\n========== ROOM SUGGESTION ==========");
+        System.out.println("Based on " + totalGuests + " guests and " + numRooms + " room(s) reserved:");
+        for (int i = 0; i < suggestedRooms.length; i++) {
+            System.out.println(" Room #" + (i + 1) + ": " + suggestedRooms[i].name);
+            System.out.println("   Capacity: " + suggestedRooms[i].capacity + " guests");
+            System.out.println("   " + suggestedRooms[i].description);
+        }
+        if (mix.extraBeds > 0) System.out.println(" Extra beds needed: " + mix.extraBeds);
+
+        GuestAllocator allocator = new GuestAllocator(numRooms);
+        if (allocator.allocate(suggestedRooms, suggestedRooms.length, mix.extraBeds, numAdults, childAges)) {
+            System.out.println("Suggested allocation:");
+            for (int r = 0; r < allocator.rooms(); r++) {
+                System.out.println(" Room #" + (r + 1) + ": " + allocator.label(r));
+            }
+        }
+        
+        int acceptSuggestion = askInt(sc, "\nDo you accept this suggestion? (1=Yes, 0=No): ", 0, 1);
+        
+        RoomType[] selectedRooms = new RoomType[numRooms];
+        int[] selectedTypes = new int[numRooms];
+        int[] selectedIds = new int[numRooms];
+        int totalCapacity = 0;
+        int mostOfAType = 0;
+        for (int t = 0; t < ROOM_TYPES.length; t++) mostOfAType = Math.max(mostOfAType, inventory.roomCount(property, t));
+        int[] freeIds = new int[mostOfAType];
+
+        if (acceptSuggestion == 1) {
+            // User accepts suggestion - use suggested rooms and proceed to room instances
+            for (int r = 0; r < numRooms; r++) {
+                selectedRooms[r] = suggestedRooms[r];
+                selectedTypes[r] = typeIndex(suggestedRooms[r]);
+                totalCapacity += suggestedRooms[r].capacity;
+                
+                // Show available room numbers for this type and let user pick
+                int available = freeRoomsExcluding(inventory, property, selectedTypes[r], inDays, outDays, selectedIds, r, freeIds);
+                if (available <= 0) {
+                    System.out.println(denied(DenialReason.NO_ROOMS_AVAILABLE, suggestedRooms[r].name));
+                    sc.close();
+                    return;
+                }
+
+                System.out.println("\n=== Room #" + (r + 1) + " (" + suggestedRooms[r].name + ") ===");
+                System.out.println("Available room numbers:");
+                for (int i = 0; i < available; i++) {
+                    System.out.println(" [" + (i + 1) + "] " + inventory.label(freeIds[i]));
+                }
+                
+                int roomPick = askInt(sc, "Pick a specific room number (1-" + available + "): ", 1, available);
+                selectedIds[r] = freeIds[roomPick - 1];
+                
+                System.out.println("Selected: " + suggestedRooms[r].name + " - " + inventory.label(selectedIds[r]));
+            }
+        } else {
+            // User rejects suggestion - show all available room types for selection
+            System.out.println("\nSelect room type and instance for each reserved room:");
+            for (int r = 0; r < numRooms; r++) {
+                System.out.println("\n=== Room #" + (r + 1) + " ===");
+                
+                // Show all room types with available count
+                for (int i = 0; i < ROOM_TYPES.length; i++) {
+                    RoomType rt = ROOM_TYPES[i];
+                    int available = freeRoomsExcluding(inventory, property, i, inDays, outDays, selectedIds, r, freeIds);
+                    System.out.println(" [" + (i + 1) + "] " + rt.name + " (Available: " + available + " rooms)");
+                    System.out.println("     Capacity: " + rt.capacity + " guests | Extra beds allowed: " + rt.extraBedsAllowed);
+                    System.out.println("     " + rt.description);
+                    System.out.print("     Included: ");
+                    for (int k = 0; k < rt.includedAmenities.length; k++) {
+                        System.out.print(rt.includedAmenities[k]);
+                        if (k < rt.includedAmenities.length - 1) System.out.print(", ");
+                    }
+                    System.out.println();
+                }
+                
+                // User picks room type
+                int pick = askInt(sc, "Pick room type number for Room #" + (r + 1) + " (1-" + ROOM_TYPES.length + "): ", 1, ROOM_TYPES.length);
+                RoomType selectedType = ROOM_TYPES[pick - 1];
+                selectedRooms[r] = selectedType;
+                selectedTypes[r] = pick - 1;
+                totalCapacity += selectedType.capacity;
+
+                // Show available room numbers for this type and let user pick
+                int available = freeRoomsExcluding(inventory, property, pick - 1, inDays, outDays, selectedIds, r, freeIds);
+                if (available <= 0) {
+                    System.out.println(denied(DenialReason.NO_ROOMS_AVAILABLE, selectedType.name));
+                    sc.close();
+                    return;
+                }
+
+                System.out.println("\nAvailable room numbers for " + selectedType.name + ":");
+                for (int i = 0; i < available; i++) {
+                    System.out.println(" [" + (i + 1) + "] " + inventory.label(freeIds[i]));
+                }
+                
+                int roomPick = askInt(sc, "Pick a specific room number (1-" + available + "): ", 1, available);
+                selectedIds[r] = freeIds[roomPick - 1];
+                
+                System.out.println("Selected: " + selectedType.name + " - " + inventory.label(selectedIds[r]));
+            }
+        }
+
+        // extra beds (as add-on) are limited by allowed per room (sum of allowed per selected room)
+        int maxExtraAllowed = 0;
+        for (RoomType rt : selectedRooms) maxExtraAllowed += rt.extraBedsAllowed;
+        if (totalCapacity + maxExtraAllowed < totalGuests) {
+            System.out.println(denied(DenialReason.OVER_SELECTED_CAPACITY, totalGuests, totalCapacity + maxExtraAllowed));
+            sc.close();
+            return;
+        }
+
+        int extraBeds = askInt(sc, "Enter number of extra beds (max " + maxExtraAllowed + "): ", 0, maxExtraAllowed);
+
+        // validate total capacity including extra beds
+        int capacity = totalCapacity + extraBeds;
+        if (totalGuests > capacity) {
+            System.out.println(denied(DenialReason.OVER_CAPACITY, totalGuests, capacity));
+            sc.close();
+            return;
+        }
+
+        // hold the rooms now, so nobody takes them while the guest picks amenities
+        BookingQuote held = engine.hold(new BookingRequest(bookerName, bookerEmail, bookerContact, bookerAge,
+                today, destination, in, out, numAdults, childAges, numRooms, selectedTypes, selectedIds,
+                extraBeds, null));
+        if (!held.ok()) {
+            System.out.println(held.denialMessage);
+            sc.close();
+            return;
+        }
+
+        // show each reserved room and its features BEFORE asking amenities
+        boolean allocated = allocator.allocate(selectedRooms, numRooms, extraBeds, numAdults, childAges);
+        System.out.println("\nReserved rooms and their features:");
+        for (int r = 0; r < numRooms; r++) {
+            RoomType rt = selectedRooms[r];
+            System.out.println("\nRoom #" + (r + 1) + ": " + rt.name + " - " + inventory.label(selectedIds[r]));
+            if (allocated) System.out.println(" Guests: " + allocator.label(r));
+            System.out.println(" Description: " + rt.description);
+            System.out.println(" Included features:");
+            for (String feat : rt.includedAmenities) {
+                System.out.println("  - " + feat);
+            }
+            System.out.println((held.mixedSeasons() ? " Average price per night: PHP " : " Price per night: PHP ")
+                    + Money.toString(held.roomPricePerNight[r]));
+        }
+
+        // per-room amenities input
+        System.out.println("\nNow enter amenities per room:");
+        AmenityCatalog catalog = AmenityCatalog.shared();
+        AmenityLedger amenities = new AmenityLedger(catalog);
+
+        for (int r = 0; r < numRooms; r++) {
+            System.out.println("\n--- Amenities for Room #" + (r + 1) + " (" + selectedRooms[r].name + " - " + inventory.label(selectedIds[r]) + ") ---");
+            int roomMaxPersons = selectedRooms[r].capacity;
+            for (int a = 0; a < catalog.size(); a++) {
+                System.out.println("\nAmenity: " + catalog.name(a) + " (price per person per night/day: PHP " + Money.toString(catalog.price(a)) + ")");
+                int persons = askInt(sc, " Number of persons availing in this room (0-" + roomMaxPersons + "): ", 0, roomMaxPersons);
+                if (persons > 0) {
+                    int pwd = askInt(sc, "  Number of PWD/Senior availing (for 20% discount) (0-" + persons + "): ", 0, persons);
+                    int days = askInt(sc, "  Number of days to avail (1-" + nights + "): ", 1, nights);
+                    amenities.add(r, a, persons, pwd, days);
+                }
+            }
+        }
+
+        // the same hold, priced again with the amenities
+        if (!amenities.isEmpty()) {
+            BookingQuote priced = engine.changeAmenities(held.holdId, amenities);
+            if (!priced.ok()) {
+                System.out.println(priced.denialMessage);
+                engine.cancelHold(held.holdId);
+                sc.close();
+                return;
+            }
+            held = priced;
+        }
+        long grandTotal = held.grandTotal;
+
+        // payment
+        System.out.println("\nPayment options:");
+        System.out.println(" [1] Cash");
+        System.out.println(" [2] Credit/Debit card");
+        int payMethod = askInt(sc, "Choose payment method (1 or 2): ", 1, 2);
+        Payment payment;
+        if (payMethod == 1) {
+            // cash
+            while (true) {
+                System.out.println("Total due: " + Money.toString(grandTotal));
+                System.out.print("Enter cash amount paid: ");
+                String s = sc.nextLine().trim();
+                long paidAmt;
+                try { paidAmt = Money.parse(s); } catch (Exception ex) { paidAmt = -1; }
+                denial = BookingEngine.checkCash(paidAmt, grandTotal);
+                if (denial != null) { System.out.println(denial.message()); continue; }
+                payment = Payment.cash(paidAmt);
+                break;
+            }
+        } else {
+            // card
+            while (true) {
+                System.out.print("Enter 16-digit card number: ");
+                String card = sc.nextLine().trim();
+                denial = BookingEngine.checkCard(card);
+                if (denial != null) { System.out.println(denial.message()); continue; }
+                System.out.print("Enter 3-digit CVV: ");
+                String cvv = sc.nextLine().trim();
+                denial = BookingEngine.checkCvv(cvv);
+                if (denial != null) { System.out.println(denial.message()); continue; }
+                payment = Payment.card(card, cvv);
+                break;
+            }
+        }
+
+        BookingConfirmation confirmation;
+        if (payMethod == 2) {
+            // authorized through the payment gateway
+            System.out.println("Authorizing card...");
+            confirmation = payments.pay(held.holdId, payment, null).join();
+        } else {
+            confirmation = engine.confirm(held.holdId, payment);
+        }
+        if (!confirmation.ok()) {
+            if (confirmation.denial == DenialReason.PAYMENT_DECLINED || confirmation.denial == DenialReason.PAYMENT_FAILED) {
+                System.out.println(confirmation.denialMessage);
+            }
+            System.out.println(denied(DenialReason.PAYMENT_NOT_COMPLETED));
+            engine.cancelHold(held.holdId);
+            sc.close();
+            return;
+        }
+        if (payMethod == 1) System.out.println("Cash accepted. Change: " + Money.toString(confirmation.change));
+        else System.out.println("Card charged successfully for " + Money.toString(grandTotal));
+
+        JOptionPane.showMessageDialog(null, bookingSummary(confirmation, inventory), "Booking Confirmation", JOptionPane.INFORMATION_MESSAGE);
+        sc.close();
+    }
+
+    // booking summary - centered top/bottom only (fixed); see ReceiptRenderer for JSON/CSV
+    static String bookingSummary(BookingConfirmation confirmation, RoomInventory inventory) {
+        return ReceiptRenderer.text(confirmation, inventory);
+    }
+
+    // the denial's message, counted in Metrics; the engine counts the ones it answers itself
+    private static String denied(DenialReason reason, Object... args) {
+        Metrics.denied(reason);
+        return reason.message(args);
+    }
+
+    // rooms of the type free for the stay in the property, minus the ones already picked in this session
+    private static int freeRoomsExcluding(RoomInventory inventory, int property, int type, long inDays, long outDays,
+                                          int[] picked, int pickedCount, int[] dst) {
+        int n = inventory.freeRooms(property, type, inDays, outDays, dst);
+        int kept = 0;
+        outer:
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < pickedCount; k++) if (picked[k] == dst[i]) continue outer;
+            dst[kept++] = dst[i];
+        }
+        return kept;
+    }
+
+    static int typeIndex(RoomType rt) {
+        for (int i = 0; i < ROOM_TYPES.length; i++) if (ROOM_TYPES[i] == rt) return i;
+        return -1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,302 @@
+package finalproject;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// where the time goes: a latency histogram per stage of a booking and a counter per denial
+// reason, for the console, the HTTP API and batch runs alike.
+//
+//   long t0 = Metrics.start();
+//   ...
+//   Metrics.record(Metrics.Stage.SUGGEST, t0);
+//
+// record returns the time it read, so a stage that follows straight on can start from it
+// instead of reading the clock again.
+// recording takes no lock and allocates nothing. histograms are log-linear (16 buckets per
+// power of two, so a value is off by at most 1/16) and striped: a thread adds to the copy
+// picked by its id, and the copies are only summed when someone reads them. counters are
+// LongAdders. -Dhotel.metrics=false turns all of it into no-ops.
+//
+// publish() exposes the numbers as JMX MBeans (finalproject:type=Latency,name=<stage> and
+// finalproject:type=Denials) and, with -Dhotel.metrics.dumpSeconds=N, prints text() to
+// stderr every N seconds.
+final class Metrics {
+
+    static final boolean ENABLED = !"false".equals(System.getProperty("hotel.metrics"));
+
+    enum Stage {
+        SEASON("season detection"),
+        SUGGEST("room suggestion"),
+        INVENTORY("inventory update"),   // taking or giving back a booking's rooms
+        AMENITIES("amenity pricing"),
+        PAYMENT("payment"),
+        AUTHORIZATION("card authorization"),  // from pay() to the gateway's last answer, retries included
+        SUMMARY("summary rendering");
+
+        final String label;
+        final Histogram histogram = new Histogram();
+
+        Stage(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final DenialReason[] REASONS = DenialReason.values();
+    private static final LongAdder[] DENIALS = new LongAdder[REASONS.length];
+
+    static {
+        for (int i = 0; i < DENIALS.length; i++) DENIALS[i] = new LongAdder();
+    }
+
+    private Metrics() {
+    }
+
+    // ------- recording -------
+
+    static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    // the stage ran from start (a start() value) until now; returns now
+    static long record(Stage stage, long start) {
+        if (!ENABLED) return 0;
+        long now = System.nanoTime();
+        stage.histogram.record(now - start);
+        return now;
+    }
+
+    static void denied(DenialReason reason) {
+        if (ENABLED && reason != null) DENIALS[reason.ordinal()].increment();
+    }
+
+    static long denials(DenialReason reason) {
+        return DENIALS[reason.ordinal()].sum();
+    }
+
+    // ------- reading -------
+
+    static String text() {
+        StringBuilder sb = new StringBuilder(1024).append("latency (us):");
+        sb.append(String.format("%n  %-18s %10s %9s %9s %9s %9s %9s", "stage", "count", "mean", "p50", "p99", "p99.9", "max"));
+        for (Stage s : Stage.values()) {
+            Histogram.Snapshot h = s.histogram.snapshot();
+            sb.append(String.format("%n  %-18s %10d %9.1f %9.1f %9.1f %9.1f %9.1f", s.label, h.count, h.mean() / 1e3,
+                    h.percentile(50) / 1e3, h.percentile(99) / 1e3, h.percentile(99.9) / 1e3, h.max / 1e3));
+        }
+        sb.append(String.format("%ndenials:"));
+        int shown = 0;
+        for (DenialReason r : REASONS) {
+            long n = DENIALS[r.ordinal()].sum();
+            if (n == 0) continue;
+            sb.append(String.format("%n  %-24s %d", r.name(), n));
+            shown++;
+        }
+        if (shown == 0) sb.append(" none");
+        return sb.toString();
+    }
+
+    // ------- publishing -------
+
+    private static boolean published;
+
+    // registers the MBeans (unless -Dhotel.metrics.jmx=false) and starts the periodic dump
+    // if asked for; the entry points call it once, later calls do nothing
+    static synchronized void publish() {
+        if (!ENABLED || published) return;
+        published = true;
+        if (!"false".equals(System.getProperty("hotel.metrics.jmx"))) {
+            try {
+                register(ManagementFactory.getPlatformMBeanServer());
+            } catch (JMException | RuntimeException e) {
+                System.err.println("Metrics not published over JMX: " + e);
+            }
+        }
+        long period = Long.getLong("hotel.metrics.dumpSeconds", 0);
+        if (period > 0) dumpEvery(period * 1000, System.err);
+    }
+
+    static void register(MBeanServer server) throws JMException {
+        for (Stage s : Stage.values()) {
+            Histogram h = s.histogram;
+            Bean b = new Bean("Latency of " + s.label + ", in nanoseconds");
+            b.add("Count", () -> h.snapshot().count);
+            b.add("MeanNanos", () -> (long) h.snapshot().mean());
+            b.add("P50Nanos", () -> h.snapshot().percentile(50));
+            b.add("P90Nanos", () -> h.snapshot().percentile(90));
+            b.add("P99Nanos", () -> h.snapshot().percentile(99));
+            b.add("P999Nanos", () -> h.snapshot().percentile(99.9));
+            b.add("MaxNanos", () -> h.snapshot().max);
+            server.registerMBean(b, new ObjectName("finalproject:type=Latency,name=" + s.name().toLowerCase()));
+        }
+        Bean d = new Bean("Requests refused, by DenialReason");
+        for (DenialReason r : REASONS) d.add(r.name(), DENIALS[r.ordinal()]::sum);
+        server.registerMBean(d, new ObjectName("finalproject:type=Denials"));
+    }
+
+    static Thread dumpEvery(long periodMillis, PrintStream out) {
+        Thread t = new Thread(() -> {
+            while (true) {
+                try {
+                    Thread.sleep(periodMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                out.println(text());
+            }
+        }, "metrics-dump");
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    // read-only MBean over a fixed set of long attributes
+    private static final class Bean implements DynamicMBean {
+        private final String description;
+        private final List<String> names = new ArrayList<>();
+        private final List<LongSupplier> values = new ArrayList<>();
+
+        Bean(String description) {
+            this.description = description;
+        }
+
+        void add(String name, LongSupplier value) {
+            names.add(name);
+            values.add(value);
+        }
+
+        @Override
+        public Object getAttribute(String name) throws AttributeNotFoundException {
+            int i = names.indexOf(name);
+            if (i < 0) throw new AttributeNotFoundException(name);
+            return values.get(i).getAsLong();
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] names) {
+            AttributeList list = new AttributeList();
+            for (String n : names) {
+                int i = this.names.indexOf(n);
+                if (i >= 0) list.add(new Attribute(n, values.get(i).getAsLong()));
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String action, Object[] params, String[] signature) {
+            throw new UnsupportedOperationException(action);
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            MBeanAttributeInfo[] attrs = new MBeanAttributeInfo[names.size()];
+            for (int i = 0; i < attrs.length; i++) {
+                attrs[i] = new MBeanAttributeInfo(names.get(i), "long", names.get(i), true, false, false);
+            }
+            return new MBeanInfo(Metrics.class.getName(), description, attrs, null, null, null);
+        }
+    }
+
+    // lock-free log-linear histogram of non-negative longs (nanoseconds here). all stripes live
+    // in one array, each as [sum, max, buckets...], so a record touches two cache lines of one
+    // object rather than a chain of counter objects
+    static final class Histogram {
+        private static final int SUB_BITS = 4, SUB = 1 << SUB_BITS;
+        static final int BUCKETS = (64 - SUB_BITS + 1) * SUB;
+        private static final int SUM = 0, MAX = 1, FIRST_BUCKET = 2;
+        private static final int STRIDE = FIRST_BUCKET + BUCKETS + 14;  // a stripe's length, with slack between stripes
+        private static final int STRIPES = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+
+        private final AtomicLongArray cells = new AtomicLongArray(STRIPES * STRIDE);
+
+        // values below 16 get a bucket each; above, a power of two is split into 16 buckets
+        static int bucket(long v) {
+            if (v < SUB) return (int) Math.max(v, 0);
+            int exp = 63 - Long.numberOfLeadingZeros(v);
+            return (exp - SUB_BITS + 1) * SUB + (int) ((v >>> (exp - SUB_BITS)) & (SUB - 1));
+        }
+
+        // highest value that lands in the bucket
+        static long highest(int bucket) {
+            if (bucket < SUB) return bucket;
+            int exp = bucket / SUB + SUB_BITS - 1, shift = exp - SUB_BITS;
+            long low = (long) (SUB + bucket % SUB) << shift;
+            return low + (1L << shift) - 1;
+        }
+
+        void record(long nanos) {
+            int stripe = ((int) Thread.currentThread().getId() & (STRIPES - 1)) * STRIDE;
+            cells.getAndIncrement(stripe + FIRST_BUCKET + bucket(nanos));
+            cells.getAndAdd(stripe + SUM, nanos);
+            long m = cells.get(stripe + MAX);
+            while (nanos > m && !cells.compareAndSet(stripe + MAX, m, nanos)) m = cells.get(stripe + MAX);
+        }
+
+        // counts summed over the stripes; a record running meanwhile may or may not be in it
+        Snapshot snapshot() {
+            long[] total = new long[BUCKETS];
+            long count = 0, sum = 0, max = 0;
+            for (int stripe = 0; stripe < STRIPES * STRIDE; stripe += STRIDE) {
+                sum += cells.get(stripe + SUM);
+                max = Math.max(max, cells.get(stripe + MAX));
+                for (int b = 0; b < BUCKETS; b++) {
+                    long n = cells.get(stripe + FIRST_BUCKET + b);
+                    total[b] += n;
+                    count += n;
+                }
+            }
+            return new Snapshot(total, count, sum, max);
+        }
+
+        static final class Snapshot {
+            final long[] buckets;
+            final long count, sum, max;
+
+            Snapshot(long[] buckets, long count, long sum, long max) {
+                this.buckets = buckets;
+                this.count = count;
+                this.sum = sum;
+                this.max = max;
+            }
+
+            double mean() {
+                return count == 0 ? 0 : (double) sum / count;
+            }
+
+            // the value p percent of the records are at or below, to the bucket's precision
+            long percentile(double p) {
+                if (count == 0) return 0;
+                long rank = Math.max(1, (long) Math.ceil(count * p / 100));
+                long seen = 0;
+                for (int b = 0; b < buckets.length; b++) {
+                    seen += buckets[b];
+                    if (seen >= rank) return Math.min(highest(b), max);
+                }
+                return max;
+            }
+        }
+    }
+}
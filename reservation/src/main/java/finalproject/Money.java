@@ -0,0 +1,117 @@
+package finalproject;
+
+// amounts of money as a long count of centavos (100 to the peso), so sums, nights x rate
+// and discounts come out exact instead of drifting like doubles. like PackedDate this is
+// just static methods over a primitive: nothing here allocates except toString, and
+// operations that could overflow throw instead of wrapping. where a result falls between
+// two centavos (percentages, averages) it is rounded half away from zero, as receipts do.
+final class Money {
+
+    private Money() {}
+
+    static final long CENTAVOS_PER_PESO = 100;
+
+    static long pesos(long pesos) {
+        return Math.multiplyExact(pesos, CENTAVOS_PER_PESO);
+    }
+
+    // a price table given in whole pesos, e.g. a room type's rate per season
+    static long[] pesosEach(long... pesos) {
+        long[] c = new long[pesos.length];
+        for (int i = 0; i < c.length; i++) c[i] = pesos(pesos[i]);
+        return c;
+    }
+
+    static long plus(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    static long minus(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    // a unit price for so many nights, persons, ...
+    static long times(long amount, long count) {
+        return Math.multiplyExact(amount, count);
+    }
+
+    static long sum(long[] amounts) {
+        long s = 0;
+        for (long a : amounts) s = Math.addExact(s, a);
+        return s;
+    }
+
+    // percent% of the amount, to the nearest centavo
+    static long percentOf(long amount, int percent) {
+        return divide(Math.multiplyExact(amount, percent), 100);
+    }
+
+    // one of `parts` equal shares, to the nearest centavo; the shares need not add back up
+    static long divide(long amount, long parts) {
+        if (parts <= 0) throw new IllegalArgumentException("Cannot split an amount into " + parts + " parts");
+        long q = amount / parts, r = amount % parts;
+        long rest = Math.abs(r);  // less than parts, so parts - rest can't overflow where rest * 2 could
+        if (rest >= parts - rest) q += amount < 0 ? -1 : 1;
+        return q;
+    }
+
+    // "1234", "1234.5", "-0.25": at most two decimals, read exactly. anything that isn't
+    // an amount, too large ones included, is a NumberFormatException
+    static long parse(String s) {
+        String t = s.trim();
+        try {
+            return parseExact(t);
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: '" + t + "'");
+        }
+    }
+
+    private static long parseExact(String t) {
+        int i = 0, n = t.length();
+        boolean negative = n > 0 && t.charAt(0) == '-';
+        if (negative || n > 0 && t.charAt(0) == '+') i++;
+        long pesos = 0, centavos = 0;
+        int digits = 0, decimals = -1;
+        for (; i < n; i++) {
+            char c = t.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (decimals < 0) {
+                    pesos = Math.addExact(Math.multiplyExact(pesos, 10), c - '0');
+                } else if (++decimals <= 2) {
+                    centavos = centavos * 10 + (c - '0');
+                } else {
+                    throw new NumberFormatException("More than two decimals in '" + t + "'");
+                }
+                digits++;
+            } else {
+                throw new NumberFormatException("Not an amount: '" + t + "'");
+            }
+        }
+        if (digits == 0) throw new NumberFormatException("Not an amount: '" + t + "'");
+        if (decimals == 1) centavos *= 10;
+        long c = Math.addExact(pesos(pesos), centavos);
+        return negative ? -c : c;
+    }
+
+    // an amount that came in as a double (a JSON number); it must be a whole number of centavos
+    static long fromDecimal(double pesos) {
+        double c = pesos * CENTAVOS_PER_PESO;
+        if (!(Math.abs(c) < 0x1p53)) throw new IllegalArgumentException("Amount out of range: " + pesos);
+        long r = Math.round(c);
+        if (Math.abs(c - r) > 1e-6) throw new IllegalArgumentException("More than two decimals in " + pesos);
+        return r;
+    }
+
+    // two decimals, e.g. "1234.50"
+    static String toString(long amount) {
+        return appendTo(new StringBuilder(24), amount).toString();
+    }
+
+    static StringBuilder appendTo(StringBuilder sb, long amount) {
+        if (amount < 0) sb.append('-');
+        long pesos = Math.abs(amount / CENTAVOS_PER_PESO), c = Math.abs(amount % CENTAVOS_PER_PESO);
+        return sb.append(pesos).append('.').append((char) ('0' + c / 10)).append((char) ('0' + c % 10));
+    }
+}
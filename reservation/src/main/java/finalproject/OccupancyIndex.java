@@ -0,0 +1,35 @@
+package finalproject;
+
+// how many of each property's rooms are taken per night, for occupancy-based pricing.
+// the counts are the inventory's own (see RoomInventory.takenRooms, summed over the room
+// types), moved by one per room-night at the compare-and-set that takes or frees it, so
+// reading them needs no lock and a write pays nothing for the index. the engine only
+// builds one once a pricing rule uses occupancy.
+final class OccupancyIndex {
+
+    private static final int TYPES = MainCode.ROOM_TYPES.length;
+
+    private final RoomInventory inventory;
+    private final int[] rooms;  // per property
+
+    OccupancyIndex(RoomInventory inventory) {
+        this.inventory = inventory;
+        RoomRegistry registry = inventory.registry;
+        this.rooms = new int[registry.propertyCount()];
+        for (int p = 0; p < rooms.length; p++) {
+            for (int t = 0; t < TYPES; t++) rooms[p] += registry.roomCount(p, t);
+        }
+    }
+
+    // percent of the property's rooms taken on that day (0 outside the tracked window)
+    int percent(int property, long day) {
+        long night = day - inventory.originDay;
+        if (night < 0 || night >= inventory.horizon || rooms[property] == 0) return 0;
+        return (int) (100L * inventory.takenRooms(property, (int) night) / rooms[property]);
+    }
+
+    // dst[n] = percent(property, inDay + n) for every night of [inDay, outDay)
+    void percents(int property, long inDay, long outDay, int[] dst) {
+        for (long d = inDay; d < outDay; d++) dst[(int) (d - inDay)] = percent(property, d);
+    }
+}
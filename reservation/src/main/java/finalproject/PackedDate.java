@@ -0,0 +1,151 @@
+package finalproject;
+
+// dates packed into a single int as yyyymmdd, plus day numbers (days since 0001-01-01,
+// proleptic Gregorian) for arithmetic. every conversion is closed form, so nothing here
+// loops over years or allocates.
+final class PackedDate {
+
+    private PackedDate() {}
+
+    // cumulative days before each month in a common year (index 1..12)
+    private static final int[] DAYS_BEFORE_MONTH = {0, 0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334};
+    private static final int[] DAYS_IN_MONTH = {0, 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    // day number of 1970-01-01, used to anchor the civil-from-days conversion
+    static final long UNIX_EPOCH_DAY = 719162L;
+
+    // feeds each night of a range to the caller without building arrays
+    interface DayVisitor {
+        void visit(int date, long day);
+    }
+
+    static int pack(int y, int m, int d) {
+        return y * 10000 + m * 100 + d;
+    }
+
+    static int year(int date) {
+        return date / 10000;
+    }
+
+    static int month(int date) {
+        return (date / 100) % 100;
+    }
+
+    static int day(int date) {
+        return date % 100;
+    }
+
+    static boolean isLeapYear(int y) {
+        return (y & 3) == 0 && (y % 100 != 0 || y % 400 == 0);
+    }
+
+    static int daysInMonth(int y, int m) {
+        if (m == 2 && isLeapYear(y)) return 29;
+        return DAYS_IN_MONTH[m];
+    }
+
+    static boolean isValidDate(int y, int m, int d) {
+        if (y < 1 || y > 9999) return false;
+        if (m < 1 || m > 12) return false;
+        return d >= 1 && d <= daysInMonth(y, m);
+    }
+
+    static boolean isValid(int date) {
+        return date > 0 && isValidDate(year(date), month(date), day(date));
+    }
+
+    // days since 0001-01-01
+    static long toDays(int y, int m, int d) {
+        long py = y - 1;
+        long days = py * 365 + py / 4 - py / 100 + py / 400;
+        days += DAYS_BEFORE_MONTH[m];
+        if (m > 2 && isLeapYear(y)) days++;
+        return days + d - 1;
+    }
+
+    static long toDays(int date) {
+        return toDays(year(date), month(date), day(date));
+    }
+
+    // inverse of toDays (civil-from-days on 400-year eras)
+    static int fromDays(long days) {
+        long z = days - UNIX_EPOCH_DAY + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        int d = (int) (doy - (153 * mp + 2) / 5 + 1);
+        int m = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int y = (int) (yoe + era * 400 + (m <= 2 ? 1 : 0));
+        return pack(y, m, d);
+    }
+
+    static int plusDays(int date, long n) {
+        if (n == 1) return next(date);
+        return fromDays(toDays(date) + n);
+    }
+
+    static int minusDays(int date, long n) {
+        return plusDays(date, -n);
+    }
+
+    // check-out minus check-in; zero or negative means the stay is invalid
+    static long nightsBetween(int in, int out) {
+        return toDays(out) - toDays(in);
+    }
+
+    static int next(int date) {
+        int y = year(date), m = month(date), d = day(date) + 1;
+        if (d > daysInMonth(y, m)) {
+            d = 1;
+            if (++m > 12) { m = 1; y++; }
+        }
+        return pack(y, m, d);
+    }
+
+    // visits every night of [in, out)
+    static void forEachDay(int in, int out, DayVisitor visitor) {
+        long day = toDays(in);
+        long end = toDays(out);
+        for (int date = in; day < end; day++, date = next(date)) visitor.visit(date, day);
+    }
+
+    // current date from the system clock (UTC)
+    static int today() {
+        return fromDays(Math.floorDiv(System.currentTimeMillis(), 86_400_000L) + UNIX_EPOCH_DAY);
+    }
+
+    // appends yyyy-mm-dd without String.format
+    static StringBuilder appendIso(StringBuilder sb, int date) {
+        int y = year(date), m = month(date), d = day(date);
+        if (y < 1000) sb.append('0');
+        if (y < 100) sb.append('0');
+        if (y < 10) sb.append('0');
+        sb.append(y).append('-');
+        if (m < 10) sb.append('0');
+        sb.append(m).append('-');
+        if (d < 10) sb.append('0');
+        return sb.append(d);
+    }
+
+    static String toIso(int date) {
+        return appendIso(new StringBuilder(10), date).toString();
+    }
+
+    // packed date from yyyy-mm-dd; 0 (never valid) when the text isn't in that form.
+    // the fields are not range-checked, use isValid for that
+    static int parseIso(CharSequence s) {
+        if (s == null || s.length() != 10 || s.charAt(4) != '-' || s.charAt(7) != '-') return 0;
+        int y = 0, m = 0, d = 0;
+        for (int i = 0; i < 10; i++) {
+            if (i == 4 || i == 7) continue;
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return 0;
+            if (i < 4) y = y * 10 + (c - '0');
+            else if (i < 7) m = m * 10 + (c - '0');
+            else d = d * 10 + (c - '0');
+        }
+        return pack(y, m, d);
+    }
+}
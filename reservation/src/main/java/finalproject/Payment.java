@@ -0,0 +1,27 @@
+package finalproject;
+
+// how the guest pays: cash amount tendered (centavos), or card number and CVV
+final class Payment {
+
+    enum Method { CASH, CARD }
+
+    final Method method;
+    final long cashAmount;
+    final String cardNumber;
+    final String cvv;
+
+    private Payment(Method method, long cashAmount, String cardNumber, String cvv) {
+        this.method = method;
+        this.cashAmount = cashAmount;
+        this.cardNumber = cardNumber;
+        this.cvv = cvv;
+    }
+
+    static Payment cash(long amount) {
+        return new Payment(Method.CASH, amount, null, null);
+    }
+
+    static Payment card(String cardNumber, String cvv) {
+        return new Payment(Method.CARD, 0, cardNumber, cvv);
+    }
+}
@@ -0,0 +1,50 @@
+package finalproject;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// a card processor, as PaymentProcessor sees it. every call answers with a future and none
+// may block the caller; a call that fails (the future completes exceptionally) never reached
+// the processor or lost its answer, and may be repeated.
+//
+// an authorization is keyed by the caller's idempotency key: repeating authorize with a key
+// gives the first answer again and never holds the funds twice, so a caller that timed out
+// can simply ask again.
+interface PaymentGateway {
+
+    // reserves amount (centavos) on the card; the answer says whether the card was approved
+    CompletableFuture<Authorization> authorize(String idempotencyKey, Payment card, long amount);
+
+    // takes the money of approved authorizations, all in one call
+    CompletableFuture<Void> capture(List<Authorization> authorizations);
+
+    // gives back the funds of an authorization that will not be captured, including one whose
+    // answer never arrived; nothing happens if the key was never authorized
+    CompletableFuture<Void> voidAuthorization(String idempotencyKey);
+
+    // the processor's answer to one authorize
+    final class Authorization {
+        final String id;              // processor's reference, null when declined
+        final String idempotencyKey;
+        final long amount;
+        final boolean approved;
+        final String declineCode;     // null when approved
+
+        Authorization(String id, String idempotencyKey, long amount, boolean approved, String declineCode) {
+            this.id = id;
+            this.idempotencyKey = idempotencyKey;
+            this.amount = amount;
+            this.approved = approved;
+            this.declineCode = declineCode;
+        }
+    }
+
+    // the processor could not be reached or did not answer; worth another try with the same key
+    final class Unavailable extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Unavailable(String message) {
+            super(message);
+        }
+    }
+}
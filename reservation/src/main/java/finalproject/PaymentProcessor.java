@@ -0,0 +1,332 @@
+package finalproject;
+
+import finalproject.PaymentGateway.Authorization;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// pays for held bookings by card through a PaymentGateway, without tying up the caller:
+// pay() answers with a future at once, and the booking is confirmed (or refused) when the
+// gateway has answered.
+//
+//   authorize  every call has its own timeout; a call that times out or fails is tried again
+//              with the same idempotency key (so the card is never charged twice), after a
+//              short backoff, up to `attempts` times
+//   approved   the engine confirms the hold and the authorization joins the capture queue
+//   declined / no answer / confirm refused
+//              the hold is cancelled, so its rooms are free again, and an authorization that
+//              may have gone through unseen is voided
+//   capture    queued authorizations are captured together, every captureBatch or every
+//              captureIntervalMillis; a failed batch goes back in the queue
+//
+// a payment is remembered by its idempotency key (the last REMEMBERED_KEYS of them) with
+// the hold it paid for: asking again with the same key for that hold, during or after the
+// payment, gets the same answer, and the key is refused for any other hold. a second
+// payment for a hold that has one in flight is refused. cash and badly formed cards never
+// reach the gateway and are answered by the engine as before.
+final class PaymentProcessor implements AutoCloseable {
+
+    static final long DEFAULT_TIMEOUT_MILLIS = 3_000;
+    static final int DEFAULT_ATTEMPTS = 3;
+    static final int DEFAULT_CAPTURE_BATCH = 100;
+    static final long DEFAULT_CAPTURE_MILLIS = 500;
+    static final int REMEMBERED_KEYS = 1 << 16;
+
+    private static final long BACKOFF_MILLIS = 50;  // doubled on every retry
+
+    private final BookingEngine engine;
+    private final ShardedBookingExecutor shards;  // null = engine calls run on the processor's own threads
+    private final PaymentGateway gateway;
+    private final long timeoutNanos;
+    private final int attempts;
+    private final int captureBatch;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService capturer;
+
+    private final Map<String, Paid> byKey = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> keyOrder = new ConcurrentLinkedQueue<>();  // oldest first, for forgetting
+    private final Map<Long, String> inFlight = new ConcurrentHashMap<>();                  // holdId -> key
+    private final ConcurrentLinkedQueue<Authorization> toCapture = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger awaitingCapture = new AtomicInteger();
+    private final Set<CompletableFuture<Void>> voiding = ConcurrentHashMap.newKeySet();
+    private final AtomicLong approved = new AtomicLong(), declined = new AtomicLong(), failed = new AtomicLong();
+    private final AtomicLong captured = new AtomicLong(), captureBatches = new AtomicLong(), captureRetries = new AtomicLong();
+
+    PaymentProcessor(BookingEngine engine, ShardedBookingExecutor shards, PaymentGateway gateway, long timeoutNanos,
+                     int attempts, int captureBatch, long captureIntervalMillis) {
+        if (timeoutNanos <= 0 || attempts < 1 || captureBatch < 1 || captureIntervalMillis < 1) {
+            throw new IllegalArgumentException("Timeout, attempts, capture batch and interval must be positive");
+        }
+        this.engine = engine;
+        this.shards = shards;
+        this.gateway = gateway;
+        this.timeoutNanos = timeoutNanos;
+        this.attempts = attempts;
+        this.captureBatch = captureBatch;
+        this.workers = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), daemon("payment-worker"));
+        this.capturer = Executors.newSingleThreadScheduledExecutor(daemon("payment-capture"));
+        capturer.scheduleWithFixedDelay(this::flushCaptures, captureIntervalMillis, captureIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // the stub gateway, -Dhotel.payments.stub=latency=..,decline=.. (see StubPaymentGateway;
+    // default: approves at once); -Dhotel.payments.timeoutMillis, .attempts, .captureBatch and
+    // .captureMillis tune the rest
+    static PaymentProcessor forEngine(BookingEngine engine, ShardedBookingExecutor shards) {
+        return new PaymentProcessor(engine, shards, StubPaymentGateway.parse(System.getProperty("hotel.payments.stub", "")),
+                Long.getLong("hotel.payments.timeoutMillis", DEFAULT_TIMEOUT_MILLIS) * 1_000_000L,
+                Integer.getInteger("hotel.payments.attempts", DEFAULT_ATTEMPTS),
+                Integer.getInteger("hotel.payments.captureBatch", DEFAULT_CAPTURE_BATCH),
+                Long.getLong("hotel.payments.captureMillis", DEFAULT_CAPTURE_MILLIS));
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    // ------- paying -------
+
+    // what an idempotency key was used for
+    private static final class Paid {
+        final long holdId;
+        final CompletableFuture<BookingConfirmation> answer;
+
+        Paid(long holdId, CompletableFuture<BookingConfirmation> answer) {
+            this.holdId = holdId;
+            this.answer = answer;
+        }
+    }
+
+    // idempotencyKey may be null: the hold id stands in for it
+    CompletableFuture<BookingConfirmation> pay(long holdId, Payment payment, String idempotencyKey) {
+        String key = idempotencyKey != null ? idempotencyKey : "hold-" + holdId;
+        Paid seen = byKey.get(key);
+        if (seen != null) return answer(seen, holdId, key);
+        BookingQuote q = engine.heldQuote(holdId);
+        if (q == null || payment == null || payment.method != Payment.Method.CARD
+                || BookingEngine.checkPayment(payment, q.grandTotal) != null) {
+            return confirm(holdId, payment);  // nothing to authorize; the engine answers
+        }
+
+        CompletableFuture<BookingConfirmation> done = new CompletableFuture<>();
+        Paid paid = new Paid(holdId, done);
+        seen = byKey.putIfAbsent(key, paid);
+        if (seen != null) return answer(seen, holdId, key);
+        String other = inFlight.putIfAbsent(holdId, key);
+        if (other != null) {
+            byKey.remove(key, paid);
+            return CompletableFuture.completedFuture(denied(q, DenialReason.PAYMENT_PENDING, holdId));
+        }
+        remember(key);
+        long t0 = Metrics.start();
+        withRetries(() -> gateway.authorize(key, payment, q.grandTotal), 0).whenComplete((a, e) -> {
+            Metrics.record(Metrics.Stage.AUTHORIZATION, t0);
+            if (e != null) {
+                failed.incrementAndGet();
+                voidAuthorization(key);  // in case it went through and only the answer was lost
+                refuse(holdId, key, done, denied(q, DenialReason.PAYMENT_FAILED));
+            } else if (!a.approved) {
+                declined.incrementAndGet();
+                refuse(holdId, key, done, denied(q, DenialReason.PAYMENT_DECLINED));
+            } else {
+                approved.incrementAndGet();
+                confirm(holdId, payment).whenComplete((c, ce) -> {
+                    if (ce == null && c.ok()) {
+                        queueCapture(a);
+                        finish(holdId, key, done, c, null);
+                    } else {
+                        voidAuthorization(key);
+                        Throwable cause = ce instanceof CompletionException && ce.getCause() != null ? ce.getCause() : ce;
+                        // closing: nothing is left to confirm on, and the hold is left to expire
+                        if (cause instanceof RejectedExecutionException) {
+                            finish(holdId, key, done, denied(q, DenialReason.PAYMENT_FAILED), null);
+                        } else if (ce != null) {
+                            finish(holdId, key, done, null, ce);
+                        } else {
+                            refuse(holdId, key, done, c);
+                        }
+                    }
+                });
+            }
+        });
+        return done;
+    }
+
+    // the key's first answer if it was for this hold
+    private static CompletableFuture<BookingConfirmation> answer(Paid seen, long holdId, String key) {
+        if (seen.holdId == holdId) return seen.answer;
+        return CompletableFuture.completedFuture(denied(null, DenialReason.IDEMPOTENCY_KEY_REUSED, key));
+    }
+
+    // a gateway call, made again (it is idempotent) while it fails or times out
+    private <T> CompletableFuture<T> withRetries(Supplier<CompletableFuture<T>> call, int attempt) {
+        return call.get().orTimeout(timeoutNanos, TimeUnit.NANOSECONDS)
+                .handle((a, e) -> {
+                    if (e == null) return CompletableFuture.completedFuture(a);
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    boolean retry = cause instanceof TimeoutException || cause instanceof PaymentGateway.Unavailable;
+                    if (!retry || attempt + 1 >= attempts) return CompletableFuture.<T>failedFuture(cause);
+                    return CompletableFuture.runAsync(() -> { },
+                                    CompletableFuture.delayedExecutor(BACKOFF_MILLIS << attempt, TimeUnit.MILLISECONDS))
+                            .thenCompose(x -> withRetries(call, attempt + 1));
+                })
+                .thenCompose(f -> f);
+    }
+
+    // close() waits for voids still going
+    private void voidAuthorization(String key) {
+        CompletableFuture<Void> f = withRetries(() -> gateway.voidAuthorization(key), 0);
+        voiding.add(f);
+        f.whenComplete((v, e) -> {
+            voiding.remove(f);
+            if (e != null) System.err.println("Authorization " + key + " not voided: " + e);
+        });
+    }
+
+    // the hold's rooms go back, then the guest is told why; a hold that cannot be cancelled
+    // right now (its shard is full) stays until it is cancelled or expires
+    private void refuse(long holdId, String key, CompletableFuture<BookingConfirmation> done, BookingConfirmation c) {
+        CompletableFuture<Boolean> cancelled;
+        try {
+            cancelled = shards != null ? shards.cancelHold(holdId)
+                    : CompletableFuture.supplyAsync(() -> engine.cancelHold(holdId), workers);
+        } catch (RejectedExecutionException e) {
+            cancelled = CompletableFuture.failedFuture(e);  // closing; the hold expires instead
+        }
+        cancelled.whenComplete((x, e) -> finish(holdId, key, done, c, null));
+    }
+
+    private static BookingConfirmation denied(BookingQuote q, DenialReason reason, Object... args) {
+        Metrics.denied(reason);
+        return BookingConfirmation.denied(q, reason, args);
+    }
+
+    private void finish(long holdId, String key, CompletableFuture<BookingConfirmation> done, BookingConfirmation c,
+                        Throwable failure) {
+        inFlight.remove(holdId, key);
+        if (failure != null) done.completeExceptionally(failure);
+        else done.complete(c);
+    }
+
+    // the engine's confirm, on the hold's shard or a worker thread (it may wait for the journal)
+    // once close() has begun this fails with RejectedExecutionException rather than throwing
+    private CompletableFuture<BookingConfirmation> confirm(long holdId, Payment payment) {
+        try {
+            if (shards != null) return shards.confirm(holdId, payment);
+            return CompletableFuture.supplyAsync(() -> engine.confirm(holdId, payment), workers);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void remember(String key) {
+        keyOrder.add(key);
+        while (byKey.size() > REMEMBERED_KEYS) {
+            String oldest = keyOrder.poll();
+            if (oldest == null) break;
+            Paid p = byKey.get(oldest);
+            if (p != null && p.answer.isDone()) byKey.remove(oldest, p);
+            else if (p != null) keyOrder.add(oldest);  // still paying; forget it later
+        }
+    }
+
+    // ------- capture -------
+
+    private void queueCapture(Authorization a) {
+        toCapture.add(a);
+        if (awaitingCapture.incrementAndGet() % captureBatch == 0) capturer.execute(this::flushCaptures);
+    }
+
+    // sends everything queued, captureBatch at a time; completes when the gateway has answered
+    // every batch sent. the capture thread calls it, and close() once that thread has stopped
+    private CompletableFuture<Void> flushCaptures() {
+        List<CompletableFuture<Void>> sent = new ArrayList<>();
+        while (true) {
+            List<Authorization> batch = new ArrayList<>(captureBatch);
+            Authorization a;
+            while (batch.size() < captureBatch && (a = toCapture.poll()) != null) batch.add(a);
+            if (batch.isEmpty()) break;
+            awaitingCapture.addAndGet(-batch.size());
+            sent.add(gateway.capture(batch).orTimeout(timeoutNanos, TimeUnit.NANOSECONDS).handle((v, e) -> {
+                if (e == null) {
+                    captured.addAndGet(batch.size());
+                    captureBatches.incrementAndGet();
+                } else {
+                    // captures are idempotent, so the whole batch simply goes again next time
+                    captureRetries.incrementAndGet();
+                    toCapture.addAll(batch);
+                    awaitingCapture.addAndGet(batch.size());
+                }
+                return null;
+            }));
+            if (batch.size() < captureBatch) break;
+        }
+        return CompletableFuture.allOf(sent.toArray(new CompletableFuture<?>[0]));
+    }
+
+    // ------- metrics -------
+
+    long approved() {
+        return approved.get();
+    }
+
+    long declined() {
+        return declined.get();
+    }
+
+    long failed() {
+        return failed.get();
+    }
+
+    long captured() {
+        return captured.get();
+    }
+
+    int awaitingCapture() {
+        return awaitingCapture.get();
+    }
+
+    String stats() {
+        return String.format("payments: %d approved, %d declined, %d failed; %d captured in %d batches (%d retried), %d awaiting capture",
+                approved.get(), declined.get(), failed.get(), captured.get(), captureBatches.get(), captureRetries.get(),
+                awaitingCapture.get());
+    }
+
+    // stops the threads, then captures what is queued and waits (up to the timeout) for that
+    // and for voids still going; payments still being authorized are not waited for
+    @Override
+    public void close() {
+        capturer.shutdown();
+        workers.shutdown();
+        try {
+            capturer.awaitTermination(timeoutNanos, TimeUnit.NANOSECONDS);
+            workers.awaitTermination(timeoutNanos, TimeUnit.NANOSECONDS);
+            CompletableFuture.allOf(flushCaptures(), CompletableFuture.allOf(voiding.toArray(new CompletableFuture<?>[0])))
+                    .get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            System.err.println("Gateway calls not finished before shutdown: " + awaitingCapture.get() + " captures, "
+                    + voiding.size() + " voids left");
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package finalproject;
+
+import finalproject.MainCode.RoomType;
+import finalproject.MainCode.Season;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+// prices every night of a stay at its own season. the localPrices/intlPrices arrays
+// of the room types are flattened into one long[] so a rate is a single index,
+// and stays inside the season calendar are priced from its per-season night counts
+// (O(1) per stay). the batch methods price many stays in one pass without allocating.
+// reprice swaps in a new table and bumps version(), so caches can tell old prices apart.
+// prices are centavos (see Money), so a stay's total is exact integer math.
+//
+// PricingRules adjust the season rates by occupancy, lead time, length of stay and so on;
+// setRules swaps a rule set in the same way. with rules a stay is priced night by night
+// (stayPrices); without, every method here gives the plain season price.
+final class PricingEngine {
+
+    private static final Season[] SEASON_VALUES = Season.values();
+    private static final int SEASONS = SEASON_VALUES.length;
+
+    private final SeasonCalendar calendar;
+    private final int typeCount;
+    private volatile long[] rates;  // [(type * 2 + (international ? 1 : 0)) * SEASONS + season]
+    private volatile PricingRules rules = PricingRules.NONE;
+    private volatile long version;
+
+    PricingEngine(RoomType[] types, SeasonCalendar calendar) {
+        this.calendar = calendar;
+        this.typeCount = types.length;
+        this.rates = flatten(types);
+    }
+
+    private long[] flatten(RoomType[] types) {
+        if (types.length != typeCount) throw new IllegalArgumentException("Expected " + typeCount + " room types");
+        long[] r = new long[typeCount * 2 * SEASONS];
+        for (int t = 0; t < typeCount; t++) {
+            for (int s = 0; s < SEASONS; s++) {
+                r[(t * 2) * SEASONS + s] = types[t].localPrices[s];
+                r[(t * 2 + 1) * SEASONS + s] = types[t].intlPrices[s];
+            }
+        }
+        return r;
+    }
+
+    // picks up edited localPrices/intlPrices of the room types
+    synchronized void reprice(RoomType[] types) {
+        rates = flatten(types);
+        version++;
+    }
+
+    // quotes already being priced finish with the rules they started with
+    synchronized void setRules(PricingRules rules) {
+        this.rules = rules;
+        version++;
+    }
+
+    PricingRules rules() {
+        return rules;
+    }
+
+    // changes on every reprice or setRules; read it before pricing to know which table a price came from
+    long version() {
+        return version;
+    }
+
+    // -Dhotel.pricing.rules=<file> loads rules and reloads them whenever the file changes
+    // (checked every -Dhotel.pricing.reloadSeconds, default 5)
+    private static final class Holder {
+        static final PricingEngine INSTANCE = create();
+
+        private static PricingEngine create() {
+            PricingEngine p = new PricingEngine(MainCode.ROOM_TYPES, SeasonCalendar.shared());
+            String file = System.getProperty("hotel.pricing.rules");
+            if (file != null) {
+                Path path = Paths.get(file);
+                FileTime loaded;
+                try {
+                    // read before the file, so an edit made while it loads is still picked up
+                    loaded = Files.getLastModifiedTime(path);
+                    p.setRules(PricingRules.load(path));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                PricingRules.watch(path, p, Long.getLong("hotel.pricing.reloadSeconds", 5) * 1000, loaded);
+            }
+            return p;
+        }
+    }
+
+    static PricingEngine shared() {
+        return Holder.INSTANCE;
+    }
+
+    int typeCount() {
+        return typeCount;
+    }
+
+    long nightlyRate(int type, boolean international, Season season) {
+        long[] rates = this.rates;
+        return rates[(type * 2 + (international ? 1 : 0)) * SEASONS + season.ordinal()];
+    }
+
+    // fills counts[s] with the nights of each season in [inDay, outDay)
+    void nightsBySeason(long inDay, long outDay, int[] counts) {
+        if (calendar.coversStay(inDay, outDay)) {
+            calendar.nightsBySeason(inDay, outDay, counts);
+            return;
+        }
+        for (int s = 0; s < SEASONS; s++) counts[s] = 0;
+        int date = PackedDate.fromDays(inDay);
+        for (long d = inDay; d < outDay; d++) {
+            counts[MainCode.seasonForMonthDay(PackedDate.month(date), PackedDate.day(date)).ordinal()]++;
+            date = PackedDate.next(date);
+        }
+    }
+
+    // total room charge for [inDay, outDay), each night at its own season's rate
+    long stayPrice(int type, long inDay, long outDay, boolean international) {
+        if (outDay <= inDay) return 0;
+        long[] rates = this.rates;
+        int base = (type * 2 + (international ? 1 : 0)) * SEASONS;
+        if (calendar.coversStay(inDay, outDay)) {
+            long total = 0;
+            for (int s = 0; s < SEASONS; s++) {
+                int n = calendar.nightsOf(SEASON_VALUES[s], inDay, outDay);
+                if (n != 0) total = Money.plus(total, Money.times(rates[base + s], n));
+            }
+            return total;
+        }
+        long total = 0;
+        int date = PackedDate.fromDays(inDay);
+        for (long d = inDay; d < outDay; d++) {
+            total = Money.plus(total, rates[base + MainCode.seasonForMonthDay(PackedDate.month(date), PackedDate.day(date)).ordinal()]);
+            date = PackedDate.next(date);
+        }
+        return total;
+    }
+
+    // out[t] = price of room type t for [inDay, outDay) booked on bookedDay (a day number),
+    // with the rules applied night by night. occupancy[n] is the percent of the property taken
+    // on night inDay + n; it may be null when rules().usesOccupancy() is false
+    void stayPrices(long inDay, long outDay, boolean international, long bookedDay, int[] occupancy, long[] out) {
+        long[] rates = this.rates;
+        PricingRules rules = this.rules;
+        if (rules.isEmpty()) {
+            for (int t = 0; t < typeCount; t++) out[t] = stayPrice(t, inDay, outDay, international);
+            return;
+        }
+        Arrays.fill(out, 0, typeCount, 0L);
+        int nights = (int) (outDay - inDay), lead = (int) Math.min(inDay - bookedDay, Integer.MAX_VALUE);
+        int off = international ? 1 : 0;
+        int date = PackedDate.fromDays(inDay);
+        for (long d = inDay; d < outDay; d++) {
+            int s = calendar.covers(d) ? calendar.seasonOrdinalOn(d)
+                    : MainCode.seasonForMonthDay(PackedDate.month(date), PackedDate.day(date)).ordinal();
+            int pct = rules.percent(s, occupancy == null ? 0 : occupancy[(int) (d - inDay)], lead, nights, international);
+            for (int t = 0; t < typeCount; t++) {
+                long rate = rates[(t * 2 + off) * SEASONS + s];
+                out[t] = Money.plus(out[t], pct == 0 ? rate : Money.percentOf(rate, 100 + pct));
+            }
+            date = PackedDate.next(date);
+        }
+    }
+
+    // out[i] = stayPrice(types[i], inDays[i], outDays[i], international[i]) for i < count
+    void quoteBatch(int[] types, long[] inDays, long[] outDays, boolean[] international, int count, long[] out) {
+        for (int i = 0; i < count; i++) out[i] = stayPrice(types[i], inDays[i], outDays[i], international[i]);
+    }
+
+    // rate shopping: every check-in day in [firstInDay, firstInDay + checkIns) for a stay of
+    // `nights`, for every room type. out[d * typeCount() + t] is the stay price.
+    void quoteCheckInRange(long firstInDay, int checkIns, int nights, boolean international, long[] out) {
+        long[] rates = this.rates;
+        int[] counts = new int[SEASONS];
+        int off = international ? 1 : 0;
+        for (int d = 0; d < checkIns; d++) {
+            long in = firstInDay + d;
+            nightsBySeason(in, in + nights, counts);
+            int row = d * typeCount;
+            for (int t = 0; t < typeCount; t++) {
+                int base = (t * 2 + off) * SEASONS;
+                long total = 0;
+                for (int s = 0; s < SEASONS; s++) total = Money.plus(total, Money.times(rates[base + s], counts[s]));
+                out[row + t] = total;
+            }
+        }
+    }
+}
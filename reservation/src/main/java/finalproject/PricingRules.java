@@ -0,0 +1,246 @@
+package finalproject;
+
+import finalproject.MainCode.Season;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+// rate adjustments on top of the season tables: raise prices when a hotel is nearly full,
+// discount unsold nights close to the date, reward long stays. one rule per line, conditions
+// first, then the adjustment in whole percent:
+//
+//   # comment
+//   occupancy>=90 => +15%
+//   season=LEAN occupancy<30 lead<=7 => -20%
+//   nights>=7 => -5%
+//   intl season=PEAK,SUPER_PEAK => +5%
+//
+// conditions: season=NAME[,NAME...], occupancy (percent of the property's rooms taken that
+// night), lead (days from booking to check-in), nights (length of stay), each with <, <=, =,
+// >= or >, and intl / local. every rule whose conditions all hold applies and their percents
+// add up; a night never drops below MAX_DISCOUNT percent off.
+//
+// the rules compile into a flat table: each numeric input is cut into the ranges the rules
+// tell apart, a small array maps a value to its range, and the table holds the summed
+// percent of every season x occupancy x lead x nights x local/intl cell. pricing a night is
+// three array loads for the ranges and one for the cell. a rule set never changes; a reload
+// builds a new one and PricingEngine.setRules swaps it in.
+final class PricingRules {
+
+    static final int MAX_DISCOUNT = 90;
+    static final int MAX_LEAD = 730;     // longer lead times count as this
+    static final int MAX_NIGHTS = 366;
+
+    private static final int SEASONS = Season.values().length;
+    private static final int OCCUPANCY = 0, LEAD = 1, NIGHTS = 2;
+    private static final int[] LOW = {0, 0, 1}, HIGH = {100, MAX_LEAD, MAX_NIGHTS};
+    private static final String[] DIMENSIONS = {"occupancy", "lead", "nights"};
+
+    // after the tables above, which building it reads
+    static final PricingRules NONE = new PricingRules(new ArrayList<>(), "no rules");
+
+    // one parsed line: [lo, hi] per numeric input, the seasons it covers (bit per ordinal),
+    // local (bit 0) / intl (bit 1)
+    private static final class Rule {
+        final int[] lo = LOW.clone(), hi = HIGH.clone();
+        int seasons = (1 << SEASONS) - 1;
+        int kinds = 3;
+        int percent;
+
+        boolean matches(int season, int[] value, int intl) {
+            if ((seasons & (1 << season)) == 0 || (kinds & (1 << intl)) == 0) return false;
+            for (int d = 0; d < 3; d++) if (value[d] < lo[d] || value[d] > hi[d]) return false;
+            return true;
+        }
+    }
+
+    private final String source;
+    private final int ruleCount;
+    private final int[][] rangeOf = new int[3][];  // per input: value - LOW -> range
+    private final int[] ranges = new int[3];
+    private final int[] table;                    // (((season * occ + o) * lead + l) * nights + n) * 2 + intl
+
+    private PricingRules(List<Rule> rules, String source) {
+        this.source = source;
+        this.ruleCount = rules.size();
+        int[][] starts = new int[3][];
+        for (int d = 0; d < 3; d++) {
+            // a range starts at the low end and wherever some rule's interval starts or ends
+            TreeSet<Integer> cuts = new TreeSet<>();
+            cuts.add(LOW[d]);
+            for (Rule r : rules) {
+                cuts.add(r.lo[d]);
+                if (r.hi[d] < HIGH[d]) cuts.add(r.hi[d] + 1);
+            }
+            starts[d] = cuts.stream().mapToInt(Integer::intValue).toArray();
+            ranges[d] = starts[d].length;
+            rangeOf[d] = new int[HIGH[d] - LOW[d] + 1];
+            for (int i = 0, k = 0; i < rangeOf[d].length; i++) {
+                if (k + 1 < starts[d].length && LOW[d] + i >= starts[d][k + 1]) k++;
+                rangeOf[d][i] = k;
+            }
+        }
+        this.table = new int[SEASONS * ranges[OCCUPANCY] * ranges[LEAD] * ranges[NIGHTS] * 2];
+        int[] value = new int[3];
+        for (int s = 0, i = 0; s < SEASONS; s++) {
+            for (int o = 0; o < ranges[OCCUPANCY]; o++) {
+                value[OCCUPANCY] = starts[OCCUPANCY][o];
+                for (int l = 0; l < ranges[LEAD]; l++) {
+                    value[LEAD] = starts[LEAD][l];
+                    for (int n = 0; n < ranges[NIGHTS]; n++) {
+                        value[NIGHTS] = starts[NIGHTS][n];
+                        for (int intl = 0; intl < 2; intl++, i++) {
+                            int p = 0;
+                            for (Rule r : rules) if (r.matches(s, value, intl)) p += r.percent;
+                            table[i] = Math.max(p, -MAX_DISCOUNT);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // the rules in text; source names it in error messages
+    static PricingRules parse(String text, String source) {
+        List<Rule> rules = new ArrayList<>();
+        String[] lines = text.split("\r?\n");
+        for (int ln = 0; ln < lines.length; ln++) {
+            String line = lines[ln];
+            int hash = line.indexOf('#');
+            if (hash >= 0) line = line.substring(0, hash);
+            if (line.isBlank()) continue;
+            try {
+                rules.add(parseRule(line.trim()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(source + " line " + (ln + 1) + ": " + e.getMessage());
+            }
+        }
+        return new PricingRules(rules, source + " (" + rules.size() + " rules)");
+    }
+
+    static PricingRules load(Path file) throws IOException {
+        return parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), file.toString());
+    }
+
+    private static Rule parseRule(String line) {
+        int arrow = line.indexOf("=>");
+        if (arrow < 0) throw new IllegalArgumentException("Expected conditions => adjustment");
+        Rule r = new Rule();
+        String adj = line.substring(arrow + 2).trim();
+        if (!adj.endsWith("%")) throw new IllegalArgumentException("The adjustment must be a percent, like +10%");
+        try {
+            r.percent = Integer.parseInt(adj.substring(adj.startsWith("+") ? 1 : 0, adj.length() - 1).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad adjustment " + adj);
+        }
+        if (r.percent < -100 || r.percent > 1000) throw new IllegalArgumentException("Adjustment " + adj + " is out of range");
+        String conditions = line.substring(0, arrow).trim();
+        if (conditions.isEmpty()) return r;  // applies to every night
+        for (String c : conditions.split("\\s+")) {
+            if (c.equalsIgnoreCase("intl")) {
+                r.kinds &= 2;
+            } else if (c.equalsIgnoreCase("local")) {
+                r.kinds &= 1;
+            } else if (c.regionMatches(true, 0, "season=", 0, 7)) {
+                int seasons = 0;
+                for (String name : c.substring(7).split(",")) seasons |= 1 << season(name).ordinal();
+                r.seasons &= seasons;
+            } else {
+                condition(r, c);
+            }
+        }
+        return r;
+    }
+
+    private static Season season(String name) {
+        for (Season s : Season.values()) if (s.name().equalsIgnoreCase(name.trim())) return s;
+        throw new IllegalArgumentException("Unknown season " + name);
+    }
+
+    // occupancy>=90, lead<7, nights=3, ...: narrows the rule's interval for that input
+    private static void condition(Rule r, String c) {
+        int d = -1;
+        for (int i = 0; i < DIMENSIONS.length; i++) {
+            if (c.regionMatches(true, 0, DIMENSIONS[i], 0, DIMENSIONS[i].length())) d = i;
+        }
+        if (d < 0) throw new IllegalArgumentException("Unknown condition " + c);
+        String rest = c.substring(DIMENSIONS[d].length());
+        int opLength = rest.startsWith("<=") || rest.startsWith(">=") ? 2 : 1;
+        String op = rest.substring(0, Math.min(opLength, rest.length()));
+        int v;
+        try {
+            v = Integer.parseInt(rest.substring(opLength));
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Bad condition " + c);
+        }
+        int lo = LOW[d], hi = HIGH[d];
+        switch (op) {
+            case "<": hi = v - 1; break;
+            case "<=": hi = v; break;
+            case "=": lo = v; hi = v; break;
+            case ">=": lo = v; break;
+            case ">": lo = v + 1; break;
+            default: throw new IllegalArgumentException("Bad condition " + c);
+        }
+        r.lo[d] = Math.max(r.lo[d], Math.max(lo, LOW[d]));
+        r.hi[d] = Math.min(r.hi[d], Math.min(hi, HIGH[d]));
+        // a rule that can never hold is kept as an empty interval (lo > hi) and matches nothing
+        if (r.lo[d] > r.hi[d]) r.hi[d] = r.lo[d] - 1;
+    }
+
+    boolean isEmpty() {
+        return ruleCount == 0;
+    }
+
+    // false when no rule looks at occupancy, so callers can skip counting it
+    boolean usesOccupancy() {
+        return ranges[OCCUPANCY] > 1;
+    }
+
+    // percent to add to one night's rate (negative = discount)
+    int percent(int season, int occupancy, int leadDays, int nights, boolean international) {
+        int o = rangeOf[OCCUPANCY][Math.min(Math.max(occupancy, 0), 100)];
+        int l = rangeOf[LEAD][Math.min(Math.max(leadDays, 0), MAX_LEAD)];
+        int n = rangeOf[NIGHTS][Math.min(Math.max(nights, 1), MAX_NIGHTS) - 1];
+        return table[(((season * ranges[OCCUPANCY] + o) * ranges[LEAD] + l) * ranges[NIGHTS] + n) * 2 + (international ? 1 : 0)];
+    }
+
+    @Override
+    public String toString() {
+        return source + ", " + table.length + " cells";
+    }
+
+    // polls a rules file and hands every new version that parses to the pricing engine; one
+    // that does not is reported and the rules in use stay. loaded is the file's modified time
+    // when the rules in use were read from it, so they are not loaded again (which would throw
+    // away every quote priced with them); null loads whatever is there on the first poll
+    static Thread watch(Path file, PricingEngine pricing, long periodMillis, FileTime loaded) {
+        Thread t = new Thread(() -> {
+            FileTime seen = loaded;
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    FileTime modified = Files.getLastModifiedTime(file);
+                    if (!modified.equals(seen)) {
+                        seen = modified;
+                        pricing.setRules(load(file));
+                    }
+                } catch (IOException | IllegalArgumentException e) {
+                    System.err.println("Pricing rules not reloaded, keeping " + pricing.rules() + ": " + e.getMessage());
+                }
+                try {
+                    Thread.sleep(periodMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "pricing-rules");
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+}
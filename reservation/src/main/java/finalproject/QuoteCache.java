@@ -0,0 +1,381 @@
+package finalproject;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// bounded cache of quotes keyed by the shape of the request (stay, destination, party,
+// room mix, amenities; see BookingRequest.sameShape) and the day it is made on, since
+// pricing rules may look at the lead time. eviction is W-TinyLFU: new entries
+// land in a small LRU window, and an entry leaving the window only gets into the main
+// segmented LRU (probation/protected) when a count-min sketch says it is used more often
+// than the entry it would push out. entries also expire after a fixed time.
+//
+// a quote depends on the free rooms of its nights at its destination's property and on the
+// price table, so every entry remembers the clock value from before it was priced and the
+// pricing version. the inventory stamps each changed night of a property with a newer clock
+// value, and a lookup drops an entry when one of its nights was stamped after it or the
+// prices moved on. a booking in Japan leaves the quotes for Baguio alone.
+//
+// the table is split into segments with one lock each; the sketch is per segment too.
+final class QuoteCache implements RoomInventory.Listener {
+
+    static final int DEFAULT_MAX_ENTRIES = 10_000;
+    static final long DEFAULT_TTL_SECONDS = 300;
+
+    private static final int SEGMENTS = 16;
+
+    private final RoomInventory inventory;
+    private final PricingEngine pricing;
+    private final long ttlNanos;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLongArray nightStamp;  // property * horizon + night -> clock value of its last change
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    QuoteCache(RoomInventory inventory, PricingEngine pricing, int maxEntries, long ttlNanos) {
+        if (maxEntries < SEGMENTS) throw new IllegalArgumentException("Quote cache needs room for at least " + SEGMENTS + " entries");
+        if (ttlNanos <= 0) throw new IllegalArgumentException("Quote cache TTL must be positive");
+        this.inventory = inventory;
+        this.pricing = pricing;
+        this.ttlNanos = ttlNanos;
+        this.nightStamp = new AtomicLongArray(Math.multiplyExact(inventory.registry.propertyCount(), inventory.horizon));
+        for (int i = 0; i < SEGMENTS; i++) segments[i] = new Segment(maxEntries / SEGMENTS);
+        inventory.addListener(this);
+    }
+
+    @Override
+    public void nightsChanged(int room, long inDay, long outDay) {
+        long now = clock.incrementAndGet();
+        int from = (int) Math.max(0, inDay - inventory.originDay);
+        int to = (int) Math.min(inventory.horizon, outDay - inventory.originDay);
+        int base = inventory.propertyOf(room) * inventory.horizon;
+        for (int n = base + from; n < base + to; n++) {
+            // max, so a slower writer can't put an older stamp back
+            while (true) {
+                long v = nightStamp.get(n);
+                if (v >= now || nightStamp.compareAndSet(n, v, now)) break;
+            }
+        }
+    }
+
+    // read before pricing a request and pass it to put
+    long stamp() {
+        return clock.get();
+    }
+
+    // cached quote for a request of this shape, answering req, or null
+    BookingQuote get(BookingRequest req) {
+        Key key = new Key(req);
+        Segment s = segmentFor(key.hash);
+        Node n;
+        synchronized (s) {
+            s.sketch.increment(key.hash);
+            n = s.map.get(key);
+            if (n != null) {
+                if (System.nanoTime() - n.expiresAt >= 0) {
+                    s.remove(n);
+                    expirations.increment();
+                    n = null;
+                } else if (n.priceVersion != pricing.version() || changedSince(n)) {
+                    s.remove(n);
+                    invalidations.increment();
+                    n = null;
+                } else {
+                    s.onHit(n);
+                }
+            }
+        }
+        if (n == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return n.quote.forRequest(req);
+    }
+
+    // stamp and priceVersion must have been read before the quote was priced
+    void put(BookingRequest req, BookingQuote quote, long stamp, long priceVersion) {
+        Key key = new Key(req);
+        Segment s = segmentFor(key.hash);
+        long inDay = PackedDate.toDays(req.checkIn), outDay = PackedDate.toDays(req.checkOut);
+        Node n = new Node(key, quote, inventory.registry.property(req.destination), inDay, outDay, stamp, priceVersion,
+                System.nanoTime() + ttlNanos);
+        synchronized (s) {
+            Node old = s.map.get(key);
+            if (old != null) s.remove(old);
+            if (changedSince(n)) return;  // already stale
+            s.add(n);
+        }
+    }
+
+    void clear() {
+        for (Segment s : segments) {
+            synchronized (s) {
+                s.map.clear();
+                s.window.clear();
+                s.probation.clear();
+                s.protectedQ.clear();
+            }
+        }
+    }
+
+    int size() {
+        int n = 0;
+        for (Segment s : segments) {
+            synchronized (s) {
+                n += s.map.size();
+            }
+        }
+        return n;
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    long expirations() {
+        return expirations.sum();
+    }
+
+    long invalidations() {
+        return invalidations.sum();
+    }
+
+    String stats() {
+        long h = hits(), m = misses();
+        return String.format("quotes: %d entries, %d hits, %d misses (%.1f%% hit), %d evicted, %d expired, %d invalidated",
+                size(), h, m, h + m == 0 ? 0.0 : 100.0 * h / (h + m), evictions(), expirations(), invalidations());
+    }
+
+    private boolean changedSince(Node n) {
+        return changedSince(n.stamp, n.property, n.inDay, n.outDay);
+    }
+
+    // true when a night of [inDay, outDay) in the property changed after stamp() returned this
+    // value. a quote for no property (unknown destination) has no nights to watch
+    boolean changedSince(long stamp, int property, long inDay, long outDay) {
+        if (property < 0) return false;
+        long from = Math.max(0, inDay - inventory.originDay), to = Math.min(inventory.horizon, outDay - inventory.originDay);
+        long base = (long) property * inventory.horizon;
+        for (long i = from; i < to; i++) {
+            if (nightStamp.get((int) (base + i)) > stamp) return true;
+        }
+        return false;
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static final class Key {
+        final BookingRequest request;
+        final int hash;
+
+        Key(BookingRequest request) {
+            this.request = request;
+            this.hash = request.shapeHash() * 31 + request.today;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).hash == hash && ((Key) o).request.today == request.today
+                    && ((Key) o).request.sameShape(request);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final byte WINDOW = 0, PROBATION = 1, PROTECTED = 2;
+
+    private static final class Node {
+        final Key key;
+        final BookingQuote quote;
+        final int property;
+        final long inDay, outDay;
+        final long stamp;
+        final long priceVersion;
+        final long expiresAt;
+        byte queue;
+        Node prev, next;
+
+        Node(Key key, BookingQuote quote, int property, long inDay, long outDay, long stamp, long priceVersion, long expiresAt) {
+            this.key = key;
+            this.quote = quote;
+            this.property = property;
+            this.inDay = inDay;
+            this.outDay = outDay;
+            this.stamp = stamp;
+            this.priceVersion = priceVersion;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // intrusive LRU list, least recent at head
+    private static final class Queue {
+        final Node head = new Node(null, null, -1, 0, 0, 0, 0, 0);
+        int size;
+
+        Queue() {
+            head.prev = head.next = head;
+        }
+
+        void addLast(Node n) {
+            n.prev = head.prev;
+            n.next = head;
+            head.prev.next = n;
+            head.prev = n;
+            size++;
+        }
+
+        void unlink(Node n) {
+            n.prev.next = n.next;
+            n.next.prev = n.prev;
+            n.prev = n.next = null;
+            size--;
+        }
+
+        Node first() {
+            return head.next == head ? null : head.next;
+        }
+
+        void clear() {
+            head.prev = head.next = head;
+            size = 0;
+        }
+    }
+
+    // guarded by its own monitor
+    private final class Segment {
+        final HashMap<Key, Node> map = new HashMap<>();
+        final Queue window = new Queue();
+        final Queue probation = new Queue();
+        final Queue protectedQ = new Queue();
+        final int windowMax, mainMax, protectedMax;
+        final FrequencySketch sketch;
+
+        Segment(int capacity) {
+            windowMax = Math.max(1, capacity / 100);
+            mainMax = Math.max(1, capacity - windowMax);
+            protectedMax = Math.max(1, mainMax * 4 / 5);
+            sketch = new FrequencySketch(capacity);
+        }
+
+        Queue queueOf(Node n) {
+            return n.queue == WINDOW ? window : n.queue == PROBATION ? probation : protectedQ;
+        }
+
+        void remove(Node n) {
+            map.remove(n.key);
+            queueOf(n).unlink(n);
+        }
+
+        void onHit(Node n) {
+            if (n.queue == PROBATION) {
+                probation.unlink(n);
+                n.queue = PROTECTED;
+                protectedQ.addLast(n);
+                if (protectedQ.size > protectedMax) {
+                    Node demoted = protectedQ.first();
+                    protectedQ.unlink(demoted);
+                    demoted.queue = PROBATION;
+                    probation.addLast(demoted);
+                }
+            } else {
+                Queue q = queueOf(n);
+                q.unlink(n);
+                q.addLast(n);
+            }
+        }
+
+        void add(Node n) {
+            map.put(n.key, n);
+            n.queue = WINDOW;
+            window.addLast(n);
+            if (window.size <= windowMax) return;
+
+            // the window's oldest entry competes with the main area's next victim
+            Node candidate = window.first();
+            window.unlink(candidate);
+            candidate.queue = PROBATION;
+            probation.addLast(candidate);
+            if (probation.size + protectedQ.size <= mainMax) return;
+            Node victim = probation.first();
+            if (victim == candidate) victim = protectedQ.first() != null ? protectedQ.first() : candidate;
+            Node evicted = sketch.frequency(candidate.key.hash) > sketch.frequency(victim.key.hash) ? victim : candidate;
+            remove(evicted);
+            evictions.increment();
+        }
+    }
+
+    // count-min sketch of 4-bit counters, four per key, halved after 10 * capacity increments
+    // so old popularity fades
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+            table = new long[size];
+            mask = size - 1;
+            sampleSize = 10 * Math.max(1, capacity);
+        }
+
+        void increment(int hash) {
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int idx = index(hash, i);
+                int shift = counterShift(hash, i);
+                if (((table[idx] >>> shift) & 0xfL) != 0xfL) {
+                    table[idx] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) reset();
+        }
+
+        int frequency(int hash) {
+            int f = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) f = Math.min(f, (int) ((table[index(hash, i)] >>> counterShift(hash, i)) & 0xfL));
+            return f;
+        }
+
+        private int index(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        // one of the 16 counters of the word, a different one per hash function
+        private static int counterShift(int hash, int i) {
+            return (((hash >>> (i << 3)) & 3) << 2 | i) << 2;
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) table[i] = (table[i] >>> 1) & RESET_MASK;
+            additions = sampleSize / 2;
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package finalproject;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// renders booking confirmations as the text receipt, a JSON object or a CSV row, straight
+// into a Writer or a ByteBuffer (UTF-8). the fixed parts of each layout are laid out once
+// up front, and numbers are written digit by digit into the renderer's own buffer (amounts
+// straight from their centavos, see Money), so rendering a booking allocates nothing.
+// a renderer is not thread-safe; use one per thread.
+final class ReceiptRenderer {
+
+    enum Format { TEXT, JSON, CSV }
+
+    // text receipt: banners right-aligned as the console always had them
+    private static final char[] TOP = line(80, "========== BOOKING SUMMARY ==========");
+    private static final char[] THANKS = line(80, "========== Thank You ==========");
+    private static final char[] COMPLETED = line(70, "Booking Completed Successfully");
+
+    static final String CSV_HEADER = "booking_id,hold_id,booker_name,booker_email,booker_contact,booker_age,"
+            + "check_in,check_out,nights,destination,international,season,rooms,room_subtotal,"
+            + "amenities_subtotal,amenities_discount,amenities_total,grand_total,payment_method,amount_paid,change";
+
+    private final RoomInventory inventory;  // room labels
+    private final char[] buf = new char[8192];
+    private int pos;
+    private Writer writer;       // where buf goes when full: one of these two
+    private ByteBuffer bytes;
+
+    ReceiptRenderer(RoomInventory inventory) {
+        this.inventory = inventory;
+    }
+
+    // the text receipt as one string, for the confirmation dialog
+    static String text(BookingConfirmation c, RoomInventory inventory) {
+        StringWriter out = new StringWriter(2048);
+        try {
+            new ReceiptRenderer(inventory).render(c, Format.TEXT, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // StringWriter doesn't throw
+        }
+        return out.toString();
+    }
+
+    void render(BookingConfirmation c, Format format, Writer out) throws IOException {
+        writer = out;
+        try {
+            body(c, format);
+            flush();
+        } finally {
+            writer = null;
+            pos = 0;
+        }
+    }
+
+    // throws BufferOverflowException when out is too small; out's position is then undefined
+    void render(BookingConfirmation c, Format format, ByteBuffer out) {
+        bytes = out;
+        try {
+            body(c, format);
+            flush();
+        } catch (IOException e) {
+            throw new AssertionError(e);  // only Writers throw
+        } finally {
+            bytes = null;
+            pos = 0;
+        }
+    }
+
+    // an export of many bookings: text receipts one after another, JSON one object per line,
+    // CSV with a header row
+    void renderAll(Iterable<BookingConfirmation> confirmations, Format format, Writer out) throws IOException {
+        writer = out;
+        try {
+            if (format == Format.CSV) put(CSV_HEADER).put('\n');
+            for (BookingConfirmation c : confirmations) {
+                body(c, format);
+                if (format == Format.TEXT) put('\n');
+            }
+            flush();
+        } finally {
+            writer = null;
+            pos = 0;
+        }
+    }
+
+    private void body(BookingConfirmation c, Format format) throws IOException {
+        if (!c.ok()) throw new IllegalArgumentException("No receipt for a denied booking");
+        long t0 = Metrics.start();
+        switch (format) {
+            case TEXT: receipt(c); break;
+            case JSON: json(c); put('\n'); break;
+            case CSV: csv(c); put('\n'); break;
+            default: throw new IllegalArgumentException("Unknown format " + format);
+        }
+        Metrics.record(Metrics.Stage.SUMMARY, t0);
+    }
+
+    // ------- layouts -------
+
+    private void receipt(BookingConfirmation c) throws IOException {
+        BookingQuote q = c.quote;
+        BookingRequest req = q.request;
+
+        put(TOP).put("\n\n");
+        put("Booker: ").put(req.bookerName).put('\n');
+        put("Email: ").put(req.bookerEmail).put('\n');
+        put("Contact: ").put(req.bookerContact).put('\n');
+        put("Age: ").put(req.bookerAge).put('\n');
+        put("Check-in: ").date(req.checkIn).put('\n');
+        put("Check-out: ").date(req.checkOut).put('\n');
+        put("Nights: ").put(q.nights).put('\n');
+        put("Destination: ").put(req.destination).put(q.international ? " (International)\n" : " (Local)\n");
+        put("Season: ").put(q.season.name()).put("\n\n");
+
+        put("Room Booking Details:\n");
+        for (int r = 0; r < q.rooms.length; r++) {
+            put(" Room #").put(r + 1).put(": ").put(q.rooms[r].name);
+            if (q.roomIds[r] != BookingRequest.ANY_ROOM) put(" - ").put(inventory.label(q.roomIds[r]));
+            put(q.mixedSeasons() ? "\n   Average price per night: PHP " : "\n   Price per night: PHP ")
+                    .money(q.roomPricePerNight[r]).put('\n');
+            put("   Total for ").put(q.nights).put(" nights: PHP ").money(q.roomStayTotal[r]).put('\n');
+        }
+        put("\nTotal Room Subtotal: PHP ").money(q.roomSubtotal).put("\n\n");
+
+        put("Add-ons & Amenities summary (per room):\n");
+        AmenityLedger amen = q.amenities;
+        int line = 0;  // lines are sorted by room
+        for (int r = 0; r < q.rooms.length; r++) {
+            put("\nRoom #").put(r + 1).put(" amenities:\n");
+            if (line == amen.lines() || amen.room(line) != r) put("  (no amenities selected for this room)\n");
+            for (; line < amen.lines() && amen.room(line) == r; line++) {
+                put("  - ").put(amen.catalog.name(amen.amenity(line))).put(": Persons=").put(amen.persons(line))
+                        .put(", PWD=").put(amen.pwd(line)).put(", Days=").put(amen.days(line))
+                        .put(", Unit PHP ").money(amen.unitPrice(line))
+                        .put(", Subtotal PHP ").money(amen.lineSubtotal(line))
+                        .put(", Discount PHP ").money(amen.lineDiscount(line)).put('\n');
+            }
+        }
+        if (q.rooms.length > 0) put('\n');
+
+        // the subtotal is the sum of the room lines above, whatever days each room had; the
+        // unit price is the one the lines were booked at, left out if they were booked at different ones
+        for (int k = 0; k < amen.amenitiesUsed(); k++) {
+            put("  ").put(amen.catalog.name(amen.usedAmenity(k))).put(" -> Persons: ").put(amen.totalPersons(k))
+                    .put(", PWD/Senior: ").put(amen.totalPwd(k)).put(", Days: ").put(amen.maxDays(k));
+            if (amen.unitPriceOf(k) != AmenityLedger.MIXED_PRICES) put(", Unit price: PHP ").money(amen.unitPriceOf(k));
+            put(", Subtotal: PHP ").money(amen.subtotalOf(k)).put('\n');
+        }
+
+        put("\nAmenities Subtotal: PHP ").money(q.amenSubtotal).put('\n');
+        put("Discount (20% PWD/Senior): -PHP ").money(q.amenDiscount).put('\n');
+        put("Amenities Total: PHP ").money(q.amenTotal).put("\n\n");
+        put("GRAND TOTAL: PHP ").money(q.grandTotal).put('\n');
+        if (c.change > 0) put("Change Returned: PHP ").money(c.change).put('\n');
+
+        put('\n').put(THANKS).put('\n');
+        put(COMPLETED).put('\n');
+    }
+
+    private void json(BookingConfirmation c) throws IOException {
+        BookingQuote q = c.quote;
+        BookingRequest req = q.request;
+
+        put("{\"bookingId\":").put(c.bookingId).put(",\"holdId\":").put(q.holdId);
+        put(",\"booker\":{\"name\":").jsonString(req.bookerName).put(",\"email\":").jsonString(req.bookerEmail)
+                .put(",\"contact\":").jsonString(req.bookerContact).put(",\"age\":").put(req.bookerAge).put('}');
+        put(",\"checkIn\":\"").date(req.checkIn).put("\",\"checkOut\":\"").date(req.checkOut).put('"');
+        put(",\"nights\":").put(q.nights).put(",\"destination\":").jsonString(req.destination);
+        put(",\"international\":").put(q.international ? "true" : "false");
+        put(",\"season\":\"").put(q.season.name()).put('"');
+
+        put(",\"rooms\":[");
+        AmenityLedger amen = q.amenities;
+        int line = 0;
+        for (int r = 0; r < q.rooms.length; r++) {
+            if (r > 0) put(',');
+            put("{\"type\":").jsonString(q.rooms[r].name).put(",\"room\":");
+            if (q.roomIds[r] != BookingRequest.ANY_ROOM) jsonString(inventory.label(q.roomIds[r]));
+            else put("null");
+            put(",\"pricePerNight\":").money(q.roomPricePerNight[r]).put(",\"stayTotal\":").money(q.roomStayTotal[r]);
+            put(",\"amenities\":[");
+            for (boolean first = true; line < amen.lines() && amen.room(line) == r; line++, first = false) {
+                if (!first) put(',');
+                put("{\"name\":").jsonString(amen.catalog.name(amen.amenity(line)))
+                        .put(",\"persons\":").put(amen.persons(line)).put(",\"pwd\":").put(amen.pwd(line))
+                        .put(",\"days\":").put(amen.days(line)).put(",\"unitPrice\":").money(amen.unitPrice(line))
+                        .put(",\"subtotal\":").money(amen.lineSubtotal(line))
+                        .put(",\"discount\":").money(amen.lineDiscount(line)).put('}');
+            }
+            put("]}");
+        }
+        put(']');
+
+        put(",\"roomSubtotal\":").money(q.roomSubtotal);
+        put(",\"amenitiesSubtotal\":").money(q.amenSubtotal);
+        put(",\"amenitiesDiscount\":").money(q.amenDiscount);
+        put(",\"amenitiesTotal\":").money(q.amenTotal);
+        put(",\"grandTotal\":").money(q.grandTotal);
+        put(",\"payment\":{\"method\":\"").put(c.method.name()).put("\",\"amountPaid\":").money(c.amountPaid)
+                .put(",\"change\":").money(c.change).put("}}");
+    }
+
+    private void csv(BookingConfirmation c) throws IOException {
+        BookingQuote q = c.quote;
+        BookingRequest req = q.request;
+
+        put(c.bookingId).put(',').put(q.holdId).put(',');
+        csvString(req.bookerName).put(',').csvString(req.bookerEmail).put(',').csvString(req.bookerContact).put(',');
+        put(req.bookerAge).put(',').date(req.checkIn).put(',').date(req.checkOut).put(',').put(q.nights).put(',');
+        csvString(req.destination).put(',').put(q.international ? "true" : "false").put(',').put(q.season.name()).put(',');
+
+        // rooms as type:label pairs separated by ';', always quoted since names may hold anything
+        put('"');
+        for (int r = 0; r < q.rooms.length; r++) {
+            if (r > 0) put(';');
+            csvQuoted(q.rooms[r].name);
+            if (q.roomIds[r] != BookingRequest.ANY_ROOM) put(':').csvQuoted(inventory.label(q.roomIds[r]));
+        }
+        put('"').put(',');
+
+        money(q.roomSubtotal).put(',').money(q.amenSubtotal).put(',').money(q.amenDiscount).put(',')
+                .money(q.amenTotal).put(',').money(q.grandTotal).put(',');
+        put(c.method.name()).put(',').money(c.amountPaid).put(',').money(c.change);
+    }
+
+    // ------- output -------
+
+    private ReceiptRenderer put(char ch) throws IOException {
+        if (pos == buf.length) flush();
+        buf[pos++] = ch;
+        return this;
+    }
+
+    private ReceiptRenderer put(char[] chars) throws IOException {
+        if (chars.length > buf.length - pos) flush();
+        System.arraycopy(chars, 0, buf, pos, chars.length);  // all layout constants fit in buf
+        pos += chars.length;
+        return this;
+    }
+
+    // null prints as "null", like StringBuilder.append
+    private ReceiptRenderer put(String s) throws IOException {
+        if (s == null) s = "null";
+        for (int from = 0, n = s.length(); from < n; ) {
+            if (pos == buf.length) flush();
+            int take = Math.min(n - from, buf.length - pos);
+            s.getChars(from, from + take, buf, pos);
+            pos += take;
+            from += take;
+        }
+        return this;
+    }
+
+    private ReceiptRenderer put(long v) throws IOException {
+        if (pos + 20 > buf.length) flush();
+        if (v < 0) {
+            if (v == Long.MIN_VALUE) return put("-9223372036854775808");
+            buf[pos++] = '-';
+            v = -v;
+        }
+        int digits = 1;
+        for (long t = v; t >= 10; t /= 10) digits++;
+        int end = pos + digits;
+        for (int i = end - 1; i >= pos; i--) {
+            buf[i] = (char) ('0' + v % 10);
+            v /= 10;
+        }
+        pos = end;
+        return this;
+    }
+
+    // yyyy-mm-dd
+    private ReceiptRenderer date(int packed) throws IOException {
+        if (pos + 10 > buf.length) flush();
+        int y = PackedDate.year(packed), m = PackedDate.month(packed), d = PackedDate.day(packed);
+        buf[pos++] = (char) ('0' + y / 1000 % 10);
+        buf[pos++] = (char) ('0' + y / 100 % 10);
+        buf[pos++] = (char) ('0' + y / 10 % 10);
+        buf[pos++] = (char) ('0' + y % 10);
+        buf[pos++] = '-';
+        buf[pos++] = (char) ('0' + m / 10);
+        buf[pos++] = (char) ('0' + m % 10);
+        buf[pos++] = '-';
+        buf[pos++] = (char) ('0' + d / 10);
+        buf[pos++] = (char) ('0' + d % 10);
+        return this;
+    }
+
+    // centavos with two decimals; ends in '.00' for whole amounts
+    private ReceiptRenderer money(long centavos) throws IOException {
+        if (centavos < 0) put('-');
+        long c = Math.abs(centavos % Money.CENTAVOS_PER_PESO);
+        put(Math.abs(centavos / Money.CENTAVOS_PER_PESO)).put('.');
+        put((char) ('0' + c / 10));
+        return put((char) ('0' + c % 10));
+    }
+
+    private ReceiptRenderer jsonString(String s) throws IOException {
+        if (s == null) return put("null");
+        put('"');
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '"': put('\\').put('"'); break;
+                case '\\': put('\\').put('\\'); break;
+                case '\n': put('\\').put('n'); break;
+                case '\r': put('\\').put('r'); break;
+                case '\t': put('\\').put('t'); break;
+                default:
+                    if (ch < 0x20) {
+                        put("\\u00").put(Character.forDigit(ch >> 4, 16)).put(Character.forDigit(ch & 0xf, 16));
+                    } else {
+                        put(ch);
+                    }
+            }
+        }
+        return put('"');
+    }
+
+    // quoted only when it has to be
+    private ReceiptRenderer csvString(String s) throws IOException {
+        if (s == null) return this;
+        boolean quote = false;
+        for (int i = 0, n = s.length(); i < n && !quote; i++) {
+            char ch = s.charAt(i);
+            quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+        }
+        if (!quote) return put(s);
+        put('"');
+        csvQuoted(s);
+        return put('"');
+    }
+
+    // the inside of a quoted field
+    private ReceiptRenderer csvQuoted(String s) throws IOException {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char ch = s.charAt(i);
+            if (ch == '"') put('"');
+            put(ch);
+        }
+        return this;
+    }
+
+    private void flush() throws IOException {
+        if (writer != null) writer.write(buf, 0, pos);
+        pos = bytes != null ? encode() : 0;
+    }
+
+    // UTF-8 into bytes; returns how many chars stay behind in buf
+    private int encode() {
+        ByteBuffer out = bytes;
+        for (int i = 0; i < pos; i++) {
+            char ch = buf[i];
+            if (ch < 0x80) {
+                out.put((byte) ch);
+            } else if (ch < 0x800) {
+                out.put((byte) (0xc0 | ch >> 6)).put((byte) (0x80 | ch & 0x3f));
+            } else if (Character.isHighSurrogate(ch) && i + 1 < pos && Character.isLowSurrogate(buf[i + 1])) {
+                int cp = Character.toCodePoint(ch, buf[++i]);
+                out.put((byte) (0xf0 | cp >> 18)).put((byte) (0x80 | cp >> 12 & 0x3f))
+                        .put((byte) (0x80 | cp >> 6 & 0x3f)).put((byte) (0x80 | cp & 0x3f));
+            } else if (Character.isSurrogate(ch)) {
+                if (Character.isHighSurrogate(ch) && i + 1 == pos) {
+                    // the pair was split by a full buffer; carry the high half over
+                    buf[0] = ch;
+                    return 1;
+                }
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xe0 | ch >> 12)).put((byte) (0x80 | ch >> 6 & 0x3f)).put((byte) (0x80 | ch & 0x3f));
+            }
+        }
+        return 0;
+    }
+
+    // ------- layout constants -------
+
+    // right-aligned to width, like %<width>s
+    private static char[] line(int width, String s) {
+        char[] out = new char[Math.max(width, s.length())];
+        Arrays.fill(out, ' ');
+        s.getChars(0, s.length(), out, out.length - s.length());
+        return out;
+    }
+}
@@ -0,0 +1,339 @@
+package finalproject;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// per-night availability of every physical room, one bit per room-night.
+// rooms are the RoomRegistry's dense ids (by property, then room type) and nights are
+// counted from originDay. reservations set their bits with compare-and-set, so
+// a room-night can only ever be taken by one caller; a failed multi-word or
+// multi-room reservation clears exactly the bits it had already set.
+// listeners hear about every room-night range whose bits changed, after the change.
+// how many rooms of each property and room type are taken per night is kept alongside:
+// every bit a compare-and-set turns on or off moves its night's count by one, so the counts
+// are exact without locks or recounts (see OccupancyIndex and AvailabilitySearch).
+final class RoomInventory {
+
+    static final int DEFAULT_HORIZON_NIGHTS = 4 * 366;
+
+    private static final int TYPES = MainCode.ROOM_TYPES.length;
+
+    // a change to several rooms of one property and type for the same stay (reserveAll,
+    // releaseAll) is heard once, naming one of those rooms; listeners only go by the room's
+    // property and type
+    interface Listener {
+        void nightsChanged(int room, long inDay, long outDay);
+    }
+
+    final long originDay;  // day number of night 0
+    final int horizon;     // nights tracked from originDay
+    final RoomRegistry registry;
+
+    private final int words;          // longs per room
+    private final int roomCount;
+    private final AtomicLongArray booked;  // room r, word w at r * words + w; set bit = night taken
+    private final AtomicIntegerArray taken;  // group (RoomRegistry.groupOf) * horizon + night: rooms taken
+    private volatile Listener[] listeners = new Listener[0];
+
+    RoomInventory(RoomRegistry registry, long originDay, int horizonNights) {
+        if (horizonNights < 1) throw new IllegalArgumentException("Horizon must be at least one night");
+        this.registry = registry;
+        this.originDay = originDay;
+        this.horizon = horizonNights;
+        this.words = (horizonNights + 63) >>> 6;
+        this.roomCount = registry.roomCount();
+        if ((long) roomCount * words > Integer.MAX_VALUE) throw new IllegalArgumentException("Too many room-nights to track");
+        this.booked = new AtomicLongArray(roomCount * words);
+        this.taken = new AtomicIntegerArray(Math.multiplyExact(registry.propertyCount() * TYPES, horizonNights));
+    }
+
+    // roomsPerType rooms at every destination (see RoomRegistry.perDestination)
+    RoomInventory(int[] roomsPerType, long originDay, int horizonNights) {
+        this(RoomRegistry.perDestination(roomsPerType), originDay, horizonNights);
+    }
+
+    // process-wide inventory over RoomRegistry.shared(), tracked from Jan 1 of last year.
+    // override with -Dhotel.inventory.fromYear / -Dhotel.inventory.nights
+    private static final class Holder {
+        static final RoomInventory INSTANCE = new RoomInventory(
+                RoomRegistry.shared(),
+                PackedDate.toDays(Integer.getInteger("hotel.inventory.fromYear", PackedDate.year(PackedDate.today()) - 1), 1, 1),
+                Integer.getInteger("hotel.inventory.nights", DEFAULT_HORIZON_NIGHTS));
+    }
+
+    static RoomInventory shared() {
+        return Holder.INSTANCE;
+    }
+
+    synchronized void addListener(Listener l) {
+        Listener[] next = Arrays.copyOf(listeners, listeners.length + 1);
+        next[listeners.length] = l;
+        listeners = next;
+    }
+
+    synchronized void removeListener(Listener l) {
+        Listener[] cur = listeners;
+        for (int i = 0; i < cur.length; i++) {
+            if (cur[i] != l) continue;
+            Listener[] next = new Listener[cur.length - 1];
+            System.arraycopy(cur, 0, next, 0, i);
+            System.arraycopy(cur, i + 1, next, i, next.length - i);
+            listeners = next;
+            return;
+        }
+    }
+
+    int roomCount() {
+        return roomCount;
+    }
+
+    int roomCount(int property, int type) {
+        return registry.roomCount(property, type);
+    }
+
+    int firstRoom(int property, int type) {
+        return registry.firstRoom(property, type);
+    }
+
+    int propertyOf(int room) {
+        return registry.propertyOf(room);
+    }
+
+    int typeOf(int room) {
+        return registry.typeOf(room);
+    }
+
+    String label(int room) {
+        return registry.label(room);
+    }
+
+    // true when every night of [inDay, outDay) is tracked
+    boolean coversStay(long inDay, long outDay) {
+        return inDay >= originDay && outDay > inDay && outDay - originDay <= horizon;
+    }
+
+    boolean isFree(int room, long inDay, long outDay) {
+        int from = (int) (inDay - originDay), to = (int) (outDay - originDay);
+        int base = room * words;
+        for (int w = from >>> 6, last = (to - 1) >>> 6; w <= last; w++) {
+            if ((booked.get(base + w) & mask(w, from, to)) != 0) return false;
+        }
+        return true;
+    }
+
+    int countFree(int property, int type, long inDay, long outDay) {
+        return countFree(property, type, inDay, outDay, Integer.MAX_VALUE);
+    }
+
+    // stops counting at limit
+    int countFree(int property, int type, long inDay, long outDay, int limit) {
+        int n = 0;
+        for (int r = firstRoom(property, type), end = r + roomCount(property, type); r < end && n < limit; r++) {
+            if (isFree(r, inDay, outDay)) n++;
+        }
+        return n;
+    }
+
+    // how many of the property's rooms of this type are taken on night n (counted from originDay)
+    int takenRooms(int property, int type, int night) {
+        return taken.get((property * TYPES + type) * horizon + night);
+    }
+
+    // how many of the property's rooms are taken on night n
+    int takenRooms(int property, int night) {
+        int n = 0;
+        for (int t = 0; t < TYPES; t++) n += takenRooms(property, t, night);
+        return n;
+    }
+
+    // writes the ids of the property's rooms of this type free for the whole stay into dst
+    // (as many as fit), returns how many
+    int freeRooms(int property, int type, long inDay, long outDay, int[] dst) {
+        int n = 0;
+        for (int r = firstRoom(property, type), end = r + roomCount(property, type); r < end && n < dst.length; r++) {
+            if (isFree(r, inDay, outDay)) dst[n++] = r;
+        }
+        return n;
+    }
+
+    // takes every night of [inDay, outDay) in one room, or nothing
+    boolean reserve(int room, long inDay, long outDay) {
+        int from = (int) (inDay - originDay), to = (int) (outDay - originDay);
+        int set = take(room, from, to);
+        // on a clash, the bits set before it were visible for a moment
+        if (set != 0) changed(room, inDay, outDay);
+        return set > 0;
+    }
+
+    // sets the room's bits for nights [from, to): how many words it set, negated when a
+    // night was already taken and those words were cleared again. nobody is told
+    private int take(int room, int from, int to) {
+        int base = room * words;
+        int first = from >>> 6, last = (to - 1) >>> 6;
+        for (int w = first; w <= last; w++) {
+            long m = mask(w, from, to);
+            while (true) {
+                long v = booked.get(base + w);
+                if ((v & m) != 0) {
+                    clearWords(base, first, w, from, to);
+                    return first - w;
+                }
+                if (booked.compareAndSet(base + w, v, v | m)) break;
+            }
+            count(room, w, m, 1);
+        }
+        return last - first + 1;
+    }
+
+    void release(int room, long inDay, long outDay) {
+        int from = (int) (inDay - originDay), to = (int) (outDay - originDay);
+        clearWords(room * words, from >>> 6, ((to - 1) >>> 6) + 1, from, to);
+        changed(room, inDay, outDay);
+    }
+
+    private void changed(int room, long inDay, long outDay) {
+        for (Listener l : listeners) l.nightsChanged(room, inDay, outDay);
+    }
+
+    // all-or-nothing hold over several rooms for the same stay. the bits are set first and
+    // listeners told afterwards, once per property and type, so a block of hundreds of rooms
+    // costs a recount per room type rather than per room
+    boolean reserveAll(int[] rooms, int count, long inDay, long outDay) {
+        int from = (int) (inDay - originDay), to = (int) (outDay - originDay);
+        for (int i = 0; i < count; i++) {
+            int set = take(rooms[i], from, to);
+            if (set <= 0) {
+                for (int j = 0; j < i; j++) clearWords(rooms[j] * words, from >>> 6, ((to - 1) >>> 6) + 1, from, to);
+                // visible for a moment: rooms[0, i), and the words of rooms[i] set before the clash
+                changedOnce(rooms, set < 0 ? i + 1 : i, inDay, outDay);
+                return false;
+            }
+        }
+        changedOnce(rooms, count, inDay, outDay);
+        return true;
+    }
+
+    void releaseAll(int[] rooms, int count, long inDay, long outDay) {
+        int from = (int) (inDay - originDay), to = (int) (outDay - originDay);
+        for (int i = 0; i < count; i++) clearWords(rooms[i] * words, from >>> 6, ((to - 1) >>> 6) + 1, from, to);
+        changedOnce(rooms, count, inDay, outDay);
+    }
+
+    // changed() for the first room of each property and type among rooms[0, count)
+    private void changedOnce(int[] rooms, int count, long inDay, long outDay) {
+        int[] told = new int[Math.min(count, 8)];  // groups (see RoomRegistry.groupOf) already told
+        int n = 0;
+        outer:
+        for (int i = 0; i < count; i++) {
+            int g = registry.groupOf(rooms[i]);
+            for (int k = 0; k < n; k++) if (told[k] == g) continue outer;
+            if (n == told.length) told = Arrays.copyOf(told, n * 2);
+            told[n++] = g;
+            changed(rooms[i], inDay, outDay);
+        }
+    }
+
+    // first room of the type in the property that could be reserved for the stay, or -1
+    int reserveAny(int property, int type, long inDay, long outDay) {
+        for (int r = firstRoom(property, type), end = r + roomCount(property, type); r < end; r++) {
+            if (isFree(r, inDay, outDay) && reserve(r, inDay, outDay)) return r;
+        }
+        return -1;
+    }
+
+    // ------- journal snapshots and replay -------
+
+    int wordsPerRoom() {
+        return words;
+    }
+
+    // sets the nights of a stay in an offline bitmap laid out like this one
+    // (roomCount() * wordsPerRoom() longs); nights outside the window are left out
+    void mark(long[] bits, int[] rooms, long inDay, long outDay) {
+        int from = (int) Math.max(0, inDay - originDay), to = (int) Math.min(horizon, outDay - originDay);
+        if (from >= to) return;
+        for (int room : rooms) {
+            for (int w = from >>> 6, last = (to - 1) >>> 6; w <= last; w++) bits[room * words + w] |= mask(w, from, to);
+        }
+    }
+
+    // adds a bitmap written by mark() for an inventory whose night 0 was srcOrigin and which
+    // kept srcWords longs per room, moving nights onto this origin and dropping those outside
+    void load(long srcOrigin, int srcWords, long[] bits) {
+        int rooms = Math.min(roomCount, bits.length / Math.max(1, srcWords));
+        if (srcOrigin == originDay && srcWords == words) {
+            for (int i = 0, n = rooms * words; i < n; i++) if (bits[i] != 0) orWord(i, bits[i]);
+            return;
+        }
+        for (int r = 0; r < rooms; r++) {
+            for (int w = 0; w < srcWords; w++) {
+                for (long v = bits[r * srcWords + w]; v != 0; v &= v - 1) {
+                    long night = srcOrigin - originDay + (w << 6) + Long.numberOfTrailingZeros(v);
+                    if (night >= 0 && night < horizon) orWord(r * words + (int) (night >>> 6), 1L << night);
+                }
+            }
+        }
+    }
+
+    // takes or frees every night of a stay in one room whatever was there before, skipping
+    // nights outside the window; journal replay, where the log already decided the owner
+    void overwrite(int room, long inDay, long outDay, boolean taken) {
+        int from = (int) Math.max(0, inDay - originDay), to = (int) Math.min(horizon, outDay - originDay);
+        if (from >= to) return;
+        int base = room * words;
+        if (!taken) {
+            clearWords(base, from >>> 6, ((to - 1) >>> 6) + 1, from, to);
+        } else {
+            for (int w = from >>> 6, last = (to - 1) >>> 6; w <= last; w++) orWord(base + w, mask(w, from, to));
+        }
+        changed(room, inDay, outDay);
+    }
+
+    private void orWord(int i, long m) {
+        while (true) {
+            long v = booked.get(i);
+            if (booked.compareAndSet(i, v, v | m)) {
+                count(i / words, i % words, m & ~v, 1);
+                break;
+            }
+        }
+    }
+
+    // total booked room-nights, for invariant checks
+    long bookedNights() {
+        long n = 0;
+        for (int i = 0, len = booked.length(); i < len; i++) n += Long.bitCount(booked.get(i));
+        return n;
+    }
+
+    private void clearWords(int base, int fromWord, int toWord, int from, int to) {
+        for (int w = fromWord; w < toWord; w++) {
+            long m = mask(w, from, to);
+            while (true) {
+                long v = booked.get(base + w);
+                if (booked.compareAndSet(base + w, v, v & ~m)) {
+                    count(base / words, w, v & m, -1);
+                    break;
+                }
+            }
+        }
+    }
+
+    // moves the taken count of every night in the changed bits of the room's word w by delta
+    private void count(int room, int w, long changed, int delta) {
+        int base = registry.groupOf(room) * horizon;
+        for (long v = changed; v != 0; v &= v - 1) {
+            int night = (w << 6) + Long.numberOfTrailingZeros(v);
+            if (night < horizon) taken.getAndAdd(base + night, delta);
+        }
+    }
+
+    // bits of word w that fall inside nights [from, to)
+    private static long mask(int w, int from, int to) {
+        int lo = Math.max(from - (w << 6), 0);
+        int hi = Math.min(to - (w << 6), 64);
+        long m = hi == 64 ? -1L : (1L << hi) - 1;
+        return m & (-1L << lo);
+    }
+}
@@ -0,0 +1,388 @@
+package finalproject;
+
+import finalproject.MainCode.RoomType;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// cheapest feasible room mix for a party. a mix is a count per room type plus the
+// extra beds it needs; it is feasible when the counts fit the availability, the rooms
+// (with at most extraBedsAllowed extra beds each) hold every guest and, when a room
+// count is given, exactly that many rooms are used. the search is branch-and-bound
+// over the room types, best choice first, with a per-guest cost bound (and a lagrangian
+// bound when the room count is fixed); it keeps the best N mixes.
+// results are memoized by party, room count and the stay price of every room type, so a
+// memoized answer stays right however the prices were worked out (see PricingRules).
+// a full memo gives up one entry per new one, picked by the clock algorithm: a hand goes
+// round the keys in the order they came in and takes the first whose answer went unused
+// since the hand last passed it, so the answers asked for again and again stay.
+final class RoomMixSolver {
+
+    static final int DEFAULT_ALTERNATIVES = 5;
+    // extra beds are not billed with the rooms (a guest orders the "Extra bed" amenity), so
+    // mixes are ranked at what the quote charges: nothing per bed
+    static final long BED_COST = 0;
+    static final int DEFAULT_CACHE_ENTRIES = 4096;
+    // for callers that solve many one-off stays, like a search over a date window
+    static final int SEARCH_CACHE_ENTRIES = 256;
+
+    // one candidate answer: how many rooms of each type, and the extra beds they need
+    static final class RoomMix {
+        final int[] counts;   // per type, ROOM_TYPES order
+        final int extraBeds;
+        final long cost;      // centavos: rooms for the whole stay plus extra beds at bedCost
+
+        RoomMix(int[] counts, int extraBeds, long cost) {
+            this.counts = counts;
+            this.extraBeds = extraBeds;
+            this.cost = cost;
+        }
+
+        int rooms() {
+            int n = 0;
+            for (int c : counts) n += c;
+            return n;
+        }
+
+        // one entry per room, largest rooms first
+        RoomType[] expand() {
+            RoomType[] out = new RoomType[rooms()];
+            int i = 0;
+            for (int t = counts.length - 1; t >= 0; t--) {
+                for (int k = 0; k < counts[t]; k++) out[i++] = MainCode.ROOM_TYPES[t];
+            }
+            Arrays.sort(out, (a, b) -> b.capacity - a.capacity);
+            return out;
+        }
+    }
+
+    private static final class Key {
+        final int guests, rooms, alternatives;
+        final long[] cost;
+        final long bedCost;
+        final int hash;
+
+        Key(int guests, int rooms, int alternatives, long[] cost, long bedCost) {
+            this.guests = guests;
+            this.rooms = rooms;
+            this.alternatives = alternatives;
+            this.cost = cost;
+            this.bedCost = bedCost;
+            int h = guests * 31 + rooms;
+            h = h * 31 + alternatives;
+            h = h * 31 + Long.hashCode(bedCost);
+            this.hash = h * 31 + Arrays.hashCode(cost);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return guests == k.guests && rooms == k.rooms && alternatives == k.alternatives
+                    && bedCost == k.bedCost && Arrays.equals(cost, k.cost);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // a memoized answer is reused only while the availability it was solved with,
+    // clipped to what the party could ever use, is unchanged
+    private static final class Entry {
+        final int[] clippedAvailable;
+        final RoomMix[] mixes;
+        volatile boolean used;  // asked for since the clock hand last passed
+
+        Entry(int[] clippedAvailable, RoomMix[] mixes) {
+            this.clippedAvailable = clippedAvailable;
+            this.mixes = mixes;
+        }
+    }
+
+    private final PricingEngine pricing;
+    private final ConcurrentHashMap<Key, Entry> memo = new ConcurrentHashMap<>();
+    private final Key[] ring;  // the memo's keys for the clock hand; guarded by itself
+    private int hand;
+
+    RoomMixSolver(PricingEngine pricing, int maxCacheEntries) {
+        if (maxCacheEntries < 1) throw new IllegalArgumentException("The solver's memo needs room for at least 1 entry");
+        this.pricing = pricing;
+        this.ring = new Key[maxCacheEntries];
+    }
+
+    private static final class Holder {
+        static final RoomMixSolver INSTANCE = new RoomMixSolver(PricingEngine.shared(), DEFAULT_CACHE_ENTRIES);
+    }
+
+    static RoomMixSolver shared() {
+        return Holder.INSTANCE;
+    }
+
+    // cheapest mix, or null when nothing fits
+    RoomMix cheapest(int guests, int numRooms, long inDay, long outDay, boolean international, int[] available) {
+        RoomMix[] mixes = solve(guests, numRooms, inDay, outDay, international, available, 1);
+        return mixes.length == 0 ? null : mixes[0];
+    }
+
+    // cheapest mix at these stay prices per room type, or null when nothing fits
+    RoomMix cheapest(int guests, int numRooms, long[] costByType, long bedCost, int[] available) {
+        RoomMix[] mixes = solve(guests, numRooms, costByType, bedCost, available, 1);
+        return mixes.length == 0 ? null : mixes[0];
+    }
+
+    // up to `alternatives` mixes, cheapest first, at the season prices.
+    // numRooms <= 0 lets the solver pick the room count.
+    RoomMix[] solve(int guests, int numRooms, long inDay, long outDay, boolean international,
+                    int[] available, int alternatives) {
+        if (guests <= 0 || alternatives <= 0 || outDay <= inDay) return new RoomMix[0];
+        long[] cost = new long[MainCode.ROOM_TYPES.length];
+        for (int t = 0; t < cost.length; t++) cost[t] = pricing.stayPrice(t, inDay, outDay, international);
+        return solve(guests, numRooms, cost, BED_COST, available, alternatives);
+    }
+
+    // the same at given stay prices: costByType[t] for a room of type t, bedCost per extra bed
+    RoomMix[] solve(int guests, int numRooms, long[] costByType, long bedCost, int[] available, int alternatives) {
+        int typeCount = MainCode.ROOM_TYPES.length;
+        if (guests <= 0 || alternatives <= 0) return new RoomMix[0];
+        int[] clipped = new int[typeCount];
+        for (int t = 0; t < typeCount; t++) {
+            int useful = numRooms > 0 ? numRooms : (guests + MainCode.ROOM_TYPES[t].capacity - 1) / MainCode.ROOM_TYPES[t].capacity;
+            clipped[t] = Math.max(0, Math.min(available[t], useful));
+        }
+
+        long[] cost = costByType.clone();
+        Key key = new Key(guests, Math.max(numRooms, 0), alternatives, cost, bedCost);
+        Entry e = memo.get(key);
+        if (e != null && Arrays.equals(e.clippedAvailable, clipped)) {
+            if (!e.used) e.used = true;
+            return e.mixes;
+        }
+
+        RoomMix[] mixes = new Search(guests, numRooms, cost, bedCost, clipped, alternatives).run();
+        remember(key, new Entry(clipped, mixes));
+        return mixes;
+    }
+
+    // a key already in the memo keeps its place in the ring; a new one takes the place of the
+    // first entry the hand finds unused, clearing the used mark of those it passes
+    private void remember(Key key, Entry e) {
+        synchronized (ring) {
+            if (memo.put(key, e) != null) return;
+            while (ring[hand] != null) {
+                Entry old = memo.get(ring[hand]);
+                if (!old.used) {
+                    memo.remove(ring[hand]);
+                    break;
+                }
+                old.used = false;
+                hand = (hand + 1) % ring.length;
+            }
+            ring[hand] = key;
+            hand = (hand + 1) % ring.length;
+        }
+    }
+
+    int cachedEntries() {
+        return memo.size();
+    }
+
+    // one branch-and-bound run; not shared between threads. mix costs are exact centavos,
+    // only the bounds (fractional per-guest rates and multipliers) are doubles
+    private static final class Search {
+        final int guests, numRooms, typeCount, alternatives;
+        final long bedCost;
+        final int[] order;        // types, cheapest per guest first
+        final int[] cap, extra, avail;
+        final long[] cost;
+        final double[] rateFrom;  // lowest per-guest cost among order[level..]
+        final int[] availFrom;    // rooms available among order[level..]
+        final int[] capFrom;      // guests those rooms hold with every extra bed used
+        final double[][] lambda;  // per level: multipliers for the fixed-room-count bound
+        final double[][] envelope;  // per level: min over room variants of (cost - lambda * capacity)
+        final int[] counts;
+
+        static final int ORDER_SPAN = 1 << 11;  // widest level that is visited best first
+
+        final RoomMix[] best;
+        int found;
+
+        Search(int guests, int numRooms, long[] costByType, long bedCost, int[] available, int alternatives) {
+            this.guests = guests;
+            this.numRooms = numRooms;
+            this.typeCount = costByType.length;
+            this.alternatives = alternatives;
+            this.bedCost = bedCost;
+            Integer[] idx = new Integer[typeCount];
+            for (int t = 0; t < typeCount; t++) idx[t] = t;
+            Arrays.sort(idx, (a, b) -> Double.compare(perGuest(costByType, a, bedCost), perGuest(costByType, b, bedCost)));
+            order = new int[typeCount];
+            cap = new int[typeCount];
+            extra = new int[typeCount];
+            avail = new int[typeCount];
+            cost = new long[typeCount];
+            for (int i = 0; i < typeCount; i++) {
+                int t = idx[i];
+                order[i] = t;
+                cap[i] = MainCode.ROOM_TYPES[t].capacity;
+                extra[i] = MainCode.ROOM_TYPES[t].extraBedsAllowed;
+                avail[i] = available[t];
+                cost[i] = costByType[t];
+            }
+            rateFrom = new double[typeCount + 1];
+            availFrom = new int[typeCount + 1];
+            capFrom = new int[typeCount + 1];
+            rateFrom[typeCount] = Double.POSITIVE_INFINITY;
+            for (int i = typeCount - 1; i >= 0; i--) {
+                double rate = avail[i] > 0 ? perGuest(costByType, order[i], bedCost) : Double.POSITIVE_INFINITY;
+                rateFrom[i] = Math.min(rateFrom[i + 1], rate);
+                availFrom[i] = availFrom[i + 1] + avail[i];
+                capFrom[i] = capFrom[i + 1] + avail[i] * (cap[i] + extra[i]);
+            }
+            lambda = new double[typeCount + 1][];
+            envelope = new double[typeCount + 1][];
+            if (numRooms > 0) for (int i = 0; i <= typeCount; i++) buildEnvelope(i);
+            counts = new int[typeCount];
+            best = new RoomMix[alternatives];
+        }
+
+        // a room variant is a type with 0..extraBedsAllowed extra beds in it. for the bound
+        // we need g(l) = min over variants of (cost - l * capacity) at the multipliers where
+        // the minimizing variant can change (pairwise crossings), plus 0 and the bed cost.
+        private void buildEnvelope(int level) {
+            int variants = 0;
+            for (int i = level; i < typeCount; i++) if (avail[i] > 0) variants += extra[i] + 1;
+            double[] vc = new double[variants];
+            int[] vcap = new int[variants];
+            int v = 0;
+            for (int i = level; i < typeCount; i++) {
+                if (avail[i] == 0) continue;
+                for (int j = 0; j <= extra[i]; j++, v++) {
+                    vc[v] = cost[i] + j * bedCost;
+                    vcap[v] = cap[i] + j;
+                }
+            }
+            double[] ls = new double[variants * variants + 2];
+            int n = 0;
+            ls[n++] = 0;
+            ls[n++] = bedCost;
+            for (int a = 0; a < variants; a++) {
+                for (int b = a + 1; b < variants; b++) {
+                    if (vcap[a] == vcap[b]) continue;
+                    double l = (vc[a] - vc[b]) / (vcap[a] - vcap[b]);
+                    if (l > 0) ls[n++] = l;
+                }
+            }
+            // the dual is concave and piecewise linear, so only the envelope's own vertices
+            // (where two variants tie for the minimum) and the two fixed points can be its peak
+            double[] gs = new double[n];
+            int kept = 0;
+            for (int k = 0; k < n; k++) {
+                double l = ls[k], g = Double.POSITIVE_INFINITY;
+                int ties = 0;
+                for (int a = 0; a < variants; a++) g = Math.min(g, vc[a] - l * vcap[a]);
+                for (int a = 0; a < variants; a++) if (vc[a] - l * vcap[a] <= g + 1e-9 * Math.abs(g) + 1e-9) ties++;
+                if (k < 2 || ties > 1) {
+                    ls[kept] = l;
+                    gs[kept++] = g;
+                }
+            }
+            lambda[level] = Arrays.copyOf(ls, kept);
+            envelope[level] = Arrays.copyOf(gs, kept);
+        }
+
+        private static double perGuest(long[] cost, int t, long bedCost) {
+            RoomType rt = MainCode.ROOM_TYPES[t];
+            return Math.min((double) cost[t] / rt.capacity,
+                    (double) (cost[t] + rt.extraBedsAllowed * bedCost) / (rt.capacity + rt.extraBedsAllowed));
+        }
+
+        RoomMix[] run() {
+            dfs(0, 0, 0, 0, 0);
+            return Arrays.copyOf(best, found);
+        }
+
+        private void dfs(int level, int roomsUsed, int capSoFar, int slotsSoFar, long costSoFar) {
+            if (level == typeCount) {
+                if (numRooms > 0 && roomsUsed != numRooms) return;
+                int need = guests - capSoFar;
+                if (need > slotsSoFar || roomsUsed == 0) return;
+                int beds = Math.max(0, need);
+                offer(beds, costSoFar + beds * bedCost);
+                return;
+            }
+            int roomsLeft = numRooms > 0 ? numRooms - roomsUsed : Integer.MAX_VALUE;
+            if (numRooms > 0 && roomsLeft > availFrom[level]) return;
+            if (guests - capSoFar - slotsSoFar > capFrom[level]) return;
+
+            int need = Math.max(0, guests - capSoFar);
+            int maxK = Math.min(avail[level], numRooms > 0 ? roomsLeft : (need + cap[level] - 1) / cap[level]);
+            int minK = 0;
+            if (level == typeCount - 1 && numRooms > 0) minK = roomsLeft;  // last type fills the remaining rooms
+            if (maxK < minK) return;
+            if (maxK - minK >= ORDER_SPAN) {
+                for (int k = maxK; k >= minK; k--) {
+                    long cost2 = costSoFar + k * cost[level];
+                    if (found == alternatives && cost2 + lowerBound(level + 1, roomsUsed + k, capSoFar + k * cap[level],
+                            slotsSoFar + k * extra[level]) >= best[found - 1].cost) continue;
+                    descend(level, k, roomsUsed, capSoFar, slotsSoFar, costSoFar);
+                }
+            } else {
+                // best first: sort the choices by their bound so good mixes turn up early, then stop
+                // at the first choice whose bound can't beat the kept alternatives. the key is the
+                // bound's bits with the low ones replaced by k; that only rounds it down, so the
+                // cut-off stays safe
+                long[] keys = new long[maxK - minK + 1];
+                for (int k = minK; k <= maxK; k++) {
+                    double lb = costSoFar + k * cost[level]
+                            + lowerBound(level + 1, roomsUsed + k, capSoFar + k * cap[level], slotsSoFar + k * extra[level]);
+                    keys[k - minK] = (Double.doubleToRawLongBits(lb) & ~(ORDER_SPAN - 1)) | (k - minK);
+                }
+                Arrays.sort(keys);
+                for (long key : keys) {
+                    if (found == alternatives && Double.longBitsToDouble(key & ~(ORDER_SPAN - 1)) >= best[found - 1].cost) break;
+                    descend(level, minK + (int) (key & (ORDER_SPAN - 1)), roomsUsed, capSoFar, slotsSoFar, costSoFar);
+                }
+            }
+            counts[order[level]] = 0;
+        }
+
+        private void descend(int level, int k, int roomsUsed, int capSoFar, int slotsSoFar, long costSoFar) {
+            counts[order[level]] = k;
+            dfs(level + 1, roomsUsed + k, capSoFar + k * cap[level], slotsSoFar + k * extra[level], costSoFar + k * cost[level]);
+        }
+
+        // least the rest of the mix can cost: uncovered guests take the extra-bed slots already
+        // chosen and the rest need new rooms at the cheapest per-guest rate left.
+        // with a fixed room count the remaining rooms must also be filled exactly, so the bound is
+        // the lagrangian dual of "cover the guests": for any l >= 0,
+        //   need * l + roomsLeft * g(l) + slots * min(0, bedCost - l)
+        // is below the true cost (availability is relaxed); take the best l.
+        private double lowerBound(int level, int roomsUsed, int capSoFar, int slotsSoFar) {
+            int need = Math.max(0, guests - capSoFar);
+            int onBeds = Math.min(need, slotsSoFar);
+            double lb = onBeds * bedCost + (need > onBeds ? (need - onBeds) * rateFrom[level] : 0);
+            int roomsLeft = numRooms - roomsUsed;
+            if (numRooms > 0 && roomsLeft > 0) {
+                double[] ls = lambda[level], gs = envelope[level];
+                for (int k = 0; k < ls.length; k++) {
+                    double l = ls[k];
+                    double d = need * l + roomsLeft * gs[k] + (l > bedCost ? slotsSoFar * (bedCost - l) : 0);
+                    if (d > lb) lb = d;
+                }
+            }
+            return lb;
+        }
+
+        // keeps best[] sorted by cost, at most `alternatives` entries
+        private void offer(int beds, long total) {
+            if (found == alternatives && total >= best[found - 1].cost) return;
+            int i = found == alternatives ? found - 1 : found++;
+            while (i > 0 && best[i - 1].cost > total) {
+                best[i] = best[i - 1];
+                i--;
+            }
+            best[i] = new RoomMix(counts.clone(), beds, total);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package finalproject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// the hotel's properties and their physical rooms. every destination is served by one
+// property, and a property's rooms sit on numbered floors. rooms get dense int ids over all
+// properties, grouped by property and then by room type (ROOM_TYPES order), so the rooms of
+// one type in one property are the id range [firstRoom, firstRoom + roomCount). labels
+// ("Room 301 (Floor 3)") are built once here, never while booking.
+//
+// within a property each room type starts on a new floor and fills roomsPerFloor rooms per
+// floor; room numbers are floor * 100 + position, so the standard layout gives Standard
+// rooms 101.., Deluxe 201.. and so on.
+final class RoomRegistry {
+
+    static final int DEFAULT_ROOMS_PER_FLOOR = 99;
+
+    private static final int TYPES = MainCode.ROOM_TYPES.length;
+
+    private final String[] destination;    // per property
+    private final boolean[] international;
+    private final int[] floors;
+    private final Map<String, Integer> byDestination = new HashMap<>();
+
+    private final int[] groupStart;  // rooms of property p, type t are [groupStart[p * TYPES + t], groupStart[p * TYPES + t + 1])
+    private final int[] group;       // room id -> p * TYPES + t
+    private final int[] number;      // room id -> room number (floor * 100 + position)
+    private final String[] label;
+
+    // roomsPerType[p][t]: rooms of type t in the property serving destination[p]
+    RoomRegistry(String[] destination, boolean[] international, int[][] roomsPerType, int roomsPerFloor) {
+        int properties = destination.length;
+        if (international.length != properties || roomsPerType.length != properties) {
+            throw new IllegalArgumentException("Every property needs a destination, a kind and room counts");
+        }
+        if (roomsPerFloor < 1 || roomsPerFloor > 99) throw new IllegalArgumentException("Rooms per floor must be 1..99");
+        this.destination = destination.clone();
+        this.international = international.clone();
+        this.floors = new int[properties];
+        this.groupStart = new int[properties * TYPES + 1];
+
+        long total = 0;
+        for (int p = 0; p < properties; p++) {
+            if (byDestination.put(destination[p], p) != null) {
+                throw new IllegalArgumentException("Destination " + destination[p] + " has two properties");
+            }
+            if (roomsPerType[p].length != TYPES) {
+                throw new IllegalArgumentException("Expected a room count for each of the " + TYPES + " room types of " + destination[p]);
+            }
+            for (int t = 0; t < TYPES; t++) {
+                if (roomsPerType[p][t] < 0) throw new IllegalArgumentException("Negative room count for " + destination[p]);
+                groupStart[p * TYPES + t] = (int) total;
+                total += roomsPerType[p][t];
+                if (total > Integer.MAX_VALUE / 64) throw new IllegalArgumentException("Too many rooms");
+            }
+        }
+        groupStart[properties * TYPES] = (int) total;
+
+        int rooms = (int) total;
+        this.group = new int[rooms];
+        this.number = new int[rooms];
+        this.label = new String[rooms];
+        for (int p = 0; p < properties; p++) {
+            int floor = 0;
+            for (int t = 0; t < TYPES; t++) {
+                int g = p * TYPES + t;
+                for (int i = 0, id = groupStart[g]; id < groupStart[g + 1]; i++, id++) {
+                    if (i % roomsPerFloor == 0) floor++;
+                    group[id] = g;
+                    number[id] = floor * 100 + i % roomsPerFloor + 1;
+                    label[id] = "Room " + number[id] + " (Floor " + floor + ")";
+                }
+            }
+            floors[p] = floor;
+        }
+    }
+
+    // one property per destination of MainCode, each with the same rooms
+    static RoomRegistry perDestination(int[] roomsPerType) {
+        int local = MainCode.LOCAL_DESTINATIONS.length, n = local + MainCode.INTERNATIONAL_DESTINATIONS.length;
+        String[] dest = new String[n];
+        boolean[] intl = new boolean[n];
+        int[][] rooms = new int[n][];
+        for (int p = 0; p < n; p++) {
+            dest[p] = p < local ? MainCode.LOCAL_DESTINATIONS[p] : MainCode.INTERNATIONAL_DESTINATIONS[p - local];
+            intl[p] = p >= local;
+            rooms[p] = roomsPerType.clone();
+        }
+        return new RoomRegistry(dest, intl, rooms, DEFAULT_ROOMS_PER_FLOOR);
+    }
+
+    // "destination=counts;destination=counts;..." with counts per room type separated by commas,
+    // e.g. "Baguio=5,4,5,3,2;Japan=50,40,50,30,20". a destination MainCode does not list is
+    // local unless written "name:intl"; "/n" after the counts sets the rooms per floor for all
+    static RoomRegistry parse(String spec) {
+        int perFloor = DEFAULT_ROOMS_PER_FLOOR;
+        int slash = spec.lastIndexOf('/');
+        if (slash >= 0) {
+            try {
+                perFloor = Integer.parseInt(spec.substring(slash + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad rooms per floor in '" + spec + "'");
+            }
+            spec = spec.substring(0, slash);
+        }
+        List<String> dest = new ArrayList<>();
+        List<Boolean> intl = new ArrayList<>();
+        List<int[]> rooms = new ArrayList<>();
+        for (String item : spec.split(";")) {
+            if (item.isBlank()) continue;
+            int eq = item.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected destination=counts, got '" + item.trim() + "'");
+            String name = item.substring(0, eq).trim();
+            int colon = name.lastIndexOf(':');
+            boolean international = BookingEngine.destinationKind(name) == 1;
+            if (colon >= 0) {
+                String kind = name.substring(colon + 1).trim();
+                if (!kind.equals("intl") && !kind.equals("local")) throw new IllegalArgumentException("Unknown kind " + kind + " for " + name);
+                international = kind.equals("intl");
+                name = name.substring(0, colon).trim();
+            }
+            String[] counts = item.substring(eq + 1).split(",");
+            if (counts.length != TYPES) throw new IllegalArgumentException(name + " needs " + TYPES + " room counts");
+            int[] c = new int[TYPES];
+            for (int t = 0; t < TYPES; t++) {
+                try {
+                    c[t] = Integer.parseInt(counts[t].trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Bad room count in '" + item.trim() + "'");
+                }
+            }
+            dest.add(name);
+            intl.add(international);
+            rooms.add(c);
+        }
+        boolean[] kinds = new boolean[intl.size()];
+        for (int i = 0; i < kinds.length; i++) kinds[i] = intl.get(i);
+        return new RoomRegistry(dest.toArray(new String[0]), kinds, rooms.toArray(new int[0][]), perFloor);
+    }
+
+    // process-wide registry: the catalog's destinations and rooms (see HotelCatalog);
+    // override with -Dhotel.properties=destination=counts;...
+    private static final class Holder {
+        static final RoomRegistry INSTANCE = System.getProperty("hotel.properties") == null
+                ? HotelCatalog.shared().registry() : parse(System.getProperty("hotel.properties"));
+    }
+
+    static RoomRegistry shared() {
+        return Holder.INSTANCE;
+    }
+
+    // ------- properties -------
+
+    int propertyCount() {
+        return destination.length;
+    }
+
+    // the property serving this destination, or -1
+    int property(String destination) {
+        Integer p = destination == null ? null : byDestination.get(destination);
+        return p == null ? -1 : p;
+    }
+
+    String destination(int property) {
+        return destination[property];
+    }
+
+    boolean international(int property) {
+        return international[property];
+    }
+
+    int floors(int property) {
+        return floors[property];
+    }
+
+    // ------- rooms -------
+
+    int roomCount() {
+        return group.length;
+    }
+
+    int roomCount(int property, int type) {
+        int g = property * TYPES + type;
+        return groupStart[g + 1] - groupStart[g];
+    }
+
+    int firstRoom(int property, int type) {
+        return groupStart[property * TYPES + type];
+    }
+
+    // property * room types + type: the same for every room of one type in one property
+    int groupOf(int room) {
+        return group[room];
+    }
+
+    int propertyOf(int room) {
+        return group[room] / TYPES;
+    }
+
+    int typeOf(int room) {
+        return group[room] % TYPES;
+    }
+
+    int number(int room) {
+        return number[room];
+    }
+
+    int floorOf(int room) {
+        return number[room] / 100;
+    }
+
+    String label(int room) {
+        return label[room];
+    }
+}
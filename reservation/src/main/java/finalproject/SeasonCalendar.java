@@ -0,0 +1,141 @@
+package finalproject;
+
+import finalproject.MainCode.Season;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// per-day season table for a window of years, built once from seasonForMonthDay.
+// stays inside the window are classified with prefix counts, so a lookup is O(1)
+// no matter how long the stay is and allocates nothing. the tables can be written to and
+// read back from a HotelCatalog snapshot, which saves building them at startup.
+final class SeasonCalendar {
+
+    static final int DEFAULT_FIRST_YEAR = 2000;
+    static final int DEFAULT_LAST_YEAR = 2099;
+
+    private static final Season[] SEASONS = Season.values();
+    private static final int SEASON_COUNT = SEASONS.length;
+
+    final int firstYear;
+    final int lastYear;
+    final long firstDay;  // day number (see PackedDate.toDays) of firstYear-01-01
+    final int length;     // number of days covered
+
+    private final byte[] seasonOf;  // season ordinal per day in the window
+    private final int[] prefix;     // prefix[i * SEASON_COUNT + s] = days of season s in [0, i)
+
+    SeasonCalendar(int firstYear, int lastYear) {
+        this(firstYear, lastYear, null);
+    }
+
+    // seasonByDay: season ordinal at (month - 1) * 31 + day - 1, null = seasonForMonthDay
+    SeasonCalendar(int firstYear, int lastYear, byte[] seasonByDay) {
+        this(firstYear, lastYear, new byte[window(firstYear, lastYear)], null);
+        int i = 0;
+        for (int y = firstYear; y <= lastYear; y++) {
+            for (int m = 1; m <= 12; m++) {
+                int dim = PackedDate.daysInMonth(y, m);
+                for (int d = 1; d <= dim; d++) {
+                    int s = seasonByDay != null ? seasonByDay[(m - 1) * 31 + d - 1] : MainCode.seasonForMonthDay(m, d).ordinal();
+                    seasonOf[i] = (byte) s;
+                    int base = i * SEASON_COUNT;
+                    for (int k = 0; k < SEASON_COUNT; k++) prefix[base + SEASON_COUNT + k] = prefix[base + k];
+                    prefix[base + SEASON_COUNT + s]++;
+                    i++;
+                }
+            }
+        }
+    }
+
+    // prefix null = zeroed, for the caller to fill
+    private SeasonCalendar(int firstYear, int lastYear, byte[] seasonOf, int[] prefix) {
+        this.firstYear = firstYear;
+        this.lastYear = lastYear;
+        this.firstDay = PackedDate.toDays(firstYear, 1, 1);
+        this.length = seasonOf.length;
+        this.seasonOf = seasonOf;
+        this.prefix = prefix != null ? prefix : new int[(length + 1) * SEASON_COUNT];
+    }
+
+    // days in the window
+    private static int window(int firstYear, int lastYear) {
+        if (firstYear < 1 || lastYear >= 9999 || lastYear < firstYear) {
+            throw new IllegalArgumentException("Invalid season window: " + firstYear + "-" + lastYear);
+        }
+        return (int) (PackedDate.toDays(lastYear + 1, 1, 1) - PackedDate.toDays(firstYear, 1, 1));
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(firstYear);
+        out.writeInt(lastYear);
+        out.write(seasonOf);
+        for (int p : prefix) out.writeInt(p);
+    }
+
+    // what writeTo wrote, from in's position on
+    static SeasonCalendar readFrom(ByteBuffer in) {
+        int firstYear = in.getInt(), lastYear = in.getInt();
+        byte[] seasonOf = new byte[window(firstYear, lastYear)];
+        in.get(seasonOf);
+        int[] prefix = new int[(seasonOf.length + 1) * SEASON_COUNT];
+        in.asIntBuffer().get(prefix);
+        in.position(in.position() + prefix.length * 4);
+        return new SeasonCalendar(firstYear, lastYear, seasonOf, prefix);
+    }
+
+    // window can be moved with -Dhotel.seasons.firstYear / -Dhotel.seasons.lastYear; the
+    // catalog's prebuilt calendar is used when it covers the same years
+    private static final class Holder {
+        static final SeasonCalendar INSTANCE = HotelCatalog.shared().calendar(
+                Integer.getInteger("hotel.seasons.firstYear", DEFAULT_FIRST_YEAR),
+                Integer.getInteger("hotel.seasons.lastYear", DEFAULT_LAST_YEAR));
+    }
+
+    static SeasonCalendar shared() {
+        return Holder.INSTANCE;
+    }
+
+    boolean covers(long day) {
+        return day >= firstDay && day < firstDay + length;
+    }
+
+    // true when every night of [inDay, outDay) is inside the window
+    boolean coversStay(long inDay, long outDay) {
+        return inDay >= firstDay && outDay <= firstDay + length && inDay <= outDay;
+    }
+
+    Season seasonOn(long day) {
+        return SEASONS[seasonOf[(int) (day - firstDay)]];
+    }
+
+    int seasonOrdinalOn(long day) {
+        return seasonOf[(int) (day - firstDay)];
+    }
+
+    // number of nights of the given season in [inDay, outDay)
+    int nightsOf(Season season, long inDay, long outDay) {
+        int a = (int) (inDay - firstDay) * SEASON_COUNT;
+        int b = (int) (outDay - firstDay) * SEASON_COUNT;
+        int s = season.ordinal();
+        return prefix[b + s] - prefix[a + s];
+    }
+
+    // fills counts[s] with the nights of each season in [inDay, outDay)
+    void nightsBySeason(long inDay, long outDay, int[] counts) {
+        int a = (int) (inDay - firstDay) * SEASON_COUNT;
+        int b = (int) (outDay - firstDay) * SEASON_COUNT;
+        for (int s = 0; s < SEASON_COUNT; s++) counts[s] = prefix[b + s] - prefix[a + s];
+    }
+
+    // highest season touched by the stay, same rule as determineSeasonForStay
+    Season seasonForStay(long inDay, long outDay) {
+        if (outDay <= inDay) return Season.LEAN;
+        int a = (int) (inDay - firstDay) * SEASON_COUNT;
+        int b = (int) (outDay - firstDay) * SEASON_COUNT;
+        for (int s = SEASON_COUNT - 1; s > 0; s--) {
+            if (prefix[b + s] - prefix[a + s] > 0) return SEASONS[s];
+        }
+        return Season.LEAN;
+    }
+}
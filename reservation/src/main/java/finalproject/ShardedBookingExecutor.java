@@ -0,0 +1,338 @@
+package finalproject;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+// runs the writes of a BookingEngine (hold, confirm, cancel) on one thread per property.
+// bookings for different destinations never touch the same rooms (see RoomRegistry), so each
+// property is a shard with a single writer: callers on any thread put the work on the shard's
+// bounded queue and get a future back, and the shard's thread takes it off in order. two
+// holds for the same hotel never race for a room, and no thread ever waits on another
+// hotel's bookings.
+//
+// when a shard's queue is full a caller waits up to offerWaitNanos for space (0 = not at
+// all) and is then turned away: a hold or confirm answers SHARD_BUSY, a cancel fails with
+// RejectedExecutionException. confirms taken off the queue together share one wait for the
+// journal, so the thread syncs the disk once per batch rather than once per booking.
+// stats() shows every shard's queue depth, high-water mark and counts.
+final class ShardedBookingExecutor implements AutoCloseable {
+
+    static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    static final long DEFAULT_OFFER_WAIT_NANOS = 50_000_000L;
+
+    private static final int BATCH = 64;  // tasks a shard takes off its queue before syncing
+
+    private final BookingEngine engine;
+    private final RoomRegistry registry;
+    private final long offerWaitNanos;
+    private final Shard[] shards;
+
+    ShardedBookingExecutor(BookingEngine engine, int queueCapacity, long offerWaitNanos) {
+        if (queueCapacity < 2) throw new IllegalArgumentException("Shard queues need room for at least 2 tasks");
+        if (offerWaitNanos < 0) throw new IllegalArgumentException("Offer wait must not be negative");
+        this.engine = engine;
+        this.registry = engine.inventory().registry;
+        this.offerWaitNanos = offerWaitNanos;
+        this.shards = new Shard[registry.propertyCount()];
+        for (int p = 0; p < shards.length; p++) shards[p] = new Shard(p, queueCapacity);
+        for (Shard s : shards) s.thread.start();
+    }
+
+    // -Dhotel.shards.queue sets each shard's queue capacity (rounded up to a power of two),
+    // -Dhotel.shards.waitMillis how long a caller waits for space
+    static ShardedBookingExecutor forEngine(BookingEngine engine) {
+        return new ShardedBookingExecutor(engine, Integer.getInteger("hotel.shards.queue", DEFAULT_QUEUE_CAPACITY),
+                Long.getLong("hotel.shards.waitMillis", DEFAULT_OFFER_WAIT_NANOS / 1_000_000L) * 1_000_000L);
+    }
+
+    // ------- the engine's writes -------
+
+    CompletableFuture<BookingQuote> hold(BookingRequest req) {
+        int p = registry.property(req.destination);
+        if (p < 0) return CompletableFuture.completedFuture(engine.hold(req));  // a denial, nothing to write
+        Task<BookingQuote> t = new Task<>(e -> e.hold(req), false);
+        return submit(p, t) ? t.done
+                : CompletableFuture.completedFuture(BookingQuote.denied(req, DenialReason.SHARD_BUSY, req.destination));
+    }
+
+    CompletableFuture<BookingConfirmation> confirm(long holdId, Payment payment) {
+        BookingQuote q = engine.heldQuote(holdId);
+        if (q == null) return CompletableFuture.completedFuture(engine.confirm(holdId, payment));
+        Task<BookingConfirmation> t = new Task<>(e -> e.confirm(holdId, payment, false), true);
+        return submit(propertyOf(q), t) ? t.done
+                : CompletableFuture.completedFuture(BookingConfirmation.denied(q, DenialReason.SHARD_BUSY, q.request.destination));
+    }
+
+    CompletableFuture<BookingConfirmation> confirmBlock(long holdId, int[] keep, Payment payment) {
+        BookingQuote q = engine.heldQuote(holdId);
+        if (q == null) return CompletableFuture.completedFuture(engine.confirmBlock(holdId, keep, payment));
+        Task<BookingConfirmation> t = new Task<>(e -> e.confirmBlock(holdId, keep, payment, false), true);
+        return submit(propertyOf(q), t) ? t.done
+                : CompletableFuture.completedFuture(BookingConfirmation.denied(q, DenialReason.SHARD_BUSY, q.request.destination));
+    }
+
+    CompletableFuture<Boolean> cancelHold(long holdId) {
+        BookingQuote q = engine.heldQuote(holdId);
+        if (q == null) return CompletableFuture.completedFuture(false);
+        return cancel(propertyOf(q), new Task<>(e -> e.cancelHold(holdId), false));
+    }
+
+    CompletableFuture<Boolean> cancelBooking(long bookingId) {
+        BookingConfirmation c = engine.booking(bookingId);
+        if (c == null) return CompletableFuture.completedFuture(false);
+        return cancel(propertyOf(c.quote), new Task<>(e -> e.cancelBooking(bookingId), false));
+    }
+
+    private CompletableFuture<Boolean> cancel(int property, Task<Boolean> t) {
+        if (submit(property, t)) return t.done;
+        return CompletableFuture.failedFuture(new RejectedExecutionException(
+                "Too many bookings for " + registry.destination(property) + " in flight"));
+    }
+
+    // held rooms are all in the property of the first one
+    private int propertyOf(BookingQuote q) {
+        return q.roomIds.length > 0 ? registry.propertyOf(q.roomIds[0]) : registry.property(q.request.destination);
+    }
+
+    private boolean submit(int property, Task<?> t) {
+        Shard s = shards[property];
+        if (s.stopped) throw new RejectedExecutionException("Booking executor is closed");
+        if (!s.queue.offer(t) && !awaitSpace(s, t)) {
+            s.rejected.incrementAndGet();
+            return false;
+        }
+        s.submitted.incrementAndGet();
+        s.wake();
+        // close may have stopped the shard between the check above and the offer
+        if (s.stopped) s.rejectLeftovers();
+        return true;
+    }
+
+    // spins briefly, then parks in short steps until there is space or the wait is over
+    private boolean awaitSpace(Shard s, Task<?> t) {
+        if (offerWaitNanos == 0) return false;
+        long deadline = System.nanoTime() + offerWaitNanos;
+        for (int spins = 0; ; spins++) {
+            s.wake();
+            if (spins < 64) Thread.onSpinWait();
+            else LockSupport.parkNanos(10_000L);
+            if (s.queue.offer(t)) return true;
+            if (System.nanoTime() - deadline >= 0) return false;
+        }
+    }
+
+    // ------- metrics -------
+
+    int shardCount() {
+        return shards.length;
+    }
+
+    // tasks waiting in the property's queue
+    int queueDepth(int property) {
+        return shards[property].queue.size();
+    }
+
+    int maxQueueDepth(int property) {
+        return shards[property].maxDepth;
+    }
+
+    long processed(int property) {
+        return shards[property].processed;
+    }
+
+    long rejected(int property) {
+        return shards[property].rejected.get();
+    }
+
+    String stats() {
+        StringBuilder sb = new StringBuilder(64 + 80 * shards.length).append("shards:");
+        for (Shard s : shards) {
+            sb.append(String.format("%n  %-12s depth %d (max %d of %d), %d submitted, %d processed, %d rejected",
+                    registry.destination(s.property), s.queue.size(), s.maxDepth, s.queue.capacity(),
+                    s.submitted.get(), s.processed, s.rejected.get()));
+        }
+        return sb.toString();
+    }
+
+    // finishes the queued work, then stops the shard threads; a task that was offered as
+    // they stopped fails with RejectedExecutionException
+    @Override
+    public void close() {
+        for (Shard s : shards) {
+            s.stopped = true;
+            LockSupport.unpark(s.thread);
+        }
+        boolean interrupted = false;
+        for (Shard s : shards) {
+            while (s.thread.isAlive()) {
+                try {
+                    s.thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            s.rejectLeftovers();
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private static final class Task<T> {
+        final Function<BookingEngine, T> work;
+        final boolean durable;  // answer only once the journal has it on disk
+        final CompletableFuture<T> done = new CompletableFuture<>();
+        T result;
+        Throwable failure;
+
+        Task(Function<BookingEngine, T> work, boolean durable) {
+            this.work = work;
+            this.durable = durable;
+        }
+
+        void run(BookingEngine engine) {
+            try {
+                result = work.apply(engine);
+            } catch (RuntimeException | Error e) {
+                failure = e;
+            }
+        }
+
+        void complete() {
+            if (failure != null) done.completeExceptionally(failure);
+            else done.complete(result);
+        }
+    }
+
+    private final class Shard implements Runnable {
+        final int property;
+        final MpscQueue<Task<?>> queue;
+        final Thread thread;
+        final AtomicLong submitted = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        volatile long processed;   // written by the shard thread only
+        volatile int maxDepth;     // likewise
+        volatile boolean parked;
+        volatile boolean stopped;
+
+        Shard(int property, int capacity) {
+            this.property = property;
+            this.queue = new MpscQueue<>(capacity);
+            this.thread = new Thread(this, "booking-shard-" + registry.destination(property));
+            thread.setDaemon(true);
+        }
+
+        void wake() {
+            if (parked) LockSupport.unpark(thread);
+        }
+
+        // once the thread is gone nothing else takes tasks off the queue, so close and late
+        // submitters fail what is left, one of them at a time. while it is alive the thread
+        // runs the task, or close gets to it after the join
+        synchronized void rejectLeftovers() {
+            if (thread.isAlive()) return;
+            Task<?> t;
+            while ((t = queue.poll()) != null) {
+                t.done.completeExceptionally(new RejectedExecutionException("Booking executor is closed"));
+            }
+        }
+
+        @Override
+        public void run() {
+            Task<?>[] batch = new Task<?>[BATCH];
+            while (true) {
+                int depth = queue.size();
+                if (depth > maxDepth) maxDepth = depth;
+                int n = 0;
+                Task<?> t;
+                while (n < BATCH && (t = queue.poll()) != null) batch[n++] = t;
+                if (n == 0) {
+                    if (stopped && queue.size() == 0) return;
+                    parked = true;
+                    // a task offered before parked was set is seen here; one offered after sees parked
+                    if (queue.size() == 0 && !stopped) LockSupport.park(this);
+                    parked = false;
+                    continue;
+                }
+                boolean durable = false;
+                for (int i = 0; i < n; i++) {
+                    batch[i].run(engine);
+                    durable |= batch[i].durable && batch[i].failure == null;
+                }
+                if (durable) {
+                    try {
+                        engine.awaitDurable();
+                    } catch (RuntimeException e) {
+                        for (int i = 0; i < n; i++) if (batch[i].durable && batch[i].failure == null) batch[i].failure = e;
+                    }
+                }
+                for (int i = 0; i < n; i++) {
+                    batch[i].complete();
+                    batch[i] = null;
+                }
+                processed += n;
+            }
+        }
+    }
+
+    // bounded multi-producer, single-consumer ring (Vyukov's sequenced slots). a producer
+    // claims a slot by moving tail with compare-and-set and publishes it by bumping the slot's
+    // sequence; the one consumer reads slots in order, so neither side takes a lock.
+    static final class MpscQueue<E> {
+        private final int mask;
+        private final AtomicReferenceArray<E> slots;
+        private final AtomicLongArray sequence;  // slot i is free for position p when sequence == p
+        private final AtomicLong tail = new AtomicLong();
+        private volatile long head;              // consumer only
+
+        MpscQueue(int capacity) {
+            int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+            this.mask = size - 1;
+            this.slots = new AtomicReferenceArray<>(size);
+            this.sequence = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) sequence.set(i, i);
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+
+        // false when full
+        boolean offer(E e) {
+            while (true) {
+                long t = tail.get();
+                int i = (int) (t & mask);
+                long d = sequence.get(i) - t;
+                if (d == 0) {
+                    if (tail.compareAndSet(t, t + 1)) {
+                        slots.lazySet(i, e);
+                        sequence.set(i, t + 1);
+                        return true;
+                    }
+                } else if (d < 0) {
+                    return false;
+                }
+            }
+        }
+
+        // consumer thread only; null when empty
+        E poll() {
+            long h = head;
+            int i = (int) (h & mask);
+            if (sequence.get(i) != h + 1) return null;
+            E e = slots.get(i);
+            slots.lazySet(i, null);
+            sequence.lazySet(i, h + mask + 1);
+            head = h + 1;
+            return e;
+        }
+
+        // claimed slots, including ones still being written
+        int size() {
+            return (int) Math.max(0, Math.min(mask + 1, tail.get() - head));
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package finalproject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// in-process card processor for development and load tests. answers after a simulated
+// latency and misbehaves on purpose, in the ways a real one does:
+//   latency  milliseconds before an answer (default 0: answers at once)
+//   jitter   up to this many milliseconds more, at random
+//   decline  percent of new authorizations declined
+//   fail     percent of calls that fail without reaching the processor (Unavailable)
+//   lost     percent of authorizations made whose answer never arrives (the caller times out)
+// cards ending in 0002 are always declined. the answers come from one timer thread; the
+// caller is never blocked.
+final class StubPaymentGateway implements PaymentGateway {
+
+    private final long latencyMillis, jitterMillis;
+    private final int declinePercent, failPercent, lostPercent;
+    private final ScheduledThreadPoolExecutor timer;
+    private final Map<String, Authorization> authorizations = new ConcurrentHashMap<>();  // every key ever seen
+    private final Set<String> open = ConcurrentHashMap.newKeySet();  // approved, neither captured nor voided
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicLong authorized = new AtomicLong(), capturedAmount = new AtomicLong(), voided = new AtomicLong();
+
+    StubPaymentGateway(long latencyMillis, long jitterMillis, int declinePercent, int failPercent, int lostPercent) {
+        if (latencyMillis < 0 || jitterMillis < 0) throw new IllegalArgumentException("Latency must not be negative");
+        if (declinePercent < 0 || failPercent < 0 || lostPercent < 0 || declinePercent > 100 || failPercent + lostPercent > 100) {
+            throw new IllegalArgumentException("Percents must be 0..100");
+        }
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.declinePercent = declinePercent;
+        this.failPercent = failPercent;
+        this.lostPercent = lostPercent;
+        this.timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "payment-stub");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    // "latency=40,jitter=20,decline=2,fail=1,lost=1"; missing settings are 0
+    static StubPaymentGateway parse(String spec) {
+        long[] v = new long[5];
+        String[] names = {"latency", "jitter", "decline", "fail", "lost"};
+        for (String item : spec.split(",")) {
+            if (item.isBlank()) continue;
+            int eq = item.indexOf('=');
+            int k = -1;
+            for (int i = 0; i < names.length && eq > 0; i++) if (names[i].equals(item.substring(0, eq).trim())) k = i;
+            if (k < 0) throw new IllegalArgumentException("Expected one of latency, jitter, decline, fail, lost =n, got '" + item.trim() + "'");
+            try {
+                v[k] = Long.parseLong(item.substring(eq + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad number in '" + item.trim() + "'");
+            }
+        }
+        return new StubPaymentGateway(v[0], v[1], (int) v[2], (int) v[3], (int) v[4]);
+    }
+
+    @Override
+    public CompletableFuture<Authorization> authorize(String idempotencyKey, Payment card, long amount) {
+        CompletableFuture<Authorization> reply = new CompletableFuture<>();
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        later(() -> {
+            if (roll < failPercent) {
+                reply.completeExceptionally(new Unavailable("Payment processor unavailable"));
+                return;
+            }
+            Authorization a = authorizations.computeIfAbsent(idempotencyKey, k -> decide(k, card, amount));
+            if (a.amount != amount) {
+                reply.completeExceptionally(new IllegalArgumentException("Idempotency key " + idempotencyKey + " was used for another amount"));
+            } else if (roll >= failPercent + lostPercent) {
+                reply.complete(a);
+            }
+            // else: made, but the answer is lost
+        });
+        return reply;
+    }
+
+    private Authorization decide(String key, Payment card, long amount) {
+        boolean declined = card.cardNumber == null || card.cardNumber.endsWith("0002")
+                || ThreadLocalRandom.current().nextInt(100) < declinePercent;
+        if (declined) return new Authorization(null, key, amount, false, "card_declined");
+        authorized.addAndGet(amount);
+        open.add(key);
+        return new Authorization("auth_" + nextId.getAndIncrement(), key, amount, true, null);
+    }
+
+    @Override
+    public CompletableFuture<Void> capture(List<Authorization> batch) {
+        CompletableFuture<Void> reply = new CompletableFuture<>();
+        boolean fail = ThreadLocalRandom.current().nextInt(100) < failPercent;
+        later(() -> {
+            if (fail) {
+                reply.completeExceptionally(new Unavailable("Payment processor unavailable"));
+                return;
+            }
+            long sum = 0;
+            for (Authorization a : batch) {
+                // capturing twice is harmless: only an open authorization is taken
+                if (open.remove(a.idempotencyKey)) sum += a.amount;
+            }
+            capturedAmount.addAndGet(sum);
+            reply.complete(null);
+        });
+        return reply;
+    }
+
+    @Override
+    public CompletableFuture<Void> voidAuthorization(String idempotencyKey) {
+        CompletableFuture<Void> reply = new CompletableFuture<>();
+        later(() -> {
+            if (open.remove(idempotencyKey)) voided.addAndGet(authorizations.get(idempotencyKey).amount);
+            reply.complete(null);
+        });
+        return reply;
+    }
+
+    private void later(Runnable r) {
+        long delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        if (delay == 0) r.run();
+        else timer.schedule(r, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // ------- what the stub saw, in centavos -------
+
+    long authorizedAmount() {
+        return authorized.get();
+    }
+
+    long capturedAmount() {
+        return capturedAmount.get();
+    }
+
+    long voidedAmount() {
+        return voided.get();
+    }
+
+    // approved, neither captured nor voided
+    long outstandingAmount() {
+        long sum = 0;
+        for (String key : open) sum += authorizations.get(key).amount;
+        return sum;
+    }
+}
@@ -0,0 +1,102 @@
+package finalproject;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class AvailabilitySearchTest {
+
+    private static final int TODAY = PackedDate.today();
+    private static final long TODAY_DAYS = PackedDate.toDays(TODAY);
+    private static final String HERE = "Japan";
+    private static final int TYPES = MainCode.ROOM_TYPES.length;
+
+    private final RoomInventory inventory = new RoomInventory(RoomRegistry.shared(), TODAY_DAYS - 1, 400);
+    private final BookingEngine engine = new BookingEngine(inventory, PricingEngine.shared());
+    private final int property = inventory.registry.property(HERE);
+
+    // books most rooms of every type for random stretches, so that free counts change from
+    // night to night and some nights have nothing left of a type
+    private void bookMostRooms(Random rnd, long fromDay, long toDay) {
+        for (int t = 0; t < TYPES; t++) {
+            int first = inventory.firstRoom(property, t), count = inventory.registry.roomCount(property, t);
+            for (int r = first; r < first + count; r++) {
+                for (int k = 0; k < 4; k++) {
+                    long in = fromDay + rnd.nextInt((int) (toDay - fromDay));
+                    long out = Math.min(in + 1 + rnd.nextInt(12), toDay);
+                    inventory.reserveAll(new int[]{r}, 1, in, out);  // false when it overlaps, which is fine
+                }
+            }
+        }
+    }
+
+    // the same question asked of each check-in day alone, counting free rooms one by one
+    private List<long[]> oneDateAtATime(int guests, int numRooms, int nights, long fromDay, long toDay) {
+        RoomMixSolver solver = new RoomMixSolver(engine.pricing(), 16);
+        List<long[]> out = new ArrayList<>();
+        for (long day = fromDay; day <= toDay; day++) {
+            if (numRooms > 0 && !BookingEngine.canFit(guests, numRooms)) break;
+            int[] available = new int[TYPES];
+            for (int t = 0; t < TYPES; t++) {
+                int first = inventory.firstRoom(property, t), count = inventory.registry.roomCount(property, t);
+                for (int r = first; r < first + count; r++) if (inventory.isFree(r, day, day + nights)) available[t]++;
+            }
+            long[] prices = engine.stayPrices(property, day, day + nights, TODAY_DAYS);
+            RoomMixSolver.RoomMix mix = solver.cheapest(guests, numRooms, prices, RoomMixSolver.BED_COST, available);
+            if (mix != null) out.add(new long[]{PackedDate.fromDays(day), mix.cost});
+        }
+        return out;
+    }
+
+    @Test
+    void matchesTestingEachDateAlone() {
+        long fromDay = TODAY_DAYS + 3, toDay = TODAY_DAYS + 90;
+        bookMostRooms(new Random(23), fromDay, toDay + 20);
+        int[][] parties = {{2}, {6}, {4, 3, 9}, {12, 1}, {9, 5, 15, 16}};  // adults, then child ages
+        int[] roomCounts = {0, 1, 2, 4};
+        int[] stays = {1, 3, 7};
+        int found = 0, missing = 0;
+        for (int[] party : parties) {
+            int adults = party[0];
+            int[] ages = new int[party.length - 1];
+            System.arraycopy(party, 1, ages, 0, ages.length);
+            int guests = BookingEngine.totalGuests(adults, ages);
+            for (int numRooms : roomCounts) {
+                for (int nights : stays) {
+                    String what = adults + " adults, " + ages.length + " children, " + numRooms + " rooms, " + nights + " nights";
+                    List<AvailabilitySearch.Option> options = new AvailabilitySearch(engine).search(HERE, adults, ages,
+                            numRooms, nights, PackedDate.fromDays(fromDay), PackedDate.fromDays(toDay), TODAY);
+                    List<long[]> expected = oneDateAtATime(guests, numRooms, nights, fromDay, toDay);
+                    assertEquals(expected.size(), options.size(), what);
+                    for (int i = 0; i < options.size(); i++) {
+                        AvailabilitySearch.Option o = options.get(i);
+                        assertArrayEquals(expected.get(i), new long[]{o.checkIn, o.mix.cost}, what);
+                        assertEquals(PackedDate.plusDays(o.checkIn, nights), o.checkOut, what);
+                    }
+                    found += options.size();
+                    missing += (int) (toDay - fromDay + 1) - options.size();
+                }
+            }
+        }
+        // the bookings were meant to leave some dates open and fill others
+        assertTrue(found > 0 && missing > 0, found + " dates found, " + missing + " not");
+    }
+
+    @Test
+    void daysBeforeTodayOrPastTheHorizonAreSkipped() {
+        List<AvailabilitySearch.Option> options = new AvailabilitySearch(engine).search(HERE, 2, new int[0], 1, 2,
+                PackedDate.fromDays(TODAY_DAYS - 10), PackedDate.fromDays(TODAY_DAYS + 1), TODAY);
+        assertEquals(2, options.size());
+        assertEquals(TODAY, options.get(0).checkIn);
+        long lastIn = inventory.originDay + inventory.horizon - 3;
+        options = new AvailabilitySearch(engine).search(HERE, 2, new int[0], 1, 3,
+                PackedDate.fromDays(lastIn - 1), PackedDate.fromDays(lastIn + 10), TODAY);
+        assertEquals(2, options.size());
+        assertEquals(PackedDate.fromDays(lastIn), options.get(1).checkIn);
+    }
+}
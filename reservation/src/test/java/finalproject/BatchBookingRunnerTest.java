@@ -0,0 +1,84 @@
+package finalproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class BatchBookingRunnerTest {
+
+    private static final int TODAY = PackedDate.today();
+    private static final int RECORDS = 3_000;
+
+    // many records for one month of nights at two hotels, so that rooms run out part way and
+    // the order of the commits decides who gets them; some are held only, some cannot be read
+    private static String input() {
+        Random rnd = new Random(17);
+        String[] destinations = {MainCode.LOCAL_DESTINATIONS[0], MainCode.LOCAL_DESTINATIONS[1]};
+        StringBuilder sb = new StringBuilder("bookerName,bookerEmail,bookerContact,bookerAge,destination,checkIn,checkOut,"
+                + "adults,rooms,paymentMethod,amount\n");
+        for (int i = 0; i < RECORDS; i++) {
+            long in = PackedDate.toDays(TODAY) + 5 + rnd.nextInt(30);
+            int rooms = 1 + rnd.nextInt(3);
+            sb.append("Guest ").append(i).append(",g").append(i).append("@example.com,09170000000,")
+                    .append(i % 97 == 0 ? "thirty" : "30").append(',')
+                    .append(destinations[rnd.nextInt(2)]).append(',').append(PackedDate.toIso(PackedDate.fromDays(in))).append(',')
+                    .append(PackedDate.toIso(PackedDate.fromDays(in + 1 + rnd.nextInt(4)))).append(',')
+                    .append(rooms + rnd.nextInt(rooms + 1)).append(',').append(rooms).append(',');
+            if (i % 5 != 0) sb.append("cash,10000000.00");
+            else sb.append(',');
+            sb.append('\n');
+            if (i % 500 == 0) sb.append('\n');  // blank lines are skipped but still counted
+        }
+        return sb.toString();
+    }
+
+    private static String run(String input, int threads, int chunk) throws IOException {
+        BookingEngine engine = new BookingEngine(new RoomInventory(RoomRegistry.shared(), PackedDate.toDays(TODAY) - 1, 400),
+                PricingEngine.shared());
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            BatchBookingRunner runner = new BatchBookingRunner(engine, pool, chunk, TODAY);
+            StringWriter out = new StringWriter();
+            runner.run(new BufferedReader(new StringReader(input)), BatchBookingRunner.Format.CSV, out);
+            assertEquals(RECORDS, runner.records());
+            return out.toString();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void outcomesAreInInputOrderAndTheSameForAnyThreadCount() throws IOException {
+        String input = input();
+        String oneAtATime = run(input, 1, 1);
+        String[] rows = oneAtATime.split("\n");
+        assertEquals(BatchBookingRunner.OUTCOME_HEADER, rows[0]);
+        assertEquals(RECORDS + 1, rows.length);
+        long previous = 1;  // the header's line
+        int booked = 0, held = 0, denied = 0, invalid = 0;
+        for (int r = 1; r < rows.length; r++) {
+            long line = Long.parseLong(rows[r].substring(0, rows[r].indexOf(',')));
+            assertTrue(line > previous, "row " + r + " is for line " + line + " after " + previous);
+            previous = line;
+            String status = rows[r].split(",")[1];
+            if (status.equals("BOOKED")) booked++;
+            else if (status.equals("HELD")) held++;
+            else if (status.equals("DENIED")) denied++;
+            else invalid++;
+        }
+        // the input was meant to run some hotels out of rooms
+        assertTrue(booked > 0 && held > 0 && denied > 0 && invalid > 0,
+                booked + " booked, " + held + " held, " + denied + " denied, " + invalid + " invalid");
+
+        assertEquals(oneAtATime, run(input, 1, 64));
+        assertEquals(oneAtATime, run(input, 8, 7));
+        assertEquals(oneAtATime, run(input, 8, 256));
+    }
+}
@@ -0,0 +1,95 @@
+package finalproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class BlockBookingTest {
+
+    private static final int TODAY = PackedDate.today();
+    private static final long TODAY_DAYS = PackedDate.toDays(TODAY);
+    private static final String HERE = "Japan";
+    private static final int TYPES = MainCode.ROOM_TYPES.length;
+
+    // one hotel big enough for a block of hundreds of rooms
+    private final RoomRegistry registry = new RoomRegistry(new String[]{HERE}, new boolean[]{true},
+            new int[][]{{120, 100, 80, 60, 40}}, 99);
+    private final RoomInventory inventory = new RoomInventory(registry, TODAY_DAYS - 1, 400);
+    private final BookingEngine engine = new BookingEngine(inventory, PricingEngine.shared());
+    private final int property = registry.property(HERE);
+
+    private static int date(int daysAhead) {
+        return PackedDate.fromDays(TODAY_DAYS + daysAhead);
+    }
+
+    private static BookingRequest block(int[] roomsPerType, int releaseIn) {
+        int rooms = 0;
+        for (int n : roomsPerType) rooms += n;
+        return BookingRequest.block("Tour Desk", "tours@example.com", "09170000000", 40, TODAY, HERE,
+                date(30), date(33), rooms, roomsPerType, date(releaseIn));
+    }
+
+    private int freeRooms(long inDay, long outDay) {
+        int n = 0;
+        for (int t = 0; t < TYPES; t++) n += inventory.countFree(property, t, inDay, outDay);
+        return n;
+    }
+
+    @Test
+    void aBlockIsHeldWhollyOrNotAtAll() {
+        long in = TODAY_DAYS + 30, out = TODAY_DAYS + 33;
+        int[] everyRoom = new int[TYPES];
+        for (int t = 0; t < TYPES; t++) everyRoom[t] = registry.roomCount(property, t);
+        int total = freeRooms(in, out);
+
+        // one suite is taken for one of the nights: the block for every room cannot be had
+        int suite = inventory.firstRoom(property, TYPES - 1);
+        assertTrue(inventory.reserveAll(new int[]{suite}, 1, in + 1, in + 2));
+        BookingQuote refused = engine.hold(block(everyRoom, 20));
+        assertFalse(refused.ok());
+        assertEquals(total - 1, freeRooms(in, out));  // none of the other rooms was kept
+
+        // without that suite it fits, and every room goes at once
+        int[] allButOne = everyRoom.clone();
+        allButOne[TYPES - 1]--;
+        BookingQuote held = engine.hold(block(allButOne, 20));
+        assertTrue(held.ok(), held.denialMessage);
+        assertEquals(total - 1, held.roomIds.length);
+        assertEquals(0, freeRooms(in, out));
+    }
+
+    @Test
+    void anUnlistedBlockGoesBackAfterItsReleaseDate() {
+        long in = TODAY_DAYS + 30, out = TODAY_DAYS + 33;
+        int total = freeRooms(in, out);
+        BookingQuote lapsing = engine.hold(block(new int[]{50, 50, 50, 0, 0}, 10));
+        BookingQuote listed = engine.hold(block(new int[]{20, 0, 0, 30, 10}, 10));
+        assertTrue(lapsing.ok() && listed.ok());
+        assertEquals(total - 210, freeRooms(in, out));
+
+        // the rooming list keeps part of the second block; the rest goes back at once
+        int[] keep = {20, 0, 0, 10, 0};
+        BookingConfirmation c = engine.confirmBlock(listed.holdId, keep, Payment.card("4111111111111111", "123"));
+        assertTrue(c.ok(), c.denialMessage);
+        assertEquals(30, c.quote.roomIds.length);
+        assertEquals(total - 180, freeRooms(in, out));
+
+        // kept on its release date, given back the day after
+        assertEquals(0, engine.releaseBlocks(date(10)));
+        assertNotNull(engine.heldQuote(lapsing.holdId));
+        assertEquals(1, engine.releaseBlocks(date(11)));
+        assertNull(engine.heldQuote(lapsing.holdId));
+        assertEquals(1, engine.releasedBlocks());
+        assertEquals(total - 30, freeRooms(in, out));
+        for (int room : c.quote.roomIds) assertFalse(inventory.isFree(room, in, out));
+        assertNotNull(engine.booking(c.bookingId));
+
+        // nothing is released twice
+        assertEquals(0, engine.releaseBlocks(date(12)));
+        assertEquals(total - 30, freeRooms(in, out));
+    }
+}
@@ -0,0 +1,93 @@
+package finalproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import finalproject.MainCode.RoomType;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class GuestAllocatorTest {
+
+    private static final RoomType[] TYPES = MainCode.ROOM_TYPES;
+
+    @Test
+    void everyGuestIsPlacedWithinTheBeds() {
+        Random rnd = new Random(11);
+        GuestAllocator allocator = new GuestAllocator(1);  // grows as the parties do
+        for (int run = 0; run < 5_000; run++) {
+            int roomCount = 1 + rnd.nextInt(run % 10 == 0 ? 300 : 6);
+            RoomType[] rooms = new RoomType[roomCount];
+            int extraBeds = rnd.nextInt(roomCount + 1);
+            for (int r = 0; r < roomCount; r++) rooms[r] = TYPES[rnd.nextInt(TYPES.length)];
+            int adults = rnd.nextInt(roomCount * 3 + 1);
+            int[] childAges = new int[rnd.nextInt(roomCount * 2 + 1)];
+            int grown = adults, kids = 0, babies = 0;
+            for (int i = 0; i < childAges.length; i++) {
+                childAges[i] = rnd.nextInt(18);
+                if (childAges[i] >= 12) grown++;
+                else if (childAges[i] >= GuestAllocator.INFANT_AGE) kids++;
+                else babies++;
+            }
+            int beds = 0, left = extraBeds;
+            for (RoomType rt : rooms) {
+                int extra = Math.min(left, rt.extraBedsAllowed);
+                left -= extra;
+                beds += rt.capacity + extra;
+            }
+
+            String what = "run " + run;
+            boolean placed = allocator.allocate(rooms, roomCount, extraBeds, adults, childAges);
+            assertEquals(grown + kids <= beds, placed, what);
+            if (!placed) {
+                assertEquals(0, allocator.rooms(), what);
+                continue;
+            }
+            assertEquals(roomCount, allocator.rooms(), what);
+            int a = 0, c = 0, inf = 0;
+            for (int r = 0; r < roomCount; r++) {
+                assertTrue(allocator.adults(r) + allocator.children(r) <= allocator.beds(r), what);
+                // a room gets an adult while there are adults to go round
+                if (r < grown) assertTrue(allocator.adults(r) > 0, what);
+                // infants stay with an adult when the party has one
+                if (grown > 0 && allocator.infants(r) > 0) assertTrue(allocator.adults(r) > 0, what);
+                a += allocator.adults(r);
+                c += allocator.children(r);
+                inf += allocator.infants(r);
+            }
+            assertEquals(grown, a, what);
+            assertEquals(kids, c, what);
+            assertEquals(babies, inf, what);
+        }
+    }
+
+    @Test
+    void childrenGoToRoomsWithAnAdultFirst() {
+        GuestAllocator allocator = new GuestAllocator(3);
+        RoomType big = TYPES[TYPES.length - 1];
+        RoomType[] rooms = {big, big, big};
+        // two adults for three rooms: the children fill the adults' rooms before the empty one
+        int kids = 2 * (big.capacity - 1);
+        int[] ages = new int[kids];
+        Arrays.fill(ages, 6);
+        assertTrue(allocator.allocate(rooms, 3, 0, 2, ages));
+        assertEquals(big.capacity - 1, allocator.children(0));
+        assertEquals(big.capacity - 1, allocator.children(1));
+        assertEquals(0, allocator.children(2));
+        assertEquals(0, allocator.adults(2));
+    }
+
+    @Test
+    void infantsNeedNoBed() {
+        GuestAllocator allocator = new GuestAllocator(1);
+        RoomType small = TYPES[0];
+        int[] ages = new int[small.capacity + 2];  // all under INFANT_AGE
+        assertTrue(allocator.allocate(new RoomType[]{small}, 1, 0, small.capacity, ages));
+        assertEquals(small.capacity, allocator.adults(0));
+        assertEquals(ages.length, allocator.infants(0));
+        assertEquals("Adults: " + small.capacity + ", Children (need bed): 0, Infants: " + ages.length, allocator.label(0));
+        assertFalse(allocator.allocate(new RoomType[]{small}, 1, 0, small.capacity + small.extraBedsAllowed + 1, new int[0]));
+    }
+}
@@ -0,0 +1,121 @@
+package finalproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class HoldTimerWheelTest {
+
+    private static final long MS = 1_000_000L;
+    private static final int TODAY = PackedDate.today();
+
+    // one room for two guests, two nights, daysAhead from today
+    private static BookingRequest request(int daysAhead) {
+        long in = PackedDate.toDays(TODAY) + daysAhead;
+        return new BookingRequest("Guest", "guest@example.com", "09170000000", 30, TODAY, "Japan",
+                PackedDate.fromDays(in), PackedDate.fromDays(in + 2), 2, null, 1, null, null, 0, null);
+    }
+
+    @Test
+    void everyIdExpiresOnceAndOnTime() {
+        long ttl = 256 * MS;  // 1 ms ticks
+        int ids = 20_000;
+        long[] expiredAt = new long[ids];
+        int[] times = new int[ids];
+        long[] now = new long[1];
+        HoldTimerWheel wheel = new HoldTimerWheel(ttl, id -> {
+            times[(int) id]++;
+            expiredAt[(int) id] = now[0];
+        }, false);
+        long base = System.nanoTime();
+
+        // ids come in over three ttls, interleaved with advances of up to 5 ms, so some are
+        // filed while the wheel is a lap or more behind them
+        Random rnd = new Random(7);
+        long[] scheduledAt = new long[ids];
+        now[0] = base;
+        int next = 0;
+        while (now[0] - base < 6 * ttl) {
+            if (now[0] - base < 3 * ttl) {
+                for (int k = rnd.nextInt(40); k > 0 && next < ids; k--, next++) {
+                    scheduledAt[next] = now[0];
+                    wheel.schedule(next, now[0]);
+                }
+            }
+            now[0] += rnd.nextInt(5 * (int) MS);
+            wheel.advance(now[0]);
+        }
+
+        assertEquals(0, wheel.waiting());
+        for (int id = 0; id < next; id++) {
+            assertEquals(1, times[id], "id " + id);
+            long late = expiredAt[id] - (scheduledAt[id] + ttl);
+            assertTrue(late >= 0, "id " + id + " expired " + -late + " ns early");
+            assertTrue(late < 6 * MS, "id " + id + " expired " + late + " ns late");
+        }
+        // nothing more comes out however far the clock goes
+        assertEquals(0, wheel.advance(now[0] + 10 * ttl));
+        for (int id = 0; id < next; id++) assertEquals(1, times[id]);
+    }
+
+    @Test
+    void freedEntriesAreReused() {
+        long ttl = 64 * MS;
+        int[] times = new int[1000];
+        HoldTimerWheel wheel = new HoldTimerWheel(ttl, id -> times[(int) id]++, false);
+        long now = System.nanoTime();
+        for (int round = 0; round < 10; round++) {
+            for (int id = round * 100; id < round * 100 + 100; id++) wheel.schedule(id, now);
+            assertEquals(100, wheel.waiting());
+            now += ttl + 2 * MS;
+            assertEquals(100, wheel.advance(now));
+        }
+        int[] once = new int[1000];
+        Arrays.fill(once, 1);
+        assertTrue(Arrays.equals(once, times));
+    }
+
+    @Test
+    void aFailingCallbackDoesNotStopTheOthers() {
+        long ttl = 16 * MS;
+        int[] times = new int[3];
+        HoldTimerWheel wheel = new HoldTimerWheel(ttl, id -> {
+            times[(int) id]++;
+            if (id == 1) throw new IllegalStateException("boom");
+        }, false);
+        long now = System.nanoTime();
+        for (int id = 0; id < 3; id++) wheel.schedule(id, now);
+        assertEquals(3, wheel.advance(now + ttl + 2 * MS));
+        assertTrue(Arrays.equals(new int[]{1, 1, 1}, times));
+    }
+
+    @Test
+    void engineGivesBackUnconfirmedHoldsOnly() throws InterruptedException {
+        RoomInventory inventory = new RoomInventory(RoomRegistry.shared(), PackedDate.toDays(TODAY) - 1, 400);
+        BookingEngine engine = new BookingEngine(inventory, PricingEngine.shared(), 100, 1_000_000_000L, null, 200 * MS);
+        BookingQuote lapsed = engine.hold(request(10));
+        BookingQuote paid = engine.hold(request(10));
+        assertTrue(lapsed.ok() && paid.ok());
+        BookingConfirmation c = engine.confirm(paid.holdId, Payment.cash(paid.grandTotal));
+        assertTrue(c.ok());
+
+        long deadline = System.nanoTime() + 5_000 * MS;
+        // the hold leaves the engine before its rooms are freed, so wait for the count, which
+        // is only taken once both are done
+        while (engine.expiredHolds() < 1 && System.nanoTime() < deadline) Thread.sleep(5);
+        assertEquals(1, engine.expiredHolds());
+        assertNull(engine.heldQuote(lapsed.holdId));
+        for (int room : lapsed.roomIds) assertTrue(inventory.isFree(room, lapsed.inDay, lapsed.outDay));
+        // the confirmed one reached the wheel too and was left alone
+        Thread.sleep(300);
+        assertEquals(1, engine.expiredHolds());
+        for (int room : paid.roomIds) assertFalse(inventory.isFree(room, paid.inDay, paid.outDay));
+        assertNotNull(engine.booking(c.bookingId));
+    }
+}
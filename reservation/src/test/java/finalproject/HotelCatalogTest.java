@@ -0,0 +1,135 @@
+package finalproject;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import finalproject.MainCode.RoomType;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HotelCatalogTest {
+
+    @TempDir
+    Path dir;
+
+    private static void assertSameTables(HotelCatalog expected, HotelCatalog actual) {
+        assertEquals(expected.roomTypes.length, actual.roomTypes.length);
+        for (int t = 0; t < expected.roomTypes.length; t++) {
+            RoomType e = expected.roomTypes[t], a = actual.roomTypes[t];
+            assertEquals(e.name, a.name);
+            assertEquals(e.capacity, a.capacity, e.name);
+            assertEquals(e.extraBedsAllowed, a.extraBedsAllowed, e.name);
+            assertArrayEquals(e.localPrices, a.localPrices, e.name);
+            assertArrayEquals(e.intlPrices, a.intlPrices, e.name);
+            assertEquals(e.description, a.description, e.name);
+            assertArrayEquals(e.includedAmenities, a.includedAmenities, e.name);
+        }
+        assertEquals(expected.extraBedPrice, actual.extraBedPrice);
+        assertArrayEquals(expected.amenityNames, actual.amenityNames);
+        assertArrayEquals(expected.amenityPrices, actual.amenityPrices);
+        assertArrayEquals(expected.destinations, actual.destinations);
+        assertArrayEquals(expected.international, actual.international);
+        assertEquals(expected.roomsPerType.length, actual.roomsPerType.length);
+        for (int p = 0; p < expected.roomsPerType.length; p++) {
+            assertArrayEquals(expected.roomsPerType[p], actual.roomsPerType[p], expected.destinations[p]);
+        }
+        assertArrayEquals(expected.defaultRooms, actual.defaultRooms);
+        assertEquals(expected.roomsPerFloor, actual.roomsPerFloor);
+        for (int rooms = 0; rooms <= 200; rooms++) assertEquals(expected.groupPercent(rooms), actual.groupPercent(rooms));
+        for (int m = 1; m <= 12; m++) {
+            for (int d = 1; d <= PackedDate.daysInMonth(2024, m); d++) {
+                assertEquals(expected.season(m, d), actual.season(m, d), m + "-" + d);
+            }
+        }
+        SeasonCalendar ec = expected.calendar(SeasonCalendar.DEFAULT_FIRST_YEAR, SeasonCalendar.DEFAULT_LAST_YEAR);
+        SeasonCalendar ac = actual.calendar(SeasonCalendar.DEFAULT_FIRST_YEAR, SeasonCalendar.DEFAULT_LAST_YEAR);
+        assertEquals(ec.length, ac.length);
+        for (long d = ec.firstDay; d < ec.firstDay + ec.length; d++) assertEquals(ec.seasonOn(d), ac.seasonOn(d));
+        RoomRegistry er = expected.registry(), ar = actual.registry();
+        assertEquals(er.roomCount(), ar.roomCount());
+    }
+
+    @Test
+    void snapshotReadsBackAsTheParsedText() throws IOException {
+        String text = HotelCatalog.builtInText();
+        Path source = Files.writeString(dir.resolve("catalog.txt"), text);
+        Path snapshot = dir.resolve("catalog.txt.snapshot");
+
+        HotelCatalog parsed = HotelCatalog.parse(text, "test");
+        HotelCatalog compiled = HotelCatalog.load(source, snapshot);
+        assertTrue(Files.isRegularFile(snapshot));
+        assertSameTables(parsed, compiled);
+        FileTime written = Files.getLastModifiedTime(snapshot);
+
+        HotelCatalog mapped = HotelCatalog.load(source, snapshot);
+        assertSameTables(parsed, mapped);
+        assertEquals(written, Files.getLastModifiedTime(snapshot));  // read, not written again
+    }
+
+    @Test
+    void theSnapshotIsWhatIsReadWhileTheTextIsUnchanged() throws IOException {
+        String text = HotelCatalog.builtInText();
+        Path source = Files.writeString(dir.resolve("catalog.txt"), text);
+        Path snapshot = dir.resolve("catalog.txt.snapshot");
+        HotelCatalog compiled = HotelCatalog.load(source, snapshot);
+
+        // roomsPerFloor sits just before the built-in group tiers; change it in the snapshot only
+        byte[] bytes = Files.readAllBytes(snapshot);
+        int at = find(bytes, compiled.roomsPerFloor, 3, 10, 5, 50, 10, 100, 15);
+        ByteBuffer.wrap(bytes).putInt(at, compiled.roomsPerFloor - 1);
+        Files.write(snapshot, bytes);
+        assertEquals(compiled.roomsPerFloor - 1, HotelCatalog.load(source, snapshot).roomsPerFloor);
+    }
+
+    @Test
+    void aChangedTextIsCompiledAgain() throws IOException {
+        String text = HotelCatalog.builtInText();
+        assertTrue(text.contains("\nextraBed 650\n"));
+        Path source = Files.writeString(dir.resolve("catalog.txt"), text);
+        Path snapshot = dir.resolve("catalog.txt.snapshot");
+        HotelCatalog before = HotelCatalog.load(source, snapshot);
+        byte[] oldSnapshot = Files.readAllBytes(snapshot);
+
+        // same length, so only the CRC tells them apart
+        String changed = text.replace("\nextraBed 650\n", "\nextraBed 750\n");
+        assertEquals(text.length(), changed.length());
+        Files.writeString(source, changed);
+        HotelCatalog after = HotelCatalog.load(source, snapshot);
+        assertNotEquals(before.extraBedPrice, after.extraBedPrice);
+        assertSameTables(HotelCatalog.parse(changed, "test"), after);
+        assertFalse(Arrays.equals(oldSnapshot, Files.readAllBytes(snapshot)));
+        assertSameTables(after, HotelCatalog.load(source, snapshot));
+    }
+
+    @Test
+    void anUnreadableSnapshotIsReplaced() throws IOException {
+        String text = HotelCatalog.builtInText();
+        Path source = Files.writeString(dir.resolve("catalog.txt"), text);
+        Path snapshot = dir.resolve("catalog.txt.snapshot");
+        HotelCatalog compiled = HotelCatalog.load(source, snapshot);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 100));  // header intact, tables cut short
+        assertSameTables(compiled, HotelCatalog.load(source, snapshot));
+        assertArrayEquals(bytes, Files.readAllBytes(snapshot));  // and written whole again
+    }
+
+    // offset of the first run of these big-endian ints
+    private static int find(byte[] bytes, int... ints) {
+        ByteBuffer b = ByteBuffer.wrap(bytes);
+        outer:
+        for (int at = 0; at + ints.length * 4 <= bytes.length; at++) {
+            for (int i = 0; i < ints.length; i++) if (b.getInt(at + i * 4) != ints[i]) continue outer;
+            return at;
+        }
+        throw new AssertionError("not in the snapshot");
+    }
+}
@@ -0,0 +1,94 @@
+package finalproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+    @Test
+    void parseReadsPesosAndCentavosExactly() {
+        assertEquals(123400, Money.parse("1234"));
+        assertEquals(123450, Money.parse("1234.5"));
+        assertEquals(123405, Money.parse("1234.05"));
+        assertEquals(-25, Money.parse("-0.25"));
+        assertEquals(705, Money.parse("+7.05"));
+        assertEquals(50, Money.parse(".5"));
+        assertEquals(100, Money.parse("1."));
+        assertEquals(1230, Money.parse("  12.30 "));
+    }
+
+    @Test
+    void parseRefusesWhatIsNotAnAmount() {
+        for (String s : new String[]{"", " ", "-", "+", ".", "1.234", "1,00", "1.2.3", "12a", "--1", "1e3"}) {
+            assertThrows(NumberFormatException.class, () -> Money.parse(s), s);
+        }
+    }
+
+    @Test
+    void parseReachesTheLongRangeAndNoFurther() {
+        assertEquals(Long.MAX_VALUE, Money.parse("92233720368547758.07"));
+        assertEquals(-Long.MAX_VALUE, Money.parse("-92233720368547758.07"));
+        // too large is a bad amount, not an ArithmeticException (a batch record is INVALID)
+        assertThrows(NumberFormatException.class, () -> Money.parse("92233720368547758.08"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("92233720368547759"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("99999999999999999999"));
+    }
+
+    @Test
+    void divideRoundsHalfAwayFromZero() {
+        assertEquals(3, Money.divide(5, 2));
+        assertEquals(-3, Money.divide(-5, 2));
+        assertEquals(1, Money.divide(4, 3));
+        assertEquals(2, Money.divide(5, 3));
+        assertEquals(-1, Money.divide(-4, 3));
+        assertEquals(-2, Money.divide(-5, 3));
+        assertEquals(0, Money.divide(0, 7));
+        assertEquals(33333, Money.divide(100000, 3));
+    }
+
+    @Test
+    void divideAtTheEdgesOfLong() {
+        assertEquals(Long.MAX_VALUE, Money.divide(Long.MAX_VALUE, 1));
+        assertEquals(Long.MIN_VALUE / 2, Money.divide(Long.MIN_VALUE, 2));
+        // the remainder is over half of a huge divisor: rounds up, without overflowing
+        assertEquals(1, Money.divide(Long.MAX_VALUE - 1, Long.MAX_VALUE));
+        assertEquals(-1, Money.divide(-(Long.MAX_VALUE - 1), Long.MAX_VALUE));
+        assertEquals(0, Money.divide(Long.MAX_VALUE / 2 - 1, Long.MAX_VALUE));
+    }
+
+    @Test
+    void divideRefusesNoParts() {
+        assertThrows(IllegalArgumentException.class, () -> Money.divide(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> Money.divide(100, -2));
+    }
+
+    @Test
+    void percentOfRoundsToTheCentavo() {
+        assertEquals(200, Money.percentOf(1000, 20));
+        assertEquals(3, Money.percentOf(5, 50));
+        assertEquals(-3, Money.percentOf(-5, 50));
+        assertEquals(1, Money.percentOf(1, 50));
+        assertEquals(0, Money.percentOf(1, 49));
+        assertEquals(0, Money.percentOf(123456, 0));
+        assertEquals(123456, Money.percentOf(123456, 100));
+        // 20% PWD discount on PHP 333.33
+        assertEquals(6667, Money.percentOf(33333, 20));
+    }
+
+    @Test
+    void percentOfThrowsInsteadOfWrapping() {
+        assertThrows(ArithmeticException.class, () -> Money.percentOf(Long.MAX_VALUE, 2));
+        assertEquals(Long.MAX_VALUE / 100, Money.percentOf(Long.MAX_VALUE / 100, 100));
+    }
+
+    @Test
+    void toStringShowsTwoDecimals() {
+        assertEquals("1234.50", Money.toString(123450));
+        assertEquals("0.05", Money.toString(5));
+        assertEquals("-0.25", Money.toString(-25));
+        assertEquals("92233720368547758.07", Money.toString(Long.MAX_VALUE));
+        assertEquals("-92233720368547758.08", Money.toString(Long.MIN_VALUE));
+    }
+}
@@ -0,0 +1,89 @@
+package finalproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import org.junit.jupiter.api.Test;
+
+class PackedDateTest {
+
+    private static int packed(LocalDate d) {
+        return PackedDate.pack(d.getYear(), d.getMonthValue(), d.getDayOfMonth());
+    }
+
+    @Test
+    void everyDayFromYear1To9999MatchesLocalDate() {
+        LocalDate last = LocalDate.of(9999, 12, 31);
+        long expectedDays = 0;
+        int date = PackedDate.pack(1, 1, 1);
+        for (LocalDate d = LocalDate.of(1, 1, 1); ; d = d.plusDays(1), expectedDays++) {
+            int p = packed(d);
+            assertEquals(p, date, d.toString());
+            assertEquals(expectedDays, PackedDate.toDays(p), d.toString());
+            assertEquals(d.toEpochDay() + PackedDate.UNIX_EPOCH_DAY, expectedDays, d.toString());
+            assertEquals(p, PackedDate.fromDays(expectedDays), d.toString());
+            assertTrue(PackedDate.isValid(p), d.toString());
+            if (d.equals(last)) break;
+            date = PackedDate.next(date);
+        }
+        assertEquals(3_652_058, expectedDays);  // 0001-01-01 .. 9999-12-31 is 3,652,059 days
+    }
+
+    @Test
+    void leapYearsAndMonthLengths() {
+        for (int y = 1; y <= 9999; y++) {
+            assertEquals(Year.isLeap(y), PackedDate.isLeapYear(y), "year " + y);
+            for (int m = 1; m <= 12; m++) {
+                assertEquals(Month.of(m).length(Year.isLeap(y)), PackedDate.daysInMonth(y, m), y + "-" + m);
+            }
+        }
+        assertTrue(PackedDate.isValid(20000229));
+        assertTrue(PackedDate.isValid(20240229));
+        assertFalse(PackedDate.isValid(19000229));
+        assertFalse(PackedDate.isValid(21000229));
+        assertFalse(PackedDate.isValid(20230229));
+        assertFalse(PackedDate.isValid(PackedDate.pack(0, 12, 31)));
+        assertFalse(PackedDate.isValid(PackedDate.pack(10000, 1, 1)));
+        assertFalse(PackedDate.isValid(20240431));
+        assertFalse(PackedDate.isValid(20241301));
+        assertFalse(PackedDate.isValid(20240100));
+    }
+
+    @Test
+    void daysAddAcrossLeapDaysAndCenturies() {
+        int[][] cases = {
+                {20240228, 1, 20240229}, {20240229, 1, 20240301}, {20230228, 1, 20230301},
+                {19000228, 1, 19000301}, {20000228, 1, 20000229}, {19991231, 1, 20000101},
+                {20240101, 366, 20250101}, {20230101, 365, 20240101}, {20240301, -1, 20240229},
+                {PackedDate.pack(1, 1, 1), 146_097, PackedDate.pack(401, 1, 1)},
+                {PackedDate.pack(9999, 12, 31), -3_652_058, PackedDate.pack(1, 1, 1)},
+        };
+        for (int[] c : cases) {
+            LocalDate from = LocalDate.of(PackedDate.year(c[0]), PackedDate.month(c[0]), PackedDate.day(c[0]));
+            assertEquals(packed(from.plusDays(c[1])), c[2], "case " + c[0] + " + " + c[1]);
+            assertEquals(c[2], PackedDate.plusDays(c[0], c[1]), c[0] + " + " + c[1]);
+            assertEquals(c[0], PackedDate.minusDays(c[2], c[1]), c[2] + " - " + c[1]);
+            assertEquals(c[1], PackedDate.nightsBetween(c[0], c[2]));
+        }
+    }
+
+    @Test
+    void isoRoundTrips() {
+        int[] dates = {PackedDate.pack(1, 1, 1), PackedDate.pack(99, 7, 4), PackedDate.pack(999, 10, 10),
+                20240229, PackedDate.pack(9999, 12, 31)};
+        for (int date : dates) {
+            String iso = PackedDate.toIso(date);
+            LocalDate d = LocalDate.of(PackedDate.year(date), PackedDate.month(date), PackedDate.day(date));
+            assertEquals(d.toString(), iso);
+            assertEquals(date, PackedDate.parseIso(iso));
+        }
+        assertEquals(0, PackedDate.parseIso("2024-2-29"));
+        assertEquals(0, PackedDate.parseIso("2024/02/29"));
+        assertEquals(0, PackedDate.parseIso("2024-02-2x"));
+        assertEquals(0, PackedDate.parseIso(null));
+    }
+}
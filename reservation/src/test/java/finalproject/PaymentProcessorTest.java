@@ -0,0 +1,185 @@
+package finalproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class PaymentProcessorTest {
+
+    private static final int TODAY = PackedDate.today();
+    private static final long TIMEOUT_NANOS = 1_000_000_000L;
+
+    private static BookingEngine engine() {
+        RoomInventory inventory = new RoomInventory(RoomRegistry.shared(), PackedDate.toDays(TODAY) - 1, 400);
+        return new BookingEngine(inventory, PricingEngine.shared());
+    }
+
+    // one room for two guests, two nights, daysAhead from today
+    private static BookingRequest request(int daysAhead) {
+        long in = PackedDate.toDays(TODAY) + daysAhead;
+        return new BookingRequest("Guest", "guest@example.com", "09170000000", 30, TODAY, "Japan",
+                PackedDate.fromDays(in), PackedDate.fromDays(in + 2), 2, null, 1, null, null, 0, null);
+    }
+
+    private static BookingQuote hold(BookingEngine engine, int daysAhead) {
+        BookingQuote q = engine.hold(request(daysAhead));
+        assertTrue(q.ok(), q.denialMessage);
+        return q;
+    }
+
+    private static PaymentProcessor processor(BookingEngine engine, PaymentGateway gateway) {
+        return new PaymentProcessor(engine, null, gateway, TIMEOUT_NANOS, 3, 100, 20);
+    }
+
+    private static Payment card(String number) {
+        return Payment.card(number, "123");
+    }
+
+    @Test
+    void approvedCardBooksOnceAndIsCaptured() throws Exception {
+        BookingEngine engine = engine();
+        StubPaymentGateway gateway = new StubPaymentGateway(5, 0, 0, 0, 0);
+        BookingQuote q = hold(engine, 10);
+        CompletableFuture<BookingConfirmation> first;
+        try (PaymentProcessor payments = processor(engine, gateway)) {
+            first = payments.pay(q.holdId, card("4111111111111111"), "key-1");
+            // asked again while it is being paid: the same answer, not a second charge
+            assertSame(first, payments.pay(q.holdId, card("4111111111111111"), "key-1"));
+            BookingConfirmation c = first.get(5, TimeUnit.SECONDS);
+            assertTrue(c.ok(), c.denialMessage);
+            assertNotNull(engine.booking(c.bookingId));
+            assertSame(c, payments.pay(q.holdId, card("4111111111111111"), "key-1").get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(q.grandTotal, gateway.authorizedAmount());
+        assertEquals(q.grandTotal, gateway.capturedAmount());
+        assertEquals(0, gateway.outstandingAmount());
+    }
+
+    @Test
+    void declinedCardGivesTheRoomsBack() throws Exception {
+        BookingEngine engine = engine();
+        StubPaymentGateway gateway = new StubPaymentGateway(0, 0, 0, 0, 0);
+        BookingQuote q = hold(engine, 10);
+        try (PaymentProcessor payments = processor(engine, gateway)) {
+            BookingConfirmation c = payments.pay(q.holdId, card("4111111111110002"), null).get(5, TimeUnit.SECONDS);
+            assertEquals(DenialReason.PAYMENT_DECLINED, c.denial);
+        }
+        assertNull(engine.heldQuote(q.holdId));
+        for (int room : q.roomIds) assertTrue(engine.inventory().isFree(room, q.inDay, q.outDay));
+        assertEquals(0, gateway.authorizedAmount());
+    }
+
+    @Test
+    void unavailableGatewayIsAskedAgainWithTheSameKey() throws Exception {
+        BookingEngine engine = engine();
+        List<String> keys = new CopyOnWriteArrayList<>();
+        AtomicInteger calls = new AtomicInteger();
+        StubPaymentGateway approver = new StubPaymentGateway(0, 0, 0, 0, 0);
+        PaymentGateway flaky = new PaymentGateway() {
+            @Override
+            public CompletableFuture<Authorization> authorize(String key, Payment card, long amount) {
+                keys.add(key);
+                if (calls.incrementAndGet() == 1) return CompletableFuture.failedFuture(new Unavailable("down"));
+                return approver.authorize(key, card, amount);
+            }
+
+            @Override
+            public CompletableFuture<Void> capture(List<Authorization> authorizations) {
+                return approver.capture(authorizations);
+            }
+
+            @Override
+            public CompletableFuture<Void> voidAuthorization(String key) {
+                return approver.voidAuthorization(key);
+            }
+        };
+        BookingQuote q = hold(engine, 10);
+        try (PaymentProcessor payments = processor(engine, flaky)) {
+            BookingConfirmation c = payments.pay(q.holdId, card("4111111111111111"), "retry-key").get(5, TimeUnit.SECONDS);
+            assertTrue(c.ok(), c.denialMessage);
+        }
+        assertEquals(List.of("retry-key", "retry-key"), keys);
+        assertEquals(q.grandTotal, approver.capturedAmount());
+    }
+
+    @Test
+    void keyReusedForAnotherHoldGets409() throws Exception {
+        BookingEngine engine = engine();
+        StubPaymentGateway gateway = new StubPaymentGateway(0, 0, 0, 0, 0);
+        BookingQuote first = hold(engine, 10), second = hold(engine, 20);
+        try (PaymentProcessor payments = processor(engine, gateway)) {
+            BookingHttpServer server = new BookingHttpServer(engine, null, payments, new InetSocketAddress("127.0.0.1", 0), 16);
+            server.start();
+            try {
+                HttpClient client = HttpClient.newHttpClient();
+                assertEquals(200, confirm(client, server.port(), first.holdId, "shared-key").statusCode());
+                HttpResponse<String> reused = confirm(client, server.port(), second.holdId, "shared-key");
+                assertEquals(409, reused.statusCode(), reused.body());
+                assertTrue(reused.body().contains("shared-key"), reused.body());
+            } finally {
+                server.stop(0);
+            }
+        }
+        // the second hold was not paid for and keeps its rooms
+        assertNotNull(engine.heldQuote(second.holdId));
+        for (int room : second.roomIds) assertFalse(engine.inventory().isFree(room, second.inDay, second.outDay));
+        assertEquals(first.grandTotal, gateway.authorizedAmount());
+    }
+
+    @Test
+    void approvalAfterCloseStillAnswers() throws Exception {
+        BookingEngine engine = engine();
+        StubPaymentGateway voider = new StubPaymentGateway(0, 0, 0, 0, 0);
+        CompletableFuture<PaymentGateway.Authorization> answer = new CompletableFuture<>();
+        PaymentGateway slow = new PaymentGateway() {
+            @Override
+            public CompletableFuture<Authorization> authorize(String key, Payment card, long amount) {
+                return answer;
+            }
+
+            @Override
+            public CompletableFuture<Void> capture(List<Authorization> authorizations) {
+                return voider.capture(authorizations);
+            }
+
+            @Override
+            public CompletableFuture<Void> voidAuthorization(String key) {
+                return voider.voidAuthorization(key);
+            }
+        };
+        BookingQuote q = hold(engine, 10);
+        PaymentProcessor payments = processor(engine, slow);
+        CompletableFuture<BookingConfirmation> paid = payments.pay(q.holdId, card("4111111111111111"), "late-key");
+        payments.close();
+        // the gateway approves once the workers are gone: there is nothing to confirm on
+        answer.complete(new PaymentGateway.Authorization("auth-1", "late-key", q.grandTotal, true, null));
+        BookingConfirmation c = paid.get(5, TimeUnit.SECONDS);
+        assertEquals(DenialReason.PAYMENT_FAILED, c.denial);
+        assertNotNull(engine.heldQuote(q.holdId));  // left for the expiry wheel
+    }
+
+    private static HttpResponse<String> confirm(HttpClient client, int port, long holdId, String key) throws Exception {
+        String body = "{\"holdId\": " + holdId + ", \"payment\": {\"method\": \"card\", \"cardNumber\": \"4111111111111111\","
+                + " \"cvv\": \"123\"}}";
+        HttpRequest req = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/confirm"))
+                .header("Idempotency-Key", key)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(req, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,103 @@
+package finalproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import finalproject.MainCode.Season;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PricingRulesTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void tableSumsEveryMatchingRule() {
+        PricingRules rules = PricingRules.parse(String.join("\n",
+                "occupancy>=90 => +15%",
+                "season=LEAN occupancy<30 lead<=7 => -20%",
+                "nights>=7 => -5%",
+                "intl season=PEAK => +5%",
+                "occupancy>100 => +50%"), "test");
+        int lean = Season.LEAN.ordinal(), peak = Season.PEAK.ordinal();
+        assertEquals(0, rules.percent(lean, 50, 30, 2, false));
+        assertEquals(15, rules.percent(lean, 90, 30, 2, false));
+        assertEquals(-20, rules.percent(lean, 29, 7, 2, false));
+        assertEquals(0, rules.percent(lean, 29, 8, 2, false));
+        assertEquals(-25, rules.percent(lean, 0, 0, 7, true));
+        assertEquals(20, rules.percent(peak, 95, 100, 1, true));
+        assertEquals(15, rules.percent(peak, 95, 100, 1, false));
+        // inputs past the tracked ranges count as their ends
+        assertEquals(15, rules.percent(peak, 150, 5000, 1000, true));
+        assertTrue(rules.usesOccupancy());
+    }
+
+    @Test
+    void discountsStopAtTheFloor() {
+        PricingRules rules = PricingRules.parse("lead<=3 => -60%\nnights>=2 => -60%", "test");
+        assertEquals(-PricingRules.MAX_DISCOUNT, rules.percent(0, 0, 0, 2, false));
+        assertEquals(-60, rules.percent(0, 0, 10, 2, false));
+    }
+
+    @Test
+    void watchSkipsTheLoadedVersionAndPicksUpEdits() throws Exception {
+        Path file = dir.resolve("rules.txt");
+        Files.writeString(file, "nights>=7 => -5%\n");
+        FileTime loaded = Files.getLastModifiedTime(file);
+        PricingEngine pricing = new PricingEngine(MainCode.ROOM_TYPES, SeasonCalendar.shared());
+        PricingRules first = PricingRules.load(file);
+        pricing.setRules(first);
+        long version = pricing.version();
+
+        Thread watcher = PricingRules.watch(file, pricing, 5, loaded);
+        try {
+            Thread.sleep(100);
+            assertEquals(version, pricing.version());
+            assertSame(first, pricing.rules());
+
+            Files.writeString(file, "nights>=7 => -10%\n");
+            Files.setLastModifiedTime(file, FileTime.fromMillis(loaded.toMillis() + 60_000));
+            waitFor(() -> pricing.version() != version);
+            assertEquals(-10, pricing.rules().percent(0, 0, 0, 7, false));
+        } finally {
+            watcher.interrupt();
+            watcher.join(5_000);
+        }
+    }
+
+    @Test
+    void badEditKeepsTheRulesInUse() throws Exception {
+        Path file = dir.resolve("rules.txt");
+        Files.writeString(file, "nights>=7 => -5%\n");
+        FileTime loaded = Files.getLastModifiedTime(file);
+        PricingEngine pricing = new PricingEngine(MainCode.ROOM_TYPES, SeasonCalendar.shared());
+        pricing.setRules(PricingRules.load(file));
+        long version = pricing.version();
+
+        Thread watcher = PricingRules.watch(file, pricing, 5, loaded);
+        try {
+            Files.writeString(file, "nights>=7 => lots\n");
+            Files.setLastModifiedTime(file, FileTime.fromMillis(loaded.toMillis() + 60_000));
+            Thread.sleep(100);
+            assertEquals(version, pricing.version());
+            assertEquals(-5, pricing.rules().percent(0, 0, 0, 7, false));
+        } finally {
+            watcher.interrupt();
+            watcher.join(5_000);
+        }
+    }
+
+    private static void waitFor(BooleanSupplier done) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!done.getAsBoolean()) {
+            if (System.nanoTime() - deadline >= 0) throw new AssertionError("timed out");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package finalproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class QuoteCacheTest {
+
+    private static final int TODAY = PackedDate.today();
+    private static final long TTL = 60_000_000_000L;
+    private static final String HERE = "Japan";
+
+    private final RoomInventory inventory = new RoomInventory(RoomRegistry.shared(), PackedDate.toDays(TODAY) - 1, 400);
+    private final PricingEngine pricing = new PricingEngine(MainCode.ROOM_TYPES, SeasonCalendar.shared());
+
+    private static BookingRequest request(String booker, String destination, int daysAhead, int nights, int adults) {
+        long in = PackedDate.toDays(TODAY) + daysAhead;
+        return new BookingRequest(booker, booker + "@example.com", "09170000000", 30, TODAY, destination,
+                PackedDate.fromDays(in), PackedDate.fromDays(in + nights), adults, null, 1, null, null, 0, null);
+    }
+
+    // what the cache holds does not matter here, only whether it comes back
+    private static BookingQuote quoteFor(BookingRequest req) {
+        return BookingQuote.denied(req, DenialReason.NO_ROOMS_AVAILABLE, req.destination);
+    }
+
+    private void put(QuoteCache cache, BookingRequest req) {
+        cache.put(req, quoteFor(req), cache.stamp(), pricing.version());
+    }
+
+    // takes a room of the first type at the destination for [daysAhead, daysAhead + nights)
+    private void book(String destination, int daysAhead, int nights) {
+        int property = inventory.registry.property(destination);
+        long in = PackedDate.toDays(TODAY) + daysAhead;
+        int[] room = {inventory.firstRoom(property, 0)};
+        assertTrue(inventory.reserveAll(room, 1, in, in + nights));
+    }
+
+    private static String elsewhere() {
+        for (String d : MainCode.LOCAL_DESTINATIONS) if (!d.equals(HERE)) return d;
+        throw new AssertionError("only one destination");
+    }
+
+    @Test
+    void sameShapeHitsWhateverTheBooker() {
+        QuoteCache cache = new QuoteCache(inventory, pricing, 1_000, TTL);
+        BookingRequest asked = request("ana", HERE, 10, 3, 2);
+        put(cache, asked);
+        BookingQuote other = cache.get(request("ben", HERE, 10, 3, 2));
+        assertNotNull(other);
+        assertEquals("ben", other.request.bookerName);
+        assertNull(cache.get(request("ana", HERE, 10, 3, 3)));
+        assertNull(cache.get(request("ana", HERE, 11, 3, 2)));
+        assertEquals(1, cache.hits());
+        assertSame(asked, cache.get(asked).request);
+    }
+
+    @Test
+    void aBookingDropsOnlyTheQuotesOfItsNightsAndHotel() {
+        QuoteCache cache = new QuoteCache(inventory, pricing, 1_000, TTL);
+        BookingRequest overlapping = request("a", HERE, 10, 3, 2), before = request("b", HERE, 5, 5, 2),
+                after = request("c", HERE, 13, 2, 2), otherHotel = request("d", elsewhere(), 10, 3, 2);
+        for (BookingRequest r : new BookingRequest[]{overlapping, before, after, otherHotel}) put(cache, r);
+
+        book(HERE, 12, 1);  // night 12 only
+        assertNull(cache.get(overlapping));
+        assertNotNull(cache.get(before));     // nights 5..9
+        assertNotNull(cache.get(after));      // nights 13..14
+        assertNotNull(cache.get(otherHotel));
+        assertEquals(1, cache.invalidations());
+    }
+
+    @Test
+    void aQuotePricedWhileItsNightsChangedIsNotKept() {
+        QuoteCache cache = new QuoteCache(inventory, pricing, 1_000, TTL);
+        BookingRequest req = request("a", HERE, 10, 3, 2);
+        long stamp = cache.stamp();
+        book(HERE, 11, 1);  // lands while the quote is being worked out
+        cache.put(req, quoteFor(req), stamp, pricing.version());
+        assertNull(cache.get(req));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void newPricesDropEveryQuote() {
+        QuoteCache cache = new QuoteCache(inventory, pricing, 1_000, TTL);
+        BookingRequest req = request("a", HERE, 10, 3, 2);
+        put(cache, req);
+        pricing.setRules(PricingRules.parse("nights>=2 => -5%", "test"));
+        assertNull(cache.get(req));
+    }
+
+    @Test
+    void entriesExpire() throws InterruptedException {
+        QuoteCache cache = new QuoteCache(inventory, pricing, 1_000, 1_000_000L);
+        BookingRequest req = request("a", HERE, 10, 3, 2);
+        put(cache, req);
+        Thread.sleep(5);
+        assertNull(cache.get(req));
+        assertEquals(1, cache.expirations());
+    }
+
+    @Test
+    void popularQuotesOutliveAScanOfOneOffs() {
+        QuoteCache cache = new QuoteCache(inventory, pricing, 160, TTL);
+        BookingRequest[] popular = new BookingRequest[20];
+        for (int i = 0; i < popular.length; i++) {
+            popular[i] = request("p", HERE, 1 + i, 2, 2);
+            put(cache, popular[i]);
+        }
+        for (int round = 0; round < 5; round++) for (BookingRequest r : popular) assertNotNull(cache.get(r));
+
+        // a scan of one-off stays, each asked for once, several times the cache's size
+        for (int i = 0; i < 2_000; i++) {
+            BookingRequest once = request("s", HERE, 1 + i % 300, 1 + i / 300, 1 + i % 2);
+            cache.get(once);
+            put(cache, once);
+            assertTrue(cache.size() <= 160);
+        }
+        int kept = 0;
+        for (BookingRequest r : popular) if (cache.get(r) != null) kept++;
+        assertTrue(kept >= popular.length * 3 / 4, kept + " of " + popular.length + " popular quotes kept");
+        assertTrue(cache.evictions() > 0);
+    }
+}
@@ -0,0 +1,111 @@
+package finalproject;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ReceiptRendererTest {
+
+    private static final int TODAY = PackedDate.today();
+
+    private static final RoomInventory INVENTORY = new RoomInventory(RoomRegistry.shared(), PackedDate.toDays(TODAY) - 1, 400);
+    private static final BookingEngine ENGINE = new BookingEngine(INVENTORY, PricingEngine.shared());
+
+    // a paid booking for two, with one peso of change
+    private static BookingConfirmation booking(String name, int daysAhead) {
+        long in = PackedDate.toDays(TODAY) + daysAhead;
+        BookingQuote q = ENGINE.hold(new BookingRequest(name, "guest@example.com", "09170000000", 30, TODAY, "Japan",
+                PackedDate.fromDays(in), PackedDate.fromDays(in + 3), 2, null, 1, null, null, 0, null));
+        assertTrue(q.ok(), q.denialMessage);
+        BookingConfirmation c = ENGINE.confirm(q.holdId, Payment.cash(q.grandTotal + Money.CENTAVOS_PER_PESO));
+        assertTrue(c.ok(), c.denialMessage);
+        return c;
+    }
+
+    private static String render(BookingConfirmation c, ReceiptRenderer.Format format) throws IOException {
+        StringWriter out = new StringWriter();
+        new ReceiptRenderer(INVENTORY).render(c, format, out);
+        return out.toString();
+    }
+
+    private static String pesos(long centavos) {
+        return centavos / Money.CENTAVOS_PER_PESO + "." + String.format("%02d", centavos % Money.CENTAVOS_PER_PESO);
+    }
+
+    @Test
+    void jsonParsesBackToTheBooking() throws IOException {
+        String name = "Ana \"Quote\" \\ Cruz\n\t\u0001 ñ";
+        BookingConfirmation c = booking(name, 10);
+        String json = render(c, ReceiptRenderer.Format.JSON);
+        assertTrue(json.endsWith("}\n"));
+
+        Map<String, Object> o = Json.asObject(Json.parse(json), "receipt");
+        assertEquals(c.bookingId, Json.requiredNumber(o, "bookingId"));
+        assertEquals(name, Json.requiredString(Json.asObject(o.get("booker"), "booker"), "name"));
+        assertEquals(PackedDate.toIso(c.quote.request.checkIn), Json.requiredString(o, "checkIn"));
+        assertEquals(c.quote.grandTotal, Json.money(o, "grandTotal"));
+        assertEquals(c.quote.roomSubtotal, Json.money(o, "roomSubtotal"));
+        assertEquals(Money.CENTAVOS_PER_PESO, Json.money(Json.asObject(o.get("payment"), "payment"), "change"));
+        List<Object> rooms = Json.array(o, "rooms");
+        assertEquals(c.quote.rooms.length, rooms.size());
+    }
+
+    @Test
+    void csvQuotesOnlyWhatNeedsIt() throws IOException {
+        BookingConfirmation plain = booking("Ana Cruz", 20), awkward = booking("Cruz, \"Ana\"", 30);
+        String row = render(plain, ReceiptRenderer.Format.CSV);
+        assertTrue(row.startsWith(plain.bookingId + "," + plain.quote.holdId + ",Ana Cruz,guest@example.com,"), row);
+        assertTrue(row.endsWith(",CASH," + pesos(plain.amountPaid) + "," + pesos(plain.change) + "\n"), row);
+        String quoted = render(awkward, ReceiptRenderer.Format.CSV);
+        assertTrue(quoted.contains(",\"Cruz, \"\"Ana\"\"\",guest@example.com,"), quoted);
+
+        StringWriter all = new StringWriter();
+        new ReceiptRenderer(INVENTORY).renderAll(Arrays.asList(plain, awkward), ReceiptRenderer.Format.CSV, all);
+        assertEquals(ReceiptRenderer.CSV_HEADER + "\n" + row + quoted, all.toString());
+    }
+
+    @Test
+    void textReceiptHasTheTotals() throws IOException {
+        BookingConfirmation c = booking("Ana Cruz", 40);
+        String text = render(c, ReceiptRenderer.Format.TEXT);
+        assertEquals(text, ReceiptRenderer.text(c, INVENTORY));
+        assertTrue(text.contains("Booker: Ana Cruz\n"));
+        assertTrue(text.contains("Nights: 3\n"));
+        assertTrue(text.contains("GRAND TOTAL: PHP " + pesos(c.quote.grandTotal) + "\n"));
+        assertTrue(text.contains("Change Returned: PHP 1.00\n"));
+    }
+
+    @Test
+    void bytesMatchTheWriterAcrossBufferRefills() throws IOException {
+        // long enough to fill the renderer's buffer several times, with surrogate pairs all
+        // through it so that refills split some of them
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 12_000; i++) name.append(i % 3 == 0 ? "🏨" : "é");
+        BookingConfirmation c = booking(name.toString(), 50);
+        ReceiptRenderer renderer = new ReceiptRenderer(INVENTORY);
+        for (ReceiptRenderer.Format format : ReceiptRenderer.Format.values()) {
+            byte[] expected = render(c, format).getBytes(StandardCharsets.UTF_8);
+            ByteBuffer out = ByteBuffer.allocate(expected.length);
+            renderer.render(c, format, out);
+            assertEquals(expected.length, out.position(), format.name());
+            assertArrayEquals(expected, out.array(), format.name());
+        }
+    }
+
+    @Test
+    void deniedBookingsHaveNoReceipt() {
+        BookingConfirmation denied = BookingConfirmation.denied(null, DenialReason.HOLD_NOT_FOUND, 1L);
+        assertThrows(IllegalArgumentException.class,
+                () -> new ReceiptRenderer(INVENTORY).render(denied, ReceiptRenderer.Format.JSON, new StringWriter()));
+    }
+}
@@ -0,0 +1,118 @@
+package finalproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class RoomInventoryTest {
+
+    private static final long ORIGIN = 20_000;
+    private static final int TYPE = 0;
+
+    // 4 rooms of every type at every destination, 300 nights from ORIGIN
+    private static RoomInventory inventory() {
+        int[] perType = new int[MainCode.ROOM_TYPES.length];
+        Arrays.fill(perType, 4);
+        return new RoomInventory(perType, ORIGIN, 300);
+    }
+
+    private static int[] rooms(RoomInventory inv, int count) {
+        int[] rooms = new int[count];
+        for (int i = 0; i < count; i++) rooms[i] = inv.firstRoom(0, TYPE) + i;
+        return rooms;
+    }
+
+    @Test
+    void reserveAllTakesEveryRoomOrNone() {
+        RoomInventory inv = inventory();
+        int[] rooms = rooms(inv, 3);
+        assertTrue(inv.reserveAll(rooms, 3, ORIGIN + 10, ORIGIN + 13));
+        for (int r : rooms) assertFalse(inv.isFree(r, ORIGIN + 10, ORIGIN + 13));
+        assertEquals(9, inv.bookedNights());
+        assertEquals(3, inv.takenRooms(0, TYPE, 10));
+        inv.releaseAll(rooms, 3, ORIGIN + 10, ORIGIN + 13);
+        assertEquals(0, inv.bookedNights());
+        assertEquals(0, inv.takenRooms(0, 10));
+    }
+
+    @Test
+    void reserveAllRollsBackOnAClash() {
+        RoomInventory inv = inventory();
+        int[] rooms = rooms(inv, 3);
+        // the last room is taken on one night in the middle of the stay
+        assertTrue(inv.reserve(rooms[2], ORIGIN + 11, ORIGIN + 12));
+
+        assertFalse(inv.reserveAll(rooms, 3, ORIGIN + 10, ORIGIN + 13));
+        assertTrue(inv.isFree(rooms[0], ORIGIN + 10, ORIGIN + 13));
+        assertTrue(inv.isFree(rooms[1], ORIGIN + 10, ORIGIN + 13));
+        // the rollback clears what it set, not the night that was there before
+        assertTrue(inv.isFree(rooms[2], ORIGIN + 10, ORIGIN + 11));
+        assertFalse(inv.isFree(rooms[2], ORIGIN + 11, ORIGIN + 12));
+        assertTrue(inv.isFree(rooms[2], ORIGIN + 12, ORIGIN + 13));
+        assertEquals(1, inv.bookedNights());
+        assertTakenCountsMatchBitmap(inv);
+    }
+
+    @Test
+    void reserveAllRollsBackAcrossWords() {
+        RoomInventory inv = inventory();
+        int[] rooms = rooms(inv, 4);
+        // a 150-night stay spans three words per room; the clash is in the third word of the
+        // third room, after that room's first two words were set
+        assertTrue(inv.reserve(rooms[2], ORIGIN + 140, ORIGIN + 141));
+        assertFalse(inv.reserveAll(rooms, 4, ORIGIN + 5, ORIGIN + 155));
+        for (int i = 0; i < 4; i++) {
+            if (i != 2) assertTrue(inv.isFree(rooms[i], ORIGIN + 5, ORIGIN + 155));
+        }
+        assertTrue(inv.isFree(rooms[2], ORIGIN + 5, ORIGIN + 140));
+        assertTrue(inv.isFree(rooms[2], ORIGIN + 141, ORIGIN + 155));
+        assertEquals(1, inv.bookedNights());
+        assertTakenCountsMatchBitmap(inv);
+
+        // and the same rooms can be held once the clash is gone
+        inv.release(rooms[2], ORIGIN + 140, ORIGIN + 141);
+        assertTrue(inv.reserveAll(rooms, 4, ORIGIN + 5, ORIGIN + 155));
+        assertEquals(4 * 150, inv.bookedNights());
+        assertTakenCountsMatchBitmap(inv);
+    }
+
+    @Test
+    void reserveAllOfARoomTwiceFails() {
+        RoomInventory inv = inventory();
+        int room = inv.firstRoom(0, TYPE);
+        assertFalse(inv.reserveAll(new int[]{room, room}, 2, ORIGIN + 1, ORIGIN + 3));
+        assertTrue(inv.isFree(room, ORIGIN + 1, ORIGIN + 3));
+        assertEquals(0, inv.bookedNights());
+    }
+
+    @Test
+    void listenersHearOfARolledBackHold() {
+        RoomInventory inv = inventory();
+        int[] rooms = rooms(inv, 2);
+        assertTrue(inv.reserve(rooms[1], ORIGIN + 2, ORIGIN + 3));
+        int[] heard = new int[1];
+        inv.addListener((room, inDay, outDay) -> heard[0]++);
+        assertFalse(inv.reserveAll(rooms, 2, ORIGIN + 1, ORIGIN + 4));
+        // rooms[0] was taken for a moment; one type, so one event
+        assertEquals(1, heard[0]);
+    }
+
+    // every property, type and night: the kept count is what the bitmap says
+    private static void assertTakenCountsMatchBitmap(RoomInventory inv) {
+        for (int p = 0; p < inv.registry.propertyCount(); p++) {
+            for (int t = 0; t < MainCode.ROOM_TYPES.length; t++) {
+                for (int n = 0; n < inv.horizon; n++) {
+                    long day = inv.originDay + n;
+                    int taken = 0;
+                    for (int r = inv.firstRoom(p, t), end = r + inv.roomCount(p, t); r < end; r++) {
+                        if (!inv.isFree(r, day, day + 1)) taken++;
+                    }
+                    assertEquals(taken, inv.takenRooms(p, t, n), "property " + p + ", type " + t + ", night " + n);
+                }
+            }
+        }
+    }
+}
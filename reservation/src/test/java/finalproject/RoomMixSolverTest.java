@@ -0,0 +1,118 @@
+package finalproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import finalproject.MainCode.RoomType;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class RoomMixSolverTest {
+
+    private static final int TYPES = MainCode.ROOM_TYPES.length;
+
+    // cheapest cost over every mix within the availability, or -1 when none fits
+    private static long bruteForce(int guests, int numRooms, long[] cost, long bedCost, int[] available) {
+        int[] counts = new int[TYPES];
+        long best = -1;
+        while (true) {
+            int rooms = 0, cap = 0, slots = 0;
+            long total = 0;
+            for (int t = 0; t < TYPES; t++) {
+                RoomType rt = MainCode.ROOM_TYPES[t];
+                rooms += counts[t];
+                cap += counts[t] * rt.capacity;
+                slots += counts[t] * rt.extraBedsAllowed;
+                total += counts[t] * cost[t];
+            }
+            int beds = Math.max(0, guests - cap);
+            if (rooms > 0 && (numRooms <= 0 || rooms == numRooms) && beds <= slots) {
+                total += beds * bedCost;
+                if (best < 0 || total < best) best = total;
+            }
+            int t = 0;
+            while (t < TYPES && counts[t] == available[t]) counts[t++] = 0;
+            if (t == TYPES) return best;
+            counts[t]++;
+        }
+    }
+
+    @Test
+    void cheapestMatchesBruteForce() {
+        Random rnd = new Random(42);
+        RoomMixSolver solver = new RoomMixSolver(PricingEngine.shared(), 64);
+        for (int run = 0; run < 2_000; run++) {
+            int guests = 1 + rnd.nextInt(14);
+            int numRooms = rnd.nextInt(3) == 0 ? 0 : 1 + rnd.nextInt(5);
+            long bedCost = rnd.nextBoolean() ? 0 : rnd.nextInt(3_000_00);
+            long[] cost = new long[TYPES];
+            int[] available = new int[TYPES];
+            for (int t = 0; t < TYPES; t++) {
+                cost[t] = 1_000_00 + rnd.nextInt(20_000_00);
+                available[t] = rnd.nextInt(4);
+            }
+            long expected = bruteForce(guests, numRooms, cost, bedCost, available);
+            RoomMixSolver.RoomMix[] mixes = solver.solve(guests, numRooms, cost, bedCost, available, 3);
+            String what = "run " + run + ": " + guests + " guests, " + numRooms + " rooms";
+            if (expected < 0) {
+                assertEquals(0, mixes.length, what);
+                continue;
+            }
+            assertTrue(mixes.length > 0, what);
+            assertEquals(expected, mixes[0].cost, what);
+            for (int i = 1; i < mixes.length; i++) assertTrue(mixes[i - 1].cost <= mixes[i].cost, what);
+            for (RoomMixSolver.RoomMix m : mixes) {
+                int cap = 0, slots = 0;
+                for (int t = 0; t < TYPES; t++) {
+                    assertTrue(m.counts[t] <= available[t], what);
+                    cap += m.counts[t] * MainCode.ROOM_TYPES[t].capacity;
+                    slots += m.counts[t] * MainCode.ROOM_TYPES[t].extraBedsAllowed;
+                }
+                assertTrue(cap + m.extraBeds >= guests && m.extraBeds <= slots, what);
+                if (numRooms > 0) assertEquals(numRooms, m.rooms(), what);
+            }
+        }
+    }
+
+    @Test
+    void nothingFitsWithoutRooms() {
+        RoomMixSolver solver = new RoomMixSolver(PricingEngine.shared(), 16);
+        long[] cost = new long[TYPES];
+        Arrays.fill(cost, 1_000_00);
+        assertNull(solver.cheapest(4, 0, cost, 0, new int[TYPES]));
+    }
+
+    @Test
+    void fullMemoKeepsTheAnswersInUse() {
+        RoomMixSolver solver = new RoomMixSolver(PricingEngine.shared(), 8);
+        int[] available = new int[TYPES];
+        Arrays.fill(available, 3);
+        long[] hotCost = new long[TYPES];
+        Arrays.fill(hotCost, 5_000_00);
+        RoomMixSolver.RoomMix[] hot = solver.solve(4, 0, hotCost, 0, available, 1);
+
+        // a stream of one-off stays at other prices, with the hot one asked for in between
+        for (int i = 0; i < 100; i++) {
+            long[] cost = new long[TYPES];
+            Arrays.fill(cost, 1_000_00 + i);
+            solver.solve(4, 0, cost, 0, available, 1);
+            assertTrue(solver.cachedEntries() <= 8);
+            assertSame(hot, solver.solve(4, 0, hotCost, 0, available, 1), "hot answer solved again at " + i);
+        }
+
+        // one nobody asks for again is pushed out
+        long[] once = new long[TYPES];
+        Arrays.fill(once, 9_000_00);
+        RoomMixSolver.RoomMix[] first = solver.solve(4, 0, once, 0, available, 1);
+        for (int i = 0; i < 16; i++) {
+            long[] cost = new long[TYPES];
+            Arrays.fill(cost, 2_000_00 + i);
+            solver.solve(4, 0, cost, 0, available, 1);
+        }
+        assertNotSame(first, solver.solve(4, 0, once, 0, available, 1));
+    }
+}
@@ -0,0 +1,120 @@
+package finalproject;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import finalproject.MainCode.Season;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class SeasonCalendarTest {
+
+    private static final Season[] SEASONS = Season.values();
+
+    // a leap year between common ones
+    private static final SeasonCalendar CALENDAR = new SeasonCalendar(2023, 2026);
+
+    // nights of each season in [inDay, outDay), one night at a time
+    private static int[] countNights(long inDay, long outDay) {
+        int[] counts = new int[SEASONS.length];
+        for (long d = inDay; d < outDay; d++) {
+            int date = PackedDate.fromDays(d);
+            counts[MainCode.seasonForMonthDay(PackedDate.month(date), PackedDate.day(date)).ordinal()]++;
+        }
+        return counts;
+    }
+
+    @Test
+    void everyDayHasItsMonthDaysSeason() {
+        assertEquals(PackedDate.toDays(2023, 1, 1), CALENDAR.firstDay);
+        assertEquals(365 + 366 + 365 + 365, CALENDAR.length);
+        for (long d = CALENDAR.firstDay; d < CALENDAR.firstDay + CALENDAR.length; d++) {
+            int date = PackedDate.fromDays(d);
+            Season expected = MainCode.seasonForMonthDay(PackedDate.month(date), PackedDate.day(date));
+            assertEquals(expected, CALENDAR.seasonOn(d), PackedDate.toIso(date));
+            assertEquals(expected.ordinal(), CALENDAR.seasonOrdinalOn(d), PackedDate.toIso(date));
+        }
+        assertFalse(CALENDAR.covers(CALENDAR.firstDay - 1));
+        assertFalse(CALENDAR.covers(CALENDAR.firstDay + CALENDAR.length));
+    }
+
+    @Test
+    void staysAreCountedNightByNight() {
+        Random rnd = new Random(3);
+        int[] counts = new int[SEASONS.length];
+        for (int i = 0; i < 20_000; i++) {
+            long in = CALENDAR.firstDay + rnd.nextInt(CALENDAR.length);
+            long out = Math.min(in + rnd.nextInt(i % 50 == 0 ? 800 : 30), CALENDAR.firstDay + CALENDAR.length);
+            assertTrue(CALENDAR.coversStay(in, out));
+            int[] expected = countNights(in, out);
+            String what = PackedDate.toIso(PackedDate.fromDays(in)) + " for " + (out - in);
+
+            CALENDAR.nightsBySeason(in, out, counts);
+            assertArrayEquals(expected, counts, what);
+            int highest = 0;
+            for (Season s : SEASONS) {
+                assertEquals(expected[s.ordinal()], CALENDAR.nightsOf(s, in, out), what);
+                if (expected[s.ordinal()] > 0) highest = s.ordinal();
+            }
+            assertEquals(SEASONS[highest], CALENDAR.seasonForStay(in, out), what);
+        }
+        assertEquals(Season.LEAN, CALENDAR.seasonForStay(CALENDAR.firstDay + 10, CALENDAR.firstDay + 10));
+        assertFalse(CALENDAR.coversStay(CALENDAR.firstDay - 1, CALENDAR.firstDay + 3));
+        assertFalse(CALENDAR.coversStay(CALENDAR.firstDay, CALENDAR.firstDay + CALENDAR.length + 1));
+    }
+
+    @Test
+    void pricesMatchTheNightlyRatesInAndOutOfTheWindow() {
+        PricingEngine pricing = new PricingEngine(MainCode.ROOM_TYPES, CALENDAR);
+        Random rnd = new Random(5);
+        int[] counts = new int[SEASONS.length];
+        for (int i = 0; i < 2_000; i++) {
+            // some stays start before the window or run past it, and are priced night by night
+            long in = CALENDAR.firstDay - 40 + rnd.nextInt(CALENDAR.length + 80);
+            long out = in + 1 + rnd.nextInt(60);
+            int type = rnd.nextInt(pricing.typeCount());
+            boolean international = rnd.nextBoolean();
+            long expected = 0;
+            for (long d = in; d < out; d++) {
+                int date = PackedDate.fromDays(d);
+                expected += pricing.nightlyRate(type, international,
+                        MainCode.seasonForMonthDay(PackedDate.month(date), PackedDate.day(date)));
+            }
+            assertEquals(expected, pricing.stayPrice(type, in, out, international), "stay from day " + in);
+            pricing.nightsBySeason(in, out, counts);
+            assertArrayEquals(countNights(in, out), counts, "stay from day " + in);
+        }
+    }
+
+    @Test
+    void writtenAndReadBackIsTheSame() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CALENDAR.writeTo(new DataOutputStream(bytes));
+        ByteBuffer in = ByteBuffer.wrap(bytes.toByteArray());
+        SeasonCalendar read = SeasonCalendar.readFrom(in);
+        assertEquals(0, in.remaining());
+        assertEquals(CALENDAR.firstYear, read.firstYear);
+        assertEquals(CALENDAR.lastYear, read.lastYear);
+        int[] a = new int[SEASONS.length], b = new int[SEASONS.length];
+        for (long d = CALENDAR.firstDay; d < CALENDAR.firstDay + CALENDAR.length; d += 7) {
+            assertEquals(CALENDAR.seasonOn(d), read.seasonOn(d));
+            CALENDAR.nightsBySeason(CALENDAR.firstDay, d, a);
+            read.nightsBySeason(CALENDAR.firstDay, d, b);
+            assertArrayEquals(a, b);
+        }
+    }
+
+    @Test
+    void windowMustBeInRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SeasonCalendar(0, 2000));
+        assertThrows(IllegalArgumentException.class, () -> new SeasonCalendar(2000, 9999));
+        assertThrows(IllegalArgumentException.class, () -> new SeasonCalendar(2001, 2000));
+    }
+}
@@ -0,0 +1,107 @@
+package finalproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Test;
+
+class ShardedBookingExecutorTest {
+
+    private static final int TODAY = PackedDate.today();
+
+    private static BookingEngine engine() {
+        RoomInventory inventory = new RoomInventory(RoomRegistry.shared(), PackedDate.toDays(TODAY) - 1, 400);
+        return new BookingEngine(inventory, PricingEngine.shared());
+    }
+
+    // one room for one guest, one night, daysAhead from today
+    private static BookingRequest request(int daysAhead) {
+        long in = PackedDate.toDays(TODAY) + daysAhead;
+        return new BookingRequest("Guest", "guest@example.com", "09170000000", 30, TODAY, "Japan",
+                PackedDate.fromDays(in), PackedDate.fromDays(in + 1), 1, null, 1, null, null, 0, null);
+    }
+
+    @Test
+    void fullQueueAnswersShardBusy() throws Exception {
+        BookingEngine engine = engine();
+        CountDownLatch entered = new CountDownLatch(1), release = new CountDownLatch(1);
+        // the first hold's rooms are taken on the shard thread, which then waits here
+        engine.inventory().addListener((room, inDay, outDay) -> {
+            if (entered.getCount() == 0) return;
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try (ShardedBookingExecutor shards = new ShardedBookingExecutor(engine, 2, 0)) {
+            int property = engine.inventory().registry.property("Japan");
+            CompletableFuture<BookingQuote> running = shards.hold(request(10));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+            // the queue takes two more, the next is turned away at once
+            CompletableFuture<BookingQuote> a = shards.hold(request(11)), b = shards.hold(request(12));
+            BookingQuote busy = shards.hold(request(13)).getNow(null);
+            assertEquals(DenialReason.SHARD_BUSY, busy.denial);
+            assertEquals(1, shards.rejected(property));
+            assertEquals(2, shards.queueDepth(property));
+
+            release.countDown();
+            assertTrue(running.get(5, TimeUnit.SECONDS).ok());
+            assertTrue(a.get(5, TimeUnit.SECONDS).ok());
+            assertTrue(b.get(5, TimeUnit.SECONDS).ok());
+        }
+    }
+
+    @Test
+    void closeCompletesEveryAcceptedTask() throws Exception {
+        BookingEngine engine = engine();
+        ShardedBookingExecutor shards = new ShardedBookingExecutor(engine, 64, 0);
+        List<List<CompletableFuture<BookingQuote>>> accepted = new ArrayList<>();
+        List<Thread> submitters = new ArrayList<>();
+        CountDownLatch started = new CountDownLatch(4);
+        for (int i = 0; i < 4; i++) {
+            List<CompletableFuture<BookingQuote>> mine = new ArrayList<>();
+            accepted.add(mine);
+            int offset = i;
+            Thread t = new Thread(() -> {
+                started.countDown();
+                for (int n = 0; ; n++) {
+                    try {
+                        mine.add(shards.hold(request(1 + (offset * 50 + n) % 300)));
+                    } catch (RejectedExecutionException e) {
+                        return;
+                    }
+                }
+            });
+            submitters.add(t);
+            t.start();
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Thread.sleep(20);
+        shards.close();
+        for (Thread t : submitters) t.join(5_000);
+
+        // each future ends, with an answer or RejectedExecutionException; none is left hanging
+        for (List<CompletableFuture<BookingQuote>> mine : accepted) {
+            for (CompletableFuture<BookingQuote> f : mine) {
+                try {
+                    f.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof RejectedExecutionException, e.getCause().toString());
+                } catch (TimeoutException e) {
+                    throw new AssertionError("a submitted hold never completed", e);
+                }
+            }
+        }
+    }
+}